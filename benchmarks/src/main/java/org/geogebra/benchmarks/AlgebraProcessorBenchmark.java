@@ -0,0 +1,53 @@
+package org.geogebra.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.geogebra.common.kernel.commands.AlgebraProcessor;
+import org.geogebra.common.kernel.kernelND.GeoElementND;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Processing of algebra input: parsing, command dispatch, creating and
+ * labeling the objects. The objects are removed again in each invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AlgebraProcessorBenchmark {
+
+	/** algebra input */
+	@Param({ "A = (1, 2)", "f(x) = x^3 - 2x + 1", "c = Circle((0, 0), 3)",
+			"l = {1, 2, 3, 4, 5} / 2",
+			"s = Sum(Sequence(k^2, k, 1, 100))",
+			"p = Polygon((0, 0), (4, 0), (4, 3), (0, 3))" })
+	public String input;
+
+	private AlgebraProcessor processor;
+
+	/**
+	 * Creates the app.
+	 */
+	@Setup
+	public void setup() {
+		processor = Headless.newApp().getKernel().getAlgebraProcessor();
+	}
+
+	/**
+	 * @return created objects
+	 */
+	@Benchmark
+	public GeoElementND[] processAlgebraCommand() {
+		GeoElementND[] geos = processor.processAlgebraCommand(input, false);
+		for (GeoElementND geo : geos) {
+			geo.remove();
+		}
+		return geos;
+	}
+}
@@ -0,0 +1,48 @@
+package org.geogebra.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.geogebra.common.kernel.Construction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Update of all algorithms of a construction from the corpus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConstructionBenchmark {
+
+	/** file in the corpus */
+	@Param({ "Agnesi-witch.ggb", "linkage-Chebyshev.ggb", "string-art.ggb",
+			"Steiner-deltoid.ggb" })
+	public String file;
+
+	private Construction cons;
+
+	/**
+	 * Loads the file.
+	 * 
+	 * @throws Exception
+	 *             if the file can't be loaded
+	 */
+	@Setup
+	public void setup() throws Exception {
+		cons = Corpus.load(file).getKernel().getConstruction();
+	}
+
+	/**
+	 * Updates the construction.
+	 */
+	@Benchmark
+	public void updateConstruction() {
+		cons.updateConstruction(false);
+	}
+}
@@ -0,0 +1,76 @@
+package org.geogebra.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.geogebra.common.main.App;
+
+/**
+ * Corpus of .ggb files the benchmarks run against. The directory is given by
+ * the system property {@value #DIRECTORY_PROPERTY}, which the jmh task of the
+ * build passes to the forked JVMs.
+ */
+public final class Corpus {
+
+	/** system property with the corpus directory */
+	public static final String DIRECTORY_PROPERTY = "ggb.corpus";
+
+	private Corpus() {
+		// utility class
+	}
+
+	/**
+	 * @param name
+	 *            name of a .ggb file in the corpus directory
+	 * @return construction XML of the file
+	 * @throws IOException
+	 *             if the file can't be read or contains no construction
+	 */
+	public static String readXML(String name) throws IOException {
+		String directory = System.getProperty(DIRECTORY_PROPERTY);
+		if (directory == null) {
+			throw new IOException("Corpus directory not set, run with -D"
+					+ DIRECTORY_PROPERTY + "=path/to/ggb/files");
+		}
+		File file = new File(directory, name);
+		ZipInputStream zip = new ZipInputStream(new FileInputStream(file));
+		try {
+			ZipEntry entry;
+			while ((entry = zip.getNextEntry()) != null) {
+				if ("geogebra.xml".equals(entry.getName())) {
+					return read(zip);
+				}
+			}
+		} finally {
+			zip.close();
+		}
+		throw new IOException("No geogebra.xml in " + file);
+	}
+
+	private static String read(ZipInputStream zip) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int read;
+		while ((read = zip.read(buffer)) != -1) {
+			out.write(buffer, 0, read);
+		}
+		return out.toString("UTF-8");
+	}
+
+	/**
+	 * @param name
+	 *            name of a .ggb file in the corpus directory
+	 * @return new headless app with the file loaded
+	 * @throws Exception
+	 *             if the file can't be read or loaded
+	 */
+	public static App load(String name) throws Exception {
+		App app = Headless.newApp();
+		app.getXMLio().processXMLString(readXML(name), true, false);
+		return app;
+	}
+}
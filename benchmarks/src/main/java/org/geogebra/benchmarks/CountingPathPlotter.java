@@ -0,0 +1,112 @@
+package org.geogebra.benchmarks;
+
+import org.geogebra.common.euclidian.EuclidianView;
+import org.geogebra.common.euclidian.plot.CurvePlotter.Gap;
+import org.geogebra.common.euclidian.plot.PathPlotter;
+import org.geogebra.common.kernel.MyPoint;
+import org.geogebra.common.kernel.SegmentType;
+import org.geogebra.common.kernel.Matrix.CoordSys;
+
+/**
+ * Path plotter that transforms points to screen coordinates like the
+ * drawables do, but only counts them instead of building a path, so that
+ * curve benchmarks measure the sampling rather than the graphics backend.
+ */
+public class CountingPathPlotter implements PathPlotter {
+
+	private final EuclidianView view;
+	private final double[] screen = new double[2];
+	private int points;
+	private double checksum;
+
+	/**
+	 * @param view
+	 *            view for the coordinate transform
+	 */
+	public CountingPathPlotter(EuclidianView view) {
+		this.view = view;
+	}
+
+	/**
+	 * Forgets all points.
+	 */
+	public void reset() {
+		points = 0;
+		checksum = 0;
+	}
+
+	/**
+	 * @return number of points since last reset
+	 */
+	public int getPointCount() {
+		return points;
+	}
+
+	/**
+	 * @return sum of screen coordinates since last reset
+	 */
+	public double getChecksum() {
+		return checksum;
+	}
+
+	private void add(double[] pos) {
+		screen[0] = pos[0];
+		screen[1] = pos[1];
+		view.toScreenCoords(screen);
+		checksum += screen[0] + screen[1];
+		points++;
+	}
+
+	@Override
+	public void drawTo(double[] pos, SegmentType lineTo) {
+		add(pos);
+	}
+
+	@Override
+	public void lineTo(double[] pos) {
+		add(pos);
+	}
+
+	@Override
+	public void moveTo(double[] pos) {
+		add(pos);
+	}
+
+	@Override
+	public void corner() {
+		// no path to close
+	}
+
+	@Override
+	public void corner(double[] pos) {
+		add(pos);
+	}
+
+	@Override
+	public void firstPoint(double[] pos, Gap moveToAllowed) {
+		add(pos);
+	}
+
+	@Override
+	public double[] newDoubleArray() {
+		return new double[2];
+	}
+
+	@Override
+	public boolean copyCoords(MyPoint point, double[] ret,
+			CoordSys transformSys) {
+		ret[0] = point.x;
+		ret[1] = point.y;
+		return true;
+	}
+
+	@Override
+	public void endPlot() {
+		// nothing to finish
+	}
+
+	@Override
+	public boolean supports(CoordSys transformSys) {
+		return transformSys == CoordSys.XOY;
+	}
+}
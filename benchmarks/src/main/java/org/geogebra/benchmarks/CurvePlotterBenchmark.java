@@ -0,0 +1,60 @@
+package org.geogebra.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.geogebra.common.euclidian.EuclidianView;
+import org.geogebra.common.euclidian.plot.CurvePlotter;
+import org.geogebra.common.euclidian.plot.CurvePlotter.Gap;
+import org.geogebra.common.kernel.geos.GeoFunction;
+import org.geogebra.common.main.App;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Adaptive sampling of function graphs over the visible x-range.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CurvePlotterBenchmark {
+
+	/** function of x */
+	@Param({ "x^2", "sin(x)", "1 / x", "sin(1 / x)", "floor(x)",
+			"sqrt(x^2 - 1)", "tan(x)" })
+	public String function;
+
+	private GeoFunction curve;
+	private EuclidianView view;
+	private CountingPathPlotter plotter;
+
+	/**
+	 * Creates the function.
+	 */
+	@Setup
+	public void setup() {
+		App app = Headless.newApp();
+		curve = (GeoFunction) app.getKernel().getAlgebraProcessor()
+				.processAlgebraCommand("f(x) = " + function, false)[0];
+		view = app.getEuclidianView1();
+		plotter = new CountingPathPlotter(view);
+	}
+
+	/**
+	 * @param bh
+	 *            consumes the label position and plotted points
+	 */
+	@Benchmark
+	public void plotCurve(Blackhole bh) {
+		plotter.reset();
+		bh.consume(CurvePlotter.plotCurve(curve, view.getXmin(),
+				view.getXmax(), view, plotter, true, Gap.MOVE_TO));
+		bh.consume(plotter.getChecksum());
+	}
+}
@@ -0,0 +1,59 @@
+package org.geogebra.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.geogebra.common.kernel.Kernel;
+import org.geogebra.common.kernel.StringTemplate;
+import org.geogebra.common.kernel.arithmetic.ExpressionNode;
+import org.geogebra.common.kernel.arithmetic.ExpressionNodeEvaluator;
+import org.geogebra.common.kernel.arithmetic.ExpressionValue;
+import org.geogebra.common.kernel.commands.EvalInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Evaluation of parsed expression trees.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ExpressionNodeEvaluatorBenchmark {
+
+	/** expression to evaluate */
+	@Param({ "1 + 2 * 3 - 4 / 5",
+			"sqrt(2)^3 + sin(1.3) cos(0.7) - ln(5) / exp(0.2)",
+			"(1, 2) + 3 (4, 5)", "{1, 2, 3} * 2 + {4, 5, 6}",
+			"\"a\" + 1 + \"b\"" })
+	public String expression;
+
+	private ExpressionNodeEvaluator evaluator;
+	private ExpressionNode node;
+
+	/**
+	 * Parses the expression.
+	 * 
+	 * @throws Exception
+	 *             if the expression can't be parsed
+	 */
+	@Setup
+	public void setup() throws Exception {
+		Kernel kernel = Headless.newApp().getKernel();
+		evaluator = kernel.getExpressionNodeEvaluator();
+		node = kernel.getParser().parseGeoGebraExpression(expression).wrap();
+		node.resolveVariables(new EvalInfo(false));
+	}
+
+	/**
+	 * @return value of the expression
+	 */
+	@Benchmark
+	public ExpressionValue evaluate() {
+		return evaluator.evaluate(node, StringTemplate.defaultTemplate);
+	}
+}
@@ -0,0 +1,22 @@
+package org.geogebra.benchmarks;
+
+import org.geogebra.desktop.headless.AppDNoGui;
+import org.geogebra.desktop.main.LocalizationD;
+
+/**
+ * Creates the apps the benchmarks run in.
+ */
+public final class Headless {
+
+	private Headless() {
+		// utility class
+	}
+
+	/**
+	 * @return new app without GUI and with muted logging; its graphics view
+	 *         has 800 x 600 pixels
+	 */
+	public static AppDNoGui newApp() {
+		return new AppDNoGui(new LocalizationD(3), true);
+	}
+}
@@ -0,0 +1,71 @@
+package org.geogebra.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.geogebra.common.jre.kernel.ForkJoinExecutor;
+import org.geogebra.common.kernel.Kernel;
+import org.geogebra.common.kernel.implicit.GeoImplicitCurve;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Quadtree plotting of implicit curves in the graphics view, sequentially and
+ * with the parallel executor of the kernel.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ImplicitCurveBenchmark {
+
+	/** implicit equation */
+	@Param({ "x^3 + y^3 = 3x y", "(x^2 + y^2)^2 = 8 (x^2 - y^2)",
+			"x^4 + y^4 - 2x y = 1", "sin(x) + cos(y) = 0.5" })
+	public String equation;
+
+	/** whether to evaluate the grid in parallel */
+	@Param({ "false", "true" })
+	public boolean parallel;
+
+	private GeoImplicitCurve curve;
+	private ForkJoinExecutor executor;
+
+	/**
+	 * Creates the curve.
+	 */
+	@Setup
+	public void setup() {
+		Kernel kernel = Headless.newApp().getKernel();
+		if (parallel) {
+			executor = new ForkJoinExecutor();
+			kernel.setParallelExecutor(executor);
+		}
+		curve = (GeoImplicitCurve) kernel.getAlgebraProcessor()
+				.processAlgebraCommand("c: " + equation, false)[0];
+	}
+
+	/**
+	 * Stops the worker threads.
+	 */
+	@TearDown
+	public void tearDown() {
+		if (executor != null) {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * @return number of points of the path
+	 */
+	@Benchmark
+	public int updatePath() {
+		curve.updatePath();
+		return curve.getLocus().getPointLength();
+	}
+}
@@ -0,0 +1,62 @@
+package org.geogebra.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.geogebra.common.io.MyXMLio;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Loading constructions from XML and saving them to XML.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MyXMLioBenchmark {
+
+	/** file in the corpus */
+	@Param({ "Agnesi-witch.ggb", "linkage-Chebyshev.ggb", "string-art.ggb",
+			"Steiner-deltoid.ggb" })
+	public String file;
+
+	private String xml;
+	private MyXMLio xmlio;
+
+	/**
+	 * Reads the file and loads it once.
+	 * 
+	 * @throws Exception
+	 *             if the file can't be loaded
+	 */
+	@Setup
+	public void setup() throws Exception {
+		xml = Corpus.readXML(file);
+		xmlio = Headless.newApp().getXMLio();
+		xmlio.processXMLString(xml, true, false);
+	}
+
+	/**
+	 * Replaces the construction by the file.
+	 * 
+	 * @throws Exception
+	 *             if the file can't be loaded
+	 */
+	@Benchmark
+	public void load() throws Exception {
+		xmlio.processXMLString(xml, true, false);
+	}
+
+	/**
+	 * @return XML of the construction and settings
+	 */
+	@Benchmark
+	public String save() {
+		return xmlio.getFullXML();
+	}
+}
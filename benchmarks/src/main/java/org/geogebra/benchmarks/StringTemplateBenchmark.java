@@ -0,0 +1,80 @@
+package org.geogebra.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.geogebra.common.kernel.Construction;
+import org.geogebra.common.kernel.StringTemplate;
+import org.geogebra.common.kernel.geos.GeoElement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Formatting definitions and values of all objects of a construction from the
+ * corpus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StringTemplateBenchmark {
+
+	/** file in the corpus */
+	@Param({ "Agnesi-witch.ggb", "linkage-Chebyshev.ggb", "string-art.ggb",
+			"Steiner-deltoid.ggb" })
+	public String file;
+
+	/** output format */
+	@Param({ "default", "latex", "xml", "giac", "editor" })
+	public String template;
+
+	private GeoElement[] geos;
+	private StringTemplate tpl;
+
+	/**
+	 * Loads the file and picks the template.
+	 * 
+	 * @throws Exception
+	 *             if the file can't be loaded
+	 */
+	@Setup
+	public void setup() throws Exception {
+		Construction cons = Corpus.load(file).getKernel().getConstruction();
+		geos = cons.getGeoSetConstructionOrder()
+				.toArray(new GeoElement[0]);
+		tpl = getTemplate(template);
+	}
+
+	private static StringTemplate getTemplate(String name) {
+		if ("latex".equals(name)) {
+			return StringTemplate.latexTemplate;
+		}
+		if ("xml".equals(name)) {
+			return StringTemplate.xmlTemplate;
+		}
+		if ("giac".equals(name)) {
+			return StringTemplate.giacTemplate;
+		}
+		if ("editor".equals(name)) {
+			return StringTemplate.editorTemplate;
+		}
+		return StringTemplate.defaultTemplate;
+	}
+
+	/**
+	 * @param bh
+	 *            consumes the strings
+	 */
+	@Benchmark
+	public void format(Blackhole bh) {
+		for (GeoElement geo : geos) {
+			bh.consume(geo.getDefinition(tpl));
+			bh.consume(geo.toValueString(tpl));
+		}
+	}
+}
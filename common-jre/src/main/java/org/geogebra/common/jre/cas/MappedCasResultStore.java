@@ -0,0 +1,290 @@
+package org.geogebra.common.jre.cas;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.zip.CRC32;
+
+import org.geogebra.common.kernel.CasResultStore;
+import org.geogebra.common.util.debug.Log;
+
+/**
+ * CAS results in a memory-mapped file of fixed size, so that they survive
+ * restarts. The file starts with the CAS version, results of other versions
+ * are discarded when the file is opened. The rest of the file consists of two
+ * regions, the header says which one is active. Records (key length, value
+ * length, checksum, key, value) are only appended to the active region; the
+ * lengths are written last and the checksum covers the whole record, so
+ * reading stops at the first record that was not written completely. When
+ * the region is full, the newer half of the records is copied to the other
+ * region, which becomes active once the copy is on disk.
+ */
+public class MappedCasResultStore implements CasResultStore {
+
+	/** default size of the file: 16MB */
+	public static final int DEFAULT_CAPACITY = 1 << 24;
+
+	private static final int MAGIC = 0x47434132;
+	private static final int RECORD_HEADER = 12;
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private final int capacity;
+	private final RandomAccessFile file;
+	private final FileLock lock;
+	private final MappedByteBuffer buffer;
+	/** offset of the record of every key */
+	private final HashMap<String, Integer> index = new HashMap<>();
+	private final CRC32 crc = new CRC32();
+	/** offset of the active region number */
+	private int activeOffset;
+	private int regionSize;
+	private int region;
+	private int end;
+	private boolean closed = false;
+
+	/**
+	 * Opens or creates the store.
+	 *
+	 * @param path
+	 *            file
+	 * @param version
+	 *            CAS version; results stored by other versions are dropped
+	 * @param capacity
+	 *            size of the file in bytes
+	 * @throws IOException
+	 *             if the file can't be mapped or is used by another process
+	 */
+	public MappedCasResultStore(File path, String version, int capacity)
+			throws IOException {
+		this.capacity = capacity;
+		file = new RandomAccessFile(path, "rw");
+		FileChannel channel = file.getChannel();
+		lock = channel.tryLock();
+		if (lock == null) {
+			file.close();
+			throw new IOException(path + " is used by another process");
+		}
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+		if (!readHeader(version)) {
+			writeHeader(version);
+		}
+		readRecords();
+	}
+
+	private boolean readHeader(String version) {
+		if (buffer.getInt(0) != MAGIC) {
+			return false;
+		}
+		int length = buffer.getInt(4);
+		if (length < 0 || length > capacity / 4) {
+			return false;
+		}
+		byte[] stored = new byte[length];
+		buffer.position(8);
+		buffer.get(stored);
+		setLayout(length);
+		region = buffer.getInt(activeOffset) == 1 ? 1 : 0;
+		return version.equals(new String(stored, UTF_8));
+	}
+
+	private void writeHeader(String version) {
+		byte[] bytes = version.getBytes(UTF_8);
+		buffer.putInt(0, MAGIC);
+		buffer.putInt(4, bytes.length);
+		buffer.position(8);
+		buffer.put(bytes);
+		setLayout(bytes.length);
+		region = 0;
+		buffer.putInt(activeOffset, region);
+		buffer.putInt(getRegionStart(region), 0);
+	}
+
+	private void setLayout(int versionLength) {
+		activeOffset = 8 + versionLength;
+		regionSize = (capacity - activeOffset - 4) / 2;
+	}
+
+	private int getRegionStart(int r) {
+		return activeOffset + 4 + r * regionSize;
+	}
+
+	private void readRecords() {
+		int pos = getRegionStart(region);
+		int regionEnd = pos + regionSize;
+		while (pos + RECORD_HEADER <= regionEnd) {
+			int keyLength = buffer.getInt(pos);
+			int valueLength = buffer.getInt(pos + 4);
+			if (keyLength <= 0 || valueLength < 0 || keyLength > regionEnd
+					- pos - RECORD_HEADER - valueLength) {
+				break;
+			}
+			byte[] keyBytes = readBytes(pos + RECORD_HEADER, keyLength);
+			byte[] valueBytes = readBytes(pos + RECORD_HEADER + keyLength,
+					valueLength);
+			if (buffer.getInt(pos + 8) != checksum(keyBytes, valueBytes)) {
+				// torn write, this and all later records are dropped
+				break;
+			}
+			index.put(new String(keyBytes, UTF_8), pos);
+			pos += RECORD_HEADER + keyLength + valueLength;
+		}
+		end = pos;
+		terminate();
+	}
+
+	private int checksum(byte[] key, byte[] value) {
+		crc.reset();
+		crc.update(key.length >>> 24);
+		crc.update(key.length >>> 16);
+		crc.update(key.length >>> 8);
+		crc.update(key.length);
+		crc.update(key);
+		crc.update(value);
+		return (int) crc.getValue();
+	}
+
+	private void terminate() {
+		if (end + RECORD_HEADER <= getRegionStart(region) + regionSize) {
+			buffer.putInt(end, 0);
+		}
+	}
+
+	private byte[] readBytes(int offset, int length) {
+		byte[] bytes = new byte[length];
+		buffer.position(offset);
+		buffer.get(bytes);
+		return bytes;
+	}
+
+	private String readString(int offset, int length) {
+		return new String(readBytes(offset, length), UTF_8);
+	}
+
+	private static String normalize(String input) {
+		return input.trim();
+	}
+
+	@Override
+	public synchronized String get(String input) {
+		Integer pos = closed ? null : index.get(normalize(input));
+		if (pos == null) {
+			return null;
+		}
+		int keyLength = buffer.getInt(pos);
+		return readString(pos + RECORD_HEADER + keyLength,
+				buffer.getInt(pos + 4));
+	}
+
+	@Override
+	public synchronized void put(String input, String result) {
+		String key = normalize(input);
+		if (closed || key.isEmpty() || index.containsKey(key)) {
+			return;
+		}
+		byte[] keyBytes = key.getBytes(UTF_8);
+		byte[] valueBytes = result.getBytes(UTF_8);
+		int length = RECORD_HEADER + keyBytes.length + valueBytes.length;
+		if (length > regionSize / 2) {
+			return;
+		}
+		if (end + length > getRegionStart(region) + regionSize) {
+			evict();
+		}
+		int pos = end;
+		end += length;
+		terminate();
+		buffer.position(pos + RECORD_HEADER);
+		buffer.put(keyBytes);
+		buffer.put(valueBytes);
+		buffer.putInt(pos + 8, checksum(keyBytes, valueBytes));
+		// a record counts once its lengths are written
+		buffer.putInt(pos + 4, valueBytes.length);
+		buffer.putInt(pos, keyBytes.length);
+		index.put(key, pos);
+	}
+
+	/**
+	 * Copies the newest records that fit into half of a region to the other
+	 * region and makes that one active. The active region is not changed, so
+	 * a crash during the copy keeps all records.
+	 */
+	private void evict() {
+		ArrayList<Integer> offsets = new ArrayList<>(index.values());
+		Collections.sort(offsets);
+		int limit = regionSize / 2;
+		int first = offsets.size();
+		int kept = 0;
+		while (first > 0) {
+			int pos = offsets.get(first - 1);
+			int length = recordLength(pos);
+			if (kept + length > limit) {
+				break;
+			}
+			kept += length;
+			first--;
+		}
+		int other = 1 - region;
+		int target = getRegionStart(other);
+		HashMap<String, Integer> moved = new HashMap<>();
+		byte[] record = new byte[0];
+		for (int i = first; i < offsets.size(); i++) {
+			int pos = offsets.get(i);
+			int length = recordLength(pos);
+			if (record.length < length) {
+				record = new byte[length];
+			}
+			buffer.position(pos);
+			buffer.get(record, 0, length);
+			buffer.position(target);
+			buffer.put(record, 0, length);
+			moved.put(readString(target + RECORD_HEADER, buffer.getInt(target)),
+					target);
+			target += length;
+		}
+		buffer.putInt(target, 0);
+		// switch only once the copy is on disk
+		buffer.force();
+		region = other;
+		buffer.putInt(activeOffset, region);
+		buffer.force();
+		index.clear();
+		index.putAll(moved);
+		end = target;
+		Log.debug("CAS result store: kept " + index.size() + " results");
+	}
+
+	private int recordLength(int pos) {
+		return RECORD_HEADER + buffer.getInt(pos) + buffer.getInt(pos + 4);
+	}
+
+	/**
+	 * @return number of stored results
+	 */
+	public synchronized int size() {
+		return index.size();
+	}
+
+	/**
+	 * Writes changes to disk and releases the file. Results are neither read
+	 * nor stored afterwards.
+	 *
+	 * @throws IOException
+	 *             if the file can't be closed
+	 */
+	public synchronized void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		buffer.force();
+		lock.release();
+		file.close();
+	}
+}
@@ -6,6 +6,16 @@ public interface AppDI {
 
 	void addExternalImage(String name, MyImageJre img);
 
+	/**
+	 * Adds an image that is decoded when it's first needed.
+	 * 
+	 * @param name
+	 *            file name
+	 * @param data
+	 *            encoded image (PNG, JPEG, SVG, ...)
+	 */
+	void addExternalImageData(String name, byte[] data);
+
 	void hideDockBarPopup();
 
 	void storeFrameCenter();
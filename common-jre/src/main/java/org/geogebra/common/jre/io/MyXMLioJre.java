@@ -152,6 +152,25 @@ public abstract class MyXMLioJre extends MyXMLio {
 		bs.close();
 	}
 
+	/**
+	 * Handles XML read directly from a stream (e.g. a zip entry), without
+	 * loading the whole file into memory first. Closes the stream.
+	 * 
+	 * @param is
+	 *            input stream
+	 * @param clearConstruction
+	 *            whether to clear construction
+	 * @param isGGTOrDefaults
+	 *            whether this is just ggt/defaults (no construction)
+	 * @throws Exception
+	 *             on parsing error
+	 */
+	protected void processXMLStream(InputStream is, boolean clearConstruction,
+			boolean isGGTOrDefaults) throws Exception {
+		doParseXML(new XMLStreamInputStream(is), clearConstruction,
+				isGGTOrDefaults, true, true, true);
+	}
+
 	/**
 	 * Reads from a zipped input stream that includes only the construction
 	 * saved in xml format.
@@ -0,0 +1,56 @@
+package org.geogebra.common.jre.kernel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import org.geogebra.common.kernel.ParallelExecutor;
+
+/**
+ * Executor for construction updates using a fork-join pool.
+ */
+public class ForkJoinExecutor implements ParallelExecutor {
+
+	private final ForkJoinPool pool;
+
+	/**
+	 * Creates executor with one thread per processor.
+	 */
+	public ForkJoinExecutor() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param parallelism
+	 *            number of threads
+	 */
+	public ForkJoinExecutor(int parallelism) {
+		pool = new ForkJoinPool(parallelism);
+	}
+
+	@Override
+	public void invokeAll(final List<Runnable> tasks) {
+		pool.invoke(new RecursiveAction() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void compute() {
+				ArrayList<ForkJoinTask<?>> forks = new ArrayList<>(
+						tasks.size());
+				for (Runnable task : tasks) {
+					forks.add(ForkJoinTask.adapt(task));
+				}
+				invokeAll(forks);
+			}
+		});
+	}
+
+	/**
+	 * Stops the worker threads.
+	 */
+	public void shutdown() {
+		pool.shutdown();
+	}
+}
@@ -0,0 +1,49 @@
+package org.geogebra.common.awt;
+
+public class GBasicStrokeCommon implements GBasicStroke {
+
+	private final double width;
+	private final int endCap;
+	private final int lineJoin;
+	private final double miterLimit;
+	private final double[] dash;
+
+	public GBasicStrokeCommon(double width, int endCap, int lineJoin,
+			double miterLimit, double[] dash) {
+		this.width = width;
+		this.endCap = endCap;
+		this.lineJoin = lineJoin;
+		this.miterLimit = miterLimit;
+		this.dash = dash;
+	}
+
+	@Override
+	public GShape createStrokedShape(GShape shape, int capacity) {
+		return shape;
+	}
+
+	@Override
+	public int getEndCap() {
+		return endCap;
+	}
+
+	@Override
+	public double getMiterLimit() {
+		return miterLimit;
+	}
+
+	@Override
+	public int getLineJoin() {
+		return lineJoin;
+	}
+
+	@Override
+	public double getLineWidth() {
+		return width;
+	}
+
+	@Override
+	public double[] getDashArray() {
+		return dash;
+	}
+}
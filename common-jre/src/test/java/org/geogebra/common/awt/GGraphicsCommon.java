@@ -140,6 +140,11 @@ public class GGraphicsCommon implements GGraphics2D {
         // ignore empty method
     }
 
+    @Override
+    public void dispose() {
+        // ignore empty method
+    }
+
     @Override
     public void drawRect(int x, int y, int width, int height) {
         // ignore empty method
@@ -0,0 +1,177 @@
+package org.geogebra.common.cas.giac;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.geogebra.common.BaseUnitTest;
+import org.geogebra.common.cas.CASparser;
+import org.geogebra.common.cas.error.TimeoutException;
+import org.geogebra.common.jre.kernel.ForkJoinExecutor;
+import org.geogebra.common.kernel.CASException;
+import org.geogebra.common.kernel.StringTemplate;
+import org.geogebra.common.kernel.arithmetic.ExpressionValue;
+import org.geogebra.common.kernel.arithmetic.ValidExpression;
+import org.geogebra.common.kernel.parser.ParseException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for GiacContextPool, using stub contexts instead of Giac.
+ */
+public class GiacContextPoolTest extends BaseUnitTest {
+
+	private ForkJoinExecutor executor;
+	private CASparser parser;
+
+	/**
+	 * Creates the executor.
+	 */
+	@Before
+	public void createExecutor() {
+		executor = new ForkJoinExecutor(4);
+		parser = new CASparser(getKernel().getParser(),
+				getApp().getParserFunctions());
+	}
+
+	/**
+	 * Stops the executor.
+	 */
+	@After
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	@Test
+	public void testEvaluateUsesAllContexts() {
+		StubCAS[] contexts = createContexts(4);
+		GiacContextPool pool = new GiacContextPool(contexts, executor);
+		String[] inputs = new String[32];
+		for (int i = 0; i < inputs.length; i++) {
+			// even numbers, the stub times out for inputs containing 9
+			inputs[i] = "x+" + 2 * i;
+		}
+		CASException[] errors = new CASException[inputs.length];
+		String[] results = pool.evaluate(inputs, errors);
+		int used = 0;
+		for (StubCAS context : contexts) {
+			Assert.assertFalse(context.overlapping);
+			used += context.calls.get() > 0 ? 1 : 0;
+		}
+		Assert.assertTrue(used > 1);
+		for (int i = 0; i < inputs.length; i++) {
+			Assert.assertEquals("(x+" + 2 * i + ")+1", results[i]);
+			Assert.assertNull(errors[i]);
+		}
+	}
+
+	@Test
+	public void testTimeoutIsReportedPerInput() {
+		GiacContextPool pool = new GiacContextPool(createContexts(2),
+				executor);
+		String[] inputs = { "x+1", "x+9", "x+2" };
+		CASException[] errors = new CASException[inputs.length];
+		String[] results = pool.evaluate(inputs, errors);
+		Assert.assertEquals("(x+1)+1", results[0]);
+		Assert.assertTrue(errors[1] instanceof TimeoutException);
+		Assert.assertEquals("(x+2)+1", results[2]);
+	}
+
+	@Test
+	public void testPrefetchedResultsAreUsedOnce() throws ParseException {
+		StubCAS cas = new StubCAS(parser, "");
+		GiacContextPool pool = new GiacContextPool(createContexts(2),
+				executor);
+		ArrayList<ValidExpression> inputs = new ArrayList<>();
+		inputs.add(parse("x^2+3x"));
+		inputs.add(parse("x+1"));
+		inputs.add(parse("x+9"));
+		cas.prefetch(inputs, pool);
+
+		Assert.assertEquals("x + 1 + 1", evaluate(cas, "x+1"));
+		Assert.assertEquals("x² + 3x + 1", evaluate(cas, "x^2+3x"));
+		Assert.assertEquals(0, cas.calls.get());
+		try {
+			evaluate(cas, "x+9");
+			Assert.fail("timeout expected");
+		} catch (TimeoutException e) {
+			// timeout from the pool
+		}
+		Assert.assertEquals(0, cas.calls.get());
+
+		Assert.assertEquals("x + 1", evaluate(cas, "x+1"));
+		Assert.assertEquals(1, cas.calls.get());
+		cas.prefetch(inputs, pool);
+		cas.clearPrefetched();
+		Assert.assertEquals("x² + 3x", evaluate(cas, "x^2+3x"));
+		Assert.assertEquals(2, cas.calls.get());
+	}
+
+	private ValidExpression parse(String input) throws ParseException {
+		return getKernel().getParser().parseGeoGebraExpression(input);
+	}
+
+	private String evaluate(CASgiac cas, String input) throws ParseException {
+		ExpressionValue result = cas.evaluateToExpression(parse(input), null,
+				getKernel());
+		return result.toString(StringTemplate.defaultTemplate);
+	}
+
+	private StubCAS[] createContexts(int size) {
+		StubCAS[] contexts = new StubCAS[size];
+		for (int i = 0; i < size; i++) {
+			contexts[i] = new StubCAS(parser, "+1");
+		}
+		return contexts;
+	}
+
+	/**
+	 * Returns its input with a suffix, times out for inputs containing 9.
+	 */
+	private static class StubCAS extends CASgiac {
+		private final String suffix;
+		private final AtomicInteger active = new AtomicInteger();
+		final AtomicInteger calls = new AtomicInteger();
+		volatile boolean overlapping;
+
+		StubCAS(CASparser parser, String suffix) {
+			super(parser);
+			this.suffix = suffix;
+		}
+
+		@Override
+		public String evaluateCAS(String input) {
+			calls.incrementAndGet();
+			if (active.incrementAndGet() > 1) {
+				overlapping = true;
+			}
+			try {
+				Thread.sleep(5);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				active.decrementAndGet();
+			}
+			if (input.contains("9")) {
+				throw new TimeoutException("Stub timeout");
+			}
+			return suffix.isEmpty() ? input : "(" + input + ")" + suffix;
+		}
+
+		@Override
+		protected String evaluate(String exp, long timeoutMilliseconds) {
+			return evaluateCAS(exp);
+		}
+
+		@Override
+		public void clearResult() {
+			// no thread result
+		}
+
+		@Override
+		public boolean externalCAS() {
+			return true;
+		}
+	}
+}
@@ -0,0 +1,236 @@
+package org.geogebra.common.euclidian;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.geogebra.common.BaseUnitTest;
+import org.geogebra.common.awt.GGraphics2D;
+import org.geogebra.common.awt.GRectangle;
+import org.geogebra.common.euclidian.DrawableList.DrawableIterator;
+import org.geogebra.common.kernel.geos.GeoElement;
+import org.geogebra.common.kernel.geos.GeoPoint;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Test class for DrawableGrid: hits found through the grid are compared with
+ * testing all drawables.
+ */
+public class DrawableGridTest extends BaseUnitTest {
+
+	private static final int WIDTH = 800;
+	private static final int HEIGHT = 600;
+	private static final int COUNT = 600;
+	private static final int THRESHOLD = 3;
+
+	private EuclidianView view;
+	private DrawableList all;
+	private DrawableGrid grid;
+	private ArrayList<Box> boxes;
+	private Random random;
+
+	/** rectangle that is hit anywhere inside */
+	private static class Box extends Drawable {
+		private final GeoElement geo;
+		private int x;
+		private int y;
+		private int width;
+		private int height;
+		private int newX;
+		private int newY;
+
+		Box(EuclidianView view, GeoElement geo, int x, int y, int width,
+				int height) {
+			this.view = view;
+			this.geo = geo;
+			this.x = x;
+			this.y = y;
+			this.width = width;
+			this.height = height;
+			newX = x;
+			newY = y;
+		}
+
+		/** moves the box on the next update */
+		void moveTo(int x1, int y1) {
+			newX = x1;
+			newY = y1;
+			setNeedsUpdate(true);
+		}
+
+		@Override
+		public void update() {
+			x = newX;
+			y = newY;
+		}
+
+		@Override
+		public void draw(GGraphics2D g) {
+			// not painted
+		}
+
+		@Override
+		public GRectangle getBounds() {
+			GRectangle bounds = Mockito.mock(GRectangle.class);
+			Mockito.when(bounds.getMinX()).thenReturn((double) x);
+			Mockito.when(bounds.getMaxX()).thenReturn((double) x + width);
+			Mockito.when(bounds.getMinY()).thenReturn((double) y);
+			Mockito.when(bounds.getMaxY()).thenReturn((double) y + height);
+			return bounds;
+		}
+
+		@Override
+		public boolean hit(int hitX, int hitY, int hitThreshold) {
+			return hitX >= x - hitThreshold && hitX <= x + width + hitThreshold
+					&& hitY >= y - hitThreshold
+					&& hitY <= y + height + hitThreshold;
+		}
+
+		@Override
+		public boolean isInside(GRectangle rect) {
+			return false;
+		}
+
+		@Override
+		public GeoElement getGeoElement() {
+			return geo;
+		}
+
+		@Override
+		public BoundingBox getBoundingBox() {
+			return null;
+		}
+	}
+
+	/**
+	 * Creates boxes of random size and position.
+	 */
+	@Before
+	public void setupBoxes() {
+		view = Mockito.mock(EuclidianView.class);
+		Mockito.when(view.getWidth()).thenReturn(WIDTH);
+		Mockito.when(view.getHeight()).thenReturn(HEIGHT);
+		all = new DrawableList();
+		grid = new DrawableGrid(view, all);
+		boxes = new ArrayList<>();
+		random = new Random(42);
+		for (int i = 0; i < COUNT; i++) {
+			add();
+		}
+		paint();
+		Assert.assertTrue(grid.isActive());
+	}
+
+	private Box add() {
+		GeoPoint point = new GeoPoint(getConstruction(), 0, 0, 1);
+		point.setLineThickness(1);
+		// some boxes are partly or completely outside of the view
+		Box box = new Box(view, point, random.nextInt(WIDTH + 100) - 50,
+				random.nextInt(HEIGHT + 100) - 50, random.nextInt(150),
+				random.nextInt(100));
+		all.add(box);
+		grid.add(box);
+		boxes.add(box);
+		return box;
+	}
+
+	private void remove(Box box) {
+		all.remove(box);
+		grid.remove(box);
+		boxes.remove(box);
+	}
+
+	private void move(Box box) {
+		box.moveTo(random.nextInt(WIDTH), random.nextInt(HEIGHT));
+		grid.update(box);
+	}
+
+	/** updates drawables like the view does when painting */
+	private void paint() {
+		DrawableIterator it = all.getIterator();
+		while (it.hasNext()) {
+			Drawable d = it.next();
+			if (d.needsUpdate()) {
+				d.update();
+				d.setNeedsUpdate(false);
+			}
+		}
+		grid.painted();
+	}
+
+	private void assertSameHits() {
+		for (int i = 0; i < 300; i++) {
+			int x = random.nextInt(WIDTH + 40) - 20;
+			int y = random.nextInt(HEIGHT + 40) - 20;
+			ArrayList<Drawable> expected = new ArrayList<>();
+			DrawableIterator it = all.getIterator();
+			while (it.hasNext()) {
+				Drawable d = it.next();
+				if (d.hit(x, y, THRESHOLD)) {
+					expected.add(d);
+				}
+			}
+			ArrayList<Drawable> actual = new ArrayList<>();
+			for (Drawable d : grid.getCandidates(x, y, THRESHOLD)) {
+				if (d.hit(x, y, THRESHOLD)) {
+					actual.add(d);
+				}
+			}
+			Assert.assertEquals("hits at " + x + "," + y, expected, actual);
+		}
+	}
+
+	@Test
+	public void testHitsMatchAllDrawables() {
+		assertSameHits();
+		paint();
+		assertSameHits();
+		// once painted, only drawables near the point are tested
+		Assert.assertTrue(grid.getCandidates(10, 10, THRESHOLD)
+				.size() < COUNT / 4);
+	}
+
+	@Test
+	public void testHitsAfterMove() {
+		assertSameHits();
+		for (int i = 0; i < 100; i++) {
+			move(boxes.get(random.nextInt(boxes.size())));
+		}
+		// moved drawables are tested until they are painted
+		assertSameHits();
+		paint();
+		assertSameHits();
+		paint();
+		assertSameHits();
+	}
+
+	@Test
+	public void testHitsAfterRemoveAndAdd() {
+		assertSameHits();
+		for (int i = 0; i < 200; i++) {
+			remove(boxes.get(random.nextInt(boxes.size())));
+		}
+		assertSameHits();
+		for (int i = 0; i < 50; i++) {
+			add();
+			move(boxes.get(random.nextInt(boxes.size())));
+		}
+		assertSameHits();
+		paint();
+		paint();
+		assertSameHits();
+	}
+
+	@Test
+	public void testHitsAfterResize() {
+		assertSameHits();
+		Mockito.when(view.getWidth()).thenReturn(WIDTH / 2);
+		move(boxes.get(0));
+		assertSameHits();
+		grid.updateAll();
+		paint();
+		assertSameHits();
+	}
+}
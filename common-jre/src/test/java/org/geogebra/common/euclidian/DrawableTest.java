@@ -0,0 +1,188 @@
+package org.geogebra.common.euclidian;
+
+import org.geogebra.common.BaseUnitTest;
+import org.geogebra.common.awt.GGraphics2D;
+import org.geogebra.common.awt.GGraphicsCommon;
+import org.geogebra.common.awt.GRectangle;
+import org.geogebra.common.kernel.geos.GeoElement;
+import org.geogebra.common.kernel.geos.GeoPoint;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Test class for culling of drawables outside of the view.
+ */
+public class DrawableTest extends BaseUnitTest {
+
+	private EuclidianView view;
+	private DrawableList list;
+	private GGraphics2D g2;
+
+	/**
+	 * Horizontal graph on the x-axis, counting updates, draws and bounds.
+	 */
+	private static class Graph extends Drawable {
+		private final GeoElement geo;
+		/** world x-coordinate of a single dot, NaN for the whole graph */
+		private final double dotX;
+		private final boolean cullable;
+		private double minX;
+		private double maxX;
+		private double y;
+		int updates = 0;
+		int draws = 0;
+		int boundsCalls = 0;
+
+		Graph(EuclidianView view, GeoElement geo, double dotX,
+				boolean cullable) {
+			this.view = view;
+			this.geo = geo;
+			this.dotX = dotX;
+			this.cullable = cullable;
+			update();
+			updates = 0;
+		}
+
+		@Override
+		public void update() {
+			updates++;
+			y = view.toScreenCoordYd(0);
+			if (Double.isNaN(dotX)) {
+				// clipped to the view, like functions
+				minX = 0;
+				maxX = view.getWidth();
+			} else {
+				minX = view.toScreenCoordXd(dotX) - 3;
+				maxX = view.toScreenCoordXd(dotX) + 3;
+			}
+		}
+
+		@Override
+		public void draw(GGraphics2D g) {
+			draws++;
+		}
+
+		@Override
+		protected boolean isCullable() {
+			return cullable;
+		}
+
+		@Override
+		public GRectangle getBounds() {
+			boundsCalls++;
+			GRectangle bounds = Mockito.mock(GRectangle.class);
+			Mockito.when(bounds.getMinX()).thenReturn(minX);
+			Mockito.when(bounds.getMaxX()).thenReturn(maxX);
+			Mockito.when(bounds.getMinY()).thenReturn(y - 3);
+			Mockito.when(bounds.getMaxY()).thenReturn(y + 3);
+			return bounds;
+		}
+
+		@Override
+		public boolean hit(int hitX, int hitY, int hitThreshold) {
+			return false;
+		}
+
+		@Override
+		public boolean isInside(GRectangle rect) {
+			return false;
+		}
+
+		@Override
+		public GeoElement getGeoElement() {
+			return geo;
+		}
+
+		@Override
+		public BoundingBox getBoundingBox() {
+			return null;
+		}
+	}
+
+	/**
+	 * Resets the view and clears the drawables.
+	 */
+	@Before
+	public void setupView() {
+		view = getApp().getActiveEuclidianView();
+		view.setCoordSystem(400, 300, 50, 50);
+		list = new DrawableList();
+		g2 = new GGraphicsCommon();
+	}
+
+	private Graph add(double dotX, boolean cullable) {
+		Graph d = new Graph(view, new GeoPoint(getConstruction(), 0, 0, 1),
+				dotX, cullable);
+		list.add(d);
+		return d;
+	}
+
+	private void pan(double dx) {
+		view.setCoordSystem(view.getXZero() - dx * view.getXscale(),
+				view.getYZero(), view.getXscale(), view.getYscale());
+		list.updateAllForView();
+	}
+
+	private void draw() {
+		list.drawAll(g2);
+	}
+
+	private double getViewWidth() {
+		return view.getXmax() - view.getXmin();
+	}
+
+	@Test
+	public void testClippedGraphDrawnAfterPan() {
+		Graph graph = add(Double.NaN, false);
+		draw();
+		Assert.assertEquals(1, graph.draws);
+		// the graph bounds before panning are outside of the view now
+		pan(3 * getViewWidth());
+		Assert.assertEquals(1, graph.updates);
+		draw();
+		Assert.assertEquals(2, graph.draws);
+		Assert.assertFalse(graph.isDeferredOutsideView());
+	}
+
+	@Test
+	public void testOffscreenDotIsCulled() {
+		Graph dot = add(view.getXmax() + getViewWidth(), true);
+		Graph visible = add(view.getXmin() + getViewWidth() / 2, true);
+		draw();
+		Assert.assertEquals(0, dot.draws);
+		Assert.assertEquals(1, visible.draws);
+	}
+
+	@Test
+	public void testOffscreenUpdateDeferredUntilVisible() {
+		double x = view.getXmax() + getViewWidth();
+		Graph dot = add(x, true);
+		draw();
+		// still outside of the view
+		pan(getViewWidth() / 2);
+		Assert.assertEquals(0, dot.updates);
+		Assert.assertTrue(dot.isDeferredOutsideView());
+		draw();
+		Assert.assertEquals(0, dot.draws);
+		// dot in the middle of the view
+		pan(x - (view.getXmin() + view.getXmax()) / 2);
+		Assert.assertFalse(dot.isDeferredOutsideView());
+		draw();
+		Assert.assertEquals(1, dot.updates);
+		Assert.assertEquals(1, dot.draws);
+	}
+
+	@Test
+	public void testBoundsKeptUntilUpdate() {
+		Graph dot = add(view.getXmax() + getViewWidth(), true);
+		draw();
+		draw();
+		draw();
+		Assert.assertEquals(1, dot.boundsCalls);
+		dot.setNeedsUpdate(true);
+		draw();
+		Assert.assertEquals(2, dot.boundsCalls);
+	}
+}
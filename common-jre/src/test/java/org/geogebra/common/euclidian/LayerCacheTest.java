@@ -0,0 +1,271 @@
+package org.geogebra.common.euclidian;
+
+import org.geogebra.common.BaseUnitTest;
+import org.geogebra.common.awt.GBufferedImageCommon;
+import org.geogebra.common.awt.GGraphics2D;
+import org.geogebra.common.awt.GGraphicsCommon;
+import org.geogebra.common.awt.GRectangle;
+import org.geogebra.common.kernel.geos.GeoButton;
+import org.geogebra.common.kernel.geos.GeoElement;
+import org.geogebra.common.kernel.geos.GeoPoint;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+/**
+ * Test class for LayerCache.
+ */
+public class LayerCacheTest extends BaseUnitTest {
+
+	private static final int COLUMNS = 25;
+	private static final int ROWS = 20;
+	/** larger than a cell with margins, so cells don't overlap */
+	private static final int SPACING = 40;
+	private static final int SIZE = 10;
+
+	private EuclidianView view;
+	private DrawableList all;
+	private LayerCache cache;
+	private Cell[] cells;
+	private GGraphics2D g2;
+
+	/** square of fixed size, counting draws */
+	private static class Cell extends Drawable {
+		private final GeoElement geo;
+		private int x;
+		private int y;
+		private int newX;
+		private int newY;
+		int draws = 0;
+
+		Cell(EuclidianView view, GeoElement geo, int x, int y) {
+			this.view = view;
+			this.geo = geo;
+			this.x = x;
+			this.y = y;
+			newX = x;
+			newY = y;
+		}
+
+		/** moves the cell on the next update */
+		void moveTo(int x1, int y1) {
+			newX = x1;
+			newY = y1;
+			setNeedsUpdate(true);
+		}
+
+		@Override
+		public void update() {
+			x = newX;
+			y = newY;
+		}
+
+		@Override
+		public void draw(GGraphics2D g) {
+			draws++;
+		}
+
+		@Override
+		protected boolean isCullable() {
+			return false;
+		}
+
+		@Override
+		public GRectangle getBounds() {
+			GRectangle bounds = Mockito.mock(GRectangle.class);
+			Mockito.when(bounds.getMinX()).thenReturn((double) x);
+			Mockito.when(bounds.getMaxX()).thenReturn((double) x + SIZE);
+			Mockito.when(bounds.getMinY()).thenReturn((double) y);
+			Mockito.when(bounds.getMaxY()).thenReturn((double) y + SIZE);
+			return bounds;
+		}
+
+		@Override
+		public boolean hit(int hitX, int hitY, int hitThreshold) {
+			return false;
+		}
+
+		@Override
+		public boolean isInside(GRectangle rect) {
+			return false;
+		}
+
+		@Override
+		public GeoElement getGeoElement() {
+			return geo;
+		}
+
+		@Override
+		public BoundingBox getBoundingBox() {
+			return null;
+		}
+	}
+
+	/**
+	 * Creates a grid of cells on the bottom layer.
+	 */
+	@Before
+	public void setupCells() {
+		view = Mockito.mock(EuclidianView.class);
+		Mockito.when(view.getWidth()).thenReturn(800);
+		Mockito.when(view.getHeight()).thenReturn(600);
+		Mockito.when(view.newLayerImage())
+				.thenReturn(new GBufferedImageCommon());
+		view.drawLayers = new DrawableList[] { new DrawableList(),
+				new DrawableList() };
+		all = new DrawableList();
+		cells = new Cell[COLUMNS * ROWS];
+		for (int i = 0; i < cells.length; i++) {
+			cells[i] = add(SPACING * (i % COLUMNS), SPACING * (i / COLUMNS));
+		}
+		cache = new LayerCache(view, all);
+		g2 = new GGraphicsCommon();
+	}
+
+	private Cell add(int x, int y) {
+		GeoPoint point = new GeoPoint(getConstruction(), 0, 0, 1);
+		point.setLineThickness(1);
+		Cell cell = new Cell(view, point, x, y);
+		view.drawLayers[0].add(cell);
+		all.add(cell);
+		return cell;
+	}
+
+	private void draw() {
+		for (Cell cell : cells) {
+			cell.draws = 0;
+		}
+		Assert.assertTrue(cache.isActive());
+		Assert.assertTrue(cache.draw(g2, 1));
+	}
+
+	private void assertDrawn(Cell... drawn) {
+		int count = 0;
+		for (Cell cell : drawn) {
+			Assert.assertEquals(1, cell.draws);
+		}
+		for (Cell cell : cells) {
+			count += cell.draws;
+		}
+		Assert.assertEquals(drawn.length, count);
+	}
+
+	@Test
+	public void testFirstPaintDrawsAll() {
+		draw();
+		assertDrawn(cells);
+		draw();
+		assertDrawn();
+	}
+
+	@Test
+	public void testUpdateRedrawsChangedArea() {
+		draw();
+		cache.changed(cells[30]);
+		draw();
+		assertDrawn(cells[30]);
+	}
+
+	@Test
+	public void testUpdateRedrawsOldAndNewArea() {
+		draw();
+		// move onto the next cell, overlapping it
+		cells[30].moveTo(SPACING * 6 + 2, SPACING + 2);
+		cache.changed(cells[30]);
+		draw();
+		assertDrawn(cells[30], cells[31]);
+		// moving back clears the old area
+		cells[30].moveTo(SPACING * 5, SPACING);
+		cache.changed(cells[30]);
+		draw();
+		assertDrawn(cells[30], cells[31]);
+	}
+
+	@Test
+	public void testDistantChangesRedrawOnlyTheirAreas() {
+		// bottom right cell inside of the view
+		Cell last = cells[14 * COLUMNS + 19];
+		draw();
+		cache.changed(cells[0]);
+		cache.changed(last);
+		draw();
+		assertDrawn(cells[0], last);
+	}
+
+	@Test
+	public void testPressedButtonIsRedrawn() {
+		GeoButton geoButton = new GeoButton(getConstruction());
+		// cell stands in for the drawable of the button
+		Mockito.doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) {
+				cache.changed(cells[30]);
+				return null;
+			}
+		}).when(view).invalidateDrawable(geoButton);
+		MyButton button = new MyButton(geoButton, view);
+		draw();
+		button.setPressed(true);
+		draw();
+		assertDrawn(cells[30]);
+		button.setPressed(false);
+		draw();
+		assertDrawn(cells[30]);
+	}
+
+	@Test
+	public void testLayerChangeRedrawsBothLayers() {
+		Cell below = add(SPACING * 5, SPACING);
+		draw();
+		Assert.assertEquals(1, below.draws);
+		below.draws = 0;
+
+		cells[30].getGeoElement().setLayer(1);
+		view.drawLayers[0].remove(cells[30]);
+		view.drawLayers[1].add(cells[30]);
+		cache.changed(cells[30]);
+		draw();
+		// the area is cleared on the old layer, the new one is painted
+		assertDrawn(cells[30]);
+		Assert.assertEquals(1, below.draws);
+	}
+
+	@Test
+	public void testRemoveRedrawsOldArea() {
+		Cell below = add(SPACING * 5, SPACING);
+		draw();
+		below.draws = 0;
+		view.drawLayers[0].remove(cells[30]);
+		cache.removed(cells[30]);
+		draw();
+		assertDrawn();
+		Assert.assertEquals(1, below.draws);
+	}
+
+	@Test
+	public void testInvalidateAll() {
+		draw();
+		cache.invalidateAll();
+		draw();
+		assertDrawn(cells);
+	}
+
+	@Test
+	public void testDrawableWithoutBoundsRedrawsLayer() {
+		draw();
+		Cell unbounded = new Cell(view, cells[0].getGeoElement(), 0, 0) {
+			@Override
+			public GRectangle getBounds() {
+				return null;
+			}
+		};
+		view.drawLayers[0].add(unbounded);
+		all.add(unbounded);
+		cache.changed(unbounded);
+		draw();
+		assertDrawn(cells);
+	}
+}
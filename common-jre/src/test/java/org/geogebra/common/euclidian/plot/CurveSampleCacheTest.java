@@ -0,0 +1,118 @@
+package org.geogebra.common.euclidian.plot;
+
+import org.geogebra.common.kernel.geos.GeoElement;
+import org.geogebra.common.kernel.kernelND.CurveEvaluable;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for CurveSampleCache.
+ */
+public class CurveSampleCacheTest {
+
+	/** graph of 1/x, counting evaluations */
+	private static class Hyperbola implements CurveEvaluable {
+		int evaluations = 0;
+
+		@Override
+		public double getMinParameter() {
+			return Double.NEGATIVE_INFINITY;
+		}
+
+		@Override
+		public double getMaxParameter() {
+			return Double.POSITIVE_INFINITY;
+		}
+
+		@Override
+		public double[] newDoubleArray() {
+			return new double[2];
+		}
+
+		@Override
+		public double distanceMax(double[] p1, double[] p2) {
+			return Math.max(Math.abs(p1[0] - p2[0]), Math.abs(p1[1] - p2[1]));
+		}
+
+		@Override
+		public void evaluateCurve(double t, double[] out) {
+			evaluations++;
+			out[0] = t;
+			out[1] = 1 / t;
+		}
+
+		@Override
+		public double[] getDefinedInterval(double a, double b) {
+			return new double[] { a, b };
+		}
+
+		@Override
+		public boolean getTrace() {
+			return false;
+		}
+
+		@Override
+		public boolean isClosedPath() {
+			return false;
+		}
+
+		@Override
+		public boolean isFunctionInX() {
+			return true;
+		}
+
+		@Override
+		public GeoElement toGeoElement() {
+			return null;
+		}
+	}
+
+	@Test
+	public void testEvaluationsAreCached() {
+		Hyperbola curve = new Hyperbola();
+		CurveSampleCache cache = new CurveSampleCache(curve);
+		double[] out = new double[2];
+		for (int round = 0; round < 3; round++) {
+			for (int i = 1; i <= 1000; i++) {
+				cache.evaluateCurve(i / 8.0, out);
+				Assert.assertEquals(8.0 / i, out[1], 0);
+			}
+		}
+		Assert.assertEquals(1000, curve.evaluations);
+		Assert.assertEquals(1000, cache.size());
+		cache.clear();
+		cache.evaluateCurve(0.5, out);
+		Assert.assertEquals(1001, curve.evaluations);
+	}
+
+	@Test
+	public void testContinuityIsCached() {
+		Hyperbola curve = new Hyperbola();
+		CurveSampleCache cache = new CurveSampleCache(curve);
+		Assert.assertFalse(cache.isContinuous(-1, 1, 8));
+		Assert.assertTrue(cache.isContinuous(1, 2, 8));
+		int evaluations = curve.evaluations;
+		Assert.assertFalse(cache.isContinuous(-1, 1, 8));
+		Assert.assertTrue(cache.isContinuous(1, 2, 8));
+		Assert.assertEquals(evaluations, curve.evaluations);
+	}
+
+	@Test
+	public void testAlignedIntervalKeepsGridWhenPanning() {
+		double[] aligned = CurveSampleCache.alignToGrid(-7.3, 12.1);
+		Assert.assertTrue(aligned[0] <= -7.3);
+		Assert.assertTrue(aligned[1] >= 12.1);
+		double width = aligned[1] - aligned[0];
+		double step = width / 64;
+		for (double shift = 0.1; shift < 20; shift += 1.7) {
+			double[] panned = CurveSampleCache.alignToGrid(-7.3 + shift,
+					12.1 + shift);
+			Assert.assertTrue(panned[0] <= -7.3 + shift);
+			Assert.assertTrue(panned[1] >= 12.1 + shift);
+			Assert.assertEquals(width, panned[1] - panned[0], 0);
+			double cells = (panned[0] - aligned[0]) / step;
+			Assert.assertEquals(Math.rint(cells), cells, 0);
+		}
+		Assert.assertNull(CurveSampleCache.alignToGrid(1, 1));
+	}
+}
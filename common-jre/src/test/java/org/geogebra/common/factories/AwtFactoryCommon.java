@@ -5,6 +5,7 @@ import org.geogebra.common.awt.GAlphaComposite;
 import org.geogebra.common.awt.GArc2D;
 import org.geogebra.common.awt.GArea;
 import org.geogebra.common.awt.GBasicStroke;
+import org.geogebra.common.awt.GBasicStrokeCommon;
 import org.geogebra.common.awt.GBufferedImage;
 import org.geogebra.common.awt.GBufferedImageCommon;
 import org.geogebra.common.awt.GColor;
@@ -94,22 +95,25 @@ public class AwtFactoryCommon extends AwtFactory {
 
     @Override
     public GBasicStroke newMyBasicStroke(double f) {
-        return null;
+        return newBasicStroke(f, GBasicStroke.CAP_ROUND,
+                GBasicStroke.JOIN_ROUND);
     }
 
     @Override
     public GBasicStroke newBasicStroke(double f, int cap, int join) {
-        return null;
+        return new GBasicStrokeCommon(f, cap, join, 10, null);
     }
 
     @Override
     public GBasicStroke newBasicStroke(double width, int endCap, int lineJoin, double miterLimit, double[] dash) {
-        return null;
+        return new GBasicStrokeCommon(width, endCap, lineJoin, miterLimit,
+                dash);
     }
 
     @Override
     public GBasicStroke newBasicStroke(double f) {
-        return null;
+        return newBasicStroke(f, GBasicStroke.CAP_SQUARE,
+                GBasicStroke.JOIN_MITER);
     }
 
     @Override
@@ -169,7 +173,8 @@ public class AwtFactoryCommon extends AwtFactory {
 
     @Override
     public GBasicStroke newBasicStrokeJoinMitre(double f) {
-        return null;
+        return newBasicStroke(f, GBasicStroke.CAP_SQUARE,
+                GBasicStroke.JOIN_MITER);
     }
 
     @Override
@@ -0,0 +1,73 @@
+package org.geogebra.common.geogebra3D.kernel3D.implicit3D;
+
+import org.geogebra.common.BaseUnitTest;
+import org.geogebra.common.geogebra3D.kernel3D.MyPoint3D;
+import org.geogebra.common.geogebra3D.kernel3D.geos.GeoTriangulatedSurface3D;
+import org.geogebra.common.jre.kernel.ForkJoinExecutor;
+import org.geogebra.common.kernel.arithmetic.Equation;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for the octree marching cubes of GeoImplicitSurface.
+ */
+public class GeoImplicitSurfaceTest extends BaseUnitTest {
+
+	private static final double[] BOUNDS = { -5, 5, -5, 5, -5, 5, 100, 100,
+			100 };
+
+	private ForkJoinExecutor executor;
+
+	@After
+	public void shutdownExecutor() {
+		getKernel().setParallelExecutor(null);
+		if (executor != null) {
+			executor.shutdown();
+		}
+	}
+
+	private GeoImplicitSurface sphere() throws Exception {
+		Equation equation = (Equation) getKernel().getParser()
+				.parseGeoGebraExpression("x^2+y^2+z^2=4");
+		return new GeoImplicitSurface(getConstruction(), equation);
+	}
+
+	@Test
+	public void testVerticesOnSurface() throws Exception {
+		GeoImplicitSurface surface = sphere();
+		surface.updateSurface(BOUNDS);
+		GeoTriangulatedSurface3D triangles = surface.getSurface3D();
+		Assert.assertTrue(triangles.size() > 1000);
+		MyPoint3D[] points = triangles.getPoints();
+		for (int i = 0; i < triangles.size(); i++) {
+			Assert.assertEquals(2, Math.sqrt(points[i].x * points[i].x
+					+ points[i].y * points[i].y + points[i].z * points[i].z),
+					0.01);
+		}
+	}
+
+	@Test
+	public void testParallelMatchesSequential() throws Exception {
+		GeoImplicitSurface surface = sphere();
+		surface.updateSurface(BOUNDS);
+		double[] expected = coords(surface.getSurface3D());
+
+		executor = new ForkJoinExecutor();
+		getKernel().setParallelExecutor(executor);
+		surface.updateSurface(BOUNDS);
+		Assert.assertArrayEquals(expected, coords(surface.getSurface3D()),
+				1E-12);
+	}
+
+	private static double[] coords(GeoTriangulatedSurface3D triangles) {
+		double[] coords = new double[3 * triangles.size()];
+		MyPoint3D[] points = triangles.getPoints();
+		for (int i = 0; i < triangles.size(); i++) {
+			coords[3 * i] = points[i].x;
+			coords[3 * i + 1] = points[i].y;
+			coords[3 * i + 2] = points[i].z;
+		}
+		return coords;
+	}
+}
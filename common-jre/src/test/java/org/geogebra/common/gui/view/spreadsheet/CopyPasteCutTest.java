@@ -0,0 +1,175 @@
+package org.geogebra.common.gui.view.spreadsheet;
+
+import java.util.HashMap;
+
+import org.geogebra.common.BaseUnitTest;
+import org.geogebra.common.awt.GPoint;
+import org.geogebra.common.kernel.StringTemplate;
+import org.geogebra.common.kernel.algos.AlgoSum;
+import org.geogebra.common.kernel.geos.GeoElement;
+import org.geogebra.common.kernel.geos.GeoList;
+import org.geogebra.common.kernel.geos.GeoNumeric;
+import org.geogebra.common.kernel.scripting.CmdSetValue;
+import org.geogebra.common.kernel.statistics.AlgoDoubleListCovariance;
+import org.geogebra.common.kernel.statistics.AlgoDoubleListPMCC;
+import org.geogebra.common.kernel.statistics.AlgoMean;
+import org.geogebra.common.main.App;
+import org.geogebra.common.main.SpreadsheetTableModel;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Test class for pasting numeric data as lists.
+ */
+public class CopyPasteCutTest extends BaseUnitTest {
+
+	private CopyPasteCut copyPasteCut;
+	private String clipboard;
+
+	/** cells of the construction */
+	private static class TableModel extends SpreadsheetTableModel {
+		private final HashMap<GPoint, Object> cells = new HashMap<>();
+		private int rows = 100;
+		private int columns = 26;
+
+		TableModel(App app) {
+			super(app);
+			attachView();
+			isIniting = false;
+		}
+
+		@Override
+		public int getRowCount() {
+			return rows;
+		}
+
+		@Override
+		public int getColumnCount() {
+			return columns;
+		}
+
+		@Override
+		public void setRowCount(int rowCount) {
+			rows = rowCount;
+		}
+
+		@Override
+		public void setColumnCount(int columnCount) {
+			columns = columnCount;
+		}
+
+		@Override
+		public Object getValueAt(int row, int column) {
+			return cells.get(new GPoint(column, row));
+		}
+
+		@Override
+		public void setValueAt(Object value, int row, int column) {
+			cells.put(new GPoint(column, row), value);
+		}
+
+		@Override
+		public boolean hasFocus() {
+			return false;
+		}
+
+		@Override
+		public boolean suggestRepaint() {
+			return false;
+		}
+	}
+
+	/**
+	 * Creates a CopyPasteCut with a clipboard string.
+	 */
+	@Before
+	public void setupCopyPasteCut() {
+		App app = Mockito.spy(getApp());
+		Mockito.doReturn(new TableModel(app)).when(app)
+				.getSpreadsheetTableModel();
+		copyPasteCut = new CopyPasteCut(app) {
+			@Override
+			public void copy(int column1, int row1, int column2, int row2,
+					boolean skipGeoCopy) {
+				// not used
+			}
+
+			@Override
+			public boolean paste(int column1, int row1, int column2,
+					int row2) {
+				return false;
+			}
+
+			@Override
+			protected String getClipboardText() {
+				return clipboard;
+			}
+		};
+	}
+
+	private GeoElement lookup(String label) {
+		return getKernel().lookupLabel(label);
+	}
+
+	private GeoList lookupList(String label) {
+		return (GeoList) getKernel().lookupLabel(label);
+	}
+
+	@Test
+	public void testPasteAsListsAtTargetCell() {
+		clipboard = "x,y\n1,2\n3,\n5,6\n";
+		Assert.assertTrue(copyPasteCut.pasteAsLists(1, 2));
+		Assert.assertEquals("x",
+				lookup("B3").toValueString(StringTemplate.defaultTemplate));
+		Assert.assertEquals("y",
+				lookup("C3").toValueString(StringTemplate.defaultTemplate));
+		GeoList x = lookupList("B4");
+		GeoList y = lookupList("C4");
+		Assert.assertEquals(3, x.size());
+		Assert.assertEquals(3, y.size());
+		Assert.assertEquals(5, x.get(2).evaluateDouble(), 0);
+		Assert.assertFalse(y.get(1).isDefined());
+		Assert.assertNull(lookup("B5"));
+	}
+
+	@Test
+	public void testPasteAsListsReplacesCells() {
+		getKernel().getAlgebraProcessor().processAlgebraCommand("C4=7", false);
+		clipboard = "1\t2\n3\t4\n";
+		Assert.assertTrue(copyPasteCut.pasteAsLists(1, 3));
+		AlgoSum sum = new AlgoSum(getConstruction(), lookupList("C4"));
+		Assert.assertEquals(6, sum.getResult().getDouble(), 0);
+	}
+
+	@Test
+	public void testNonNumericDataIsNotPasted() {
+		clipboard = "1,2\n3,a\n";
+		Assert.assertFalse(copyPasteCut.pasteAsLists(0, 0));
+		clipboard = null;
+		Assert.assertFalse(copyPasteCut.pasteAsLists(0, 0));
+		Assert.assertNull(lookup("A1"));
+	}
+
+	@Test
+	public void testStatisticsOfPastedColumns() {
+		clipboard = "1,2\n2,4\n3,6\n4,8\n";
+		copyPasteCut.pasteAsLists(0, 0);
+		GeoList x = lookupList("A1");
+		GeoList y = lookupList("B1");
+		Assert.assertArrayEquals(new double[] { 1, 2, 3, 4 },
+				x.getNumericValues(), 0);
+		AlgoMean mean = new AlgoMean(getConstruction(), x);
+		Assert.assertEquals(2.5, mean.getResult().getDouble(), 0);
+		Assert.assertEquals(2.5, new AlgoDoubleListCovariance(getConstruction(),
+				null, x, y).getResult().getDouble(), 1E-10);
+		Assert.assertEquals(1, new AlgoDoubleListPMCC(getConstruction(), null,
+				x, y).getResult().getDouble(), 1E-10);
+		// changed values are not taken from the imported column
+		CmdSetValue.setValue3(getKernel(), x, 1,
+				new GeoNumeric(getConstruction(), 9));
+		Assert.assertEquals(9, x.getNumericValues()[0], 0);
+		Assert.assertEquals(4.5, mean.getResult().getDouble(), 0);
+	}
+}
@@ -0,0 +1,82 @@
+package org.geogebra.common.gui.view.spreadsheet;
+
+import org.geogebra.common.BaseUnitTest;
+import org.geogebra.common.kernel.geos.GeoList;
+import org.geogebra.common.kernel.statistics.AlgoMean;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for DataImport.
+ */
+public class DataImportTest extends BaseUnitTest {
+
+	@Test
+	public void testNumericColumnsWithHeader() {
+		DataColumns columns = DataImport
+				.parseNumericColumns("x,y\r\n1,2.5\r\n3,\r\n-4,1E3\r\n");
+		Assert.assertEquals(2, columns.getColumnCount());
+		Assert.assertEquals("x", columns.getName(0));
+		Assert.assertEquals("y", columns.getName(1));
+		Assert.assertTrue(columns.hasNames());
+		Assert.assertEquals(3, columns.getRowCount());
+		Assert.assertEquals(-4, columns.getValues(0)[2], 0);
+		// empty cells keep the rows of both columns paired
+		Assert.assertTrue(Double.isNaN(columns.getValues(1)[1]));
+		Assert.assertEquals(1000, columns.getValues(1)[2], 0);
+	}
+
+	@Test
+	public void testNumericColumnsOfDifferentLength() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			sb.append(i);
+			if (i % 10 == 9) {
+				sb.append(',').append(-i).append(',').append(2 * i);
+			}
+			sb.append('\n');
+		}
+		DataColumns columns = DataImport.parseNumericColumns(sb.toString());
+		Assert.assertFalse(columns.hasNames());
+		Assert.assertEquals(3, columns.getColumnCount());
+		Assert.assertEquals(100, columns.getRowCount());
+		for (int i = 0; i < 100; i++) {
+			Assert.assertEquals(i, columns.getValues(0)[i], 0);
+			Assert.assertEquals(i % 10 == 9 ? -i : Double.NaN,
+					columns.getValues(1)[i], 0);
+			Assert.assertEquals(i % 10 == 9 ? 2 * i : Double.NaN,
+					columns.getValues(2)[i], 0);
+		}
+	}
+
+	@Test
+	public void testNumericColumnsTabSeparated() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			sb.append(i).append('\t').append(i * 0.5).append('\n');
+		}
+		DataColumns columns = DataImport.parseNumericColumns(sb.toString());
+		Assert.assertNull(columns.getName(0));
+		Assert.assertEquals(1000, columns.getRowCount());
+		Assert.assertEquals(499.5, columns.getValues(1)[999], 0);
+	}
+
+	@Test
+	public void testNonNumericDataIsRejected() {
+		Assert.assertNull(DataImport.parseNumericColumns("1,2\n3,a\n"));
+		Assert.assertNull(DataImport.parseNumericColumns("1,2\n3,30%\n"));
+		Assert.assertNull(DataImport.parseNumericColumns(""));
+	}
+
+	@Test
+	public void testColumnAsList() {
+		DataColumns columns = DataImport
+				.parseNumericColumns("1,0\n2,0\n,0\n6,0\n");
+		GeoList list = columns.toGeoList(getConstruction(), 0);
+		Assert.assertEquals(4, list.size());
+		Assert.assertFalse(list.get(2).isDefined());
+		AlgoMean mean = new AlgoMean(getConstruction(),
+				columns.toGeoList(getConstruction(), 1));
+		Assert.assertEquals(0, mean.getResult().getDouble(), 0);
+	}
+}
@@ -0,0 +1,109 @@
+package org.geogebra.common.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.LinkedHashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for QDParser.
+ */
+public class QDParserTest {
+
+	/** records all events as a string */
+	private static class RecordingHandler implements DocHandler {
+		final StringBuilder events = new StringBuilder();
+
+		@Override
+		public void startElement(String tag,
+				LinkedHashMap<String, String> h) {
+			events.append('<').append(tag).append(h).append('>');
+		}
+
+		@Override
+		public void endElement(String tag) {
+			events.append("</").append(tag).append('>');
+		}
+
+		@Override
+		public void startDocument() {
+			events.append("start;");
+		}
+
+		@Override
+		public void endDocument() {
+			events.append(";end");
+		}
+
+		@Override
+		public void text(String str) {
+			events.append(str);
+		}
+	}
+
+	/** returns at most one char per read */
+	private static class SlowReader extends Reader {
+		private final Reader reader;
+
+		SlowReader(String str) {
+			reader = new StringReader(str);
+		}
+
+		@Override
+		public int read(char[] cbuf, int off, int len) throws IOException {
+			return reader.read(cbuf, off, Math.min(len, 1));
+		}
+
+		@Override
+		public void close() throws IOException {
+			reader.close();
+		}
+	}
+
+	private static String document(int elements) {
+		StringBuilder sb = new StringBuilder("<?xml version=\"1.0\"?>\r\n<a>");
+		for (int i = 0; i < elements; i++) {
+			sb.append("<b i=\"").append(i).append("\"/>x&amp;");
+		}
+		return sb.append("</a>").toString();
+	}
+
+	private static String expected(int elements) {
+		StringBuilder sb = new StringBuilder("start;<a{}>");
+		for (int i = 0; i < elements; i++) {
+			sb.append("<b{i=").append(i).append("}></b>x&");
+		}
+		return sb.append("</a>;end").toString();
+	}
+
+	@Test
+	public void testDocumentLargerThanBuffer() throws Exception {
+		QDParser parser = new QDParser();
+		RecordingHandler handler = new RecordingHandler();
+		parser.parse(handler, new StringReader(document(5000)));
+		Assert.assertEquals(expected(5000), handler.events.toString());
+	}
+
+	@Test
+	public void testShortReads() throws Exception {
+		QDParser parser = new QDParser();
+		RecordingHandler handler = new RecordingHandler();
+		parser.parse(handler, new SlowReader(document(20)));
+		Assert.assertEquals(expected(20), handler.events.toString());
+	}
+
+	@Test
+	public void testParserIsReusable() throws Exception {
+		QDParser parser = new QDParser();
+		RecordingHandler first = new RecordingHandler();
+		// trailing content is left in the buffer
+		parser.parse(first, new StringReader(document(3) + "<c/>"));
+		Assert.assertEquals(expected(3), first.events.toString());
+		RecordingHandler second = new RecordingHandler();
+		parser.parse(second, new StringReader(document(2)));
+		Assert.assertEquals(expected(2), second.events.toString());
+	}
+}
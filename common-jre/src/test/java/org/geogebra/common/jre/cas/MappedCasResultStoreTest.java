@@ -0,0 +1,156 @@
+package org.geogebra.common.jre.cas;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for MappedCasResultStore.
+ */
+public class MappedCasResultStoreTest {
+
+	private File file;
+	private MappedCasResultStore store;
+
+	@Before
+	public void createFile() throws IOException {
+		file = File.createTempFile("cascache", ".bin");
+	}
+
+	@After
+	public void deleteFile() throws IOException {
+		if (store != null) {
+			store.close();
+		}
+		file.delete();
+	}
+
+	private MappedCasResultStore reopen(String version, int capacity)
+			throws IOException {
+		if (store != null) {
+			store.close();
+		}
+		store = new MappedCasResultStore(file, version, capacity);
+		return store;
+	}
+
+	/**
+	 * Changes the file like a crash in the middle of a write would.
+	 * 
+	 * @param text
+	 *            text stored in the file
+	 * @param delta
+	 *            offset of the changed byte relative to the text
+	 * @param value
+	 *            new value of the byte
+	 */
+	private void corrupt(String text, int delta, int value)
+			throws IOException {
+		store.close();
+		store = null;
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			byte[] content = new byte[(int) raf.length()];
+			raf.readFully(content);
+			int pos = new String(content, Charset.forName("ISO-8859-1"))
+					.indexOf(text);
+			Assert.assertTrue(text, pos >= 0);
+			raf.seek(pos + delta);
+			raf.write(value);
+		} finally {
+			raf.close();
+		}
+	}
+
+	@Test
+	public void testResultsSurviveReopen() throws IOException {
+		reopen("1.0", 4096);
+		store.put("diff(x^2,x)", "2*x");
+		store.put(" int(x,x) ", "x^2/2");
+		store.put("diff(x^2,x)", "ignored");
+		Assert.assertEquals(2, store.size());
+
+		reopen("1.0", 4096);
+		Assert.assertEquals(2, store.size());
+		Assert.assertEquals("2*x", store.get("diff(x^2,x)"));
+		Assert.assertEquals("x^2/2", store.get("int(x,x)"));
+		Assert.assertNull(store.get("solve(x=1,x)"));
+
+		reopen("2.0", 4096);
+		Assert.assertEquals(0, store.size());
+		Assert.assertNull(store.get("diff(x^2,x)"));
+	}
+
+	@Test
+	public void testOldResultsAreEvicted() throws IOException {
+		reopen("1.0", 4096);
+		for (int i = 0; i < 1000; i++) {
+			store.put("expand((x+" + i + ")^2)", "x^2+" + (2 * i) + "*x+"
+					+ (i * i));
+		}
+		Assert.assertTrue(store.size() < 1000);
+		Assert.assertNull(store.get("expand((x+0)^2)"));
+		Assert.assertEquals("x^2+1998*x+998001",
+				store.get("expand((x+999)^2)"));
+
+		int size = store.size();
+		reopen("1.0", 4096);
+		Assert.assertEquals(size, store.size());
+		Assert.assertEquals("x^2+1998*x+998001",
+				store.get("expand((x+999)^2)"));
+	}
+
+	@Test
+	public void testTornRecordAndLaterRecordsAreDropped() throws IOException {
+		reopen("1.0", 4096);
+		store.put("diff(x^2,x)", "2*x");
+		store.put("int(x,x)", "x^2/2");
+		store.put("expand((x+1)^2)", "x^2+2*x+1");
+		// value of the second record only partially written
+		corrupt("x^2/2", 4, 0);
+
+		reopen("1.0", 4096);
+		Assert.assertEquals(1, store.size());
+		Assert.assertEquals("2*x", store.get("diff(x^2,x)"));
+		Assert.assertNull(store.get("int(x,x)"));
+		Assert.assertNull(store.get("expand((x+1)^2)"));
+
+		// new results replace the dropped ones
+		store.put("int(x,x)", "x^2/2");
+		reopen("1.0", 4096);
+		Assert.assertEquals(2, store.size());
+		Assert.assertEquals("x^2/2", store.get("int(x,x)"));
+	}
+
+	@Test
+	public void testRecordWithWrongLengthIsDropped() throws IOException {
+		reopen("1.0", 4096);
+		store.put("diff(x^2,x)", "2*x");
+		store.put("int(x,x)", "x^2/2");
+		// lowest byte of the value length, just before the checksum and key
+		corrupt("int(x,x)", -5, 3);
+
+		reopen("1.0", 4096);
+		Assert.assertEquals(1, store.size());
+		Assert.assertNull(store.get("int(x,x)"));
+	}
+
+	@Test
+	public void testClosedStoreIsNotUsed() throws IOException {
+		reopen("1.0", 4096);
+		store.put("diff(x^2,x)", "2*x");
+		store.close();
+		store.put("int(x,x)", "x^2/2");
+		Assert.assertNull(store.get("diff(x^2,x)"));
+		store.close();
+
+		reopen("1.0", 4096);
+		Assert.assertEquals(1, store.size());
+	}
+}
@@ -0,0 +1,142 @@
+package org.geogebra.common.kernel;
+
+import org.geogebra.common.BaseUnitTest;
+import org.geogebra.common.euclidian.EuclidianView;
+import org.geogebra.common.kernel.algos.AlgoJoinPoints;
+import org.geogebra.common.kernel.algos.AlgoMidpoint;
+import org.geogebra.common.kernel.geos.GeoElement;
+import org.geogebra.common.kernel.geos.GeoPoint;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for ConstructionCheckpoint.
+ */
+public class ConstructionCheckpointTest extends BaseUnitTest {
+
+	private GeoPoint a;
+	private GeoPoint b;
+
+	private String createBase() {
+		a = new GeoPoint(getConstruction(), "A", 1, 2, 1);
+		b = new GeoPoint(getConstruction(), "B", 3, 4, 1);
+		eval("n=5");
+		String xml = getXML();
+		getConstruction().setCheckpoint();
+		return xml;
+	}
+
+	@Test
+	public void testAddedElementsAreRemoved() {
+		Construction cons = getConstruction();
+		a = new GeoPoint(cons, "A", 1, 2, 1);
+		b = new GeoPoint(cons, "B", 3, 4, 1);
+		new AlgoJoinPoints(cons, "f", a, b);
+		String baseXml = getXML();
+		cons.setCheckpoint();
+
+		GeoPoint c = new AlgoMidpoint(cons, a, b).getPoint();
+		c.setLabel("C");
+		new AlgoJoinPoints(cons, "g", c, b);
+		eval("D=(5,5)");
+		Assert.assertFalse(cons.isCheckpointModified());
+
+		Assert.assertTrue(cons.restoreCheckpoint());
+		Assert.assertNull(lookup("C"));
+		Assert.assertNull(lookup("g"));
+		Assert.assertNull(lookup("D"));
+		// base elements were kept, not rebuilt
+		Assert.assertSame(a, lookup("A"));
+		Assert.assertNotNull(lookup("f"));
+		Assert.assertEquals(baseXml, getXML());
+
+		eval("C=(0,0)");
+		Assert.assertTrue(cons.restoreCheckpoint());
+		Assert.assertNull(lookup("C"));
+		Assert.assertEquals(baseXml, getXML());
+	}
+
+	@Test
+	public void testChangedBaseIsRebuilt() {
+		String baseXml = createBase();
+		eval("A=(7,7)");
+		eval("C=A+B");
+		Assert.assertTrue(getConstruction().isCheckpointModified());
+
+		Assert.assertTrue(getConstruction().restoreCheckpoint());
+		Assert.assertFalse(getConstruction().isCheckpointModified());
+		Assert.assertNull(lookup("C"));
+		Assert.assertEquals(baseXml, getXML());
+
+		// rebuilt elements are the new base
+		GeoElement rebuilt = lookup("A");
+		Assert.assertNotSame(a, rebuilt);
+		eval("D=(1,1)");
+		Assert.assertTrue(getConstruction().restoreCheckpoint());
+		Assert.assertSame(rebuilt, lookup("A"));
+	}
+
+	@Test
+	public void testRemovedBaseIsRebuilt() {
+		String baseXml = createBase();
+		b.remove();
+		Assert.assertTrue(getConstruction().restoreCheckpoint());
+		Assert.assertNotNull(lookup("B"));
+		Assert.assertEquals(baseXml, getXML());
+
+		getKernel().clearConstruction(true);
+		Assert.assertTrue(getConstruction().restoreCheckpoint());
+		Assert.assertEquals(baseXml, getXML());
+	}
+
+	@Test
+	public void testViewSettingsAreRestored() {
+		String baseXml = createBase();
+		EuclidianView view = getApp().getEuclidianView1();
+		String viewXml = getViewXML();
+		view.setCoordSystem(10, 20, 100, 50);
+		view.setShowAxes(false, true);
+		Assert.assertNotEquals(viewXml, getViewXML());
+
+		Assert.assertTrue(getConstruction().restoreCheckpoint());
+		Assert.assertEquals(viewXml, getViewXML());
+		Assert.assertEquals(baseXml, getXML());
+	}
+
+	@Test
+	public void testRandomNumbersRepeat() {
+		createBase();
+		double first = getApp().getRandomNumber();
+		Assert.assertTrue(getConstruction().restoreCheckpoint());
+		Assert.assertEquals(first, getApp().getRandomNumber(), 0);
+		// as in SetSeed
+		getApp().setRandomSeed(42);
+		Assert.assertTrue(getConstruction().restoreCheckpoint());
+		Assert.assertEquals(first, getApp().getRandomNumber(), 0);
+	}
+
+	@Test
+	public void testNoCheckpoint() {
+		createBase();
+		getConstruction().clearCheckpoint();
+		Assert.assertFalse(getConstruction().restoreCheckpoint());
+	}
+
+	private String getViewXML() {
+		StringBuilder sb = new StringBuilder();
+		getApp().getEuclidianView1().getXML(sb, false);
+		return sb.toString();
+	}
+
+	private String getXML() {
+		return getConstruction().getCurrentUndoXML(true).toString();
+	}
+
+	private void eval(String input) {
+		getKernel().getAlgebraProcessor().processAlgebraCommand(input, false);
+	}
+
+	private GeoElement lookup(String label) {
+		return getKernel().lookupLabel(label);
+	}
+}
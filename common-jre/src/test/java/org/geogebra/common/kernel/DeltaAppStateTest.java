@@ -0,0 +1,169 @@
+package org.geogebra.common.kernel;
+
+import org.geogebra.common.BaseUnitTest;
+import org.geogebra.common.kernel.geos.GeoElement;
+import org.geogebra.common.kernel.geos.GeoPoint;
+import org.geogebra.common.plugin.EventType;
+import org.geogebra.common.plugin.ScriptManager;
+import org.geogebra.common.plugin.script.GgbScript;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for DeltaAppState.
+ */
+public class DeltaAppStateTest extends BaseUnitTest {
+
+	@Test
+	public void testSharesUnchangedFragments() {
+		for (int i = 0; i < 20; i++) {
+			getKernel().getAlgebraProcessor()
+					.processAlgebraCommand("A_{" + i + "}=(" + i + ",1)", false);
+		}
+		String before = getConstruction().getCurrentUndoXML(true).toString();
+		DeltaAppState first = new DeltaAppState(before, null);
+		Assert.assertEquals(before, first.getXml());
+
+		getKernel().getAlgebraProcessor().processAlgebraCommand("B=(5,5)",
+				false);
+		String after = getConstruction().getCurrentUndoXML(true).toString();
+		DeltaAppState second = new DeltaAppState(after, first);
+		Assert.assertEquals(after, second.getXml());
+		Assert.assertTrue(first.getNewFragmentCount() > 20);
+		Assert.assertEquals(2, second.getNewFragmentCount());
+		Assert.assertFalse(second.equalsTo(first));
+
+		DeltaAppState third = new DeltaAppState(after, second);
+		Assert.assertEquals(0, third.getNewFragmentCount());
+		Assert.assertTrue(third.equalsTo(second));
+		Assert.assertTrue(third.equalsTo(new StringAppState(after)));
+	}
+
+	@Test
+	public void testFragmentsKeepXml() {
+		String[] xmls = { "", "<a/>", "<a>\n</a>\n", "<a>\n\t<b/>\n</a>\n<c/>",
+				"\n<", "x\n</a>\n<" };
+		for (String xml : xmls) {
+			Assert.assertEquals(xml, new DeltaAppState(xml, null).getXml());
+		}
+	}
+
+	@Test
+	public void testUndoRedoKeepsUnchangedElements() {
+		getApp().setUndoActive(true);
+		add("A=(1,1)");
+		add("f:y=2x");
+		getConstruction().storeUndoInfo();
+		GeoElement a = lookup("A");
+		GeoElement f = lookup("f");
+		add("B=(2,2)");
+		add("C=A+B");
+		getConstruction().storeUndoInfo();
+
+		getConstruction().undo();
+		Assert.assertNull(lookup("B"));
+		Assert.assertNull(lookup("C"));
+		Assert.assertSame(a, lookup("A"));
+		Assert.assertSame(f, lookup("f"));
+
+		getConstruction().redo();
+		Assert.assertSame(a, lookup("A"));
+		Assert.assertEquals("(3, 3)",
+				lookup("C").toValueString(StringTemplate.defaultTemplate));
+	}
+
+	@Test
+	public void testUndoMoveInPlace() {
+		getApp().setUndoActive(true);
+		add("A=(1,1)");
+		add("B=2A");
+		getConstruction().storeUndoInfo();
+		GeoPoint a = (GeoPoint) lookup("A");
+		GeoElement b = lookup("B");
+		a.setCoords(3, 4, 1);
+		a.updateRepaint();
+		getConstruction().storeUndoInfo();
+
+		getConstruction().undo();
+		Assert.assertSame(a, lookup("A"));
+		Assert.assertSame(b, lookup("B"));
+		Assert.assertEquals("(2, 2)",
+				b.toValueString(StringTemplate.defaultTemplate));
+
+		getConstruction().redo();
+		Assert.assertEquals("(6, 8)",
+				b.toValueString(StringTemplate.defaultTemplate));
+	}
+
+	@Test
+	public void testRenameUpdatesUndoXML() {
+		getApp().setUndoActive(true);
+		add("A=(1,1)");
+		add("B=2A");
+		getConstruction().storeUndoInfo();
+		lookup("A").rename("P");
+		String xml = getConstruction().getCurrentUndoXML(true).toString();
+		Assert.assertTrue(xml.contains("(2 * P)"));
+		Assert.assertFalse(xml.contains("(2 * A)"));
+	}
+
+	@Test
+	public void testDeletedState() {
+		DeltaAppState first = new DeltaAppState("<a/>\n<b/>\n", null);
+		first.delete();
+		Assert.assertNull(first.getXml());
+		DeltaAppState second = new DeltaAppState("<a/>\n<b/>\n", first);
+		Assert.assertEquals(2, second.getNewFragmentCount());
+		Assert.assertFalse(first.equalsTo(second));
+	}
+
+	@Test
+	public void testScriptUpdatesUndoXML() {
+		getApp().setUndoActive(true);
+		add("A=(1,1)");
+		getConstruction().storeUndoInfo();
+		lookup("A").setScript(new GgbScript(getApp(), "ZoomIn[2]"),
+				EventType.CLICK);
+		Assert.assertTrue(getUndoXML().contains("ZoomIn[2]"));
+	}
+
+	@Test
+	public void testSelectionAllowedUpdatesUndoXML() {
+		getApp().setUndoActive(true);
+		add("A=(1,1)");
+		// not fixable, only selection changes
+		add("b=x(A)>0");
+		getConstruction().storeUndoInfo();
+		GeoElement b = lookup("b");
+		Assert.assertFalse(b.isFixable());
+		// as in GgbAPI.setFixed, there is no update for such elements
+		b.setSelectionAllowed(false);
+		Assert.assertTrue(getUndoXML().contains("<selectionAllowed"));
+		b.setSelectionAllowed(true);
+		Assert.assertFalse(getUndoXML().contains("<selectionAllowed"));
+	}
+
+	@Test
+	public void testListenerUpdatesUndoXML() {
+		getApp().setUndoActive(true);
+		add("A=(1,1)");
+		getConstruction().storeUndoInfo();
+		ScriptManager scriptManager = getApp().getScriptManager();
+		scriptManager.registerObjectUpdateListener("A", "onUpdate");
+		Assert.assertTrue(getUndoXML().contains("onUpdate"));
+		scriptManager.unregisterObjectUpdateListener("A");
+		Assert.assertFalse(getUndoXML().contains("onUpdate"));
+	}
+
+	private String getUndoXML() {
+		return getConstruction().getCurrentUndoXML(true).toString();
+	}
+
+	private void add(String input) {
+		getKernel().getAlgebraProcessor().processAlgebraCommand(input, false);
+	}
+
+	private GeoElement lookup(String label) {
+		return getKernel().lookupLabel(label);
+	}
+}
@@ -0,0 +1,98 @@
+package org.geogebra.common.kernel;
+
+import java.util.List;
+
+import org.geogebra.common.BaseUnitTest;
+import org.geogebra.common.jre.kernel.ForkJoinExecutor;
+import org.geogebra.common.kernel.algos.AlgoDistancePoints;
+import org.geogebra.common.kernel.algos.AlgoIntersectLines;
+import org.geogebra.common.kernel.algos.AlgoJoinPoints;
+import org.geogebra.common.kernel.geos.GeoLine;
+import org.geogebra.common.kernel.geos.GeoNumeric;
+import org.geogebra.common.kernel.geos.GeoPoint;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for parallel updates of independent branches in
+ * Construction.updateConstruction.
+ */
+public class ParallelUpdateTest extends BaseUnitTest {
+
+	private static final int BRANCHES = 50;
+
+	private GeoPoint[] points = new GeoPoint[4 * BRANCHES];
+	private GeoPoint[] intersections = new GeoPoint[BRANCHES];
+	private GeoNumeric[] distances = new GeoNumeric[BRANCHES];
+	private ForkJoinExecutor executor;
+
+	@After
+	public void shutdownExecutor() {
+		getKernel().setParallelExecutor(null);
+		if (executor != null) {
+			executor.shutdown();
+		}
+	}
+
+	private void buildBranches() {
+		Construction cons = getConstruction();
+		for (int i = 0; i < points.length; i++) {
+			points[i] = new GeoPoint(cons, "P_{" + i + "}", i, i % 3, 1);
+		}
+		for (int i = 0; i < BRANCHES; i++) {
+			GeoLine g = new AlgoJoinPoints(cons, "g_{" + i + "}",
+					points[4 * i], points[4 * i + 1]).getLine();
+			GeoLine h = new AlgoJoinPoints(cons, "h_{" + i + "}",
+					points[4 * i + 2], points[4 * i + 3]).getLine();
+			intersections[i] = new AlgoIntersectLines(cons, "S_{" + i + "}",
+					g, h).getPoint();
+			distances[i] = new AlgoDistancePoints(cons, intersections[i],
+					points[4 * i]).getDistance();
+		}
+	}
+
+	private double[] moveAndUpdate() {
+		for (int i = 0; i < points.length; i++) {
+			points[i].setCoords(i % 7, (i * i) % 5, 1);
+		}
+		getConstruction().updateConstruction(false);
+		double[] result = new double[3 * BRANCHES];
+		for (int i = 0; i < BRANCHES; i++) {
+			result[3 * i] = intersections[i].getInhomX();
+			result[3 * i + 1] = intersections[i].getInhomY();
+			result[3 * i + 2] = distances[i].getValue();
+		}
+		return result;
+	}
+
+	@Test
+	public void testSameResultAsSequential() {
+		buildBranches();
+		double[] expected = moveAndUpdate();
+		executor = new ForkJoinExecutor(4);
+		getKernel().setParallelExecutor(executor);
+		for (int i = 0; i < points.length; i++) {
+			points[i].setCoords(0, 0, 1);
+		}
+		getConstruction().updateConstruction(false);
+		Assert.assertArrayEquals(expected, moveAndUpdate(), 0);
+	}
+
+	@Test
+	public void testBranchesDontShareGeos() {
+		buildBranches();
+		final int[] taskCount = { 0 };
+		getKernel().setParallelExecutor(new ParallelExecutor() {
+			@Override
+			public void invokeAll(List<Runnable> tasks) {
+				taskCount[0] = tasks.size();
+				for (Runnable task : tasks) {
+					task.run();
+				}
+			}
+		});
+		moveAndUpdate();
+		Assert.assertEquals(BRANCHES, taskCount[0]);
+	}
+}
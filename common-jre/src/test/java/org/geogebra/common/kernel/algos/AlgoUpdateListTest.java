@@ -0,0 +1,178 @@
+package org.geogebra.common.kernel.algos;
+
+import java.util.ArrayList;
+import java.util.TreeSet;
+
+import org.geogebra.common.BaseUnitTest;
+import org.geogebra.common.kernel.Construction;
+import org.geogebra.common.kernel.geos.GeoElement;
+import org.geogebra.common.kernel.geos.GeoLine;
+import org.geogebra.common.kernel.geos.GeoPoint;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for AlgoUpdateList.
+ */
+public class AlgoUpdateListTest extends BaseUnitTest {
+
+	private GeoPoint[] createConstruction(int count) {
+		Construction cons = getConstruction();
+		GeoPoint[] points = new GeoPoint[count];
+		for (int i = 0; i < count; i++) {
+			points[i] = new GeoPoint(cons, "P_{" + i + "}", i, i * i, 1);
+		}
+		// every line depends on two points far apart in construction order
+		GeoLine previous = null;
+		for (int i = count - 1; i > 0; i--) {
+			GeoLine line = new AlgoJoinPoints(cons, null, points[i],
+					points[(i * 7) % count]).getLine();
+			if (previous != null) {
+				new AlgoIntersectLines(cons, null, line, previous);
+			}
+			new AlgoDistancePoints(cons, points[i / 2], points[i]);
+			previous = line;
+		}
+		return points;
+	}
+
+	private static ArrayList<AlgoElement> toList(AlgoUpdateList list) {
+		ArrayList<AlgoElement> ret = new ArrayList<>();
+		for (int i = 0; i < list.size(); i++) {
+			ret.add(list.get(i));
+		}
+		return ret;
+	}
+
+	@Test
+	public void testSameOrderAsTreeSet() {
+		GeoPoint[] points = createConstruction(40);
+		TreeSet<AlgoElement> expected = new TreeSet<>();
+		AlgoUpdateList list = new AlgoUpdateList();
+		for (int i = points.length - 1; i >= 0; i -= 3) {
+			points[i].getAlgoUpdateSet().addAllToCollection(expected);
+			points[i].getAlgoUpdateSet().addAllToList(list);
+		}
+		Assert.assertTrue(expected.size() > 20);
+		Assert.assertEquals(new ArrayList<>(expected), toList(list));
+
+		// reuse after clear
+		list.clear();
+		expected.clear();
+		for (int i = 0; i < points.length; i += 2) {
+			points[i].getAlgoUpdateSet().addAllToCollection(expected);
+			points[i].getAlgoUpdateSet().addAllToList(list);
+		}
+		Assert.assertEquals(new ArrayList<>(expected), toList(list));
+	}
+
+	@Test
+	public void testRemove() {
+		GeoPoint[] points = createConstruction(20);
+		TreeSet<AlgoElement> expected = new TreeSet<>();
+		AlgoUpdateList list = new AlgoUpdateList();
+		for (GeoPoint point : points) {
+			point.getAlgoUpdateSet().addAllToCollection(expected);
+			point.getAlgoUpdateSet().addAllToList(list);
+		}
+		points[5].getAlgoUpdateSet().removeAllFromCollection(expected);
+		points[5].getAlgoUpdateSet().removeAllFromList(list);
+		Assert.assertEquals(new ArrayList<>(expected), toList(list));
+
+		// removed algos are not added again
+		points[5].getAlgoUpdateSet().addAllToList(list);
+		Assert.assertEquals(new ArrayList<>(expected), toList(list));
+	}
+
+	@Test
+	public void testNestedLists() {
+		GeoPoint[] points = createConstruction(20);
+		TreeSet<AlgoElement> expected = new TreeSet<>();
+		AlgoUpdateList outer = new AlgoUpdateList();
+		for (int i = points.length - 1; i >= 0; i--) {
+			points[i].getAlgoUpdateSet().addAllToCollection(expected);
+			points[i].getAlgoUpdateSet().addAllToList(outer);
+		}
+		// a list filled while the outer one is in use doesn't change it
+		AlgoUpdateList inner = new AlgoUpdateList();
+		points[3].getAlgoUpdateSet().addAllToList(inner);
+		points[4].getAlgoUpdateSet().removeAllFromList(inner);
+		inner.clear();
+		points[3].getAlgoUpdateSet().addAllToList(inner);
+		Assert.assertEquals(new ArrayList<>(expected), toList(outer));
+
+		TreeSet<AlgoElement> expectedInner = new TreeSet<>();
+		points[3].getAlgoUpdateSet().addAllToCollection(expectedInner);
+		Assert.assertEquals(new ArrayList<>(expectedInner), toList(inner));
+	}
+
+	@Test
+	public void testOuterListChangedAfterNestedList() {
+		GeoPoint[] points = createConstruction(30);
+		TreeSet<AlgoElement> expected = new TreeSet<>();
+		AlgoUpdateList outer = new AlgoUpdateList();
+		for (int i = 0; i < points.length; i += 2) {
+			points[i].getAlgoUpdateSet().addAllToCollection(expected);
+			points[i].getAlgoUpdateSet().addAllToList(outer);
+		}
+		points[6].getAlgoUpdateSet().removeAllFromCollection(expected);
+		points[6].getAlgoUpdateSet().removeAllFromList(outer);
+		// overwrites the stamps of all algos
+		AlgoUpdateList inner = new AlgoUpdateList();
+		for (GeoPoint point : points) {
+			point.getAlgoUpdateSet().addAllToList(inner);
+		}
+		// added again and removed again in the outer list
+		for (int i = 0; i < points.length; i++) {
+			if (i % 2 == 0 || i % 3 == 0) {
+				points[i].getAlgoUpdateSet().addAllToCollection(expected);
+				points[i].getAlgoUpdateSet().addAllToList(outer);
+			}
+		}
+		points[6].getAlgoUpdateSet().removeAllFromCollection(expected);
+		points[9].getAlgoUpdateSet().removeAllFromCollection(expected);
+		points[9].getAlgoUpdateSet().removeAllFromList(outer);
+		Assert.assertEquals(new ArrayList<>(expected), toList(outer));
+
+		TreeSet<AlgoElement> expectedInner = new TreeSet<>();
+		for (GeoPoint point : points) {
+			point.getAlgoUpdateSet().addAllToCollection(expectedInner);
+		}
+		Assert.assertEquals(new ArrayList<>(expectedInner), toList(inner));
+	}
+
+	@Test
+	public void testHelperAlgosWithSameIndex() {
+		GeoPoint[] points = createConstruction(10);
+		TreeSet<AlgoElement> expected = new TreeSet<>();
+		AlgoUpdateList list = new AlgoUpdateList();
+		// unlabeled algos of the same inputs share a construction index
+		for (int i = 0; i < 40; i++) {
+			AlgoDistancePoints algo = new AlgoDistancePoints(
+					getConstruction(), points[0], points[9 - i % 2]);
+			expected.add(algo);
+			list.add(algo);
+		}
+		for (int i = points.length - 1; i >= 0; i--) {
+			points[i].getAlgoUpdateSet().addAllToCollection(expected);
+			points[i].getAlgoUpdateSet().addAllToList(list);
+		}
+		Assert.assertEquals(new ArrayList<>(expected), toList(list));
+	}
+
+	@Test
+	public void testUpdateCascade() {
+		GeoPoint[] points = createConstruction(10);
+		ArrayList<GeoPoint> moved = new ArrayList<>();
+		for (GeoPoint point : points) {
+			point.setCoords(point.getInhomY(), point.getInhomX(), 1);
+			moved.add(point);
+		}
+		AlgoElement last = getConstruction().getAlgoList()
+				.get(getConstruction().getAlgoList().size() - 1);
+		GeoElement.updateCascade(moved, new AlgoUpdateList(), false);
+		double distance = ((AlgoDistancePoints) last).getDistance()
+				.getValue();
+		Assert.assertEquals(points[0].distance(points[1]), distance, 1E-10);
+	}
+}
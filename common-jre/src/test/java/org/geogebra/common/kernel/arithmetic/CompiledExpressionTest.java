@@ -0,0 +1,165 @@
+package org.geogebra.common.kernel.arithmetic;
+
+import org.geogebra.common.BaseUnitTest;
+import org.geogebra.common.kernel.commands.EvalInfo;
+import org.geogebra.common.kernel.geos.GeoFunction;
+import org.geogebra.common.kernel.geos.GeoNumeric;
+import org.geogebra.common.plugin.Operation;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for CompiledExpression.
+ */
+public class CompiledExpressionTest extends BaseUnitTest {
+
+	private static final double[] SAMPLES = { -7.5, -2, -1, -0.3, 0, 0.25, 1,
+			Math.PI / 2, 3, 10.1 };
+
+	@Test
+	public void testMatchesTreeWalker() {
+		getApp().getKernel().getAlgebraProcessor()
+				.processAlgebraCommand("g(x)=x^2-1", false);
+		String[] definitions = { "f(x)=x^2+3x-1", "f(x)=sin(x)/x",
+				"f(x)=sqrt(abs(x))*exp(-x)", "f(x)=x^(1/3)", "f(x)=x^(2/3)",
+				"f(x)=tan(x)+cos(2x)", "f(x)=ln(x)+lg(x)+ld(x)",
+				"f(x)=sgn(x)*cbrt(x)+sinh(x)-cosh(x)+tanh(x)",
+				"f(x)=g(x+1)/g(x)", "f(x)=pi*x-e^x" };
+		for (String definition : definitions) {
+			GeoFunction geo = getElementFactory().createFunction(definition);
+			Function function = geo.getFunction();
+			getKernel().setCompiledFunctions(false);
+			double[] expected = new double[SAMPLES.length];
+			for (int i = 0; i < SAMPLES.length; i++) {
+				expected[i] = function.value(SAMPLES[i]);
+			}
+			getKernel().setCompiledFunctions(true);
+			Assert.assertNotNull(definition,
+					function.getCompiledExpression());
+			for (int i = 0; i < SAMPLES.length; i++) {
+				Assert.assertEquals(definition + " at " + SAMPLES[i],
+						expected[i], function.value(SAMPLES[i]), 1E-12);
+			}
+		}
+	}
+
+	@Test
+	public void testNonNumericFallsBack() {
+		getKernel().setCompiledFunctions(true);
+		GeoFunction geo = getElementFactory().createFunction("f(x)=floor(x)");
+		Assert.assertNull(geo.getFunction().getCompiledExpression());
+		Assert.assertEquals(-3, geo.value(-2.5), 0);
+
+		FunctionVariable fv = new FunctionVariable(getKernel());
+		MyList list = new MyList(getKernel());
+		list.addListElement(new MyDouble(getKernel(), 2));
+		Function function = new Function(
+				new ExpressionNode(getKernel(), list, Operation.MULTIPLY, fv),
+				fv);
+		Assert.assertNull(function.getCompiledExpression());
+
+		FunctionVariable other = new FunctionVariable(getKernel());
+		function = new Function(
+				new ExpressionNode(getKernel(), other, Operation.PLUS, fv), fv);
+		Assert.assertNull(function.getCompiledExpression());
+	}
+
+	@Test
+	public void testDependentValuesAndInvalidation() {
+		getKernel().setCompiledFunctions(true);
+		GeoNumeric a = (GeoNumeric) getKernel().getAlgebraProcessor()
+				.processAlgebraCommand("a=2", false)[0];
+		GeoFunction geo = getElementFactory().createFunction("f(x)=a*x");
+		Function function = geo.getFunction();
+		Assert.assertEquals(6, function.value(3), 0);
+		a.setValue(5);
+		Assert.assertEquals(15, function.value(3), 0);
+
+		CompiledExpression before = function.getCompiledExpression();
+		function.translate(1, 0);
+		Assert.assertEquals(10, function.value(3), 0);
+		Assert.assertNotSame(before, function.getCompiledExpression());
+
+		function.getExpression().setOperation(Operation.PLUS);
+		Assert.assertEquals(7, function.value(3), 0);
+	}
+
+	@Test
+	public void testChangesOfOtherTreesKeepCompiledForm() {
+		getKernel().setCompiledFunctions(true);
+		Function f = getElementFactory().createFunction("f(x)=x^2+1")
+				.getFunction();
+		Function g = getElementFactory().createFunction("g(x)=3x")
+				.getFunction();
+		CompiledExpression compiled = f.getCompiledExpression();
+		Assert.assertNotNull(compiled);
+
+		g.getExpression().setOperation(Operation.PLUS);
+		Assert.assertEquals(6, g.value(3), 0);
+		Assert.assertSame(compiled, f.getCompiledExpression());
+
+		// a subtree changed in place: x*2+1
+		((ExpressionNode) f.getExpression().getLeft())
+				.setOperation(Operation.MULTIPLY);
+		Assert.assertEquals(7, f.value(3), 0);
+		Assert.assertNotSame(compiled, f.getCompiledExpression());
+	}
+
+	@Test
+	public void testTreeBecomesNumeric() {
+		getKernel().setCompiledFunctions(true);
+		Function f = getElementFactory().createFunction("f(x)=floor(x)+1")
+				.getFunction();
+		Assert.assertNull(f.getCompiledExpression());
+		((ExpressionNode) f.getExpression().getLeft())
+				.setOperation(Operation.ABS);
+		Assert.assertNotNull(f.getCompiledExpression());
+		Assert.assertEquals(3.5, f.value(-2.5), 0);
+	}
+
+	@Test
+	public void testSimplificationInvalidatesCompiledForm() {
+		getKernel().setCompiledFunctions(true);
+		FunctionVariable fv = new FunctionVariable(getKernel());
+		ExpressionNode sum = new ExpressionNode(getKernel(),
+				new MyDouble(getKernel(), 2), Operation.PLUS,
+				new MyDouble(getKernel(), 3));
+		Function f = new Function(fv.wrap().multiply(sum), fv);
+		CompiledExpression compiled = f.getCompiledExpression();
+		Assert.assertNotNull(compiled);
+		// 2+3 is replaced by 5
+		f.getExpression().simplifyConstantIntegers();
+		Assert.assertNotSame(compiled, f.getCompiledExpression());
+		Assert.assertEquals(15, f.value(3), 0);
+	}
+
+	@Test
+	public void testResolvedVariablesInvalidateCompiledForm() {
+		getKernel().setCompiledFunctions(true);
+		getKernel().getAlgebraProcessor().processAlgebraCommand("a=2", false);
+		FunctionVariable fv = new FunctionVariable(getKernel());
+		Function f = new Function(new ExpressionNode(getKernel(),
+				new Variable(getKernel(), "a"), Operation.MULTIPLY, fv), fv);
+		Assert.assertNull(f.getCompiledExpression());
+		f.getExpression().resolveVariables(new EvalInfo(false));
+		Assert.assertNotNull(f.getCompiledExpression());
+		Assert.assertEquals(6, f.value(3), 0);
+	}
+
+	@Test
+	public void testTwoVariables() {
+		FunctionVariable x = new FunctionVariable(getKernel(), "x");
+		FunctionVariable y = new FunctionVariable(getKernel(), "y");
+		ExpressionNode exp = x.wrap().power(2).plus(y.wrap().power(3))
+				.subtract(x.wrap().multiply(y));
+		FunctionNVar function = new FunctionNVar(exp,
+				new FunctionVariable[] { x, y });
+		getKernel().setCompiledFunctions(false);
+		double expected = function.evaluate(1.5, -2);
+		getKernel().setCompiledFunctions(true);
+		Assert.assertNotNull(function.getCompiledExpression());
+		Assert.assertEquals(expected, function.evaluate(1.5, -2), 0);
+		Assert.assertEquals(expected,
+				function.evaluate(new double[] { 1.5, -2 }), 0);
+	}
+}
@@ -0,0 +1,89 @@
+package org.geogebra.common.kernel.discrete;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+
+import org.geogebra.common.BaseUnitTest;
+import org.geogebra.common.kernel.MyPoint;
+import org.geogebra.common.kernel.geos.GeoList;
+import org.geogebra.common.kernel.geos.GeoNumeric;
+import org.geogebra.common.kernel.geos.GeoPoint;
+import org.geogebra.common.kernel.kernelND.GeoPointND;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for ListTriangulation.
+ */
+public class ListTriangulationTest extends BaseUnitTest {
+
+	@Test
+	public void testGridWithDuplicates() {
+		GeoList list = new GeoList(getConstruction());
+		for (int i = 0; i < 5; i++) {
+			for (int j = 0; j < 5; j++) {
+				list.add(new GeoPoint(getConstruction(), i, j, 1));
+			}
+		}
+		list.add(new GeoPoint(getConstruction(), 2, 2, 1));
+		list.add(new GeoNumeric(getConstruction(), 7));
+		list.add(new GeoPoint(getConstruction(), 4, 4, 1));
+		ListTriangulation triangulation = new ListTriangulation();
+		triangulation.update(list);
+		Assert.assertEquals(25, triangulation.size());
+
+		ArrayList<MyPoint> edges = new ArrayList<>();
+		triangulation.addDelaunayEdges(edges);
+		// 20 horizontal, 20 vertical and 16 diagonal edges
+		Assert.assertEquals(56, countDistinctSegments(edges));
+		Assert.assertEquals(2 * 56, edges.size());
+
+		ArrayList<MyPoint> voronoi = new ArrayList<>();
+		triangulation.addVoronoiEdges(voronoi);
+		for (MyPoint point : voronoi) {
+			Assert.assertTrue(point.isFinite());
+		}
+	}
+
+	@Test
+	public void testAppendedPointsMatchRebuild() {
+		Random random = new Random(7);
+		GeoList list = new GeoList(getConstruction());
+		ListTriangulation incremental = new ListTriangulation();
+		for (int i = 0; i < 60; i++) {
+			list.add(new GeoPoint(getConstruction(), random.nextInt(30),
+					random.nextInt(30), 1));
+			incremental.update(list);
+		}
+		Assert.assertTrue(incremental.isChanged());
+		incremental.update(list);
+		Assert.assertFalse(incremental.isChanged());
+
+		ListTriangulation rebuilt = new ListTriangulation();
+		rebuilt.update(list);
+		Assert.assertEquals(rebuilt.size(), incremental.size());
+		ArrayList<MyPoint> expected = new ArrayList<>();
+		rebuilt.addDelaunayEdges(expected);
+		ArrayList<MyPoint> actual = new ArrayList<>();
+		incremental.addDelaunayEdges(actual);
+		Assert.assertEquals(countDistinctSegments(expected),
+				countDistinctSegments(actual));
+
+		((GeoPointND) list.get(3)).setCoords(100, 100, 1);
+		incremental.update(list);
+		Assert.assertTrue(incremental.isChanged());
+	}
+
+	private static int countDistinctSegments(ArrayList<MyPoint> path) {
+		HashSet<String> segments = new HashSet<>();
+		for (int i = 0; i < path.size(); i += 2) {
+			MyPoint a = path.get(i);
+			MyPoint b = path.get(i + 1);
+			boolean swap = a.x > b.x || (a.x == b.x && a.y > b.y);
+			segments.add(swap ? b.x + "," + b.y + "," + a.x + "," + a.y
+					: a.x + "," + a.y + "," + b.x + "," + b.y);
+		}
+		return segments.size();
+	}
+}
@@ -0,0 +1,94 @@
+package org.geogebra.common.kernel.discrete;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.geogebra.common.BaseUnitTest;
+import org.geogebra.common.kernel.discrete.delaunay.PointDt;
+import org.geogebra.common.kernel.geos.GeoList;
+import org.geogebra.common.kernel.geos.GeoPoint;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for SparseGraph.
+ */
+public class SparseGraphTest extends BaseUnitTest {
+
+	@Test
+	public void testDelaunayTreeIsMinimumSpanningTree() {
+		Random random = new Random(3);
+		GeoList list = new GeoList(getConstruction());
+		for (int i = 0; i < 80; i++) {
+			list.add(new GeoPoint(getConstruction(), random.nextInt(40),
+					random.nextInt(40), 1));
+		}
+		ListTriangulation triangulation = new ListTriangulation();
+		triangulation.update(list);
+		ArrayList<PointDt> vertices = new ArrayList<>();
+		SparseGraph delaunay = triangulation.createDelaunayGraph(vertices);
+
+		SparseGraph complete = new SparseGraph(vertices.size());
+		for (int i = 0; i < vertices.size(); i++) {
+			for (int j = i + 1; j < vertices.size(); j++) {
+				complete.addEdge(i, j,
+						vertices.get(i).distance(vertices.get(j)));
+			}
+		}
+		int[] tree = delaunay.minimumSpanningForest();
+		Assert.assertEquals(vertices.size() - 1, tree.length);
+		Assert.assertEquals(totalWeight(complete,
+				complete.minimumSpanningForest()), totalWeight(delaunay, tree),
+				1E-9);
+
+		int[] order = delaunay.subgraph(tree).depthFirstOrder();
+		int[] sorted = Arrays.copyOf(order, order.length);
+		Arrays.sort(sorted);
+		for (int i = 0; i < sorted.length; i++) {
+			Assert.assertEquals(i, sorted[i]);
+		}
+	}
+
+	@Test
+	public void testCollinearPoints() {
+		GeoList list = new GeoList(getConstruction());
+		for (int i : new int[] { 3, 0, 2, 2, 1 }) {
+			list.add(new GeoPoint(getConstruction(), i, 2 * i, 1));
+		}
+		ListTriangulation triangulation = new ListTriangulation();
+		triangulation.update(list);
+		ArrayList<PointDt> vertices = new ArrayList<>();
+		SparseGraph graph = triangulation.createDelaunayGraph(vertices);
+		Assert.assertEquals(4, vertices.size());
+		Assert.assertEquals(3, graph.getEdgeCount());
+		Assert.assertEquals(3 * Math.sqrt(5),
+				totalWeight(graph, graph.minimumSpanningForest()), 1E-9);
+	}
+
+	@Test
+	public void testShortestPath() {
+		SparseGraph graph = new SparseGraph(6);
+		graph.addEdge(0, 1, 1);
+		graph.addEdge(1, 2, 1);
+		graph.addEdge(2, 3, 1);
+		graph.addEdge(0, 3, 5);
+		graph.addEdge(4, 5, 1);
+		Assert.assertArrayEquals(new int[] { 0, 1, 2, 3 },
+				graph.shortestPath(0, 3, true));
+		Assert.assertArrayEquals(new int[] { 0, 3 },
+				graph.shortestPath(0, 3, false));
+		Assert.assertArrayEquals(new int[] { 2 },
+				graph.shortestPath(2, 2, true));
+		Assert.assertNull(graph.shortestPath(0, 5, true));
+		Assert.assertEquals(4, graph.minimumSpanningForest().length);
+	}
+
+	private static double totalWeight(SparseGraph graph, int[] edges) {
+		double sum = 0;
+		for (int edge : edges) {
+			sum += graph.getWeight(edge);
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,89 @@
+package org.geogebra.common.kernel.implicit;
+
+import java.util.ArrayList;
+
+import org.geogebra.common.BaseUnitTest;
+import org.geogebra.common.jre.kernel.ForkJoinExecutor;
+import org.geogebra.common.kernel.MyPoint;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for plotting implicit curves with a parallel executor.
+ */
+public class ParallelQuadTreeTest extends BaseUnitTest {
+
+	private ForkJoinExecutor executor;
+
+	@After
+	public void shutdownExecutor() {
+		getKernel().setParallelExecutor(null);
+		if (executor != null) {
+			executor.shutdown();
+		}
+	}
+
+	private static ArrayList<MyPoint> plot(GeoImplicitCurve curve) {
+		// the test app has no visible view, plot [-10, 10] x [-10, 10]
+		curve.getLocus().getPoints().clear();
+		curve.quadTree.updatePath(-10, -10, 20, 20, 20, 20);
+		return new ArrayList<>(curve.getLocus().getPoints());
+	}
+
+	private void checkSamePath(GeoImplicitCurve curve) {
+		// by default the plot depth depends on the time needed for the grid
+		curve.setAdaptivePlotDepth(false);
+		ArrayList<MyPoint> expected = plot(curve);
+		Assert.assertFalse(expected.isEmpty());
+
+		executor = new ForkJoinExecutor(4);
+		getKernel().setParallelExecutor(executor);
+		ArrayList<MyPoint> actual = plot(curve);
+		Assert.assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			Assert.assertEquals(expected.get(i).x, actual.get(i).x, 0);
+			Assert.assertEquals(expected.get(i).y, actual.get(i).y, 0);
+			Assert.assertEquals(expected.get(i).getLineTo(),
+					actual.get(i).getLineTo());
+		}
+	}
+
+	private static double[][] multiply(double[][] p, double[][] q) {
+		double[][] ret = new double[p.length + q.length - 1][];
+		for (int i = 0; i < ret.length; i++) {
+			ret[i] = new double[p[0].length + q[0].length - 1];
+		}
+		for (int i = 0; i < p.length; i++) {
+			for (int j = 0; j < p[i].length; j++) {
+				for (int k = 0; k < q.length; k++) {
+					for (int l = 0; l < q[k].length; l++) {
+						ret[i + k][j + l] += p[i][j] * q[k][l];
+					}
+				}
+			}
+		}
+		return ret;
+	}
+
+	@Test
+	public void testSamePathAsSequential() {
+		// x^4 + y^4 - 3x^2 y + y^3 = 20
+		GeoImplicitCurve curve = new GeoImplicitCurve(getConstruction());
+		curve.setCoeff(new double[][] { { -20, 0, 0, 1, 1 }, { 0 },
+				{ 0, -3 }, { 0 }, { 1 } });
+		checkSamePath(curve);
+	}
+
+	@Test
+	public void testSamePathWithSeveralFactors() {
+		// (x^2 + y^2 - 9)(x^3 - y^2 - 2x) = 0
+		double[][] circle = { { -9, 0, 1 }, { 0, 0, 0 }, { 1, 0, 0 } };
+		double[][] cubic = { { 0, 0, -1 }, { -2, 0, 0 }, { 0, 0, 0 },
+				{ 1, 0, 0 } };
+		GeoImplicitCurve curve = new GeoImplicitCurve(getConstruction());
+		curve.setCoeff(new double[][][] { multiply(circle, cubic), circle,
+				cubic });
+		checkSamePath(curve);
+	}
+}
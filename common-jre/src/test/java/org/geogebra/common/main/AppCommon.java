@@ -215,7 +215,22 @@ public class AppCommon extends App {
 
     @Override
     public GeoElementGraphicsAdapter newGeoElementGraphicsAdapter() {
-        return null;
+        return new GeoElementGraphicsAdapter() {
+            @Override
+            public MyImage getFillImage() {
+                return image;
+            }
+
+            @Override
+            public void setImageFileName(String fileName) {
+                imageFileName = fileName;
+            }
+
+            @Override
+            public void convertToSaveableFormat() {
+                // no images in tests
+            }
+        };
     }
 
     @Override
@@ -0,0 +1,115 @@
+package org.geogebra.common.main;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for CellRangeIndex.
+ */
+public class CellRangeIndexTest {
+
+	@Test
+	public void testQueryMatchesBruteForce() {
+		Random random = new Random(42);
+		CellRangeIndex<int[]> index = new CellRangeIndex<>();
+		ArrayList<int[]> ranges = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			int col = random.nextInt(20);
+			int row = random.nextInt(1000);
+			int[] range = new int[] { i, col, row, col + random.nextInt(5),
+					row + random.nextInt(i % 10 == 0 ? 1000 : 20) };
+			ranges.add(range);
+			index.add(range, range[1], range[2], range[3], range[4]);
+			if (i % 7 == 0) {
+				int[] removed = ranges.remove(random.nextInt(ranges.size()));
+				Assert.assertTrue(index.remove(removed));
+			}
+			if (i % 50 == 0) {
+				checkAllCells(index, ranges);
+			}
+		}
+		checkAllCells(index, ranges);
+		index.clear();
+		ArrayList<int[]> result = new ArrayList<>();
+		index.query(1, 1, result);
+		Assert.assertEquals(0, result.size());
+	}
+
+	@Test
+	public void testRangesSpanningRowsAndColumns() {
+		Random random = new Random(7);
+		CellRangeIndex<int[]> index = new CellRangeIndex<>();
+		ArrayList<int[]> ranges = new ArrayList<>();
+		for (int i = 0; i < 400; i++) {
+			// whole rows, whole columns and small blocks
+			int col = random.nextInt(25);
+			int row = random.nextInt(2000);
+			int[] range;
+			if (i % 3 == 0) {
+				range = new int[] { i, 0, row, 24, row + random.nextInt(3) };
+			} else if (i % 3 == 1) {
+				range = new int[] { i, col, 0, col + random.nextInt(2),
+						1999 };
+			} else {
+				range = new int[] { i, col, row, col + random.nextInt(4),
+						row + random.nextInt(40) };
+			}
+			ranges.add(range);
+			index.add(range, range[1], range[2], range[3], range[4]);
+		}
+		checkAllCells(index, ranges);
+		// removing most ranges one at a time
+		for (int i = 0; i < 300; i++) {
+			int[] removed = ranges.remove(random.nextInt(ranges.size()));
+			Assert.assertTrue(index.remove(removed));
+			Assert.assertFalse(index.remove(removed));
+			if (i % 100 == 0) {
+				checkAllCells(index, ranges);
+			}
+		}
+		checkAllCells(index, ranges);
+	}
+
+	@Test
+	public void testAddReplacesRange() {
+		CellRangeIndex<int[]> index = new CellRangeIndex<>();
+		int[] item = new int[] { 0 };
+		index.add(item, 0, 0, 5, 5);
+		index.add(item, 10, 10, 12, 12);
+		Assert.assertEquals(1, index.size());
+		ArrayList<int[]> result = new ArrayList<>();
+		index.query(1, 1, result);
+		Assert.assertEquals(0, result.size());
+		index.query(11, 12, result);
+		Assert.assertEquals(1, result.size());
+	}
+
+	private static void checkAllCells(CellRangeIndex<int[]> index,
+			ArrayList<int[]> ranges) {
+		Assert.assertEquals(ranges.size(), index.size());
+		for (int col = 0; col < 25; col++) {
+			for (int row = 0; row < 2000; row += 3) {
+				ArrayList<Integer> expected = new ArrayList<>();
+				for (int[] range : ranges) {
+					if (col >= range[1] && col <= range[3] && row >= range[2]
+							&& row <= range[4]) {
+						expected.add(range[0]);
+					}
+				}
+				ArrayList<int[]> found = new ArrayList<>();
+				index.query(col, row, found);
+				ArrayList<Integer> actual = new ArrayList<>();
+				for (int[] range : found) {
+					actual.add(range[0]);
+				}
+				Collections.sort(expected);
+				Collections.sort(actual);
+				Assert.assertEquals(expected, actual);
+			}
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package org.geogebra.common.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for WeightedLRUCache.
+ */
+public class WeightedLRUCacheTest {
+
+	@Test
+	public void testLeastRecentlyUsedIsEvicted() {
+		WeightedLRUCache<String, Integer> cache = new WeightedLRUCache<>(2,
+				100);
+		cache.put("a", 1, 1);
+		cache.put("b", 2, 1);
+		Assert.assertEquals(Integer.valueOf(1), cache.get("a"));
+		cache.put("c", 3, 1);
+		Assert.assertEquals(2, cache.size());
+		Assert.assertNull(cache.get("b"));
+		Assert.assertEquals(Integer.valueOf(1), cache.get("a"));
+		Assert.assertEquals(Integer.valueOf(3), cache.get("c"));
+		Assert.assertEquals(3, cache.getHits());
+		Assert.assertEquals(1, cache.getMisses());
+	}
+
+	@Test
+	public void testWeightLimit() {
+		WeightedLRUCache<String, Integer> cache = new WeightedLRUCache<>(100,
+				10);
+		cache.put("a", 1, 4);
+		cache.put("b", 2, 4);
+		cache.put("a", 3, 5);
+		Assert.assertEquals(9, cache.getWeight());
+		cache.put("c", 4, 3);
+		Assert.assertEquals(8, cache.getWeight());
+		Assert.assertNull(cache.get("b"));
+		Assert.assertEquals(Integer.valueOf(3), cache.get("a"));
+		cache.put("d", 5, 11);
+		Assert.assertNull(cache.get("d"));
+		Assert.assertEquals(2, cache.size());
+		cache.clear();
+		Assert.assertEquals(0, cache.size());
+		Assert.assertEquals(0, cache.getWeight());
+		Assert.assertEquals(0, cache.getHits());
+	}
+}
@@ -0,0 +1,111 @@
+package org.geogebra.common.util.debug;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.geogebra.common.BaseUnitTest;
+import org.geogebra.common.kernel.algos.AlgoJoinPoints;
+import org.geogebra.common.kernel.geos.GeoPoint;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for latency histograms of elements in GeoGebraProfiler.
+ */
+public class ElementProfileTest extends BaseUnitTest {
+
+	@After
+	public void stopSampling() {
+		GeoGebraProfiler.setElementSampling(0);
+	}
+
+	@Test
+	public void testHistogramPercentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 1000; i++) {
+			histogram.record(i);
+		}
+		Assert.assertEquals(1000, histogram.getCount());
+		Assert.assertEquals(500500, histogram.getTotal());
+		Assert.assertEquals(1000, histogram.getMax());
+		Assert.assertEquals(1000, histogram.getValueAtPercentile(100));
+		// buckets have a relative error below 1/16
+		Assert.assertEquals(500, histogram.getValueAtPercentile(50), 32);
+		Assert.assertEquals(990, histogram.getValueAtPercentile(99), 62);
+		Assert.assertEquals(10, histogram.getValueAtPercentile(1));
+	}
+
+	@Test
+	public void testHistogramLargeValues() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(3);
+		histogram.record(60L * 60 * 1000 * 1000);
+		Assert.assertEquals(3, histogram.getValueAtPercentile(50));
+		Assert.assertEquals(60L * 60 * 1000 * 1000,
+				histogram.getValueAtPercentile(100));
+	}
+
+	@Test
+	public void testAlgoUpdatesAreSampled() {
+		GeoPoint p = new GeoPoint(getConstruction(), "P", 0, 0, 1);
+		GeoPoint q = new GeoPoint(getConstruction(), "Q", 1, 1, 1);
+		new AlgoJoinPoints(getConstruction(), "g", p, q);
+		Assert.assertEquals("{}", GeoGebraProfiler.getElementProfileJSON(5));
+
+		GeoGebraProfiler.setElementSampling(2);
+		for (int i = 0; i < 10; i++) {
+			p.setCoords(i, 0, 1);
+			p.updateCascade();
+		}
+		ElementProfile profile = GeoGebraProfiler.getElementProfile();
+		Assert.assertEquals(5, profile.getAlgoType("Line").getCount());
+		String json = GeoGebraProfiler.getElementProfileJSON(5);
+		Assert.assertTrue(json, json.startsWith(
+				"{\"sampleInterval\":2,\"algoTypes\":[{\"name\":\"Line\","
+						+ "\"count\":5,"));
+		Assert.assertTrue(json, json.contains(
+				"\"algos\":[{\"name\":\"Line\",\"label\":\"g\",\"count\":5,"));
+	}
+
+	@Test
+	public void testUnlabeledAlgosAreKeyedByCommand() {
+		GeoPoint p = new GeoPoint(getConstruction(), "P", 0, 0, 1);
+		GeoPoint q = new GeoPoint(getConstruction(), "Q", 1, 1, 1);
+		getConstruction().setSuppressLabelCreation(true);
+		new AlgoJoinPoints(getConstruction(), null, p, q);
+		getConstruction().setSuppressLabelCreation(false);
+		GeoGebraProfiler.setElementSampling(1);
+		for (int i = 0; i < 3; i++) {
+			p.setCoords(i, 0, 1);
+			p.updateCascade();
+		}
+		String json = GeoGebraProfiler.getElementProfileJSON(5);
+		Assert.assertTrue(json, json
+				.contains("\"algos\":[{\"name\":\"Line\",\"count\":3,"));
+		Assert.assertFalse(json, json.contains("null"));
+	}
+
+	@Test
+	public void testSamplingFromSeveralThreads() throws InterruptedException {
+		final ElementProfile profile = new ElementProfile(10);
+		final AtomicInteger samples = new AtomicInteger();
+		Thread[] threads = new Thread[4];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int j = 0; j < 10000; j++) {
+						if (profile.nextSample()) {
+							samples.incrementAndGet();
+						}
+					}
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		Assert.assertEquals(4000, samples.get());
+	}
+}
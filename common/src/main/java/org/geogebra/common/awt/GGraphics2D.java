@@ -410,4 +410,10 @@ public interface GGraphics2D {
 	 */
 	public void drawImage(MyImage img, int sx, int sy, int sw, int sh, int dx,
 			int dy);
+
+	/**
+	 * Releases resources of graphics created for a bitmap; the graphics must
+	 * not be used afterwards.
+	 */
+	public void dispose();
 }
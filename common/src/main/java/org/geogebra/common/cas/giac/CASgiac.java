@@ -5,6 +5,7 @@ import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Random;
@@ -371,11 +372,12 @@ public abstract class CASgiac implements CASGenericInterface {
 			return functionName;
 		}
 
-		private static void setDependency(CustomFunctions cf1,
-				CustomFunctions cf2) {
+		private static void setDependency(
+				ArrayList<Entry<CustomFunctions, CustomFunctions>> dependencies,
+				CustomFunctions cf1, CustomFunctions cf2) {
 			Entry<CustomFunctions, CustomFunctions> pair = new SimpleEntry<>(
 					cf1, cf2);
-			CustomFunctionsDependencies.add(pair);
+			dependencies.add(pair);
 		}
 
 		/**
@@ -384,21 +386,25 @@ public abstract class CASgiac implements CASGenericInterface {
 		 * function is loaded.
 		 */
 		public static void setDependencies() {
-			CustomFunctionsDependencies = new ArrayList<>();
-			setDependency(IMPLICIT_CURVE_COEFFS, COEFF_MATRIX);
-			setDependency(IMPLICIT_CURVE_COEFFS, COEFF_MATRICES);
-			setDependency(IMPLICIT_CURVE_COEFFS, FACTOR_SQR_FREE);
-			setDependency(GEOM_ELIM, PRIM_POLY);
-			setDependency(LOCUS_EQU, IMPLICIT_CURVE_COEFFS);
-			setDependency(LOCUS_EQU, GEOM_ELIM);
-			setDependency(LOCUS_EQU, JACOBI_PREPARE);
-			setDependency(ENVELOPE_EQU, LOCUS_EQU);
-			setDependency(ENVELOPE_EQU, GEOM_JACOBI_DET);
-			setDependency(GEOM_JACOBI_DET, JACOBI_PREPARE);
-			setDependency(GEOM_JACOBI_DET, JACOBI_DET);
-			setDependency(AFACTOR_ALG_NUM, IRRED);
-			setDependency(ABSFACT, AFACTOR_ALG_NUM);
-			setDependency(COS_2PI_OVER_N_MINPOLY, FACTOR_SQR_FREE);
+			// build a new list so that contexts evaluating in other threads
+			// never see an incomplete one
+			ArrayList<Entry<CustomFunctions, CustomFunctions>> dependencies = new ArrayList<>();
+			setDependency(dependencies, IMPLICIT_CURVE_COEFFS, COEFF_MATRIX);
+			setDependency(dependencies, IMPLICIT_CURVE_COEFFS, COEFF_MATRICES);
+			setDependency(dependencies, IMPLICIT_CURVE_COEFFS, FACTOR_SQR_FREE);
+			setDependency(dependencies, GEOM_ELIM, PRIM_POLY);
+			setDependency(dependencies, LOCUS_EQU, IMPLICIT_CURVE_COEFFS);
+			setDependency(dependencies, LOCUS_EQU, GEOM_ELIM);
+			setDependency(dependencies, LOCUS_EQU, JACOBI_PREPARE);
+			setDependency(dependencies, ENVELOPE_EQU, LOCUS_EQU);
+			setDependency(dependencies, ENVELOPE_EQU, GEOM_JACOBI_DET);
+			setDependency(dependencies, GEOM_JACOBI_DET, JACOBI_PREPARE);
+			setDependency(dependencies, GEOM_JACOBI_DET, JACOBI_DET);
+			setDependency(dependencies, AFACTOR_ALG_NUM, IRRED);
+			setDependency(dependencies, ABSFACT, AFACTOR_ALG_NUM);
+			setDependency(dependencies, COS_2PI_OVER_N_MINPOLY,
+					FACTOR_SQR_FREE);
+			CustomFunctionsDependencies = dependencies;
 		}
 
 		/**
@@ -435,6 +441,9 @@ public abstract class CASgiac implements CASGenericInterface {
 	public long timeoutMillis = 5000;
 	final private static String EVALFA = "evalfa(";
 	private StringBuilder expSB = new StringBuilder(EVALFA);
+	/** results from a context pool by Giac input, each of them used once */
+	private HashMap<String, String> prefetchedResults = new HashMap<>();
+	private HashMap<String, CASException> prefetchedErrors = new HashMap<>();
 
 	// eg {(ggbtmpvarx>(-sqrt(110)/5)) && ((sqrt(110)/5)>ggbtmpvarx)}
 	// eg {(ggbtmpvarx>=(-sqrt(110)/5)) && ((sqrt(110)/5)>=ggbtmpvarx)}
@@ -663,7 +672,7 @@ public abstract class CASgiac implements CASGenericInterface {
 				StringTemplate.giacTemplate, this);
 
 		// evaluate in Giac
-		String plainResult = evaluateCAS(giacInput);
+		String plainResult = evaluatePrefetched(giacInput);
 		// get initial nr of vars
 		int nrOfVars = casParser.getNrOfVars();
 		StringBuilder newPlainResult = new StringBuilder();
@@ -694,6 +703,70 @@ public abstract class CASgiac implements CASGenericInterface {
 		return plainResult;
 	}
 
+	private String evaluatePrefetched(String giacInput) {
+		CASException error = prefetchedErrors.remove(giacInput);
+		if (error != null) {
+			throw error;
+		}
+		if (prefetchedResults.containsKey(giacInput)) {
+			return prefetchedResults.remove(giacInput);
+		}
+		return evaluateCAS(giacInput);
+	}
+
+	/**
+	 * Translates the inputs to Giac and evaluates them in the pool. Until
+	 * {@link #clearPrefetched()} is called, the next evaluation of each of
+	 * the inputs uses the result (or error, e.g. timeout) from the pool.
+	 * 
+	 * @param inputs
+	 *            inputs that don't depend on each other's results
+	 * @param pool
+	 *            context pool
+	 */
+	public synchronized void prefetch(ArrayList<ValidExpression> inputs,
+			GiacContextPool pool) {
+		// translation may set the number of variables for Solve
+		int nrOfVars = casParser.getNrOfVars();
+		LinkedHashSet<String> giacInputs = new LinkedHashSet<>();
+		for (ValidExpression input : inputs) {
+			if (input.isTopLevelCommand("Delete")) {
+				continue;
+			}
+			try {
+				String giacInput = casParser.translateToCAS(input,
+						StringTemplate.giacTemplate, this);
+				if (!prefetchedResults.containsKey(giacInput)) {
+					giacInputs.add(giacInput);
+				}
+			} catch (RuntimeException e) {
+				// reported when the input is evaluated
+				Log.debug("not prefetched: " + e.getMessage());
+			} finally {
+				casParser.setNrOfVars(nrOfVars);
+			}
+		}
+		String[] giac = giacInputs.toArray(new String[0]);
+		CASException[] errors = new CASException[giac.length];
+		String[] results = pool.evaluate(giac, errors);
+		for (int i = 0; i < giac.length; i++) {
+			if (errors[i] != null) {
+				prefetchedErrors.put(giac[i], errors[i]);
+			} else {
+				prefetchedResults.put(giac[i], results[i]);
+			}
+		}
+	}
+
+	/**
+	 * Drops results of {@link #prefetch(ArrayList, GiacContextPool)} that were
+	 * not used.
+	 */
+	public synchronized void clearPrefetched() {
+		prefetchedResults.clear();
+		prefetchedErrors.clear();
+	}
+
 	/**
 	 * Tries to parse a given Giac string and returns a String in GeoGebra
 	 * syntax.
@@ -0,0 +1,85 @@
+package org.geogebra.common.cas.giac;
+
+import java.util.ArrayList;
+
+import org.geogebra.common.kernel.CASException;
+import org.geogebra.common.kernel.CASGenericInterface;
+import org.geogebra.common.kernel.ParallelExecutor;
+
+/**
+ * Independent CAS instances, each with its own Giac context, that evaluate
+ * Giac inputs concurrently. Giac is reset before every evaluation (#5439), so
+ * the result doesn't depend on the context that evaluates an input; inputs of
+ * cells that depend on each other have to be evaluated in separate batches.
+ * Every context applies its own timeout.
+ */
+public class GiacContextPool {
+
+	private final CASGenericInterface[] contexts;
+	private final ParallelExecutor executor;
+
+	/**
+	 * @param contexts
+	 *            CAS instances, each of them is used by one thread at a time
+	 * @param executor
+	 *            executor running the evaluations
+	 */
+	public GiacContextPool(CASGenericInterface[] contexts,
+			ParallelExecutor executor) {
+		this.contexts = contexts;
+		this.executor = executor;
+	}
+
+	/**
+	 * @return number of contexts
+	 */
+	public int size() {
+		return contexts.length;
+	}
+
+	/**
+	 * Evaluates the inputs using all contexts; each context takes the next
+	 * input once it is done with the previous one.
+	 *
+	 * @param inputs
+	 *            Giac inputs
+	 * @param errors
+	 *            gets the exception thrown for each input, e.g. a timeout
+	 * @return results of {@link CASGenericInterface#evaluateCAS(String)}, null
+	 *         where an exception was thrown
+	 */
+	public synchronized String[] evaluate(final String[] inputs,
+			final CASException[] errors) {
+		final String[] results = new String[inputs.length];
+		final int[] next = { 0 };
+		ArrayList<Runnable> tasks = new ArrayList<>();
+		for (int k = 0; k < contexts.length && k < inputs.length; k++) {
+			final CASGenericInterface context = contexts[k];
+			tasks.add(new Runnable() {
+				@Override
+				public void run() {
+					int i;
+					while ((i = take(next, inputs.length)) >= 0) {
+						try {
+							results[i] = context.evaluateCAS(inputs[i]);
+						} catch (CASException e) {
+							errors[i] = e;
+						}
+					}
+				}
+			});
+		}
+		if (tasks.size() == 1) {
+			tasks.get(0).run();
+		} else if (tasks.size() > 1) {
+			executor.invokeAll(tasks);
+		}
+		return results;
+	}
+
+	private static int take(int[] next, int count) {
+		synchronized (next) {
+			return next[0] < count ? next[0]++ : -1;
+		}
+	}
+}
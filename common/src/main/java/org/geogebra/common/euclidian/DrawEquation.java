@@ -12,8 +12,8 @@ import org.geogebra.common.kernel.geos.GeoElement;
 import org.geogebra.common.kernel.kernelND.GeoElementND;
 import org.geogebra.common.main.App;
 import org.geogebra.common.main.GeoGebraColorConstants;
-import org.geogebra.common.main.MyError;
 import org.geogebra.common.util.StringUtil;
+import org.geogebra.common.util.WeightedLRUCache;
 import org.geogebra.common.util.debug.Log;
 
 import com.himamis.retex.renderer.share.TeXConstants;
@@ -34,6 +34,19 @@ import com.himamis.retex.renderer.share.platform.graphics.Insets;
 public abstract class DrawEquation implements DrawEquationI {
 	private static Object initJLaTeXMath;
 
+	/** cache weight of one entry on top of its text length */
+	private static final int ENTRY_WEIGHT = 256;
+	/** maximal number of entries of each cache */
+	private static final int MAX_ENTRIES = 500;
+	/** maximal total weight of each cache */
+	private static final int MAX_WEIGHT = 1 << 20;
+	/** parsed formulas by LaTeX text */
+	private static final WeightedLRUCache<String, TeXFormula> FORMULAS =
+			new WeightedLRUCache<>(MAX_ENTRIES, MAX_WEIGHT);
+	/** laid out icons by size, style and LaTeX text */
+	private static final WeightedLRUCache<String, TeXIcon> ICONS =
+			new WeightedLRUCache<>(MAX_ENTRIES, MAX_WEIGHT);
+
 	/**
 	 * @return \newcommand definitions for GeoGebra specific commands and do
 	 *         other initialization
@@ -141,8 +154,8 @@ public abstract class DrawEquation implements DrawEquationI {
 		if (app.isExporting() || !useCache) {
 
 			// Application.debug("creating new icon for: "+text);
-			TeXIcon icon = createIcon(text, fgColor, font, style, maxWidth,
-					lineSpace, app);
+			TeXIcon icon = createIcon(text, font, style, maxWidth, lineSpace,
+					app);
 
 			HasForegroundColor fg = new HasForegroundColor() {
 
@@ -218,10 +231,12 @@ public abstract class DrawEquation implements DrawEquationI {
 	}
 
 	/**
+	 * Returns a laid out icon that may be shared with other callers: it has
+	 * no foreground color, the color is taken from the HasForegroundColor
+	 * passed to {@link TeXIcon#paintIcon} for every drawing.
+	 * 
 	 * @param text
 	 *            LaTeX
-	 * @param fgColor
-	 *            text color
 	 * @param font
 	 *            font
 	 * @param style
@@ -235,18 +250,28 @@ public abstract class DrawEquation implements DrawEquationI {
 	 *            application
 	 * @return rendered LaTeX
 	 */
-	public TeXIcon createIcon(String text, Color fgColor, GFont font, int style,
+	public TeXIcon createIcon(String text, GFont font, int style,
 			Integer maxWidth, Double lineSpace, App app) {
 		checkFirstCall(app);
+		String key = (font.getSize() + 3) + "," + style + "," + text;
+		TeXIcon icon = ICONS.get(key);
+		if (icon == null) {
+			icon = layoutIcon(text, font, style);
+			ICONS.put(key, icon, ENTRY_WEIGHT + text.length());
+		}
+		return icon;
+	}
+
+	private static TeXIcon layoutIcon(String text, GFont font, int style) {
 		TeXFormula formula;
 		TeXIcon icon;
 
 		try {
-			formula = new TeXFormula(text);
+			formula = parseFormula(text);
 
 			// if (maxWidth == null) {
 			icon = formula.createTeXIcon(TeXConstants.STYLE_DISPLAY,
-					font.getSize() + 3, style, fgColor);
+					font.getSize() + 3, style);
 			// } else {
 			// icon = formula.createTeXIcon(TeXConstants.STYLE_DISPLAY,
 			// font.getSize() + 3, TeXLength.Unit.CM,
@@ -261,7 +286,7 @@ public abstract class DrawEquation implements DrawEquationI {
 
 			formula = TeXFormula.getPartialTeXFormula("?");
 			icon = formula.createTeXIcon(TeXConstants.STYLE_DISPLAY,
-					font.getSize() + 3, style, fgColor);
+					font.getSize() + 3, style);
 
 			// formula.createTeXIcon(TeXConstants.STYLE_DISPLAY, 15,
 			// TeXLength.Unit.CM, 4f, TeXConstants.Align.LEFT,
@@ -278,7 +303,7 @@ public abstract class DrawEquation implements DrawEquationI {
 				formula = TeXFormula.getPartialTeXFormula(text);
 
 				icon = formula.createTeXIcon(TeXConstants.STYLE_DISPLAY,
-						font.getSize() + 3, style, fgColor);
+						font.getSize() + 3, style);
 			} catch (Exception e2) {
 				// e2.printStackTrace();
 				Log.debug("LaTeX parse exception2: " + e2.getMessage() + "\n"
@@ -286,13 +311,31 @@ public abstract class DrawEquation implements DrawEquationI {
 				formula = TeXFormula
 						.getPartialTeXFormula("?");
 				icon = formula.createTeXIcon(TeXConstants.STYLE_DISPLAY,
-						font.getSize() + 3, style, fgColor);
+						font.getSize() + 3, style);
 			}
 		}
 		icon.setInsets(new Insets(1, 1, 1, 1));
 		return icon;
 	}
 
+	private static TeXFormula parseFormula(String text) {
+		TeXFormula formula = FORMULAS.get(text);
+		if (formula == null) {
+			formula = new TeXFormula(text);
+			// only successfully parsed formulas are cached
+			FORMULAS.put(text, formula, ENTRY_WEIGHT + text.length());
+		}
+		return formula;
+	}
+
+	/**
+	 * Clears cached formulas and layouts, called when fonts change.
+	 */
+	public void clearCache() {
+		FORMULAS.clear();
+		ICONS.clear();
+	}
+
 	/**
 	 * @param app
 	 *            application
@@ -319,53 +362,8 @@ public abstract class DrawEquation implements DrawEquationI {
 			final GFont font, final boolean serif, final Integer maxWidth,
 			final Double lineSpace) {
 
-		checkFirstCall(app);
-		GColor fgColor = GColor.BLACK;
-		int style = font.getLaTeXStyle(serif);
-
-		TeXFormula formula;
-		TeXIcon icon;
-
-		try {
-			formula = new TeXFormula(text);
-
-			// if (maxWidth == null) {
-			icon = formula.createTeXIcon(TeXConstants.STYLE_DISPLAY,
-					font.getSize() + 3, style, convertColor(fgColor));
-			// } else {
-			// icon = formula.createTeXIcon(TeXConstants.STYLE_DISPLAY,
-			// font.getSize() + 3, TeXLength.Unit.CM,
-			// maxWidth.intValue(), TeXConstants.Align.LEFT,
-			// TeXLength.Unit.CM, lineSpace.doubleValue());
-			// }
-		} catch (final MyError e) {
-			// e.printStackTrace();
-			// Application.debug("MyError LaTeX parse exception:
-			// "+e.getMessage()+"\n"+text);
-			// Write error message to Graphics View
-
-			formula = TeXFormula.getPartialTeXFormula(text);
-			icon = formula.createTeXIcon(TeXConstants.STYLE_DISPLAY,
-					font.getSize() + 3, style, convertColor(fgColor));
-
-			// formula.createTeXIcon(TeXConstants.STYLE_DISPLAY, 15,
-			// TeXLength.Unit.CM, 4f, TeXConstants.Align.LEFT,
-			// TeXLength.Unit.CM, 0.5f);
-			formula.createTeXIcon(TeXConstants.STYLE_DISPLAY, 4f,
-					TeXConstants.Align.LEFT);
-
-		} catch (final Exception e) {
-			// e.printStackTrace();
-			// Application.debug("LaTeX parse exception:
-			// "+e.getMessage()+"\n"+text);
-			// Write error message to Graphics View
-
-			formula = TeXFormula.getPartialTeXFormula(text);
-			icon = formula.createTeXIcon(TeXConstants.STYLE_DISPLAY,
-					font.getSize() + 3, style, convertColor(fgColor));
-
-		}
-		icon.setInsets(new Insets(1, 1, 1, 1));
+		TeXIcon icon = createIcon(text, font, font.getLaTeXStyle(serif),
+				maxWidth, lineSpace, app);
 
 		return AwtFactory.getPrototype().newDimension(icon.getIconWidth(),
 				icon.getIconHeight());
@@ -107,6 +107,19 @@ public abstract class Drawable extends DrawableND {
 
 	private GRectangle tempFrame;
 
+	/** strokes, highlighting and labels may exceed the bounds */
+	private static final int CULLING_MARGIN = 8;
+	/** whether real world bounds are known since the last update */
+	private boolean worldBoundsKnown = false;
+	/** whether the label was drawn when the bounds were computed */
+	private boolean worldBoundsWithLabel = false;
+	private double worldMinX;
+	private double worldMaxX;
+	private double worldMinY;
+	private double worldMaxY;
+	/** update after view change was skipped because of being off screen */
+	private boolean updateDeferred = false;
+
 	/**
 	 * Whether current paint is the first one
 	 */
@@ -193,6 +206,114 @@ public abstract class Drawable extends DrawableND {
 		return null;
 	}
 
+	/**
+	 * Drawables that are clipped to the view (lines, conics, functions, ...)
+	 * or that only know their size after drawing must not be culled: their
+	 * bounds after panning or zooming are not known without an update.
+	 * 
+	 * @return whether the bounds are the full extent of this drawable, so that
+	 *         drawing and updates may be skipped while they are outside of the
+	 *         view
+	 */
+	protected boolean isCullable() {
+		return false;
+	}
+
+	/**
+	 * Checks the bounds against the view. The bounds are kept in real world
+	 * coordinates until the next update, so that updates after zooming or
+	 * panning can be deferred while this stays off screen.
+	 * 
+	 * @return whether this is completely outside of the view
+	 */
+	public final boolean cull() {
+		if (!isCullable() || view.getApplication().isExporting()) {
+			return false;
+		}
+		// label rectangle is only set when the label is drawn
+		if (!worldBoundsKnown || (!worldBoundsWithLabel
+				&& labelRectangle != null && getGeoElement().isLabelVisible())) {
+			updateWorldBounds();
+		}
+		return worldBoundsKnown && isOutsideView();
+	}
+
+	private void updateWorldBounds() {
+		worldBoundsKnown = false;
+		GRectangle bounds = getBounds();
+		if (bounds == null) {
+			return;
+		}
+		double minX = bounds.getMinX();
+		double maxX = bounds.getMaxX();
+		double minY = bounds.getMinY();
+		double maxY = bounds.getMaxY();
+		worldBoundsWithLabel = labelRectangle != null
+				&& getGeoElement().isLabelVisible();
+		if (worldBoundsWithLabel) {
+			minX = Math.min(minX, Math.min(labelRectangle.getMinX(), xLabel));
+			maxX = Math.max(maxX, Math.max(labelRectangle.getMaxX(),
+					xLabel + labelRectangle.getWidth()));
+			minY = Math.min(minY, Math.min(labelRectangle.getMinY(),
+					yLabel - labelRectangle.getHeight()));
+			maxY = Math.max(maxY, Math.max(labelRectangle.getMaxY(), yLabel));
+		}
+		int margin = CULLING_MARGIN + getGeoElement().getLineThickness();
+		minX -= margin;
+		maxX += margin;
+		minY -= margin;
+		maxY += margin;
+		worldMinX = view.toRealWorldCoordX(minX);
+		worldMaxX = view.toRealWorldCoordX(maxX);
+		// screen y-axis points down
+		worldMinY = view.toRealWorldCoordY(maxY);
+		worldMaxY = view.toRealWorldCoordY(minY);
+		worldBoundsKnown = true;
+	}
+
+	/**
+	 * Marks this for update after the view changed. The update is deferred if
+	 * this was off screen when last drawn and still is.
+	 * 
+	 * @return whether the update was deferred
+	 */
+	public final boolean deferUpdateForView() {
+		if (updateDeferred) {
+			// full update is still pending, it runs when this is drawn
+			return true;
+		}
+		if (!worldBoundsKnown || isTracing() || getGeoElement().isSelected()
+				|| !isOutsideView()) {
+			return false;
+		}
+		setNeedsUpdate(true);
+		updateDeferred = true;
+		return true;
+	}
+
+	/**
+	 * @return whether the update was deferred and this is still outside of
+	 *         the view, so its screen coordinates are not valid
+	 */
+	public final boolean isDeferredOutsideView() {
+		return updateDeferred && !view.getApplication().isExporting()
+				&& isOutsideView();
+	}
+
+	private boolean isOutsideView() {
+		return worldMaxX < view.getXmin() || worldMinX > view.getXmax()
+				|| worldMaxY < view.getYmin() || worldMinY > view.getYmax();
+	}
+
+	/**
+	 * Forgets the bounds used for culling, call after updating this or when
+	 * the element changed.
+	 */
+	public final void resetCulling() {
+		worldBoundsKnown = false;
+		updateDeferred = false;
+	}
+
 	/**
 	 * Returns the minimum width of drawable
 	 */
@@ -498,6 +619,13 @@ public abstract class Drawable extends DrawableND {
 		return labelRectangle.contains(x, y);
 	}
 
+	/**
+	 * @return rectangle used for label hit testing
+	 */
+	public GRectangle getLabelRectangle() {
+		return labelRectangle;
+	}
+
 	/**
 	 * Was clicked at the handlers of bounding box? (mouse pointer location
 	 * (x,y) in screen coords)
@@ -0,0 +1,351 @@
+package org.geogebra.common.euclidian;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+
+import org.geogebra.common.awt.GRectangle;
+import org.geogebra.common.euclidian.DrawableList.DrawableIterator;
+
+/**
+ * Uniform grid of drawable screen bounds, used to narrow down the drawables
+ * that need to be tested in hit testing. Bounds are refreshed lazily: the view
+ * marks drawables as changed and the grid rereads their bounds before the
+ * next query. Drawables may finish their update while being drawn, so until
+ * the next paint changed drawables are treated as unbounded. Cells are sets, so
+ * that moving or removing a drawable doesn't depend on the number of
+ * drawables in its cells.
+ */
+public class DrawableGrid {
+
+	/** size of grid cells in pixels */
+	private static final int CELL_SIZE = 64;
+	/** for smaller constructions testing everything is cheap enough */
+	private static final int MIN_DRAWABLES = 500;
+	/** bounds are not exact for thick strokes and decorations */
+	private static final int MARGIN = 4;
+
+	private final EuclidianView view;
+	private final DrawableList drawables;
+
+	private final HashMap<Drawable, Entry> entries = new HashMap<>();
+	private final ArrayList<HashSet<Entry>> cells = new ArrayList<>();
+	/** drawables without bounds, always tested */
+	private final HashSet<Entry> unbounded = new HashSet<>();
+	private final HashSet<Entry> changed = new HashSet<>();
+	private final ArrayList<Drawable> candidates = new ArrayList<>();
+	private final ArrayList<Entry> candidateEntries = new ArrayList<>();
+
+	private int columns;
+	private int rows;
+	private boolean rebuildNeeded = true;
+	private boolean positionsValid = false;
+	private int queryStamp = 0;
+	private int paintCount = 0;
+
+	private static final Comparator<Entry> LIST_ORDER = new Comparator<Entry>() {
+		@Override
+		public int compare(Entry e1, Entry e2) {
+			return e1.position - e2.position;
+		}
+	};
+
+	/**
+	 * Indexed drawable and the grid cells it's stored in.
+	 */
+	private static class Entry {
+		protected final Drawable drawable;
+		/** position in drawable list, defines order of hits */
+		protected int position;
+		protected boolean changed;
+		/** paint count when the drawable was last changed */
+		protected int changedPaint;
+		protected boolean isUnbounded;
+		protected int minCol;
+		protected int maxCol;
+		protected int minRow;
+		protected int maxRow;
+		protected int stamp;
+
+		protected Entry(Drawable drawable) {
+			this.drawable = drawable;
+			// not in any cell yet
+			this.maxRow = -1;
+		}
+	}
+
+	/**
+	 * @param view
+	 *            view
+	 * @param drawables
+	 *            list of all drawables of the view
+	 */
+	public DrawableGrid(EuclidianView view, DrawableList drawables) {
+		this.view = view;
+		this.drawables = drawables;
+	}
+
+	/**
+	 * @return whether the grid should be used for the current number of
+	 *         drawables
+	 */
+	public boolean isActive() {
+		return drawables.size() >= MIN_DRAWABLES;
+	}
+
+	/**
+	 * Call after drawable was added to the list of all drawables.
+	 *
+	 * @param d
+	 *            drawable
+	 */
+	public void add(Drawable d) {
+		positionsValid = false;
+		if (rebuildNeeded) {
+			return;
+		}
+		Entry entry = new Entry(d);
+		entries.put(d, entry);
+		markChanged(entry);
+	}
+
+	/**
+	 * Call after drawable was removed from the list of all drawables.
+	 *
+	 * @param d
+	 *            drawable
+	 */
+	public void remove(Drawable d) {
+		positionsValid = false;
+		Entry entry = entries.remove(d);
+		if (entry != null) {
+			removeFromCells(entry);
+			changed.remove(entry);
+		}
+	}
+
+	/**
+	 * Bounds of the drawable may have changed.
+	 *
+	 * @param d
+	 *            drawable
+	 */
+	public void update(Drawable d) {
+		if (rebuildNeeded) {
+			return;
+		}
+		Entry entry = entries.get(d);
+		if (entry != null) {
+			markChanged(entry);
+		}
+	}
+
+	/**
+	 * Bounds of all drawables may have changed (zoom, font size, clear).
+	 */
+	public void updateAll() {
+		rebuildNeeded = true;
+	}
+
+	/**
+	 * Call after the view was painted: changed drawables are up to date.
+	 */
+	public void painted() {
+		paintCount++;
+	}
+
+	private void markChanged(Entry entry) {
+		entry.changedPaint = paintCount;
+		if (!entry.changed) {
+			entry.changed = true;
+			changed.add(entry);
+		}
+	}
+
+	/**
+	 * Returns drawables that may be hit at given point, in the order of the
+	 * list of all drawables. The returned list is reused by the next query.
+	 *
+	 * @param x
+	 *            screen x-coord
+	 * @param y
+	 *            screen y-coord
+	 * @param threshold
+	 *            hit threshold
+	 * @return drawables whose bounds or label are near the point
+	 */
+	public ArrayList<Drawable> getCandidates(int x, int y, int threshold) {
+		return getCandidates(x - threshold, y - threshold, x + threshold,
+				y + threshold);
+	}
+
+	/**
+	 * Returns drawables that may intersect given rectangle, in the order of
+	 * the list of all drawables. The returned list is reused by the next
+	 * query.
+	 *
+	 * @param rect
+	 *            screen rectangle
+	 * @return drawables whose bounds or label intersect the rectangle
+	 */
+	public ArrayList<Drawable> getCandidates(GRectangle rect) {
+		return getCandidates((int) Math.floor(rect.getMinX()),
+				(int) Math.floor(rect.getMinY()),
+				(int) Math.ceil(rect.getMaxX()),
+				(int) Math.ceil(rect.getMaxY()));
+	}
+
+	private ArrayList<Drawable> getCandidates(int x1, int y1, int x2,
+			int y2) {
+		refresh();
+		queryStamp++;
+		candidateEntries.clear();
+		for (Entry entry : unbounded) {
+			addCandidate(entry);
+		}
+		int minCol = column(x1);
+		int maxCol = column(x2);
+		int minRow = row(y1);
+		int maxRow = row(y2);
+		for (int row = minRow; row <= maxRow; row++) {
+			for (int col = minCol; col <= maxCol; col++) {
+				for (Entry entry : cells.get(row * columns + col)) {
+					addCandidate(entry);
+				}
+			}
+		}
+		Collections.sort(candidateEntries, LIST_ORDER);
+		candidates.clear();
+		for (Entry entry : candidateEntries) {
+			candidates.add(entry.drawable);
+		}
+		return candidates;
+	}
+
+	private void addCandidate(Entry entry) {
+		if (entry.stamp != queryStamp) {
+			entry.stamp = queryStamp;
+			candidateEntries.add(entry);
+		}
+	}
+
+	private void refresh() {
+		int newColumns = view.getWidth() / CELL_SIZE + 1;
+		int newRows = view.getHeight() / CELL_SIZE + 1;
+		if (newColumns != columns || newRows != rows) {
+			columns = newColumns;
+			rows = newRows;
+			rebuildNeeded = true;
+		}
+		if (rebuildNeeded) {
+			rebuild();
+		}
+		if (!positionsValid) {
+			updatePositions();
+		}
+		if (!changed.isEmpty()) {
+			Iterator<Entry> it = changed.iterator();
+			while (it.hasNext()) {
+				Entry entry = it.next();
+				removeFromCells(entry);
+				boolean painted = entry.changedPaint != paintCount;
+				insert(entry, painted);
+				// drawables waiting for update still have old bounds
+				if (painted && !entry.drawable.needsUpdate()) {
+					entry.changed = false;
+					it.remove();
+				}
+			}
+		}
+	}
+
+	private void rebuild() {
+		rebuildNeeded = false;
+		entries.clear();
+		changed.clear();
+		unbounded.clear();
+		cells.clear();
+		for (int i = 0; i < columns * rows; i++) {
+			cells.add(new HashSet<Entry>());
+		}
+		DrawableIterator it = drawables.getIterator();
+		while (it.hasNext()) {
+			Entry entry = new Entry(it.next());
+			entries.put(entry.drawable, entry);
+			markChanged(entry);
+		}
+		positionsValid = false;
+	}
+
+	private void updatePositions() {
+		int position = 0;
+		DrawableIterator it = drawables.getIterator();
+		while (it.hasNext()) {
+			Entry entry = entries.get(it.next());
+			if (entry != null) {
+				entry.position = position;
+			}
+			position++;
+		}
+		positionsValid = true;
+	}
+
+	private void insert(Entry entry, boolean painted) {
+		Drawable d = entry.drawable;
+		GRectangle bounds = !painted || d.needsUpdate() ? null
+				: d.getBounds();
+		if (bounds == null) {
+			entry.isUnbounded = true;
+			unbounded.add(entry);
+			return;
+		}
+		entry.isUnbounded = false;
+		double minX = bounds.getMinX();
+		double maxX = bounds.getMaxX();
+		double minY = bounds.getMinY();
+		double maxY = bounds.getMaxY();
+		GRectangle label = d.getLabelRectangle();
+		if (label != null && label.getWidth() > 0 && label.getHeight() > 0) {
+			minX = Math.min(minX, label.getMinX());
+			maxX = Math.max(maxX, label.getMaxX());
+			minY = Math.min(minY, label.getMinY());
+			maxY = Math.max(maxY, label.getMaxY());
+		}
+		int margin = MARGIN + d.getGeoElement().getLineThickness();
+		entry.minCol = column((int) Math.floor(minX) - margin);
+		entry.maxCol = column((int) Math.ceil(maxX) + margin);
+		entry.minRow = row((int) Math.floor(minY) - margin);
+		entry.maxRow = row((int) Math.ceil(maxY) + margin);
+		for (int row = entry.minRow; row <= entry.maxRow; row++) {
+			for (int col = entry.minCol; col <= entry.maxCol; col++) {
+				cells.get(row * columns + col).add(entry);
+			}
+		}
+	}
+
+	private void removeFromCells(Entry entry) {
+		if (entry.isUnbounded) {
+			unbounded.remove(entry);
+			entry.isUnbounded = false;
+			return;
+		}
+		for (int row = entry.minRow; row <= entry.maxRow; row++) {
+			for (int col = entry.minCol; col <= entry.maxCol; col++) {
+				cells.get(row * columns + col).remove(entry);
+			}
+		}
+		// empty range until inserted again
+		entry.maxRow = -1;
+	}
+
+	private int column(int x) {
+		return Math.max(0, Math.min(columns - 1, x / CELL_SIZE));
+	}
+
+	private int row(int y) {
+		return Math.max(0, Math.min(rows - 1, y / CELL_SIZE));
+	}
+}
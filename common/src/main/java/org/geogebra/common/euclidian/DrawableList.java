@@ -19,6 +19,7 @@ import java.util.NoSuchElementException;
 import org.geogebra.common.awt.GGraphics2D;
 import org.geogebra.common.kernel.geos.GeoElement;
 import org.geogebra.common.kernel.geos.GeoList;
+import org.geogebra.common.util.debug.GeoGebraProfiler;
 
 /**
  * List to store Drawable objects for fast drawing.
@@ -175,44 +176,103 @@ public class DrawableList {
 	public final void drawAll(GGraphics2D g2) {
 		Link cur = head;
 		while (cur != null) {
-			// defined check needed in case the GeoList changed its size
-			// don't draw GeoList as combos here
-			GeoElement geo = cur.d.getGeoElement();
-			if (geo.isDefined()
-					&& !(geo.isGeoList() && ((GeoList) geo).drawAsComboBox())
-					&& !(geo.isGeoInputBox())) {
-				if (cur.d.needsUpdate()) {
-					cur.d.setNeedsUpdate(false);
-					cur.d.update();
-				}
-				cur.d.draw(g2);
-			}
+			draw(cur.d, g2);
 			cur = cur.next;
 		}
 	}
 
+	/**
+	 * Draws a drawable of the list, updates it first if needed.
+	 * 
+	 * @param d
+	 *            drawable
+	 * @param g2
+	 *            graphics
+	 */
+	static void draw(Drawable d, GGraphics2D g2) {
+		// defined check needed in case the GeoList changed its size
+		// don't draw GeoList as combos here
+		GeoElement geo = d.getGeoElement();
+		if (geo.isDefined()
+				&& !(geo.isGeoList() && ((GeoList) geo).drawAsComboBox())
+				&& !(geo.isGeoInputBox())) {
+			// skip drawables outside of the view, keep their update deferred
+			if (d.isDeferredOutsideView()) {
+				return;
+			}
+			update(d);
+			if (d.cull()) {
+				return;
+			}
+			double start = GeoGebraProfiler.startElementSample();
+			d.draw(g2);
+			if (start >= 0) {
+				GeoGebraProfiler.addDrawableDraw(geo.getGeoClassType().name(),
+						geo.getLabelSimple(), start);
+			}
+		}
+	}
+
+	/**
+	 * Runs pending update of a drawable.
+	 * 
+	 * @param d
+	 *            drawable
+	 */
+	static void update(Drawable d) {
+		if (d.needsUpdate()) {
+			d.setNeedsUpdate(false);
+			double start = GeoGebraProfiler.startElementSample();
+			d.update();
+			d.resetCulling();
+			addUpdateSample(d.getGeoElement(), start);
+		}
+	}
+
 	/**
 	 * Updates all drawables in list
 	 */
 	public final void updateAll() {
 		Link cur = head;
 		while (cur != null) {
+			double start = GeoGebraProfiler.startElementSample();
 			cur.d.update();
+			cur.d.resetCulling();
+			addUpdateSample(cur.d.getGeoElement(), start);
 			cur = cur.next;
 		}
 	}
 
 	/**
-	 * Update all elements when view was updated
+	 * Update all elements when view was updated; updates of elements that
+	 * stay off screen are deferred until they are drawn.
 	 */
 	public final void updateAllForView() {
 		Link cur = head;
 		while (cur != null) {
-			cur.d.updateForView();
+			if (!cur.d.deferUpdateForView()) {
+				double start = GeoGebraProfiler.startElementSample();
+				cur.d.updateForView();
+				cur.d.resetCulling();
+				addUpdateSample(cur.d.getGeoElement(), start);
+			}
 			cur = cur.next;
 		}
 	}
 
+	/**
+	 * @param geo
+	 *            element of updated drawable
+	 * @param start
+	 *            result of GeoGebraProfiler.startElementSample()
+	 */
+	static void addUpdateSample(GeoElement geo, double start) {
+		if (start >= 0 && geo != null) {
+			GeoGebraProfiler.addDrawableUpdate(geo.getGeoClassType().name(),
+					geo.getLabelSimple(), start);
+		}
+	}
+
 	/**
 	 * Updates fot size for all drawables in list
 	 */
@@ -220,6 +280,7 @@ public class DrawableList {
 		Link cur = head;
 		while (cur != null) {
 			cur.d.updateFontSize();
+			cur.d.resetCulling();
 			cur = cur.next;
 		}
 	}
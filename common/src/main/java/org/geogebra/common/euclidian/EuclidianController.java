@@ -16,7 +16,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.TreeSet;
 
 import org.geogebra.common.awt.GPoint;
 import org.geogebra.common.awt.GPoint2D;
@@ -65,6 +64,7 @@ import org.geogebra.common.kernel.algos.AlgoRoots;
 import org.geogebra.common.kernel.algos.AlgoRootsPolynomial;
 import org.geogebra.common.kernel.algos.AlgoRootsPolynomialInterval;
 import org.geogebra.common.kernel.algos.AlgoTranslate;
+import org.geogebra.common.kernel.algos.AlgoUpdateList;
 import org.geogebra.common.kernel.algos.AlgoVector;
 import org.geogebra.common.kernel.algos.AlgoVectorPoint;
 import org.geogebra.common.kernel.algos.AlgoVertexConic;
@@ -5859,7 +5859,7 @@ public abstract class EuclidianController implements SpecialPointsListener {
 			for (GeoPointND pt : pts) {
 				pt.rotate(tempNum, rotationCenter);
 			}
-			GeoElement.updateCascade(pts, new TreeSet<AlgoElement>(), false);
+			GeoElement.updateCascade(pts, new AlgoUpdateList(), false);
 			view.repaint();
 		}
 		rotationLastAngle = newAngle;
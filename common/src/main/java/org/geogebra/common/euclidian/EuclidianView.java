@@ -86,6 +86,7 @@ import org.geogebra.common.util.DoubleUtil;
 import org.geogebra.common.util.MyMath;
 import org.geogebra.common.util.NumberFormatAdapter;
 import org.geogebra.common.util.StringUtil;
+import org.geogebra.common.util.debug.GeoGebraProfiler;
 
 import com.himamis.retex.editor.share.util.Unicode;
 
@@ -276,6 +277,14 @@ public abstract class EuclidianView implements EuclidianViewInterfaceCommon,
 	private ArrayList<GeoPointND> stickyPointList = new ArrayList<>();
 
 	protected DrawableList allDrawableList = new DrawableList();
+	/** spatial index of allDrawableList for hit testing */
+	private final DrawableGrid drawableGrid = new DrawableGrid(this,
+			allDrawableList);
+	/** bitmaps of the layers, repainted where drawables changed */
+	private final LayerCache layerCache = new LayerCache(this,
+			allDrawableList);
+	/** whether drawObjects paints the view rather than an export */
+	private boolean paintingView = false;
 	/** lists of geos on different layers */
 	public DrawableList[] drawLayers;
 
@@ -1678,6 +1687,8 @@ public abstract class EuclidianView implements EuclidianViewInterfaceCommon,
 			return;
 		}
 		allDrawableList.updateAll();
+		drawableGrid.updateAll();
+		layerCache.invalidateAll();
 		if (repaint) {
 			repaint();
 		}
@@ -1693,6 +1704,8 @@ public abstract class EuclidianView implements EuclidianViewInterfaceCommon,
 			return;
 		}
 		allDrawableList.updateAllForView();
+		drawableGrid.updateAll();
+		layerCache.invalidateAll();
 		if (repaint) {
 			repaint();
 		}
@@ -1714,6 +1727,8 @@ public abstract class EuclidianView implements EuclidianViewInterfaceCommon,
 		this.batchUpdate = false;
 		if (this.needsAllDrawablesUpdate) {
 			allDrawableList.updateAll();
+			drawableGrid.updateAll();
+			layerCache.invalidateAll();
 			repaint();
 		}
 	}
@@ -1851,6 +1866,7 @@ public abstract class EuclidianView implements EuclidianViewInterfaceCommon,
 		Object d = drawableMap.get(geo);
 		if (d != null) {
 			((Drawable) d).update();
+			drawableChanged((Drawable) d);
 			repaint();
 		}
 	}
@@ -1869,6 +1885,7 @@ public abstract class EuclidianView implements EuclidianViewInterfaceCommon,
 				this.updateBackgroundOnNextRepaint = ((DrawImage) d)
 						.checkInBackground()
 						|| this.updateBackgroundOnNextRepaint;
+				drawableChanged(d);
 				return;
 			}
 			// Keep update of input boxes synchronous #4416
@@ -1877,9 +1894,13 @@ public abstract class EuclidianView implements EuclidianViewInterfaceCommon,
 					&& !geo.isGeoInputBox()
 					&& (!geo.getTrace() || d.isTracing())) {
 				d.setNeedsUpdate(true);
+				drawableChanged(d);
 				return;
 			}
+			double start = GeoGebraProfiler.startElementSample();
 			d.update();
+			DrawableList.addUpdateSample(geo, start);
+			drawableChanged(d);
 		} else if (drawableNeeded(geo) && geosWaiting.contains(geo)) {
 			geosWaiting.remove(geo);
 			add(geo);
@@ -2007,6 +2028,7 @@ public abstract class EuclidianView implements EuclidianViewInterfaceCommon,
 		if (drawableMap.containsKey(geo)) {
 			DrawableND drawable = drawableMap.get(geo);
 			drawable.setNeedsUpdate(true);
+			drawableChanged(drawable);
 			return true;
 		}
 		return false;
@@ -2076,6 +2098,8 @@ public abstract class EuclidianView implements EuclidianViewInterfaceCommon,
 			drawLayers[layer].remove(d);
 		}
 		allDrawableList.remove(d);
+		drawableGrid.remove(d);
+		layerCache.removed(d);
 
 		drawableMap.remove(geo);
 		if (geo.isGeoPoint()) {
@@ -2170,21 +2194,15 @@ public abstract class EuclidianView implements EuclidianViewInterfaceCommon,
 		if (p == null) {
 			return;
 		}
-		DrawableIterator it = allDrawableList.getIterator();
-		while (it.hasNext()) {
-			Drawable d = it.next();
-			if (d.isEuclidianVisible()) {
-				if (d.hit(p.x, p.y, hitThreshold)) {
-					GeoElement geo = d.getGeoElement();
-					if (geo.getLastHitType() == HitType.ON_BOUNDARY) {
-						hitPointOrBoundary.add(geo);
-					} else {
-						hitFilling.add(geo);
-					}
-				} else if (d.hitLabel(p.x, p.y)) {
-					GeoElement geo = d.getGeoElement();
-					hitLabel.add(geo);
-				}
+		if (drawableGrid.isActive()) {
+			for (Drawable d : drawableGrid.getCandidates(p.x, p.y,
+					hitThreshold)) {
+				addHit(d, p, hitThreshold);
+			}
+		} else {
+			DrawableIterator it = allDrawableList.getIterator();
+			while (it.hasNext()) {
+				addHit(it.next(), p, hitThreshold);
 			}
 		}
 
@@ -2253,6 +2271,30 @@ public abstract class EuclidianView implements EuclidianViewInterfaceCommon,
 
 	}
 
+	private void addHit(Drawable d, GPoint p, int hitThreshold) {
+		if (d.isEuclidianVisible() && !d.isDeferredOutsideView()) {
+			if (d.hit(p.x, p.y, hitThreshold)) {
+				GeoElement geo = d.getGeoElement();
+				if (geo.getLastHitType() == HitType.ON_BOUNDARY) {
+					hitPointOrBoundary.add(geo);
+				} else {
+					hitFilling.add(geo);
+				}
+			} else if (d.hitLabel(p.x, p.y)) {
+				GeoElement geo = d.getGeoElement();
+				hitLabel.add(geo);
+			}
+		}
+	}
+
+	private void drawableChanged(DrawableND d) {
+		if (d instanceof Drawable) {
+			((Drawable) d).resetCulling();
+			drawableGrid.update((Drawable) d);
+			layerCache.changed((Drawable) d);
+		}
+	}
+
 	@Override
 	public MyButton getHitButton(GPoint p, PointerEventType type) {
 		DrawableIterator it = allDrawableList.getIterator();
@@ -2422,6 +2464,8 @@ public abstract class EuclidianView implements EuclidianViewInterfaceCommon,
 
 		if (d != null) {
 			allDrawableList.add(d);
+			drawableGrid.add(d);
+			layerCache.changed(d);
 		}
 	}
 
@@ -2509,7 +2553,10 @@ public abstract class EuclidianView implements EuclidianViewInterfaceCommon,
 
 	@Override
 	public void updateHighlight(GeoElementND geo) {
-		// nothing to do here
+		DrawableND d = drawableMap.get(geo);
+		if (d instanceof Drawable) {
+			layerCache.changed((Drawable) d);
+		}
 	}
 
 	@Override
@@ -2537,6 +2584,8 @@ public abstract class EuclidianView implements EuclidianViewInterfaceCommon,
 	 */
 	protected void updateDrawableFontSize() {
 		allDrawableList.updateFontSizeAll();
+		drawableGrid.updateAll();
+		layerCache.invalidateAll();
 		repaint();
 	}
 
@@ -2695,10 +2744,22 @@ public abstract class EuclidianView implements EuclidianViewInterfaceCommon,
 		}
 	}
 
+	/**
+	 * The element is drawn differently although it was not updated, e.g. a
+	 * button was pressed.
+	 * 
+	 * @param geo
+	 *            element
+	 */
+	public void invalidateDrawable(GeoElementND geo) {
+		drawableChanged(drawableMap.get(geo));
+	}
+
 	@Override
 	public void changeLayer(GeoElement geo, int oldlayer, int newlayer) {
 		drawLayers[oldlayer].remove((Drawable) drawableMap.get(geo));
 		drawLayers[newlayer].add((Drawable) drawableMap.get(geo));
+		drawableChanged(drawableMap.get(geo));
 	}
 
 	/**
@@ -3643,11 +3704,22 @@ public abstract class EuclidianView implements EuclidianViewInterfaceCommon,
 	 *            graphics
 	 */
 	public void drawObjects(GGraphics2D g2) {
-		if (maxCachedLayer >= 0 && getCacheGraphics() != null) {
-			g2.drawImage(getCacheGraphics(), 0, 0);
+		if (paintingView && layerCache.isActive() && layerCache.draw(g2,
+				getApplication().getMaxLayerUsed())) {
+			if (getEuclidianController().isMultiSelection()) {
+				getEuclidianController().setBoundingBoxFromList(
+						app.getSelectionManager().getSelectedGeos());
+			}
+		} else {
+			if (paintingView) {
+				layerCache.release();
+			}
+			if (maxCachedLayer >= 0 && getCacheGraphics() != null) {
+				g2.drawImage(getCacheGraphics(), 0, 0);
+			}
+			drawGeometricObjects(g2, maxCachedLayer + 1,
+					getApplication().getMaxLayerUsed());
 		}
-		drawGeometricObjects(g2, maxCachedLayer + 1,
-				getApplication().getMaxLayerUsed());
 		drawActionObjects(g2);
 
 		if (previewDrawable != null) {
@@ -3761,7 +3833,13 @@ public abstract class EuclidianView implements EuclidianViewInterfaceCommon,
 			// these blocks... as there is only one lock object and
 			// these methods probably do not call other synchronized
 			// code blocks, it probably does not cause any problem
-			companion.paint(g2, g3);
+			paintingView = true;
+			try {
+				companion.paint(g2, g3);
+			} finally {
+				paintingView = false;
+			}
+			drawableGrid.painted();
 			if (getEuclidianController().getPen().needsRepaint()) {
 				getEuclidianController().getPen().doRepaintPreviewLine(g2);
 			}
@@ -4405,11 +4483,22 @@ public abstract class EuclidianView implements EuclidianViewInterfaceCommon,
 			return;
 		}
 
+		if (drawableGrid.isActive()) {
+			for (Drawable d : drawableGrid.getCandidates(rect)) {
+				GeoElement geo = d.getGeoElement();
+				if (geo.isEuclidianVisible() && !d.isDeferredOutsideView()
+						&& d.isInside(rect)) {
+					hits.add(geo);
+				}
+			}
+			return;
+		}
 		DrawableIterator it = allDrawableList.getIterator();
 		while (it.hasNext()) {
 			Drawable d = it.next();
 			GeoElement geo = d.getGeoElement();
-			if (geo.isEuclidianVisible() && d.isInside(rect)) {
+			if (geo.isEuclidianVisible() && !d.isDeferredOutsideView()
+					&& d.isInside(rect)) {
 				hits.add(geo);
 			}
 		}
@@ -4545,6 +4634,8 @@ public abstract class EuclidianView implements EuclidianViewInterfaceCommon,
 		drawableMap.clear();
 		stickyPointList.clear();
 		allDrawableList.clear();
+		drawableGrid.updateAll();
+		layerCache.invalidateAll();
 		bgImageList.clear();
 		previewFromInputBarGeos = null;
 		this.geosWaiting.clear();
@@ -6549,6 +6640,14 @@ public abstract class EuclidianView implements EuclidianViewInterfaceCommon,
 		return null;
 	}
 
+	/**
+	 * @return transparent bitmap of the size of the view for caching a layer
+	 *         of drawables, null if not supported
+	 */
+	protected GBufferedImage newLayerImage() {
+		return null;
+	}
+
 	/**
 	 * Reset background and cache bitmaps.
 	 */
@@ -0,0 +1,412 @@
+package org.geogebra.common.euclidian;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+
+import org.geogebra.common.awt.GBufferedImage;
+import org.geogebra.common.awt.GColor;
+import org.geogebra.common.awt.GGraphics2D;
+import org.geogebra.common.awt.GRectangle;
+import org.geogebra.common.euclidian.DrawableList.DrawableIterator;
+
+/**
+ * Bitmap per drawable layer of a large view, repainted only where drawables
+ * changed. The view marks drawables as changed; before the next paint the
+ * bounds they were painted with and their new bounds are added to the dirty
+ * rectangles of their layer, overlapping rectangles are merged. Dirty
+ * rectangles are cleared and only the drawables intersecting them are drawn
+ * again, so moving one object costs about as much as drawing its
+ * neighborhood, also when objects far apart change at the same time.
+ * Drawables without bounds make their whole layer dirty.
+ */
+public class LayerCache {
+
+	/** for smaller constructions drawing everything is cheap enough */
+	private static final int MIN_DRAWABLES = 500;
+	/** bounds don't include antialiasing, highlighting and decorations */
+	private static final int MARGIN = 8;
+	/** more dirty rectangles are merged into one */
+	private static final int MAX_DIRTY = 16;
+	private static final GColor TRANSPARENT = GColor.newColor(0, 0, 0, 0);
+
+	private final EuclidianView view;
+	private final DrawableList drawables;
+
+	/** bounds and layer each drawable was last painted with */
+	private final HashMap<Drawable, Painted> painted = new HashMap<>();
+	private final LinkedHashSet<Drawable> changed = new LinkedHashSet<>();
+	private GBufferedImage[] images;
+	private Dirty[] dirty;
+	private boolean allDirty;
+	private boolean supported = true;
+	private int width;
+	private int height;
+
+	/**
+	 * Screen rectangle in pixels, empty when min &gt; max.
+	 */
+	private static class Area {
+		protected int minX;
+		protected int minY;
+		protected int maxX;
+		protected int maxY;
+		/** the whole view */
+		protected boolean unbounded;
+
+		protected Area() {
+			clear();
+		}
+
+		protected void clear() {
+			minX = Integer.MAX_VALUE;
+			minY = Integer.MAX_VALUE;
+			maxX = Integer.MIN_VALUE;
+			maxY = Integer.MIN_VALUE;
+			unbounded = false;
+		}
+
+		protected boolean isEmpty() {
+			return !unbounded && (minX > maxX || minY > maxY);
+		}
+
+		protected void add(Area area) {
+			if (area.unbounded) {
+				unbounded = true;
+			} else if (!area.isEmpty()) {
+				minX = Math.min(minX, area.minX);
+				minY = Math.min(minY, area.minY);
+				maxX = Math.max(maxX, area.maxX);
+				maxY = Math.max(maxY, area.maxY);
+			}
+		}
+
+		protected boolean intersects(Area area) {
+			return unbounded || area.unbounded
+					|| (!area.isEmpty() && area.minX <= maxX
+							&& area.maxX >= minX && area.minY <= maxY
+							&& area.maxY >= minY);
+		}
+
+		protected boolean contains(Area area) {
+			return unbounded || area.isEmpty()
+					|| (!area.unbounded && area.minX >= minX
+							&& area.maxX <= maxX && area.minY >= minY
+							&& area.maxY <= maxY);
+		}
+	}
+
+	/**
+	 * Disjoint dirty rectangles of a layer.
+	 */
+	private static class Dirty {
+		protected final ArrayList<Area> areas = new ArrayList<>();
+		/** the whole layer */
+		protected boolean unbounded;
+
+		protected void add(Area area) {
+			if (area.unbounded) {
+				unbounded = true;
+			}
+			if (unbounded || area.isEmpty()) {
+				return;
+			}
+			Area merged = new Area();
+			merged.add(area);
+			// merge until no rectangle overlaps the new one
+			boolean overlap = true;
+			while (overlap) {
+				overlap = false;
+				for (int i = areas.size() - 1; i >= 0; i--) {
+					if (areas.get(i).intersects(merged)) {
+						merged.add(areas.remove(i));
+						overlap = true;
+					}
+				}
+			}
+			areas.add(merged);
+			if (areas.size() > MAX_DIRTY) {
+				Area union = new Area();
+				for (Area a : areas) {
+					union.add(a);
+				}
+				areas.clear();
+				areas.add(union);
+			}
+		}
+
+		protected boolean isEmpty() {
+			return !unbounded && areas.isEmpty();
+		}
+
+		protected boolean intersects(Area area) {
+			if (unbounded || area.unbounded) {
+				return !isEmpty();
+			}
+			for (Area a : areas) {
+				if (a.intersects(area)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		protected boolean contains(Area area) {
+			if (unbounded) {
+				return true;
+			}
+			for (Area a : areas) {
+				if (a.contains(area)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		protected void clear() {
+			areas.clear();
+			unbounded = false;
+		}
+	}
+
+	/**
+	 * Area covered by a drawable when it was painted.
+	 */
+	private static class Painted extends Area {
+		protected int layer;
+
+		protected Painted(Drawable d) {
+			layer = Math.max(0, d.getGeoElement().getLayer());
+			GRectangle bounds = d.getBounds();
+			if (bounds == null) {
+				unbounded = true;
+				return;
+			}
+			double x1 = bounds.getMinX();
+			double x2 = bounds.getMaxX();
+			double y1 = bounds.getMinY();
+			double y2 = bounds.getMaxY();
+			GRectangle label = d.getLabelRectangle();
+			if (label != null && label.getWidth() > 0
+					&& label.getHeight() > 0) {
+				x1 = Math.min(x1, label.getMinX());
+				x2 = Math.max(x2, label.getMaxX());
+				y1 = Math.min(y1, label.getMinY());
+				y2 = Math.max(y2, label.getMaxY());
+			}
+			int margin = MARGIN + d.getGeoElement().getLineThickness();
+			minX = (int) Math.floor(x1) - margin;
+			maxX = (int) Math.ceil(x2) + margin;
+			minY = (int) Math.floor(y1) - margin;
+			maxY = (int) Math.ceil(y2) + margin;
+		}
+	}
+
+	/**
+	 * @param view
+	 *            view
+	 * @param drawables
+	 *            list of all drawables of the view
+	 */
+	public LayerCache(EuclidianView view, DrawableList drawables) {
+		this.view = view;
+		this.drawables = drawables;
+	}
+
+	/**
+	 * @return whether the cache should be used for the current number of
+	 *         drawables
+	 */
+	public boolean isActive() {
+		return supported && drawables.size() >= MIN_DRAWABLES;
+	}
+
+	/**
+	 * Drawable was updated, highlighted or added; its old and new bounds need
+	 * to be repainted.
+	 *
+	 * @param d
+	 *            drawable
+	 */
+	public void changed(Drawable d) {
+		if (images != null && !allDirty) {
+			changed.add(d);
+		}
+	}
+
+	/**
+	 * Call after drawable was removed from its layer.
+	 *
+	 * @param d
+	 *            drawable
+	 */
+	public void removed(Drawable d) {
+		changed.remove(d);
+		Painted old = painted.remove(d);
+		if (old != null && images != null) {
+			markDirty(old);
+		}
+	}
+
+	/**
+	 * All layers need to be repainted (zoom, font size, clear).
+	 */
+	public void invalidateAll() {
+		allDirty = true;
+		changed.clear();
+		painted.clear();
+	}
+
+	/**
+	 * Drops the bitmaps, e.g. when the cache is no longer active.
+	 */
+	public void release() {
+		images = null;
+		dirty = null;
+		invalidateAll();
+	}
+
+	/**
+	 * Repaints the dirty regions of the bitmaps and draws the layers.
+	 *
+	 * @param g2
+	 *            graphics of the view
+	 * @param maxLayer
+	 *            top layer used
+	 * @return false if the view can't create bitmaps, then nothing was drawn
+	 */
+	public boolean draw(GGraphics2D g2, int maxLayer) {
+		if (view.getWidth() <= 0 || view.getHeight() <= 0) {
+			return false;
+		}
+		if (images == null || width != view.getWidth()
+				|| height != view.getHeight()) {
+			width = view.getWidth();
+			height = view.getHeight();
+			images = new GBufferedImage[view.drawLayers.length];
+			dirty = new Dirty[view.drawLayers.length];
+			for (int layer = 0; layer < dirty.length; layer++) {
+				dirty[layer] = new Dirty();
+			}
+			invalidateAll();
+		}
+		if (allDirty) {
+			for (Dirty layerDirty : dirty) {
+				layerDirty.unbounded = true;
+			}
+			allDirty = false;
+		}
+		for (Drawable d : changed) {
+			Painted old = painted.get(d);
+			if (old != null) {
+				markDirty(old);
+			}
+			if (d.getGeoElement().isDefined()) {
+				DrawableList.update(d);
+			}
+			markDirty(record(d));
+		}
+		changed.clear();
+		for (int layer = 0; layer <= maxLayer; layer++) {
+			if (images[layer] == null) {
+				images[layer] = view.newLayerImage();
+				if (images[layer] == null) {
+					supported = false;
+					release();
+					return false;
+				}
+				dirty[layer].unbounded = true;
+			}
+			if (!dirty[layer].isEmpty()) {
+				redraw(layer);
+			}
+			g2.drawImage(images[layer], 0, 0);
+		}
+		return true;
+	}
+
+	private void markDirty(Painted area) {
+		dirty[Math.min(area.layer, dirty.length - 1)].add(area);
+	}
+
+	private Painted record(Drawable d) {
+		Painted area = new Painted(d);
+		painted.put(d, area);
+		return area;
+	}
+
+	private void redraw(int layer) {
+		Dirty region = dirty[layer];
+		// dirty rectangles inside of the view
+		ArrayList<Area> rects = new ArrayList<>();
+		for (Area area : region.areas) {
+			Area rect = new Area();
+			rect.minX = Math.max(0, area.minX);
+			rect.minY = Math.max(0, area.minY);
+			rect.maxX = Math.min(width - 1, area.maxX);
+			rect.maxY = Math.min(height - 1, area.maxY);
+			if (!rect.isEmpty()) {
+				rects.add(rect);
+			}
+		}
+		if (region.unbounded) {
+			rects.clear();
+			Area all = new Area();
+			all.unbounded = true;
+			rects.add(all);
+		}
+		if (rects.isEmpty()) {
+			region.clear();
+			return;
+		}
+		GGraphics2D clear = images[layer].createGraphics();
+		clear.setTransparent();
+		clear.setColor(TRANSPARENT);
+		for (Area rect : rects) {
+			if (rect.unbounded) {
+				clear.fillRect(0, 0, width, height);
+			} else {
+				clear.fillRect(rect.minX, rect.minY, rect.maxX - rect.minX + 1,
+						rect.maxY - rect.minY + 1);
+			}
+		}
+		clear.dispose();
+
+		GGraphics2D g = images[layer].createGraphics();
+		g.setAntialiasing();
+		boolean overflow = false;
+		// only bounds are tested for drawables outside the region
+		DrawableIterator it = view.drawLayers[layer].getIterator();
+		while (it.hasNext()) {
+			Drawable d = it.next();
+			Painted area = painted.get(d);
+			if (area != null && !region.intersects(area)) {
+				continue;
+			}
+			for (Area rect : rects) {
+				if (area == null || rect.intersects(area)) {
+					// drawables may reset the clip
+					if (rect.unbounded) {
+						g.setClip(0, 0, width, height);
+					} else {
+						g.setClip(rect.minX, rect.minY,
+								rect.maxX - rect.minX + 1,
+								rect.maxY - rect.minY + 1);
+					}
+					DrawableList.draw(d, g);
+				}
+			}
+			// bounds of some drawables are only known after drawing,
+			// pixels outside of the old bounds were not cleared
+			Painted drawn = record(d);
+			overflow = overflow || (!drawn.unbounded && !region.contains(drawn)
+					&& (area == null || !area.contains(drawn)));
+		}
+		g.dispose();
+		region.clear();
+		if (overflow) {
+			region.unbounded = true;
+			redraw(layer);
+		}
+	}
+}
@@ -506,8 +506,11 @@ public class MyButton implements Observer {
 		if (b) {
 			draggedOrContext = false;
 		}
-
-		pressed = b;
+		if (pressed != b) {
+			pressed = b;
+			// pressed buttons are drawn differently
+			view.invalidateDrawable(geoButton);
+		}
 	}
 
 	/**
@@ -25,6 +25,7 @@ import org.geogebra.common.euclidian.BoundingBox;
 import org.geogebra.common.euclidian.Drawable;
 import org.geogebra.common.euclidian.EuclidianView;
 import org.geogebra.common.euclidian.plot.CurvePlotter;
+import org.geogebra.common.euclidian.plot.CurveSampleCache;
 import org.geogebra.common.euclidian.plot.GeneralPathClippedForCurvePlotter;
 import org.geogebra.common.factories.AwtFactory;
 import org.geogebra.common.kernel.StringTemplate;
@@ -67,6 +68,8 @@ public class DrawParametricCurve extends Drawable {
 	private ExpressionNode dataExpression;
 	private FunctionVariable invFV;
 	private ExpressionNode invert;
+	private CurveSampleCache sampleCache;
+	private boolean keepSamples;
 
 	/**
 	 * Creates graphical representation of the curve
@@ -108,17 +111,31 @@ public class DrawParametricCurve extends Drawable {
 
 		fillCurve = filling(curve);
 
+		if (sampleCache == null) {
+			sampleCache = new CurveSampleCache(curve);
+		} else if (!keepSamples) {
+			sampleCache.clear();
+		}
+
 		double min = curve.getMinParameter();
 		double max = curve.getMaxParameter();
+		double[] aligned = null;
 		if (curve.toGeoElement().isGeoFunction()) {
 			double minView = view.getXmin();
 			double maxView = view.getXmax();
-			if (min < minView || Double.isInfinite(min)) {
+			boolean minFromView = min < minView || Double.isInfinite(min);
+			boolean maxFromView = max > maxView || Double.isInfinite(max);
+			if (minFromView) {
 				min = minView;
 			}
-			if (max > maxView || Double.isInfinite(max)) {
+			if (maxFromView) {
 				max = maxView;
 			}
+			// sample on a grid fixed in world coordinates, so that panning
+			// reuses the cached samples
+			if (minFromView && maxFromView && !fillCurve) {
+				aligned = CurveSampleCache.alignToGrid(min, max);
+			}
 		}
 		GPoint labelPoint;
 		if (DoubleUtil.isEqual(min, max)) {
@@ -126,9 +143,13 @@ public class DrawParametricCurve extends Drawable {
 			curve.evaluateCurve(min, eval);
 			view.toScreenCoords(eval);
 			labelPoint = new GPoint((int) eval[0], (int) eval[1]);
+		} else if (aligned != null) {
+			labelPoint = CurvePlotter.plotCurve(sampleCache, aligned[0],
+					aligned[1], (max - min) / view.getMinSamplePoints(), view,
+					gp, labelVisible, CurvePlotter.Gap.MOVE_TO);
 		} else {
-			labelPoint = CurvePlotter.plotCurve(curve, min, max, view, gp,
-					labelVisible, fillCurve ? CurvePlotter.Gap.CORNER
+			labelPoint = CurvePlotter.plotCurve(sampleCache, min, max, view,
+					gp, labelVisible, fillCurve ? CurvePlotter.Gap.CORNER
 							: CurvePlotter.Gap.MOVE_TO);
 		}
 
@@ -193,6 +214,17 @@ public class DrawParametricCurve extends Drawable {
 		}
 	}
 
+	/**
+	 * Keeps the cached samples: the curve didn't change, so only the newly
+	 * visible parts need to be evaluated.
+	 */
+	@Override
+	public void updateForView() {
+		keepSamples = true;
+		update();
+		keepSamples = false;
+	}
+
 	private void updatePointwise() {
 		if (points == null) {
 			points = new ArrayList<>();
@@ -564,6 +564,12 @@ public final class DrawPoint extends SetDrawable {
 				2 * selRadius, 2 * selRadius);
 	}
 
+	@Override
+	protected boolean isCullable() {
+		// the bounds are computed for offscreen points too
+		return true;
+	}
+
 	@Override
 	public GeoElement getGeoElement() {
 		return geo;
@@ -82,9 +82,38 @@ public class CurvePlotter {
 	final public static GPoint plotCurve(CurveEvaluable curve, double t1,
 			double t2, EuclidianView view, PathPlotter gp, boolean calcLabelPos,
 			Gap moveToAllowed) {
-
 		// ensure MIN_PLOT_POINTS
-		double max_param_step = Math.abs(t2 - t1) / view.getMinSamplePoints();
+		return plotCurve(curve, t1, t2,
+				Math.abs(t2 - t1) / view.getMinSamplePoints(), view, gp,
+				calcLabelPos, moveToAllowed);
+	}
+
+	/**
+	 * Draws a parametric curve (x(t), y(t)) for t in [t1, t2] with given
+	 * sample density.
+	 * 
+	 * @param curve
+	 *            curve to be drawn, may be wrapped in a
+	 *            {@link CurveSampleCache}
+	 * @param t1
+	 *            min value of parameter
+	 * @param t2
+	 *            max value of parameter
+	 * @param max_param_step
+	 *            largest parameter step width allowed
+	 * @param view
+	 *            Euclidian view to be used
+	 * @param gp
+	 *            generalpath that can be drawn afterwards
+	 * @param calcLabelPos
+	 *            whether label position should be calculated and returned
+	 * @param moveToAllowed
+	 *            whether moveTo() may be used for gp
+	 * @return label position as Point
+	 */
+	final public static GPoint plotCurve(CurveEvaluable curve, double t1,
+			double t2, double max_param_step, EuclidianView view,
+			PathPlotter gp, boolean calcLabelPos, Gap moveToAllowed) {
 		// plot Interval [t1, t2]
 		GPoint labelPoint = plotInterval(curve, t1, t2, 0, max_param_step, view,
 				gp, calcLabelPos, moveToAllowed);
@@ -281,7 +310,7 @@ public class CurvePlotter {
 					lineTo = false;
 				} else if (!angleOK || !distanceOK) {
 					// check for DISCONTINUITY
-					lineTo = isContinuous(curve, left, t,
+					lineTo = isContinuousCached(curve, left, t,
 							view.getMaxProblemBisections());
 				}
 			} else if (moveToAllowed == Gap.CORNER) {
@@ -601,6 +630,19 @@ public class CurvePlotter {
 		return ret;
 	}
 
+	/**
+	 * Uses the continuity checks remembered by the curve's sample cache, if
+	 * any.
+	 */
+	private static boolean isContinuousCached(CurveEvaluable c, double from,
+			double to, int maxIterations) {
+		if (c instanceof CurveSampleCache) {
+			return ((CurveSampleCache) c).isContinuous(from, to,
+					maxIterations);
+		}
+		return isContinuous(c, from, to, maxIterations);
+	}
+
 	/**
 	 * Sets borders to a defined interval in [a, b] if possible.
 	 * 
@@ -0,0 +1,292 @@
+package org.geogebra.common.euclidian.plot;
+
+import org.geogebra.common.kernel.geos.GeoElement;
+import org.geogebra.common.kernel.kernelND.CurveEvaluable;
+
+/**
+ * Curve wrapper that remembers evaluated points in world coordinates, keyed by
+ * the exact parameter value, and the results of continuity checks between two
+ * parameter values (used by CurvePlotter to decide whether a gap needs a
+ * moveTo).
+ *
+ * Cached values don't depend on the view, so a drawable can keep the cache
+ * while the view is panned or zoomed and clear it whenever the curve itself
+ * changes. Together with {@link #alignToGrid(double, double)} the plotter
+ * samples the same parameter values after a pan, so only samples that scrolled
+ * into the view need to be evaluated.
+ */
+public class CurveSampleCache implements CurveEvaluable {
+
+	/** number of grid cells of an aligned interval, must be a power of two */
+	private static final int GRID_CELLS = 64;
+	/** cached samples (and gaps) before the cache is cleared */
+	private static final int MAX_SIZE = 1 << 15;
+
+	private static final byte GAP_UNKNOWN = 0;
+	private static final byte GAP_CONTINUOUS = 1;
+	private static final byte GAP_DISCONTINUOUS = 2;
+
+	private final CurveEvaluable curve;
+	private final int dim;
+
+	private long[] keys;
+	private boolean[] used;
+	private double[] values;
+	private int size;
+
+	private long[] gapStarts;
+	private long[] gapEnds;
+	private byte[] gaps;
+	private int gapSize;
+
+	/**
+	 * @param curve
+	 *            wrapped curve
+	 */
+	public CurveSampleCache(CurveEvaluable curve) {
+		this.curve = curve;
+		this.dim = curve.newDoubleArray().length;
+		initSamples(64);
+		initGaps(16);
+	}
+
+	/**
+	 * @return wrapped curve
+	 */
+	public CurveEvaluable getCurve() {
+		return curve;
+	}
+
+	/**
+	 * @return number of cached samples
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Removes all samples and gaps, needed after the curve changed.
+	 */
+	public void clear() {
+		if (size > 0) {
+			initSamples(64);
+		}
+		if (gapSize > 0) {
+			initGaps(16);
+		}
+	}
+
+	private void initSamples(int capacity) {
+		keys = new long[capacity];
+		used = new boolean[capacity];
+		values = new double[capacity * dim];
+		size = 0;
+	}
+
+	private void initGaps(int capacity) {
+		gapStarts = new long[capacity];
+		gapEnds = new long[capacity];
+		gaps = new byte[capacity];
+		gapSize = 0;
+	}
+
+	@Override
+	public void evaluateCurve(double t, double[] out) {
+		long key = Double.doubleToLongBits(t);
+		int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+		while (used[slot]) {
+			if (keys[slot] == key) {
+				System.arraycopy(values, slot * dim, out, 0, dim);
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+		curve.evaluateCurve(t, out);
+		if (size >= MAX_SIZE) {
+			initSamples(64);
+		} else if (2 * (size + 1) <= keys.length) {
+			store(slot, key, out);
+			return;
+		} else {
+			rehashSamples();
+		}
+		slot = hash(key) & (keys.length - 1);
+		while (used[slot]) {
+			slot = (slot + 1) & (keys.length - 1);
+		}
+		store(slot, key, out);
+	}
+
+	private void store(int slot, long key, double[] point) {
+		keys[slot] = key;
+		used[slot] = true;
+		System.arraycopy(point, 0, values, slot * dim, dim);
+		size++;
+	}
+
+	private void rehashSamples() {
+		long[] oldKeys = keys;
+		boolean[] oldUsed = used;
+		double[] oldValues = values;
+		initSamples(2 * oldKeys.length);
+		int mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldUsed[i]) {
+				int slot = hash(oldKeys[i]) & mask;
+				while (used[slot]) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				used[slot] = true;
+				System.arraycopy(oldValues, i * dim, values, slot * dim, dim);
+				size++;
+			}
+		}
+	}
+
+	/**
+	 * Cached version of
+	 * {@link CurvePlotter#isContinuous(CurveEvaluable, double, double, int)}
+	 *
+	 * @param from
+	 *            min parameter
+	 * @param to
+	 *            max parameter
+	 * @param maxIterations
+	 *            max number of bisections
+	 * @return whether the curve is continuous in [from, to]
+	 */
+	public boolean isContinuous(double from, double to, int maxIterations) {
+		long start = Double.doubleToLongBits(from);
+		long end = Double.doubleToLongBits(to);
+		int mask = gaps.length - 1;
+		int slot = (hash(start) * 31 + hash(end)) & mask;
+		while (gaps[slot] != GAP_UNKNOWN) {
+			if (gapStarts[slot] == start && gapEnds[slot] == end) {
+				return gaps[slot] == GAP_CONTINUOUS;
+			}
+			slot = (slot + 1) & mask;
+		}
+		boolean continuous = CurvePlotter.isContinuous(this, from, to,
+				maxIterations);
+		if (gapSize >= MAX_SIZE || 2 * (gapSize + 1) > gaps.length) {
+			growGaps();
+			mask = gaps.length - 1;
+			slot = (hash(start) * 31 + hash(end)) & mask;
+			while (gaps[slot] != GAP_UNKNOWN) {
+				slot = (slot + 1) & mask;
+			}
+		}
+		gapStarts[slot] = start;
+		gapEnds[slot] = end;
+		gaps[slot] = continuous ? GAP_CONTINUOUS : GAP_DISCONTINUOUS;
+		gapSize++;
+		return continuous;
+	}
+
+	private void growGaps() {
+		long[] oldStarts = gapStarts;
+		long[] oldEnds = gapEnds;
+		byte[] oldGaps = gaps;
+		if (gapSize >= MAX_SIZE) {
+			initGaps(16);
+			return;
+		}
+		initGaps(2 * oldGaps.length);
+		int mask = gaps.length - 1;
+		for (int i = 0; i < oldGaps.length; i++) {
+			if (oldGaps[i] != GAP_UNKNOWN) {
+				int slot = (hash(oldStarts[i]) * 31 + hash(oldEnds[i]))
+						& mask;
+				while (gaps[slot] != GAP_UNKNOWN) {
+					slot = (slot + 1) & mask;
+				}
+				gapStarts[slot] = oldStarts[i];
+				gapEnds[slot] = oldEnds[i];
+				gaps[slot] = oldGaps[i];
+				gapSize++;
+			}
+		}
+	}
+
+	private static int hash(long key) {
+		int h = (int) (key ^ (key >>> 32));
+		h *= 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Extends the parameter interval [min, max] to an interval whose bounds
+	 * lie on a grid with power of two spacing and whose length only depends on
+	 * the grid spacing. Bisecting the extended interval hits the same
+	 * parameter values before and after a pan, and after zooming within the
+	 * same power of two; all these values are exact in floating point.
+	 *
+	 * @param min
+	 *            min parameter
+	 * @param max
+	 *            max parameter
+	 * @return aligned interval containing [min, max], or null if the interval
+	 *         is empty or not finite
+	 */
+	public static double[] alignToGrid(double min, double max) {
+		double width = max - min;
+		if (!(width > 0) || Double.isInfinite(width)) {
+			return null;
+		}
+		double step = Math.pow(2, Math.ceil(
+				Math.log(width / (GRID_CELLS - 1)) / Math.log(2)));
+		// guard against rounding in log
+		while (step * (GRID_CELLS - 1) < width) {
+			step *= 2;
+		}
+		double alignedMin = Math.floor(min / step) * step;
+		return new double[] { alignedMin, alignedMin + GRID_CELLS * step };
+	}
+
+	@Override
+	public double getMinParameter() {
+		return curve.getMinParameter();
+	}
+
+	@Override
+	public double getMaxParameter() {
+		return curve.getMaxParameter();
+	}
+
+	@Override
+	public double[] newDoubleArray() {
+		return curve.newDoubleArray();
+	}
+
+	@Override
+	public double distanceMax(double[] p1, double[] p2) {
+		return curve.distanceMax(p1, p2);
+	}
+
+	@Override
+	public double[] getDefinedInterval(double a, double b) {
+		return curve.getDefinedInterval(a, b);
+	}
+
+	@Override
+	public boolean getTrace() {
+		return curve.getTrace();
+	}
+
+	@Override
+	public boolean isClosedPath() {
+		return curve.isClosedPath();
+	}
+
+	@Override
+	public boolean isFunctionInX() {
+		return curve.isFunctionInX();
+	}
+
+	@Override
+	public GeoElement toGeoElement() {
+		return curve.toGeoElement();
+	}
+}
@@ -1,14 +1,17 @@
 package org.geogebra.common.geogebra3D.kernel3D.implicit3D;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 
 import org.geogebra.common.geogebra3D.kernel3D.geos.GeoElement3D;
 import org.geogebra.common.geogebra3D.kernel3D.geos.GeoTriangulatedSurface3D;
 import org.geogebra.common.kernel.Construction;
+import org.geogebra.common.kernel.ParallelExecutor;
 import org.geogebra.common.kernel.StringTemplate;
 import org.geogebra.common.kernel.Matrix.Coords;
 import org.geogebra.common.kernel.Matrix.Coords3;
 import org.geogebra.common.kernel.Matrix.CoordsDouble3;
+import org.geogebra.common.kernel.arithmetic.CompiledExpression;
 import org.geogebra.common.kernel.arithmetic.Equation;
 import org.geogebra.common.kernel.arithmetic.EquationValue;
 import org.geogebra.common.kernel.arithmetic.ExpressionNode;
@@ -779,14 +782,11 @@ public class GeoImplicitSurface extends GeoElement3D
 				for (int i = 0; i < len; i += 3) {
 					surf.beginTriangulation();
 
-					cube.pointOfIntersection(edges[i], p1.val);
-					cube.pointOfIntersection(edges[i + 1], p2.val);
-					cube.pointOfIntersection(edges[i + 2], p3.val);
+					vertex(cube, edges[i], p1, n1);
+					vertex(cube, edges[i + 1], p2, n2);
+					vertex(cube, edges[i + 2], p3, n3);
 					p2.sub(p1, p4);
 					p3.sub(p1, p5);
-					s.evaluateNormalAt(p1, n1);
-					s.evaluateNormalAt(p2, n2);
-					s.evaluateNormalAt(p3, n3);
 					det = p4.dotCrossProduct(n1, p5);
 					if (det < 0) {
 						surf.insertPoint(p1.val, n1.val);
@@ -801,15 +801,71 @@ public class GeoImplicitSurface extends GeoElement3D
 				}
 			}
 		}
+
+		/**
+		 * Computes the point where the surface crosses an edge of the cube
+		 * and the normal there.
+		 * 
+		 * @param cube
+		 *            cube
+		 * @param edge
+		 *            edge number
+		 * @param point
+		 *            output point
+		 * @param normal
+		 *            output normal
+		 */
+		protected void vertex(Cube cube, int edge, Coords point,
+				Coords normal) {
+			cube.pointOfIntersection(edge, point.val);
+			s.evaluateNormalAt(point, normal);
+		}
 	}
 
+	/**
+	 * Marching cubes on an octree: a uniform grid is refined only in cells
+	 * that may contain the surface, the finest cells are polygonized.
+	 */
 	private static class MarchingCube extends ImplicitSurface {
 		private static final int AVE_PXL = 40;
 		private static final int MAX_SUB_DIV = 25;
+		/** size of the finest cells in pixels */
+		private static final int MIN_PXL = 10;
+		/** maximum number of subdivisions of a grid cell */
+		private static final int MAX_DEPTH = 2;
+		/** grid layers per parallel task */
+		private static final int SLAB_LAYERS = 2;
+		/** offsets of the cube vertices in finest cells */
+		private static final int[][] OFFSETS = new int[8][3];
+
+		static {
+			for (int v = 0; v < 8; v++) {
+				OFFSETS[v][0] = Cube.VERTICES[v][0] == Cube.X2 ? 1 : 0;
+				OFFSETS[v][1] = Cube.VERTICES[v][1] == Cube.Y2 ? 1 : 0;
+				OFFSETS[v][2] = Cube.VERTICES[v][2] == Cube.Z2 ? 1 : 0;
+			}
+		}
 
 		private int sizeX = 20;
 		private int sizeY = 20;
 		private int sizeZ = 20;
+		/** finest cells per grid cell and axis */
+		private int cells;
+		/** values at grid vertices, x varies fastest */
+		private double[] gridValues;
+		/** coordinates of the finest vertices */
+		private double[] xcoords;
+		private double[] ycoords;
+		private double[] zcoords;
+
+		/** finest cell that is polygonized */
+		private int leafX;
+		private int leafY;
+		private int leafZ;
+		/** edge of the finest grid to index of its vertex in vertexData */
+		private final HashMap<Integer, Integer> vertexIndex = new HashMap<>();
+		/** point and normal of every vertex */
+		private double[] vertexData = new double[6 * 64];
 
 		public MarchingCube(GeoImplicitSurface s) {
 			super(s);
@@ -822,75 +878,313 @@ public class GeoImplicitSurface extends GeoElement3D
 		@Override
 		public void update() {
 
-			sizeX = Math.min(MAX_SUB_DIV, pixels(x1, x2, scaleX) / AVE_PXL + 1);
-			sizeY = Math.min(MAX_SUB_DIV, pixels(y1, y2, scaleY) / AVE_PXL + 1);
-			sizeZ = Math.min(MAX_SUB_DIV, pixels(z1, z2, scaleZ) / AVE_PXL + 1);
-			debug("{x:" + sizeX + ";y:" + sizeY + ";z:" + sizeZ + "}");
+			int pixelsX = pixels(x1, x2, scaleX);
+			int pixelsY = pixels(y1, y2, scaleY);
+			int pixelsZ = pixels(z1, z2, scaleZ);
+			sizeX = Math.min(MAX_SUB_DIV, pixelsX / AVE_PXL + 1);
+			sizeY = Math.min(MAX_SUB_DIV, pixelsY / AVE_PXL + 1);
+			sizeZ = Math.min(MAX_SUB_DIV, pixelsZ / AVE_PXL + 1);
+			int cellPixels = Math.max(pixelsX / sizeX,
+					Math.max(pixelsY / sizeY, pixelsZ / sizeZ));
+			int depth = 0;
+			while (depth < MAX_DEPTH && (cellPixels >> depth) > MIN_PXL) {
+				depth++;
+			}
+			cells = 1 << depth;
+			debug("{x:" + sizeX + ";y:" + sizeY + ";z:" + sizeZ + ";depth:"
+					+ depth + "}");
+
+			this.fracX = (x2 - x1) / (sizeX * cells);
+			this.fracY = (y2 - y1) / (sizeY * cells);
+			this.fracZ = (z2 - z1) / (sizeZ * cells);
+			xcoords = coords(x1, fracX, sizeX * cells);
+			ycoords = coords(y1, fracY, sizeY * cells);
+			zcoords = coords(z1, fracZ, sizeZ * cells);
+			gridValues = new double[(sizeX + 1) * (sizeY + 1) * (sizeZ + 1)];
+
+			ArrayList<Slab> slabs = createSlabs();
+			ParallelExecutor executor = null;
+			if (slabs.get(0).evaluator != null) {
+				executor = s.getKernel().getParallelExecutor();
+			}
+			ArrayList<Runnable> tasks = new ArrayList<>();
+			for (final Slab slab : slabs) {
+				tasks.add(new Runnable() {
+					@Override
+					public void run() {
+						slab.evaluateGrid();
+					}
+				});
+			}
+			run(executor, tasks);
+			tasks.clear();
+			for (final Slab slab : slabs) {
+				tasks.add(new Runnable() {
+					@Override
+					public void run() {
+						slab.findLeaves();
+					}
+				});
+			}
+			run(executor, tasks);
 
-			this.fracX = (x2 - x1) / sizeX;
-			this.fracY = (y2 - y1) / sizeY;
-			this.fracZ = (z2 - z1) / sizeZ;
+			// normals are evaluated with shared state, so polygonize here
+			Cube cube = new Cube();
+			vertexIndex.clear();
+			for (Slab slab : slabs) {
+				for (int i = 0; i < slab.leafCount; i++) {
+					leafX = slab.leafCells[3 * i];
+					leafY = slab.leafCells[3 * i + 1];
+					leafZ = slab.leafCells[3 * i + 2];
+					cube.coords[Cube.X1] = xcoords[leafX];
+					cube.coords[Cube.Y1] = ycoords[leafY];
+					cube.coords[Cube.Z1] = zcoords[leafZ];
+					cube.coords[Cube.X2] = xcoords[leafX + 1];
+					cube.coords[Cube.Y2] = ycoords[leafY + 1];
+					cube.coords[Cube.Z2] = zcoords[leafZ + 1];
+					System.arraycopy(slab.leafValues, 8 * i, cube.cache, 0, 8);
+					super.addSurface(cube);
+				}
+			}
+		}
 
-			double[] xcoords = new double[sizeX + 1];
-			double[] ycoords = new double[sizeY + 1];
-			double[] zcoords = new double[sizeZ + 1];
-			double[][] grid2d = new double[sizeY + 1][sizeX + 1];
-			double[] grid1d = new double[sizeX + 1];
+		private static double[] coords(double start, double frac, int size) {
+			double[] coords = new double[size + 1];
+			for (int i = 0; i <= size; i++) {
+				coords[i] = start + i * frac;
+			}
+			return coords;
+		}
 
-			double cur, prev;
+		/**
+		 * Slabs of SLAB_LAYERS grid layers. If the function can be compiled
+		 * without calls to other functions, each slab gets its own copy so
+		 * that slabs can be evaluated in parallel.
+		 */
+		private ArrayList<Slab> createSlabs() {
+			CompiledExpression compiled = null;
+			FunctionNVar fun = s.getExpression();
+			if (s.getKernel().getParallelExecutor() != null
+					&& !fun.isBooleanFunction()) {
+				compiled = CompiledExpression.compile(fun.getExpression(),
+						fun.getFunctionVariables());
+			}
+			if (compiled != null) {
+				compiled = compiled.copyForThread();
+			}
+			ArrayList<Slab> slabs = new ArrayList<>();
+			for (int k = 0; k < sizeZ; k += SLAB_LAYERS) {
+				slabs.add(new Slab(k, Math.min(k + SLAB_LAYERS, sizeZ),
+						compiled == null ? null : compiled.copyForThread()));
+			}
+			return slabs;
+		}
 
-			Cube cube = new Cube();
+		private static void run(ParallelExecutor executor,
+				ArrayList<Runnable> tasks) {
+			if (executor == null) {
+				for (Runnable task : tasks) {
+					task.run();
+				}
+			} else {
+				executor.invokeAll(tasks);
+			}
+		}
+
+		/**
+		 * Reuses points and normals of vertices on edges shared by several
+		 * cells.
+		 */
+		@Override
+		protected void vertex(Cube cube, int edge, Coords point,
+				Coords normal) {
+			int[] v = Cube.EDGES[edge];
+			int[] o1 = OFFSETS[v[0]];
+			int[] o2 = OFFSETS[v[1]];
+			int axis = o1[0] != o2[0] ? 0 : (o1[1] != o2[1] ? 1 : 2);
+			int ex = leafX + Math.min(o1[0], o2[0]);
+			int ey = leafY + Math.min(o1[1], o2[1]);
+			int ez = leafZ + Math.min(o1[2], o2[2]);
+			Integer key = Integer.valueOf(3 * ((ex * (sizeY * cells + 1) + ey)
+					* (sizeZ * cells + 1) + ez) + axis);
+			Integer index = vertexIndex.get(key);
+			if (index != null) {
+				System.arraycopy(vertexData, 6 * index, point.val, 0, 3);
+				System.arraycopy(vertexData, 6 * index + 3, normal.val, 0, 3);
+				return;
+			}
+			super.vertex(cube, edge, point, normal);
+			index = vertexIndex.size();
+			if (6 * index + 6 > vertexData.length) {
+				double[] grown = new double[2 * vertexData.length];
+				System.arraycopy(vertexData, 0, grown, 0, vertexData.length);
+				vertexData = grown;
+			}
+			System.arraycopy(point.val, 0, vertexData, 6 * index, 3);
+			System.arraycopy(normal.val, 0, vertexData, 6 * index + 3, 3);
+			vertexIndex.put(key, index);
+		}
 
-			for (int i = 0; i <= sizeX; i++) {
-				xcoords[i] = x1 + i * fracX;
+		/**
+		 * Grid layers [from, to) and the finest cells containing the surface
+		 * in them.
+		 */
+		private class Slab {
+			private final int from;
+			private final int to;
+			/** thread local evaluator, null to use the surface */
+			final CompiledExpression evaluator;
+			private final double[] xyz = new double[3];
+
+			/** values at the vertices of the current grid cell */
+			private final double[] local;
+			/** values in local are valid where stamps equals stamp */
+			private final int[] stamps;
+			private int stamp = 0;
+
+			/** finest cells containing the surface and their values */
+			int[] leafCells = new int[3 * 16];
+			double[] leafValues = new double[8 * 16];
+			int leafCount = 0;
+
+			Slab(int from, int to, CompiledExpression evaluator) {
+				this.from = from;
+				this.to = to;
+				this.evaluator = evaluator;
+				local = new double[(cells + 1) * (cells + 1) * (cells + 1)];
+				stamps = new int[local.length];
+			}
+
+			private double evaluate(int i, int j, int k) {
+				xyz[0] = xcoords[i];
+				xyz[1] = ycoords[j];
+				xyz[2] = zcoords[k];
+				return evaluator == null ? s.evaluateAt(xyz)
+						: evaluator.evaluate(xyz);
+			}
+
+			/**
+			 * Evaluates grid vertices in layers [from, to), the last slab also
+			 * does the top layer.
+			 */
+			void evaluateGrid() {
+				int last = to == sizeZ ? to : to - 1;
+				for (int k = from; k <= last; k++) {
+					for (int j = 0; j <= sizeY; j++) {
+						for (int i = 0; i <= sizeX; i++) {
+							gridValues[(k * (sizeY + 1) + j) * (sizeX + 1)
+									+ i] = evaluate(i * cells, j * cells,
+											k * cells);
+						}
+					}
+				}
 			}
-			for (int i = 0; i <= sizeY; i++) {
-				ycoords[i] = y1 + i * fracY;
+
+			void findLeaves() {
+				for (int k = from; k < to; k++) {
+					for (int j = 0; j < sizeY; j++) {
+						for (int i = 0; i < sizeX; i++) {
+							stamp++;
+							for (int v = 0; v < 8; v++) {
+								int[] o = OFFSETS[v];
+								int index = localIndex(o[0] * cells,
+										o[1] * cells, o[2] * cells);
+								local[index] = gridValues[((k + o[2])
+										* (sizeY + 1) + j + o[1])
+										* (sizeX + 1) + i + o[0]];
+								stamps[index] = stamp;
+							}
+							refine(i * cells, j * cells, k * cells, 0, 0, 0,
+									cells);
+						}
+					}
+				}
 			}
-			for (int i = 0; i <= sizeZ; i++) {
-				zcoords[i] = z1 + i * fracZ;
+
+			private int localIndex(int i, int j, int k) {
+				return (k * (cells + 1) + j) * (cells + 1) + i;
 			}
 
-			for (int i = 0; i <= sizeY; i++) {
-				for (int j = 0; j <= sizeX; j++) {
-					grid2d[i][j] = s.evaluateAt(xcoords[j], ycoords[i], z1);
+			/**
+			 * Value at vertex (i, j, k) of the current grid cell whose first
+			 * vertex is (ox, oy, oz) in the finest grid.
+			 */
+			private double value(int ox, int oy, int oz, int i, int j,
+					int k) {
+				int index = localIndex(i, j, k);
+				if (stamps[index] != stamp) {
+					local[index] = evaluate(ox + i, oy + j, oz + k);
+					stamps[index] = stamp;
 				}
+				return local[index];
 			}
 
-			for (int k = 1; k <= sizeZ; k++) {
-				for (int i = 0; i <= sizeX; i++) {
-					grid1d[i] = s.evaluateAt(xcoords[i], y1, zcoords[k]);
+			private void refine(int ox, int oy, int oz, int i, int j, int k,
+					int size) {
+				double min = Double.POSITIVE_INFINITY;
+				double max = Double.NEGATIVE_INFINITY;
+				double minAbs = Double.POSITIVE_INFINITY;
+				boolean finite = true;
+				for (int v = 0; v < 8; v++) {
+					int[] o = OFFSETS[v];
+					double val = value(ox, oy, oz, i + o[0] * size,
+							j + o[1] * size, k + o[2] * size);
+					if (!MyDouble.isFinite(val)) {
+						finite = false;
+						continue;
+					}
+					min = Math.min(min, val);
+					max = Math.max(max, val);
+					minAbs = Math.min(minAbs, Math.abs(val));
 				}
-				cube.coords[Cube.Z1] = zcoords[k - 1];
-				cube.coords[Cube.Z2] = zcoords[k];
-				for (int i = 1; i <= sizeY; i++) {
-					prev = s.evaluateAt(x1, ycoords[i], zcoords[k]);
-					cube.coords[Cube.Y1] = ycoords[i - 1];
-					cube.coords[Cube.Y2] = ycoords[i];
-					for (int j = 1; j <= sizeX; j++) {
-						cur = s.evaluateAt(xcoords[j], ycoords[i], zcoords[k]);
-						cube.coords[Cube.X1] = xcoords[j - 1];
-						cube.coords[Cube.X2] = xcoords[j];
-						cube.cache[Cube.V0] = prev;
-						cube.cache[Cube.V1] = cur;
-						cube.cache[Cube.V2] = grid2d[i][j];
-						cube.cache[Cube.V3] = grid2d[i][j - 1];
-						cube.cache[Cube.V4] = grid1d[j - 1];
-						cube.cache[Cube.V5] = grid1d[j];
-						cube.cache[Cube.V6] = grid2d[i - 1][j];
-						cube.cache[Cube.V7] = grid2d[i - 1][j - 1];
-						super.addSurface(cube);
-						grid2d[i - 1][j - 1] = grid1d[j - 1];
-						grid1d[j - 1] = prev;
-						prev = cur;
+				if (min > max) {
+					// undefined in the whole cell
+					return;
+				}
+				if (size == 1) {
+					if (finite && min <= 0 && max > 0) {
+						addLeaf(ox, oy, oz, i, j, k);
+					}
+					return;
+				}
+				// the values vary by about max - min over the cell, so the
+				// surface may pass through it if they get that close to 0
+				if ((min > 0 || max <= 0) && finite && minAbs > max - min) {
+					return;
+				}
+				int half = size / 2;
+				for (int dk = 0; dk <= half; dk += half) {
+					for (int dj = 0; dj <= half; dj += half) {
+						for (int di = 0; di <= half; di += half) {
+							refine(ox, oy, oz, i + di, j + dj, k + dk, half);
+						}
 					}
-					grid2d[i - 1][sizeX] = grid1d[sizeX];
-					grid1d[sizeX] = prev;
 				}
-				System.arraycopy(grid1d, 0, grid2d[sizeY], 0, sizeX + 1);
 			}
-		}
 
+			private void addLeaf(int ox, int oy, int oz, int i, int j,
+					int k) {
+				if (3 * leafCount + 3 > leafCells.length) {
+					int[] cellsGrown = new int[2 * leafCells.length];
+					System.arraycopy(leafCells, 0, cellsGrown, 0,
+							leafCells.length);
+					leafCells = cellsGrown;
+					double[] valuesGrown = new double[2 * leafValues.length];
+					System.arraycopy(leafValues, 0, valuesGrown, 0,
+							leafValues.length);
+					leafValues = valuesGrown;
+				}
+				leafCells[3 * leafCount] = ox + i;
+				leafCells[3 * leafCount + 1] = oy + j;
+				leafCells[3 * leafCount + 2] = oz + k;
+				for (int v = 0; v < 8; v++) {
+					int[] o = OFFSETS[v];
+					leafValues[8 * leafCount + v] = local[localIndex(i + o[0],
+							j + o[1], k + o[2])];
+				}
+				leafCount++;
+			}
+		}
 	}
 
 	// Here is vertices and edges numbering convention used throughout the
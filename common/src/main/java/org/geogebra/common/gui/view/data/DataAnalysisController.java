@@ -356,19 +356,25 @@ public abstract class DataAnalysisController {
 	protected abstract void removeGeos();
 
 	public double[] getValueArray(GeoList dataList) {
-		ArrayList<Double> list = new ArrayList<>();
+		double[] values = dataList.getNumericValues();
+		if (values != null) {
+			// callers may sort the values
+			return values.clone();
+		}
+		// no boxing, imported data columns may have many values
+		double[] val = new double[dataList.size()];
+		int size = 0;
 		for (int i = 0; i < dataList.size(); i++) {
 			GeoElement geo = dataList.get(i);
 			if (geo instanceof NumberValue) {
-				NumberValue num = (NumberValue) geo;
-				list.add(num.getDouble());
+				val[size++] = ((NumberValue) geo).getDouble();
 			}
 		}
-		double[] val = new double[list.size()];
-		for (int i = 0; i < list.size(); i++) {
-			val[i] = list.get(i);
+		if (size < val.length) {
+			double[] trimmed = new double[size];
+			System.arraycopy(val, 0, trimmed, 0, size);
+			return trimmed;
 		}
-
 		return val;
 	}
 
@@ -2,7 +2,6 @@ package org.geogebra.common.gui.view.probcalculator;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.TreeSet;
 
 import org.geogebra.common.awt.GColor;
 import org.geogebra.common.euclidian.EuclidianView;
@@ -28,6 +27,7 @@ import org.geogebra.common.kernel.algos.AlgoSequence;
 import org.geogebra.common.kernel.algos.AlgoStepGraph;
 import org.geogebra.common.kernel.algos.AlgoStickGraph;
 import org.geogebra.common.kernel.algos.AlgoTake;
+import org.geogebra.common.kernel.algos.AlgoUpdateList;
 import org.geogebra.common.kernel.arithmetic.ExpressionNode;
 import org.geogebra.common.kernel.arithmetic.ExpressionNodeConstants.StringType;
 import org.geogebra.common.kernel.arithmetic.MyDouble;
@@ -189,7 +189,7 @@ public abstract class ProbabilityCalculatorView
 
 	protected ProbabilityManager probManager;
 	protected GeoFunction pdfCurve;
-	private TreeSet<AlgoElement> tempSet;
+	private AlgoUpdateList tempSet;
 
 	public ProbabilityCalculatorView(App app) {
 
@@ -1179,9 +1179,9 @@ public abstract class ProbabilityCalculatorView
 		plotGeoList.clear();
 	}
 
-	private TreeSet<AlgoElement> getTempSet() {
+	private AlgoUpdateList getTempSet() {
 		if (tempSet == null) {
-			tempSet = new TreeSet<>();
+			tempSet = new AlgoUpdateList();
 		}
 		return tempSet;
 	}
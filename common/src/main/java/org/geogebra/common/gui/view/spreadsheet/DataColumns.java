@@ -0,0 +1,137 @@
+package org.geogebra.common.gui.view.spreadsheet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.geogebra.common.kernel.Construction;
+import org.geogebra.common.kernel.geos.GeoList;
+import org.geogebra.common.kernel.geos.GeoNumeric;
+
+/**
+ * Numeric data stored column by column in primitive arrays, used to import
+ * large data sets without creating a spreadsheet cell for every value.
+ * Every column has a value for every row, empty cells are NaN, so values of
+ * the same row stay paired.
+ */
+public class DataColumns {
+
+	private String[] names;
+	private final ArrayList<double[]> columns = new ArrayList<>();
+	private int rows = 0;
+	private int capacity = 16;
+
+	/**
+	 * @param headers
+	 *            column names
+	 */
+	void setNames(String[] headers) {
+		names = new String[headers.length];
+		for (int i = 0; i < headers.length; i++) {
+			names[i] = headers[i].trim();
+		}
+	}
+
+	/**
+	 * Starts a new row, its values are NaN until they are set.
+	 */
+	void addRow() {
+		if (rows == capacity) {
+			capacity *= 2;
+			for (int i = 0; i < columns.size(); i++) {
+				columns.set(i, newColumn(columns.get(i)));
+			}
+		}
+		rows++;
+	}
+
+	/**
+	 * Sets a value of the last row.
+	 *
+	 * @param column
+	 *            column index
+	 * @param value
+	 *            value
+	 */
+	void set(int column, double value) {
+		while (columns.size() <= column) {
+			columns.add(newColumn(null));
+		}
+		columns.get(column)[rows - 1] = value;
+	}
+
+	private double[] newColumn(double[] old) {
+		double[] values = new double[capacity];
+		Arrays.fill(values, Double.NaN);
+		if (old != null) {
+			System.arraycopy(old, 0, values, 0, rows);
+		}
+		return values;
+	}
+
+	/**
+	 * @return number of columns
+	 */
+	public int getColumnCount() {
+		return columns.size();
+	}
+
+	/**
+	 * @param column
+	 *            column index
+	 * @return column name from header row or null
+	 */
+	public String getName(int column) {
+		if (names == null || column >= names.length
+				|| names[column].length() == 0) {
+			return null;
+		}
+		return names[column];
+	}
+
+	/**
+	 * @return whether the data has a header row
+	 */
+	public boolean hasNames() {
+		return names != null;
+	}
+
+	/**
+	 * @return number of rows, the same for all columns
+	 */
+	public int getRowCount() {
+		return rows;
+	}
+
+	/**
+	 * @param column
+	 *            column index
+	 * @return values of the column, NaN for empty cells; the array may be
+	 *         longer than {@link #getRowCount()}
+	 */
+	public double[] getValues(int column) {
+		return columns.get(column);
+	}
+
+	/**
+	 * @param cons
+	 *            construction
+	 * @param column
+	 *            column index
+	 * @return unlabeled list of the column's numbers, undefined for empty
+	 *         cells; statistics read the values from the column rather than
+	 *         from the elements
+	 */
+	public GeoList toGeoList(Construction cons, int column) {
+		double[] values = getValues(column);
+		GeoList list = new GeoList(cons);
+		list.ensureCapacity(rows);
+		for (int i = 0; i < rows; i++) {
+			// list elements are not drawn, skip construction defaults
+			GeoNumeric number = new GeoNumeric(cons, false);
+			number.setValue(values[i]);
+			list.add(number);
+		}
+		list.setNumericValues(Arrays.copyOf(values, rows));
+		return list;
+	}
+}
@@ -1,6 +1,7 @@
 package org.geogebra.common.gui.view.spreadsheet;
 
 import org.geogebra.common.main.App;
+import org.geogebra.common.util.StringUtil;
 import org.geogebra.common.util.opencsv.CSVException;
 import org.geogebra.common.util.opencsv.CSVParser;
 
@@ -101,6 +102,85 @@ public class DataImport {
 
 	}
 
+	/**
+	 * Parses external data that contains only numbers (and optionally a
+	 * header row) into columns without creating intermediate strings for
+	 * every cell. Every line is a row, empty cells are NaN.
+	 * 
+	 * @param source
+	 *            comma or tab separated data
+	 * @return columns or null if some cell is not a number
+	 */
+	public static DataColumns parseNumericColumns(String source) {
+		// new parser, so that no pending state is left on failure
+		CSVParser parser = source.indexOf('\t') == -1 ? new CSVParser()
+				: new CSVParser('\t');
+		DataColumns columns = new DataColumns();
+		int length = source.length();
+		int start = 0;
+		boolean firstRow = true;
+		while (start < length) {
+			int end = start;
+			while (end < length && source.charAt(end) != '\n'
+					&& source.charAt(end) != '\r') {
+				end++;
+			}
+			String line = source.substring(start, end);
+			start = end + 1;
+			if (end + 1 < length && source.charAt(end) == '\r'
+					&& source.charAt(end + 1) == '\n') {
+				start++;
+			}
+
+			String[] fields;
+			try {
+				fields = parser.parseLineMulti(line);
+			} catch (CSVException e) {
+				return null;
+			}
+			if (parser.isPending()) {
+				// quoted line breaks
+				return null;
+			}
+			if (firstRow) {
+				firstRow = false;
+				if (!isNumericRow(fields)) {
+					columns.setNames(fields);
+					continue;
+				}
+			}
+			columns.addRow();
+			for (int i = 0; i < fields.length; i++) {
+				String field = fields[i].trim();
+				if (field.length() == 0) {
+					continue;
+				}
+				String number = adjustNumberString(field);
+				if (!RelativeCopy.isNumber(number)) {
+					return null;
+				}
+				try {
+					columns.set(i, StringUtil.parseDouble(number));
+				} catch (NumberFormatException e) {
+					// eg 30% or unicode minus, leave it to the parser
+					return null;
+				}
+			}
+		}
+		return columns.getColumnCount() == 0 ? null : columns;
+	}
+
+	private static boolean isNumericRow(String[] fields) {
+		for (int i = 0; i < fields.length; i++) {
+			String field = fields[i].trim();
+			if (field.length() > 0
+					&& !RelativeCopy.isNumber(adjustNumberString(field))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	private static CSVParser getCommaParser() {
 		if (commaParser == null) {
 			commaParser = new CSVParser();
@@ -51,7 +51,7 @@ public class SpreadsheetContextMenu {
 
 		RecordToSpreadsheet, DontRecordToSpreadsheet,
 
-		Copy, Paste, Duplicate, Cut, Delete, DeleteObjects,
+		Copy, Paste, PasteAsLists, Duplicate, Cut, Delete, DeleteObjects,
 
 		InsertLeft, InsertRight, InsertAbove, InsertBelow,
 
@@ -113,6 +113,14 @@ public class SpreadsheetContextMenu {
 		addMenuItem(cmdString, loc.getMenu(cmdString), true);
 	}
 
+	/**
+	 * Adds item to paste numeric data as lists instead of cells.
+	 */
+	protected void addPasteAsLists() {
+		String cmdString = MenuCommand.PasteAsLists.toString();
+		addMenuItem(cmdString, loc.getMenu(cmdString), true);
+	}
+
 	protected void addDelete() {
 		// TODO use "DeleteObjects" as text ?
 		String cmdString = (geos != null && geos.size() > 1)
@@ -128,6 +136,7 @@ public class SpreadsheetContextMenu {
 
 		addCopy();
 		addPaste();
+		addPasteAsLists();
 		addCut();
 		addDelete();
 	}
@@ -468,6 +477,11 @@ public class SpreadsheetContextMenu {
 			cmdPaste();
 			break;
 
+		case PasteAsLists:
+			table.getCopyPasteCut().pasteAsLists(column1, row1);
+			table.getView().rowHeaderRevalidate();
+			break;
+
 		case Cut:
 			succ = table.getCopyPasteCut().cut(column1, row1, column2, row2);
 			if (succ) {
@@ -19,6 +19,7 @@
 
 package org.geogebra.common.io;
 
+import java.io.IOException;
 import java.io.Reader;
 import java.util.LinkedHashMap;
 import java.util.Stack;
@@ -46,11 +47,17 @@ public class QDParser {
 	private final static int DOCTYPE = 14;
 	private final static int PRE = 15;
 	private final static int CDATA = 16;
+	/** size of the read buffer in chars */
+	private final static int BUFFER_SIZE = 8192;
 
 	private LinkedHashMap<String, String> attrs;
 	private Stack<Integer> stack;
 	private StringBuilder sb;
 	private StringBuilder etag;
+	/** reused for all documents, avoids a (synchronized) read per char */
+	private final char[] buffer = new char[BUFFER_SIZE];
+	private int position;
+	private int limit;
 
 	/**
 	 * Creates new parser
@@ -79,6 +86,26 @@ public class QDParser {
 		return PRE;
 	}
 
+	/**
+	 * @param r
+	 *            source of XML data
+	 * @return next char from the buffer, refilled from the reader when empty;
+	 *         -1 at the end of the stream
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	private int read(Reader r) throws IOException {
+		while (position == limit) {
+			limit = r.read(buffer, 0, buffer.length);
+			position = 0;
+			if (limit < 0) {
+				limit = 0;
+				return -1;
+			}
+		}
+		return buffer[position++];
+	}
+
 	/**
 	 * @param doc
 	 *            handler that receives document events
@@ -106,11 +133,13 @@ public class QDParser {
 
 		// attrs = new LinkedHashMap();
 		attrs.clear();
+		position = 0;
+		limit = 0;
 
 		doc.startDocument();
 		int line = 1, col = 0;
 		boolean eol = false;
-		while ((c = r.read()) != -1) {
+		while ((c = read(r)) != -1) {
 
 			// We need to map \r, \r\n, and \n to \n
 			// See XML spec section 2.11
@@ -1,9 +1,8 @@
 package org.geogebra.common.kernel;
 
 import java.util.ArrayList;
-import java.util.TreeSet;
 
-import org.geogebra.common.kernel.algos.AlgoElement;
+import org.geogebra.common.kernel.algos.AlgoUpdateList;
 import org.geogebra.common.kernel.geos.Animatable;
 import org.geogebra.common.kernel.geos.GeoElement;
 import org.geogebra.common.kernel.kernelND.GeoElementND;
@@ -37,7 +36,7 @@ public class AnimationManager implements GTimerListener {
 	protected ArrayList<TimerListener> listener = new ArrayList<>();
 	private GTimer timer;
 
-	private TreeSet<AlgoElement> tempSet;
+	private AlgoUpdateList tempSet;
 
 	/**
 	 * @param kernel2
@@ -197,9 +196,9 @@ public class AnimationManager implements GTimerListener {
 
 	}
 
-	private TreeSet<AlgoElement> getTempSet() {
+	private AlgoUpdateList getTempSet() {
 		if (tempSet == null) {
-			tempSet = new TreeSet<>();
+			tempSet = new AlgoUpdateList();
 		}
 		return tempSet;
 	}
@@ -0,0 +1,128 @@
+package org.geogebra.common.kernel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.geogebra.common.cas.giac.CASgiac;
+import org.geogebra.common.cas.giac.GiacContextPool;
+import org.geogebra.common.kernel.algos.ConstructionElement;
+import org.geogebra.common.kernel.arithmetic.ValidExpression;
+import org.geogebra.common.kernel.geos.GeoCasCell;
+import org.geogebra.common.kernel.geos.GeoElement;
+
+/**
+ * Splits CAS cells in construction order into batches of cells that don't
+ * depend on each other. The Giac inputs of a batch are evaluated in the
+ * kernel's Giac context pool before the cells are updated; the cells are then
+ * computed on the calling thread and take their results from the CAS instead
+ * of evaluating them one by one. Cells of later batches see the outputs of
+ * earlier ones, so dependent cells get the same input as without the pool.
+ */
+final class CasCellPrefetcher {
+
+	private CasCellPrefetcher() {
+		// utility class
+	}
+
+	/**
+	 * @param ce
+	 *            construction element
+	 * @return whether updating the element computes a CAS cell
+	 */
+	static boolean isCasCell(ConstructionElement ce) {
+		return (ce.isGeoElement() && ((GeoElement) ce).isGeoCasCell())
+				|| ce instanceof AlgoCasCellInterface;
+	}
+
+	private static GeoCasCell getCasCell(ConstructionElement ce) {
+		return ce instanceof AlgoCasCellInterface
+				? ((AlgoCasCellInterface) ce).getCasCell() : (GeoCasCell) ce;
+	}
+
+	/**
+	 * Collects CAS cells until one of them depends on a collected cell.
+	 *
+	 * @param list
+	 *            construction elements in construction order
+	 * @param start
+	 *            index of the first CAS cell
+	 * @param consecutive
+	 *            whether to stop at the first element that is no CAS cell,
+	 *            otherwise such elements are skipped
+	 * @param batch
+	 *            gets the collected elements
+	 * @return index after the last collected element
+	 */
+	static int collect(List<? extends ConstructionElement> list, int start,
+			boolean consecutive, ArrayList<ConstructionElement> batch) {
+		ArrayList<GeoElement> outputs = new ArrayList<>();
+		int end = start;
+		for (int i = start; i < list.size(); i++) {
+			ConstructionElement ce = list.get(i);
+			if (!isCasCell(ce)) {
+				if (consecutive) {
+					break;
+				}
+				continue;
+			}
+			GeoCasCell cell = getCasCell(ce);
+			for (GeoElement output : outputs) {
+				if (cell.isChildOf(output)) {
+					return end;
+				}
+			}
+			batch.add(ce);
+			outputs.add(cell);
+			if (cell.getTwinGeo() != null) {
+				outputs.add(cell.getTwinGeo());
+			}
+			end = i + 1;
+		}
+		return end;
+	}
+
+	/**
+	 * Evaluates the CAS inputs of the batch in the pool.
+	 *
+	 * @param batch
+	 *            elements that don't depend on each other
+	 * @param kernel
+	 *            kernel
+	 * @return whether results were prefetched, they have to be cleared by
+	 *         {@link #clear(Kernel)} after the batch is updated
+	 */
+	static boolean prefetch(ArrayList<ConstructionElement> batch,
+			Kernel kernel) {
+		GiacContextPool pool = kernel.getGiacContextPool();
+		if (pool == null || batch.size() < 2
+				|| !kernel.isGeoGebraCASready()) {
+			return false;
+		}
+		CASGenericInterface cas = kernel.getGeoGebraCAS().getCurrentCAS();
+		if (!(cas instanceof CASgiac)) {
+			return false;
+		}
+		ArrayList<ValidExpression> inputs = new ArrayList<>();
+		for (ConstructionElement ce : batch) {
+			ValidExpression input = getCasCell(ce).getCasInput();
+			if (input != null) {
+				inputs.add(input);
+			}
+		}
+		if (inputs.size() < 2) {
+			return false;
+		}
+		((CASgiac) cas).prefetch(inputs, pool);
+		return true;
+	}
+
+	/**
+	 * Drops prefetched results that were not used.
+	 *
+	 * @param kernel
+	 *            kernel
+	 */
+	static void clear(Kernel kernel) {
+		((CASgiac) kernel.getGeoGebraCAS().getCurrentCAS()).clearPrefetched();
+	}
+}
@@ -0,0 +1,23 @@
+package org.geogebra.common.kernel;
+
+/**
+ * Store for CAS results that outlives the kernel's in-memory cache, e.g. a
+ * file that is kept between sessions. Implementations must be thread safe.
+ */
+public interface CasResultStore {
+
+	/**
+	 * @param input
+	 *            CAS input
+	 * @return stored result or null
+	 */
+	String get(String input);
+
+	/**
+	 * @param input
+	 *            CAS input
+	 * @param result
+	 *            result of the input
+	 */
+	void put(String input, String result);
+}
@@ -18,6 +18,7 @@ import org.geogebra.common.kernel.algos.AlgoCasBase;
 import org.geogebra.common.kernel.algos.AlgoDistancePoints;
 import org.geogebra.common.kernel.algos.AlgoElement;
 import org.geogebra.common.kernel.algos.AlgoJoinPointsSegment;
+import org.geogebra.common.kernel.algos.AlgoUpdateList;
 import org.geogebra.common.kernel.algos.AlgorithmSet;
 import org.geogebra.common.kernel.algos.ConstructionElement;
 import org.geogebra.common.kernel.arithmetic.Equation;
@@ -188,6 +189,8 @@ public class Construction {
 	private boolean ignoringNewTypes;
 
 	private MyXMLio xmlio;
+	private ConstructionCheckpoint checkpoint;
+	private final UndoXMLCache undoXML = new UndoXMLCache();
 
 	private GeoElement outputGeo;
 
@@ -803,6 +806,9 @@ public class Construction {
 		++step;
 		ceList.add(index, ce);
 		updateConstructionIndex(index);
+		if (checkpoint != null) {
+			checkpoint.added(ce);
+		}
 
 		// update cas row references
 		if (ce instanceof GeoCasCell) {
@@ -856,6 +862,7 @@ public class Construction {
 				&& ce.getMinConstructionIndex() <= toIndex
 				&& toIndex <= ce.getMaxConstructionIndex();
 		if (change) {
+			elementChanged(ce);
 
 			if (ce instanceof GeoElement) {
 				// TODO: update Algebra View
@@ -929,7 +936,9 @@ public class Construction {
 		int pos = ceList.indexOf(ce);
 		if (pos == -1) {
 			return;
-		} else if (pos <= step) {
+		}
+		elementChanged(ce);
+		if (pos <= step) {
 			ceList.remove(ce);
 			ce.setConstructionIndex(-1);
 			--step;
@@ -1253,23 +1262,32 @@ public class Construction {
 					algoList);
 
 			// update all algorithms
-			for (int i = 0; i < size; ++i) {
-				AlgoElement algo = tempList.get(i);
-
-				// reinit near to relationship to make sure points stay at their
-				// saved position
-				// keep this line, see
-				// http://code.google.com/p/geogebra/issues/detail?id=62
-				algo.initForNearToRelationship();
-
-				// update algorithm
-				if (algo instanceof AlgoLocusEquation) {
-					((AlgoLocusEquation) algo).resetFingerprint(kernel, true);
+			ParallelExecutor executor = kernel.getParallelExecutor();
+			boolean casPool = kernel.getGiacContextPool() != null;
+			int i = 0;
+			while (i < size) {
+				if (casPool && CasCellPrefetcher.isCasCell(tempList.get(i))) {
+					ArrayList<ConstructionElement> batch = new ArrayList<>();
+					i = CasCellPrefetcher.collect(tempList, i, true, batch);
+					updateCasCellBatch(batch, randomize);
+					continue;
+				}
+				int end = i;
+				if (executor != null) {
+					while (end < size
+							&& canComputeInParallel(tempList.get(end))) {
+						end++;
+					}
 				}
-				if (randomize || !(algo instanceof SetRandomValue)
-						|| !((SetRandomValue) algo).setRandomValue(algo.getOutput(0))) {
-					algo.update();
+				if (end - i > 1 && ParallelAlgoUpdater
+						.update(tempList.subList(i, end), executor)) {
+					i = end;
+					continue;
 				}
+				do {
+					updateAlgo(tempList.get(i), randomize);
+					i++;
+				} while (i < end);
 			}
 
 			// G.Sturr 2010-5-28:
@@ -1289,12 +1307,22 @@ public class Construction {
 		try {
 			// update all independent GeoElements
 			// check the size every time as Delete may change it
+			boolean casPool = kernel.getGiacContextPool() != null;
 			for (int i = 0; i < ceList.size(); ++i) {
 				ConstructionElement ce = ceList.get(i);
-				if ((ce.isGeoElement() && ((GeoElement) ce).isGeoCasCell())
-						|| ((ce instanceof AlgoElement)
-								&& ce instanceof AlgoCasCellInterface)) {
-					ce.update();
+				if (CasCellPrefetcher.isCasCell(ce)) {
+					if (casPool) {
+						ArrayList<ConstructionElement> batch = new ArrayList<>();
+						int end = CasCellPrefetcher.collect(ceList, i, false,
+								batch);
+						// cells are updated like ce.update() below
+						updateCasCellBatch(batch, true);
+						// elements may have been deleted
+						int last = ceList.indexOf(batch.get(batch.size() - 1));
+						i = last < 0 ? end - 1 : last;
+					} else {
+						ce.update();
+					}
 				}
 			}
 		} finally {
@@ -1302,6 +1330,46 @@ public class Construction {
 		}
 	}
 
+	private void updateCasCellBatch(ArrayList<ConstructionElement> batch,
+			boolean randomize) {
+		boolean prefetched = CasCellPrefetcher.prefetch(batch, kernel);
+		try {
+			for (ConstructionElement ce : batch) {
+				if (ce instanceof AlgoElement) {
+					updateAlgo((AlgoElement) ce, randomize);
+				} else {
+					ce.update();
+				}
+			}
+		} finally {
+			if (prefetched) {
+				CasCellPrefetcher.clear(kernel);
+			}
+		}
+	}
+
+	private void updateAlgo(AlgoElement algo, boolean randomize) {
+		// reinit near to relationship to make sure points stay at their
+		// saved position
+		// keep this line, see
+		// http://code.google.com/p/geogebra/issues/detail?id=62
+		algo.initForNearToRelationship();
+
+		// update algorithm
+		if (algo instanceof AlgoLocusEquation) {
+			((AlgoLocusEquation) algo).resetFingerprint(kernel, true);
+		}
+		if (randomize || !(algo instanceof SetRandomValue)
+				|| !((SetRandomValue) algo).setRandomValue(algo.getOutput(0))) {
+			algo.update();
+		}
+	}
+
+	private static boolean canComputeInParallel(AlgoElement algo) {
+		return algo.canComputeInParallel() && !(algo instanceof SetRandomValue)
+				&& !(algo instanceof AlgoLocusEquation);
+	}
+
 	/**
 	 * Returns this construction in XML format. GeoGebra File Format.
 	 * 
@@ -1353,9 +1421,15 @@ public class Construction {
 
 		ConstructionElement ce;
 		int size = ceList.size();
+		// undo points only serialize elements that changed
+		boolean cached = getListenersToo && kernel.isGettingUndo();
 		for (int i = 0; i < size; ++i) {
 			ce = ceList.get(i);
-			ce.getXML(getListenersToo, sb);
+			if (cached) {
+				undoXML.getXML(ce, sb);
+			} else {
+				ce.getXML(getListenersToo, sb);
+			}
 		}
 	}
 
@@ -3087,6 +3161,68 @@ public class Construction {
 
 		usedMacros = null;
 		spreadsheetTraces = false;
+		if (checkpoint != null) {
+			checkpoint.invalidate();
+		}
+		undoXML.clear();
+	}
+
+	/**
+	 * Takes the current state as base state for {@link #restoreCheckpoint()},
+	 * e.g. after loading a worksheet that is evaluated against many inputs.
+	 */
+	public void setCheckpoint() {
+		checkpoint = new ConstructionCheckpoint(this);
+	}
+
+	/**
+	 * Drops the checkpoint.
+	 */
+	public void clearCheckpoint() {
+		checkpoint = null;
+	}
+
+	/**
+	 * Rolls the construction back to the last checkpoint. Elements added since
+	 * then are removed; the construction is only rebuilt from XML if elements
+	 * of the checkpoint were changed or removed.
+	 * 
+	 * @return false if there is no checkpoint or it could not be restored
+	 */
+	public boolean restoreCheckpoint() {
+		return checkpoint != null && checkpoint.restore();
+	}
+
+	/**
+	 * @return whether elements of the checkpoint were changed or removed since
+	 *         it was taken or last restored
+	 */
+	public boolean isCheckpointModified() {
+		return checkpoint != null && checkpoint.isModified();
+	}
+
+	/**
+	 * Tells the checkpoint and the undo XML cache that an element was added,
+	 * updated, restyled, moved or removed. The kernel calls this for all
+	 * changes it notifies views about; setters of properties that are saved
+	 * in XML without such a notification need to call it themselves.
+	 * 
+	 * @param ce
+	 *            construction element
+	 */
+	public void elementChanged(ConstructionElement ce) {
+		if (checkpoint != null) {
+			checkpoint.changed(ce);
+		}
+		undoXML.changed(ce);
+	}
+
+	/**
+	 * Serializes all elements for the next undo point again, e.g. after a
+	 * rename or changes of properties that are not reported to the kernel.
+	 */
+	void invalidateUndoXML() {
+		undoXML.clear();
 	}
 
 	/**
@@ -3504,7 +3640,7 @@ public class Construction {
 		this.kernel.getApplication().setBlockUpdateScripts(true);
 		// TODO we do not need the whole construction update here
 		if (latexGeos != null) {
-			GeoElement.updateCascade(latexGeos, new TreeSet<AlgoElement>(),
+			GeoElement.updateCascade(latexGeos, new AlgoUpdateList(),
 					true);
 		}
 		this.latexGeos = null;
@@ -0,0 +1,142 @@
+package org.geogebra.common.kernel;
+
+import java.util.ArrayList;
+
+import org.geogebra.common.io.MyXMLio;
+import org.geogebra.common.kernel.algos.ConstructionElement;
+import org.geogebra.common.kernel.commands.EvalInfo;
+import org.geogebra.common.util.debug.Log;
+
+/**
+ * Base state of a construction, e.g. a worksheet that is evaluated against
+ * many inputs. The construction reports elements added to its list and
+ * elements of the base state that were updated, renamed, moved or removed.
+ * Restoring removes the added elements in reverse order, so it costs about as
+ * much as building them. Only if the base state itself was changed, the
+ * construction is rebuilt from the XML taken at the checkpoint. Settings of
+ * the graphics views are not reported, so they are compared on restore, and
+ * the random numbers start from the same seed after every restore.
+ */
+class ConstructionCheckpoint {
+
+	private final Construction cons;
+	private final String xml;
+	private final String viewXML;
+	private final int seed;
+	/** elements of the base state have smaller IDs */
+	private long firstId;
+	private final ArrayList<ConstructionElement> added = new ArrayList<>();
+	private boolean modified;
+
+	/**
+	 * @param cons
+	 *            construction in its base state
+	 */
+	ConstructionCheckpoint(Construction cons) {
+		this.cons = cons;
+		this.xml = getXML(cons);
+		this.viewXML = getViewXML(cons);
+		this.seed = cons.getApplication().getRandomIntegerBetween(0,
+				Integer.MAX_VALUE - 1);
+		capture();
+	}
+
+	/**
+	 * Like {@link MyXMLio#getUndoXML(Construction, boolean)}, with settings of
+	 * the graphics views and kernel only.
+	 */
+	private static String getXML(Construction cons) {
+		Kernel kernel = cons.getKernel();
+		boolean gettingUndo = kernel.isGettingUndo();
+		kernel.setIsGettingUndo(true);
+		StringBuilder sb = new StringBuilder();
+		MyXMLio.addXMLHeader(sb);
+		MyXMLio.addGeoGebraHeader(sb, false,
+				cons.getApplication().getUniqueId(),
+				cons.getApplication().getVersion());
+		cons.getApplication().getCompanion().getEuclidianViewXML(sb, false);
+		kernel.getKernelXML(sb, false);
+		cons.getConstructionXML(sb, true);
+		sb.append("</geogebra>");
+		kernel.setIsGettingUndo(gettingUndo);
+		return sb.toString();
+	}
+
+	private static String getViewXML(Construction cons) {
+		StringBuilder sb = new StringBuilder();
+		cons.getApplication().getCompanion().getEuclidianViewXML(sb, false);
+		return sb.toString();
+	}
+
+	private void capture() {
+		firstId = cons.getApplication().getNextCeIDcounter();
+		added.clear();
+		modified = false;
+		cons.getApplication().setRandomSeed(seed);
+	}
+
+	/**
+	 * @param ce
+	 *            element added to the construction list
+	 */
+	void added(ConstructionElement ce) {
+		if (!modified) {
+			added.add(ce);
+		}
+	}
+
+	/**
+	 * @param ce
+	 *            element that was updated, renamed, moved or removed
+	 */
+	void changed(ConstructionElement ce) {
+		if (ce.getID() < firstId) {
+			modified = true;
+		}
+	}
+
+	/**
+	 * Base state needs to be rebuilt, e.g. after the construction was cleared.
+	 */
+	void invalidate() {
+		modified = true;
+	}
+
+	/**
+	 * @return whether elements of the base state were changed
+	 */
+	boolean isModified() {
+		return modified;
+	}
+
+	/**
+	 * Rolls the construction back to the base state.
+	 *
+	 * @return whether the base state could be restored
+	 */
+	boolean restore() {
+		// zoom, axes etc.
+		if (!viewXML.equals(getViewXML(cons))) {
+			modified = true;
+		}
+		for (int i = added.size() - 1; i >= 0 && !modified; i--) {
+			ConstructionElement ce = added.get(i);
+			// dependent elements were removed with their parents
+			if (ce.isInConstructionList()) {
+				ce.remove();
+			}
+		}
+		if (modified) {
+			try {
+				// keep random numbers of the base state
+				cons.getUndoManager().processXML(xml, false,
+						new EvalInfo(false, true, false));
+			} catch (Exception e) {
+				Log.error("Restoring checkpoint failed: " + e.getMessage());
+				return false;
+			}
+		}
+		capture();
+		return true;
+	}
+}
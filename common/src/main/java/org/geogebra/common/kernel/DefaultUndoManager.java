@@ -13,6 +13,7 @@ import org.geogebra.common.plugin.EventType;
 public class DefaultUndoManager extends UndoManager {
 
 	private ArrayList<UndoPossibleListener> mListener = new ArrayList<>();
+	private DeltaAppState lastState;
 
 	/**
 	 * @param cons
@@ -49,8 +50,8 @@ public class DefaultUndoManager extends UndoManager {
      *            string builder with construction XML
      */
     private synchronized void doStoreUndoInfo(final StringBuilder undoXML) {
-        AppState appStateToAdd = new StringAppState(undoXML.toString());
-        UndoCommand command = new UndoCommand(appStateToAdd);
+        lastState = new DeltaAppState(undoXML.toString(), lastState);
+        UndoCommand command = new UndoCommand(lastState);
         maybeStoreUndoCommand(command);
         pruneStateList();
         app.getEventDispatcher().dispatchEvent(new Event(EventType.STOREUNDO, null));
@@ -59,7 +60,9 @@ public class DefaultUndoManager extends UndoManager {
     @Override
 	protected void loadUndoInfo(AppState state, String slideID) {
         try {
-			processXML(state.getXml(), false, null);
+			if (!loadDelta(state)) {
+				processXML(state.getXml(), false, null);
+			}
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -0,0 +1,456 @@
+package org.geogebra.common.kernel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.geogebra.common.kernel.algos.AlgoUpdateList;
+import org.geogebra.common.kernel.geos.GeoElement;
+
+/**
+ * App State that keeps the XML split into fragments: one per construction
+ * element, command or settings block. Fragments that are the same as in the
+ * previous state are shared with it, so every undo point only needs memory
+ * for the elements that were added or modified.
+ *
+ * A construction can also be moved from one state to another by applying the
+ * fragments that differ, see {@link #restoreFrom(DeltaAppState, Construction)}.
+ */
+public class DeltaAppState implements AppState {
+
+	private static final String CONSTRUCTION = "<construction";
+	private static final String CONSTRUCTION_END = "</construction>";
+	private static final String ELEMENT = "<element";
+	private static final String EXPRESSION = "<expression";
+	private static final String COMMAND = "<command";
+	private static final String COMMAND_END = "</command>";
+
+	private String[] fragments;
+	private int newFragments;
+
+	/**
+	 * @param xml
+	 *            full XML of the state
+	 * @param previous
+	 *            previously stored state to share fragments with (may be
+	 *            null)
+	 */
+	public DeltaAppState(String xml, DeltaAppState previous) {
+		String[] old = previous == null ? null : previous.fragments;
+		// position of old fragments, only needed after the first change
+		HashMap<String, Integer> oldIndex = null;
+		int next = 0;
+		ArrayList<String> list = new ArrayList<>();
+		int start = 0;
+		while (start < xml.length()) {
+			int end = nextFragment(xml, start);
+			int length = end - start;
+			if (old != null && next < old.length
+					&& old[next].length() == length
+					&& xml.regionMatches(start, old[next], 0, length)) {
+				// unchanged fragments are compared without copying them
+				list.add(old[next++]);
+			} else {
+				String fragment = xml.substring(start, end);
+				if (old != null && oldIndex == null) {
+					oldIndex = new HashMap<>();
+					for (int i = old.length - 1; i >= 0; i--) {
+						oldIndex.put(old[i], i);
+					}
+				}
+				Integer index = oldIndex == null ? null
+						: oldIndex.get(fragment);
+				if (index == null) {
+					newFragments++;
+					list.add(fragment);
+				} else {
+					list.add(old[index]);
+					// skip removed fragments
+					next = Math.max(next, index + 1);
+				}
+			}
+			start = end;
+		}
+		fragments = list.toArray(new String[0]);
+	}
+
+	/**
+	 * Fragments start with a tag at the beginning of a line; nested tags are
+	 * indented, so these are the top level elements of construction and
+	 * settings or their closing tags.
+	 */
+	private static int nextFragment(String xml, int start) {
+		int pos = xml.indexOf("\n<", start);
+		return pos < 0 ? xml.length() : pos + 1;
+	}
+
+	/**
+	 * @return number of fragments that could not be shared with previous
+	 *         state
+	 */
+	public int getNewFragmentCount() {
+		return newFragments;
+	}
+
+	/**
+	 * @param xml
+	 *            XML
+	 * @return whether the XML of this state is the same
+	 */
+	public boolean matches(CharSequence xml) {
+		if (fragments == null) {
+			return false;
+		}
+		String str = xml.toString();
+		int start = 0;
+		for (String fragment : fragments) {
+			if (!str.regionMatches(start, fragment, 0, fragment.length())) {
+				return false;
+			}
+			start += fragment.length();
+		}
+		return start == str.length();
+	}
+
+	/**
+	 * Changes the construction from state {@code current} to this state
+	 * without loading unchanged elements again. This works if the settings
+	 * are the same and the states differ in one run of construction elements
+	 * that either
+	 * <ul>
+	 * <li>has the same labels and commands in both states: changed elements
+	 * are updated in place, or</li>
+	 * <li>is at the end of the construction: the elements of the current state
+	 * are removed and those of this state are created.</li>
+	 * </ul>
+	 * Callers need to make sure that the construction is in state
+	 * {@code current} and should check the result.
+	 *
+	 * @param current
+	 *            state of the construction
+	 * @param cons
+	 *            construction
+	 * @return false if the construction was not changed and needs to be
+	 *         loaded from the full XML
+	 * @throws Exception
+	 *             if the XML of changed elements can't be processed
+	 */
+	public boolean restoreFrom(DeltaAppState current, Construction cons)
+			throws Exception {
+		String[] from = current.fragments;
+		String[] to = fragments;
+		if (from == null || to == null) {
+			return false;
+		}
+		int consStart = indexOf(from, CONSTRUCTION);
+		int fromEnd = indexOf(from, CONSTRUCTION_END);
+		int toEnd = indexOf(to, CONSTRUCTION_END);
+		if (consStart < 0 || fromEnd < 0 || toEnd < 0
+				|| consStart != indexOf(to, CONSTRUCTION)
+				|| from.length - fromEnd != to.length - toEnd) {
+			return false;
+		}
+		// settings and construction title need to be the same
+		for (int i = 0; i <= consStart; i++) {
+			if (!same(from[i], to[i])) {
+				return false;
+			}
+		}
+		for (int i = 0; fromEnd + i < from.length; i++) {
+			if (!same(from[fromEnd + i], to[toEnd + i])) {
+				return false;
+			}
+		}
+
+		int prefix = consStart + 1;
+		while (prefix < fromEnd && prefix < toEnd
+				&& same(from[prefix], to[prefix])) {
+			prefix++;
+		}
+		int suffix = 0;
+		while (fromEnd - suffix > prefix && toEnd - suffix > prefix
+				&& same(from[fromEnd - suffix - 1], to[toEnd - suffix - 1])) {
+			suffix++;
+		}
+		// closing tags belong to the changed elements
+		while (suffix > 0 && from[fromEnd - suffix].startsWith("</")) {
+			suffix--;
+		}
+		int fromLength = fromEnd - suffix - prefix;
+		int toLength = toEnd - suffix - prefix;
+		if (fromLength == 0 && toLength == 0) {
+			return true;
+		}
+		if (fromLength > 0 && from[prefix].startsWith("</")
+				|| toLength > 0 && to[prefix].startsWith("</")) {
+			return false;
+		}
+		String header = getHeader(to, consStart);
+		if (restoreInPlace(from, prefix, fromEnd - suffix, to, prefix,
+				toEnd - suffix, header, cons)) {
+			return true;
+		}
+		if (suffix == 0) {
+			return restoreTail(from, to, prefix, fromEnd, toEnd, header,
+					cons);
+		}
+		return false;
+	}
+
+	/**
+	 * Applies changed elements that keep their labels and commands.
+	 */
+	private static boolean restoreInPlace(String[] from, int fromStart,
+			int fromEnd, String[] to, int toStart, int toEnd, String header,
+			Construction cons) throws Exception {
+		StringBuilder sb = new StringBuilder(header);
+		ArrayList<GeoElement> changed = new ArrayList<>();
+		// views need to read properties of changed elements again
+		ArrayList<GeoElement> reloaded = new ArrayList<>();
+		// independent elements that lose their definition, e.g. moved points
+		ArrayList<GeoElement> undefined = new ArrayList<>();
+		int i = fromStart;
+		int j = toStart;
+		while (i < fromEnd || j < toEnd) {
+			// expressions are written before their element and may be added
+			// or removed when the value of an independent element changes
+			String fromExp = i < fromEnd && from[i].startsWith(EXPRESSION)
+					? from[i++] : null;
+			String toExp = j < toEnd && to[j].startsWith(EXPRESSION)
+					? to[j++] : null;
+			if (!same(fromExp, toExp)) {
+				String label = getLabel(toExp == null ? fromExp : toExp);
+				GeoElement geo = cons.lookupLabel(label);
+				// redefining dependent elements may change the construction
+				if (geo == null || !geo.isIndependent() || fromExp != null
+						&& toExp != null && !same(label, getLabel(fromExp))) {
+					return false;
+				}
+				if (toExp == null) {
+					undefined.add(geo);
+				} else {
+					sb.append(toExp);
+					addOnce(changed, geo);
+				}
+				continue;
+			}
+			if (fromExp != null) {
+				continue;
+			}
+			if (i >= fromEnd || j >= toEnd) {
+				return false;
+			}
+			String kind = getKind(to[j]);
+			if (kind == null || !kind.equals(getKind(from[i]))) {
+				return false;
+			}
+			if (ELEMENT.equals(kind) && !same(from[i], to[j])) {
+				String label = getLabel(to[j]);
+				GeoElement geo = cons.lookupLabel(label);
+				if (geo == null || !same(label, getLabel(from[i]))
+						|| j + 1 >= to.length
+						|| !to[j + 1].startsWith("</element>")) {
+					return false;
+				}
+				sb.append(to[j]).append(to[j + 1]);
+				addOnce(changed, geo);
+				reloaded.add(geo);
+			} else if (!same(from[i], to[j])) {
+				// commands have to stay the same
+				return false;
+			}
+			i++;
+			j++;
+		}
+		for (GeoElement geo : undefined) {
+			geo.setDefinition(null);
+		}
+		Kernel kernel = cons.getKernel();
+		for (GeoElement geo : reloaded) {
+			kernel.notifyReloading(geo);
+		}
+		sb.append(CONSTRUCTION_END).append("\n</geogebra>");
+		cons.getXMLio().processXMLString(sb.toString(), false, false, true,
+				false);
+		for (GeoElement geo : reloaded) {
+			kernel.notifyReloaded(geo);
+		}
+		if (!changed.isEmpty()) {
+			GeoElement.updateCascade(changed, new AlgoUpdateList(), true);
+		}
+		kernel.notifyRepaint();
+		return true;
+	}
+
+	private static void addOnce(ArrayList<GeoElement> list, GeoElement geo) {
+		if (!list.contains(geo)) {
+			list.add(geo);
+		}
+	}
+
+	/**
+	 * Replaces elements at the end of the construction.
+	 */
+	private static boolean restoreTail(String[] from, String[] to,
+			int prefix0, int fromEnd, int toEnd, String header,
+			Construction cons) throws Exception {
+		int prefix = prefix0;
+		// dependent elements are created with their command or expression
+		while (prefix > 0 && (from[prefix - 1].startsWith(COMMAND)
+				|| from[prefix - 1].startsWith(COMMAND_END)
+				|| from[prefix - 1].startsWith(EXPRESSION))) {
+			prefix--;
+		}
+		ArrayList<GeoElement> removed = new ArrayList<>();
+		boolean hasOutput = true;
+		for (int i = prefix; i < fromEnd; i++) {
+			String kind = getKind(from[i]);
+			if (kind == null) {
+				return false;
+			}
+			if (COMMAND.equals(kind)) {
+				// commands without labeled outputs can't be found by label
+				if (!hasOutput) {
+					return false;
+				}
+				hasOutput = false;
+			} else if (ELEMENT.equals(kind)) {
+				hasOutput = true;
+				GeoElement geo = cons.lookupLabel(getLabel(from[i]));
+				if (geo == null) {
+					return false;
+				}
+				removed.add(geo);
+			}
+		}
+		for (int i = prefix; i < toEnd; i++) {
+			if (getKind(to[i]) == null) {
+				return false;
+			}
+		}
+		if (!hasOutput) {
+			return false;
+		}
+		for (int i = removed.size() - 1; i >= 0; i--) {
+			GeoElement geo = removed.get(i);
+			// dependent elements were removed with their parents
+			if (geo.isLabelSet()) {
+				geo.remove();
+			}
+		}
+		if (toEnd > prefix) {
+			StringBuilder sb = new StringBuilder(header);
+			for (int i = prefix; i < toEnd; i++) {
+				sb.append(to[i]);
+			}
+			sb.append(CONSTRUCTION_END).append("\n</geogebra>");
+			cons.getXMLio().processXMLString(sb.toString(), false, false,
+					true, false);
+		}
+		cons.getKernel().notifyRepaint();
+		return true;
+	}
+
+	/**
+	 * @return XML declaration, geogebra and construction tag
+	 */
+	private static String getHeader(String[] state, int consStart) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < consStart; i++) {
+			if (state[i].startsWith("<?xml")
+					|| state[i].startsWith("<geogebra")) {
+				sb.append(state[i]);
+			}
+		}
+		return sb.append(state[consStart]).toString();
+	}
+
+	/**
+	 * @return tag of a construction element, closing tag or null if the
+	 *         fragment can't be restored separately (e.g. CAS cells)
+	 */
+	private static String getKind(String fragment) {
+		if (fragment.startsWith(ELEMENT + " ")) {
+			return ELEMENT;
+		}
+		if (fragment.startsWith(EXPRESSION + " ")) {
+			return EXPRESSION;
+		}
+		if (fragment.startsWith(COMMAND + " ")) {
+			return COMMAND;
+		}
+		if (fragment.startsWith("</element>")
+				|| fragment.startsWith(COMMAND_END)) {
+			return "</";
+		}
+		return null;
+	}
+
+	/**
+	 * @return value of the label attribute in the first line
+	 */
+	private static String getLabel(String fragment) {
+		int lineEnd = fragment.indexOf('\n');
+		int start = fragment.indexOf(" label=\"");
+		if (start < 0 || lineEnd >= 0 && start > lineEnd) {
+			return null;
+		}
+		start += 8;
+		int end = fragment.indexOf('"', start);
+		return end < 0 ? null : fragment.substring(start, end);
+	}
+
+	private static int indexOf(String[] state, String tag) {
+		for (int i = 0; i < state.length; i++) {
+			if (state[i].startsWith(tag)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static boolean same(String a, String b) {
+		// shared fragments are the same instance
+		return a == b || a != null && a.equals(b);
+	}
+
+	@Override
+	public String getXml() {
+		if (fragments == null) {
+			return null;
+		}
+		int length = 0;
+		for (String fragment : fragments) {
+			length += fragment.length();
+		}
+		StringBuilder sb = new StringBuilder(length);
+		for (String fragment : fragments) {
+			sb.append(fragment);
+		}
+		return sb.toString();
+	}
+
+	@Override
+	public void delete() {
+		fragments = null;
+	}
+
+	@Override
+	public boolean equalsTo(AppState state) {
+		if (state == null || fragments == null) {
+			return false;
+		}
+		if (!(state instanceof DeltaAppState)) {
+			return getXml().equals(state.getXml());
+		}
+		String[] other = ((DeltaAppState) state).fragments;
+		if (other == null || other.length != fragments.length) {
+			return false;
+		}
+		for (int i = 0; i < fragments.length; i++) {
+			if (!same(fragments[i], other[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -10,6 +10,7 @@ import java.util.TreeSet;
 
 import org.geogebra.common.GeoGebraConstants;
 import org.geogebra.common.cas.GeoGebraCAS;
+import org.geogebra.common.cas.giac.GiacContextPool;
 import org.geogebra.common.euclidian.EuclidianView;
 import org.geogebra.common.euclidian.EuclidianViewInterfaceCommon;
 import org.geogebra.common.euclidian.EuclidianViewInterfaceSlim;
@@ -25,6 +26,7 @@ import org.geogebra.common.kernel.algos.AlgoElement;
 import org.geogebra.common.kernel.algos.AlgoIf;
 import org.geogebra.common.kernel.algos.AlgoMacro;
 import org.geogebra.common.kernel.algos.AlgoPointVector;
+import org.geogebra.common.kernel.algos.AlgoUpdateList;
 import org.geogebra.common.kernel.algos.AlgoVectorPoint;
 import org.geogebra.common.kernel.algos.ConstructionElement;
 import org.geogebra.common.kernel.algos.DependentAlgo;
@@ -303,6 +305,14 @@ public class Kernel implements SpecialPointsListener, ConstructionStepper {
 	// views
 	private boolean silentMode = false;
 
+	// numeric functions evaluated via CompiledExpression
+	private boolean compiledFunctions = false;
+	// runs independent branches of updateConstruction and implicit curve
+	// tiles, may be null
+	private ParallelExecutor parallelExecutor;
+	private CasResultStore casResultStore;
+	private GiacContextPool giacContextPool;
+
 	private boolean wantAnimationStarted = false;
 
 	// setResolveUnkownVarsAsDummyGeos
@@ -367,6 +377,8 @@ public class Kernel implements SpecialPointsListener, ConstructionStepper {
 
 	private boolean isSaving;
 	private MaxSizeHashMap<String, String> ggbCasCache;
+	private long casCacheHits = 0;
+	private long casCacheMisses = 0;
 	/** min real world x for all views */
 	protected double[] xmin = new double[1];
 	/** max real world x for all views */
@@ -2871,6 +2883,47 @@ public class Kernel implements SpecialPointsListener, ConstructionStepper {
 		getConstruction().setSuppressLabelCreation(silentMode);
 	}
 
+	/**
+	 * Turns compiled evaluation of purely numeric functions on or off. When on,
+	 * Function.value() and FunctionNVar.evaluate() use a CompiledExpression
+	 * instead of walking the expression tree, if the expression allows it.
+	 * 
+	 * @param compiledFunctions
+	 *            whether to use compiled function evaluation
+	 */
+	public final void setCompiledFunctions(boolean compiledFunctions) {
+		this.compiledFunctions = compiledFunctions;
+	}
+
+	/**
+	 * @return whether compiled function evaluation is turned on
+	 * 
+	 * @see #setCompiledFunctions(boolean)
+	 */
+	public final boolean isCompiledFunctions() {
+		return compiledFunctions;
+	}
+
+	/**
+	 * Independent branches of thread safe algos are computed in parallel by
+	 * updateConstruction() when an executor is set; implicit polynomial
+	 * curves also evaluate their grid in parallel.
+	 * 
+	 * @param parallelExecutor
+	 *            executor for construction updates, null to update on a
+	 *            single thread
+	 */
+	public final void setParallelExecutor(ParallelExecutor parallelExecutor) {
+		this.parallelExecutor = parallelExecutor;
+	}
+
+	/**
+	 * @return executor for construction updates, may be null
+	 */
+	public final ParallelExecutor getParallelExecutor() {
+		return parallelExecutor;
+	}
+
 	/**
 	 * Sets whether unknown variables should be resolved as GeoDummyVariable
 	 * objects.
@@ -2961,8 +3014,8 @@ public class Kernel implements SpecialPointsListener, ConstructionStepper {
 			MyArbitraryConstant arbconst, StringTemplate tpl)
 			throws CASException {
 		String result = null;
-		if (useCaching && hasCasCache()) {
-			result = getCasCache().get(exp);
+		if (useCaching) {
+			result = getCachedCasResult(exp);
 			if (result != null) {
 				// caching worked
 				return result;
@@ -2973,7 +3026,7 @@ public class Kernel implements SpecialPointsListener, ConstructionStepper {
 		result = getGeoGebraCAS().evaluateGeoGebraCAS(exp, arbconst, tpl, this);
 
 		if (useCaching) {
-			getCasCache().put(exp, result);
+			putToCasCache(exp, result);
 		}
 		return result;
 	}
@@ -2986,26 +3039,104 @@ public class Kernel implements SpecialPointsListener, ConstructionStepper {
 	 *             error
 	 */
 	public String evaluateRawGeoGebraCAS(String exp) throws Throwable {
-		String result = null;
-		if (hasCasCache()) {
-			result = getCasCache().get(exp);
-			if (result != null) {
-				// Log.debug("result from cache " + result);
-				// caching worked
-				return result;
-			}
+		String result = getCachedCasResult(exp);
+		if (result != null) {
+			// Log.debug("result from cache " + result);
+			// caching worked
+			return result;
 		}
 
 		// evaluate in GeoGebraCAS
 		result = getGeoGebraCAS().evaluateRaw(exp);
 
-		getCasCache().put(exp, result);
+		putToCasCache(exp, result);
 
 		return result;
 	}
 
+	/**
+	 * Looks up the result in memory and then in the persistent store.
+	 */
+	private String getCachedCasResult(String exp) {
+		String result = hasCasCache() ? getCasCache().get(exp) : null;
+		CasResultStore store = getCasResultStore();
+		if (result == null && store != null) {
+			result = store.get(exp);
+			if (result != null) {
+				getCasCache().put(exp, result);
+			}
+		}
+		if (result == null) {
+			casCacheMisses++;
+		} else {
+			casCacheHits++;
+		}
+		return result;
+	}
+
+	/**
+	 * @return number of CAS inputs found in the cache or the persistent store
+	 */
+	public long getCasCacheHits() {
+		return casCacheHits;
+	}
+
+	/**
+	 * @return number of CAS inputs that had to be evaluated
+	 */
+	public long getCasCacheMisses() {
+		return casCacheMisses;
+	}
+
+	/**
+	 * Caches CAS result in memory and, if there is one, in the persistent
+	 * store. Undefined results are not stored persistently since they may be
+	 * caused by a CAS that is not loaded yet.
+	 * 
+	 * @param exp
+	 *            CAS input
+	 * @param result
+	 *            CAS output
+	 */
 	public void putToCasCache(String exp, String result) {
 		getCasCache().put(exp, result);
+		CasResultStore store = getCasResultStore();
+		if (store != null && result != null && result.length() > 0
+				&& !"?".equals(result)) {
+			store.put(exp, result);
+		}
+	}
+
+	/**
+	 * @param store
+	 *            store that keeps CAS results between sessions, may be null
+	 */
+	public final void setCasResultStore(CasResultStore store) {
+		this.casResultStore = store;
+	}
+
+	/**
+	 * @return store that keeps CAS results between sessions, may be null
+	 */
+	public CasResultStore getCasResultStore() {
+		return casResultStore;
+	}
+
+	/**
+	 * @param pool
+	 *            Giac contexts for evaluating independent CAS cells
+	 *            concurrently, null to evaluate them one by one
+	 */
+	public final void setGiacContextPool(GiacContextPool pool) {
+		this.giacContextPool = pool;
+	}
+
+	/**
+	 * @return Giac contexts for evaluating independent CAS cells
+	 *         concurrently, may be null
+	 */
+	public final GiacContextPool getGiacContextPool() {
+		return giacContextPool;
 	}
 
 	/**
@@ -4002,6 +4133,7 @@ public class Kernel implements SpecialPointsListener, ConstructionStepper {
 	 *            added geo
 	 */
 	public final void notifyAdd(GeoElement geo) {
+		elementChanged(geo);
 		if (notifyViewsActive) {
 			if (addingPolygon && geo.isLabelSet()) {
 				if (geo.getXMLtypeString().equalsIgnoreCase("Polygon")) {
@@ -4020,6 +4152,48 @@ public class Kernel implements SpecialPointsListener, ConstructionStepper {
 		notifyRenameListenerAlgos();
 	}
 
+	/**
+	 * Removes an element from views before its XML is loaded again without
+	 * creating a new object, see {@link #notifyReloaded(GeoElement)}.
+	 * 
+	 * @param geo
+	 *            element
+	 */
+	final void notifyReloading(GeoElement geo) {
+		if (notifyViewsActive) {
+			for (View view : views) {
+				if (isReloadedInView(view)) {
+					view.remove(geo);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds an element to views again after its XML was loaded, so that views
+	 * read all its properties like when a file is loaded.
+	 * 
+	 * @param geo
+	 *            element
+	 */
+	final void notifyReloaded(GeoElement geo) {
+		elementChanged(geo);
+		if (notifyViewsActive) {
+			for (View view : views) {
+				if (isReloadedInView(view)) {
+					view.add(geo);
+				}
+			}
+		}
+	}
+
+	private boolean isReloadedInView(View view) {
+		// CAS view shows cells, which are never loaded in place
+		return view.getViewID() != App.VIEW_CAS
+				&& (view.getViewID() != App.VIEW_CONSTRUCTION_PROTOCOL
+						|| isNotifyConstructionProtocolViewAboutAddRemoveActive());
+	}
+
 	/**
 	 * Notify views about adding polygon.
 	 */
@@ -4058,6 +4232,7 @@ public class Kernel implements SpecialPointsListener, ConstructionStepper {
 	 *            removed element
 	 */
 	public final void notifyRemove(GeoElement geo) {
+		elementChanged(geo);
 		if (notifyViewsActive) {
 			if (geo.isLabelSet()) {
 				this.deleteList.add(geo);
@@ -4115,6 +4290,13 @@ public class Kernel implements SpecialPointsListener, ConstructionStepper {
 		}
 	}
 
+	private void elementChanged(GeoElement geo) {
+		// null while the construction is created
+		if (cons != null) {
+			cons.elementChanged(geo);
+		}
+	}
+
 	/**
 	 * Notify views about possible value change
 	 * 
@@ -4122,6 +4304,7 @@ public class Kernel implements SpecialPointsListener, ConstructionStepper {
 	 *            element
 	 */
 	public final void notifyUpdate(GeoElement geo) {
+		elementChanged(geo);
 		// event dispatcher should not collect calls to stay compatible with 4.0
 		if (notifyViewsActive) {
 			for (View view : views) {
@@ -4137,6 +4320,7 @@ public class Kernel implements SpecialPointsListener, ConstructionStepper {
 	 *            element
 	 */
 	public final void notifyUpdateLocation(GeoElement geo) {
+		elementChanged(geo);
 		// event dispatcher should not collect calls to stay compatible with 4.0
 		if (notifyViewsActive) {
 			for (View view : views) {
@@ -4159,6 +4343,7 @@ public class Kernel implements SpecialPointsListener, ConstructionStepper {
 	 *            property
 	 */
 	public final void notifyUpdateVisualStyle(GeoElement geo, GProperty prop) {
+		elementChanged(geo);
 		if (notifyViewsActive) {
 			for (View view : views) {
 				view.updateVisualStyle(geo, prop);
@@ -4187,6 +4372,7 @@ public class Kernel implements SpecialPointsListener, ConstructionStepper {
 	 *            changed geo
 	 */
 	public final void notifyUpdateAuxiliaryObject(GeoElement geo) {
+		elementChanged(geo);
 		if (notifyViewsActive) {
 			for (View view : views) {
 				view.updateAuxiliaryObject(geo);
@@ -4201,6 +4387,11 @@ public class Kernel implements SpecialPointsListener, ConstructionStepper {
 	 *            renamed geo
 	 */
 	public final void notifyRename(GeoElement geo) {
+		elementChanged(geo);
+		if (cons != null) {
+			// commands of dependent elements contain the label
+			cons.invalidateUndoXML();
+		}
 		if (notifyViewsActive) {
 			for (View view : views) {
 				view.rename(geo);
@@ -4217,6 +4408,7 @@ public class Kernel implements SpecialPointsListener, ConstructionStepper {
 	 *            new geo after type change
 	 */
 	public final void notifyTypeChanged(GeoElement geo) {
+		elementChanged(geo);
 		if (notifyViewsActive) {
 			for (View view : views) {
 				if (view.getViewID() == App.VIEW_ALGEBRA) {
@@ -5094,6 +5286,7 @@ public class Kernel implements SpecialPointsListener, ConstructionStepper {
 	 */
 	public void notifyChangeLayer(GeoElement geo, int layer, int layer2) {
 		app.updateMaxLayerUsed(layer2);
+		elementChanged(geo);
 		if (notifyViewsActive) {
 			for (View view : views) {
 				if (view instanceof LayerView) {
@@ -5185,7 +5378,7 @@ public class Kernel implements SpecialPointsListener, ConstructionStepper {
 			al.add(geo);
 		}
 		cons.setUpdateConstructionRunning(true);
-		GeoElement.updateCascade(al, new TreeSet<AlgoElement>(), true);
+		GeoElement.updateCascade(al, new AlgoUpdateList(), true);
 		cons.setUpdateConstructionRunning(false);
 	}
 
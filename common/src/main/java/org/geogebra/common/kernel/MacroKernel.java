@@ -213,6 +213,14 @@ public class MacroKernel extends Kernel {
 		return parentKernel.isGeoGebraCASready();
 	}
 
+	/**
+	 * @return persistent CAS results of parent kernel
+	 */
+	@Override
+	public CasResultStore getCasResultStore() {
+		return parentKernel.getCasResultStore();
+	}
+
 	/**
 	 * @return Hash map for caching CAS results from parent kernel.
 	 */
@@ -0,0 +1,113 @@
+package org.geogebra.common.kernel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.geogebra.common.kernel.algos.AlgoElement;
+import org.geogebra.common.kernel.geos.GeoElement;
+
+/**
+ * Updates a run of thread safe algos from the algo list. The algos are split
+ * into branches that don't share any input or output; branches are computed
+ * in parallel, algos within one branch are computed in construction order.
+ * Outputs are updated afterwards on the calling thread, in construction
+ * order.
+ */
+final class ParallelAlgoUpdater {
+
+	private ParallelAlgoUpdater() {
+		// utility class
+	}
+
+	/**
+	 * @param algos
+	 *            consecutive thread safe algos in construction order
+	 * @param executor
+	 *            executor
+	 * @return false if the algos form a single branch and were not updated
+	 */
+	static boolean update(List<AlgoElement> algos, ParallelExecutor executor) {
+		int size = algos.size();
+		int[] parent = new int[size];
+		HashMap<GeoElement, Integer> owner = new HashMap<>();
+		for (int i = 0; i < size; i++) {
+			parent[i] = i;
+			AlgoElement algo = algos.get(i);
+			for (GeoElement geo : algo.getInput()) {
+				join(parent, owner, geo, i);
+			}
+			for (int j = 0; j < algo.getOutputLength(); j++) {
+				join(parent, owner, algo.getOutput(j), i);
+			}
+		}
+
+		int[] branchIndex = new int[size];
+		ArrayList<ArrayList<AlgoElement>> branches = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			int root = find(parent, i);
+			if (root == i) {
+				branchIndex[i] = branches.size();
+				branches.add(new ArrayList<AlgoElement>());
+			}
+			// roots are the smallest index of their branch
+			branches.get(branchIndex[root]).add(algos.get(i));
+		}
+		if (branches.size() < 2) {
+			return false;
+		}
+
+		for (int i = 0; i < size; i++) {
+			AlgoElement algo = algos.get(i);
+			algo.initForNearToRelationship();
+			algo.updateUnlabeledRandomGeos();
+		}
+		ArrayList<Runnable> tasks = new ArrayList<>(branches.size());
+		for (final ArrayList<AlgoElement> branch : branches) {
+			tasks.add(new Runnable() {
+				@Override
+				public void run() {
+					for (AlgoElement algo : branch) {
+						algo.compute();
+					}
+				}
+			});
+		}
+		executor.invokeAll(tasks);
+		for (int i = 0; i < size; i++) {
+			algos.get(i).updateOutputAfterCompute();
+		}
+		return true;
+	}
+
+	private static void join(int[] parent, HashMap<GeoElement, Integer> owner,
+			GeoElement geo, int algoIndex) {
+		Integer other = owner.get(geo);
+		if (other == null) {
+			owner.put(geo, algoIndex);
+			return;
+		}
+		int root1 = find(parent, other);
+		int root2 = find(parent, algoIndex);
+		// keep the smaller index as root
+		if (root1 < root2) {
+			parent[root2] = root1;
+		} else {
+			parent[root1] = root2;
+		}
+	}
+
+	private static int find(int[] parent, int i) {
+		int root = i;
+		while (parent[root] != root) {
+			root = parent[root];
+		}
+		int current = i;
+		while (parent[current] != root) {
+			int next = parent[current];
+			parent[current] = root;
+			current = next;
+		}
+		return root;
+	}
+}
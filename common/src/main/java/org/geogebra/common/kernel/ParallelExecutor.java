@@ -0,0 +1,19 @@
+package org.geogebra.common.kernel;
+
+import java.util.List;
+
+/**
+ * Runs independent tasks of the construction update or of plotting, on
+ * platforms that support threads.
+ */
+public interface ParallelExecutor {
+
+	/**
+	 * Runs all tasks, possibly in parallel, and returns after all of them
+	 * finished.
+	 * 
+	 * @param tasks
+	 *            tasks that don't share any data
+	 */
+	void invokeAll(List<Runnable> tasks);
+}
@@ -6,6 +6,7 @@ import java.util.ListIterator;
 import org.geogebra.common.kernel.commands.EvalInfo;
 import org.geogebra.common.main.App;
 import org.geogebra.common.plugin.EventType;
+import org.geogebra.common.util.debug.Log;
 
 /**
  * Undo manager common to Desktop and Web
@@ -26,6 +27,8 @@ public abstract class UndoManager {
 	/** invariant: iterator.previous() is current state */
 	private ListIterator<UndoCommand> iterator;
 	private boolean storeUndoInfoNeededForProperties = false;
+	/** state that was stored or loaded last */
+	private AppState constructionState;
 
 	/**
 	 * @param cons
@@ -162,6 +165,37 @@ public abstract class UndoManager {
 	// construction.setCasCellUpdate(false);
 	// }
 
+	/**
+	 * Moves the construction from the state that was stored or loaded last to
+	 * the given one by applying only the elements that differ, see
+	 * {@link DeltaAppState#restoreFrom(DeltaAppState, Construction)}.
+	 * 
+	 * @param state
+	 *            state to load
+	 * @return whether the construction is in the given state now; if false,
+	 *         it has to be loaded from the full XML
+	 */
+	protected boolean loadDelta(AppState state) {
+		AppState current = constructionState;
+		constructionState = state;
+		// reloading the current state reverts changes that were not stored
+		if (current == state || !(current instanceof DeltaAppState)
+				|| !(state instanceof DeltaAppState)
+				|| !((DeltaAppState) current)
+						.matches(construction.getCurrentUndoXML(true))) {
+			return false;
+		}
+		try {
+			return ((DeltaAppState) state).restoreFrom(
+					(DeltaAppState) current, construction)
+					&& ((DeltaAppState) state)
+							.matches(construction.getCurrentUndoXML(true));
+		} catch (Exception e) {
+			Log.debug("Loading undo changes failed: " + e.getMessage());
+			return false;
+		}
+	}
+
 	/**
 	 * Loads previous construction state from undo info list.
 	 */
@@ -297,6 +331,7 @@ public abstract class UndoManager {
 	public synchronized void clearUndoInfo() {
 		undoInfoList.clear();
 		iterator = undoInfoList.listIterator();
+		constructionState = null;
 	}
 
 	/**
@@ -347,6 +382,8 @@ public abstract class UndoManager {
 		if (!equalsWithPrevious) {
 			iterator.add(command);
 		}
+		constructionState = iterator.previous().getAppState();
+		iterator.next();
 		return equalsWithPrevious;
 	}
 
@@ -354,6 +391,8 @@ public abstract class UndoManager {
 	 * Notify about properties change
 	 */
 	public void setPropertiesOccured() {
+		// not all properties are reported to the kernel
+		construction.invalidateUndoXML();
 		if (!storeUndoInfoNeededForProperties) {
 			storeUndoInfoNeededForProperties = true;
 			if (redoPossible()) {
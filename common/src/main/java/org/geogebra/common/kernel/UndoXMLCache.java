@@ -0,0 +1,68 @@
+package org.geogebra.common.kernel;
+
+import java.util.IdentityHashMap;
+
+import org.geogebra.common.kernel.algos.AlgoElement;
+import org.geogebra.common.kernel.algos.ConstructionElement;
+import org.geogebra.common.kernel.geos.GeoCasCell;
+import org.geogebra.common.kernel.geos.GeoElement;
+
+/**
+ * XML of construction elements for undo points, so that storing an undo point
+ * only serializes elements that were added or changed since the last one. The
+ * kernel reports updated, restyled and removed elements; renaming changes the
+ * XML of dependent elements, so it drops the whole cache.
+ */
+class UndoXMLCache {
+
+	private final IdentityHashMap<ConstructionElement, String> xml =
+			new IdentityHashMap<>();
+
+	/**
+	 * Appends XML of an element including listeners, serializing it only if
+	 * it changed.
+	 *
+	 * @param ce
+	 *            construction element
+	 * @param sb
+	 *            output
+	 */
+	void getXML(ConstructionElement ce, StringBuilder sb) {
+		String cached = xml.get(ce);
+		if (cached != null) {
+			sb.append(cached);
+			return;
+		}
+		int start = sb.length();
+		ce.getXML(true, sb);
+		// CAS cells depend on the state of the CAS
+		if (!(ce instanceof GeoCasCell)) {
+			xml.put(ce, sb.substring(start));
+		}
+	}
+
+	/**
+	 * @param ce
+	 *            changed element
+	 */
+	void changed(ConstructionElement ce) {
+		if (xml.isEmpty()) {
+			return;
+		}
+		xml.remove(ce);
+		if (ce instanceof GeoElement) {
+			// outputs are written by their algo
+			AlgoElement algo = ((GeoElement) ce).getParentAlgorithm();
+			if (algo != null) {
+				xml.remove(algo);
+			}
+		}
+	}
+
+	/**
+	 * Forgets XML of all elements.
+	 */
+	void clear() {
+		xml.clear();
+	}
+}
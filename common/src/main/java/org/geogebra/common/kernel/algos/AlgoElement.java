@@ -41,6 +41,7 @@ import org.geogebra.common.kernel.kernelND.GeoElementND;
 import org.geogebra.common.kernel.kernelND.GeoPointND;
 import org.geogebra.common.plugin.GeoClass;
 import org.geogebra.common.util.StringUtil;
+import org.geogebra.common.util.debug.GeoGebraProfiler;
 
 /**
  * AlgoElement is the superclass of all algorithms.
@@ -50,7 +51,7 @@ import org.geogebra.common.util.StringUtil;
 public abstract class AlgoElement extends ConstructionElement
 		implements EuclidianViewCE {
 	private static boolean tempSetLock = false;
-	private static TreeSet<AlgoElement> tempSet;
+	private static AlgoUpdateList tempSet;
 	/** input elements */
 	public GeoElement[] input;
 	private ArrayList<GeoPointND> freeInputPoints;
@@ -75,6 +76,8 @@ public abstract class AlgoElement extends ConstructionElement
 	 */
 	private List<OutputHandler<?>> outputHandler;
 	private boolean mayHaveRandomAncestors = true;
+	/** marks membership in an AlgoUpdateList */
+	long updateListStamp = 0;
 	/** string builder */
 	protected StringBuilder sbAE = new StringBuilder();
 	/** flag stating whether remove() on this algo was already called */
@@ -592,7 +595,14 @@ public abstract class AlgoElement extends ConstructionElement
 		// startTime = System.currentTimeMillis();
 
 		// compute output from input
+		double sampleStart = GeoGebraProfiler.startElementSample();
 		compute();
+		if (sampleStart >= 0) {
+			GeoGebraProfiler.addAlgoSample(getClassName().getCommand(),
+					getOutputLength() > 0 ? getOutput(0).getLabelSimple()
+							: null,
+					sampleStart);
+		}
 
 		// endTime = System.currentTimeMillis();
 		// computeTime += (endTime - startTime);
@@ -684,9 +694,9 @@ public abstract class AlgoElement extends ConstructionElement
 		tempSetLock = false;
 	}
 
-	private static TreeSet<AlgoElement> getTempSet() {
+	private static AlgoUpdateList getTempSet() {
 		if (tempSet == null || tempSetLock) {
-			tempSet = new TreeSet<>();
+			tempSet = new AlgoUpdateList();
 		}
 		return tempSet;
 	}
@@ -1738,6 +1748,32 @@ public abstract class AlgoElement extends ConstructionElement
 		this.stopUpdateCascade = stopUpdateCascade;
 	}
 
+	/**
+	 * Thread safe algos only read their input and change their own output in
+	 * compute(). Algos that return true must not touch construction, kernel
+	 * or views from compute().
+	 *
+	 * @return whether compute() may run on a worker thread
+	 */
+	public boolean isThreadSafe() {
+		return false;
+	}
+
+	/**
+	 * @return whether update() may be replaced by compute() on a worker
+	 *         thread followed by {@link #updateOutputAfterCompute()}
+	 */
+	public final boolean canComputeInParallel() {
+		return isThreadSafe() && !stopUpdateCascade;
+	}
+
+	/**
+	 * Second part of update() for algos that were computed separately.
+	 */
+	public final void updateOutputAfterCompute() {
+		updateDependentGeos();
+	}
+
 	/**
 	 * @return whether this needs to be updated when stepping through cons
 	 */
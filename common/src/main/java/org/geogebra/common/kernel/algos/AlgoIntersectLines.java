@@ -115,6 +115,11 @@ public class AlgoIntersectLines extends AlgoIntersectAbstract
 		return h;
 	}
 
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
+
 	// calc intersection S of lines g, h
 	@Override
 	public final void compute() {
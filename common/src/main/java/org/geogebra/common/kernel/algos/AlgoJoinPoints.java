@@ -126,6 +126,11 @@ public class AlgoJoinPoints extends AlgoElement
 		return Q;
 	}
 
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
+
 	// calc the line g through P and Q
 	@Override
 	public final void compute() {
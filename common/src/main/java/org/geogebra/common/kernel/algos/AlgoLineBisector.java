@@ -99,6 +99,11 @@ public class AlgoLineBisector extends AlgoElement
 		return midPoint;
 	}
 
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
+
 	// line through P normal to v
 	@Override
 	public final void compute() {
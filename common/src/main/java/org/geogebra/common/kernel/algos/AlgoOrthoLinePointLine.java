@@ -133,6 +133,11 @@ public class AlgoOrthoLinePointLine extends AlgoElement
 		return l;
 	}
 
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
+
 	// calc the line g through P and normal to l
 	@Override
 	public final void compute() {
@@ -191,8 +191,22 @@ public abstract class AlgoStats1D extends AlgoElement {
 		boolean useMidpoint = false;
 		double n = 0;
 
+		// values of a list of numbers without evaluating every element
+		double[] values = geoList2 == null ? geoList.getNumericValues()
+				: null;
+
 		// list of numbers only, no frequencies
-		if (geoList2 == null) {
+		if (values != null) {
+			double val;
+			for (int i = 0; i < size; i++) {
+				val = values[i];
+				sumVal += val;
+				sumSquares += val * val;
+				product *= val;
+			}
+
+			n = size;
+		} else if (geoList2 == null) {
 			double val;
 			for (int i = 0; i < size; i++) {
 				geo = geoList.get(i);
@@ -268,7 +282,11 @@ public abstract class AlgoStats1D extends AlgoElement {
 		case STATS_MEAN_ABSOLUTE_DEVIATION:
 
 			double sumAbsoluteDeviation = 0;
-			if (geoList2 == null) {
+			if (values != null) {
+				for (int i = 0; i < size; i++) {
+					sumAbsoluteDeviation += Math.abs(mu - values[i]);
+				}
+			} else if (geoList2 == null) {
 				double val;
 				for (int i = 0; i < size; i++) {
 					geo = geoList.get(i);
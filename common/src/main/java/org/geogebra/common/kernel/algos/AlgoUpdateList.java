@@ -0,0 +1,206 @@
+package org.geogebra.common.kernel.algos;
+
+import java.util.Arrays;
+
+/**
+ * Reusable list for merging several algorithm sets into one update order.
+ * Algos are deduplicated by a stamp in every algo, which is taken by each
+ * clear(). The stamps are only a hint: a list filled while other lists (e.g.
+ * of nested updates) are in use may overwrite them, duplicates and removed
+ * algos are then dropped when sorting. The list is sorted the same way as
+ * AlgoElement.compareTo() (construction index, then creation ID) only if
+ * the algos were not added in that order; sorting distributes them into
+ * buckets by construction index, so it takes linear time unless many algos
+ * share an index.
+ *
+ * Typical use: clear(), AlgorithmSet.addAllToList() for every set, then
+ * iterate with size() and get(int).
+ */
+public final class AlgoUpdateList {
+
+	/** buckets up to this size are sorted by insertion */
+	private static final int INSERTION_SORT_MAX = 16;
+
+	/** last stamp taken by any list */
+	private static long lastStamp = 0;
+
+	/** algos in this list have this stamp, removed ones its negation */
+	private long stamp;
+	private AlgoElement[] algos = new AlgoElement[16];
+	private int size;
+	private AlgoElement[] removed = new AlgoElement[4];
+	private int removedSize;
+	private boolean needsSort;
+	/** construction indices and bucket contents while sorting */
+	private int[] keys = new int[0];
+	private AlgoElement[] sorted = new AlgoElement[0];
+	private int[] bucketStart = new int[0];
+
+	/**
+	 * Creates empty list
+	 */
+	public AlgoUpdateList() {
+		clear();
+	}
+
+	/**
+	 * Removes all algos
+	 */
+	public void clear() {
+		stamp = ++lastStamp;
+		Arrays.fill(algos, 0, size, null);
+		Arrays.fill(removed, 0, removedSize, null);
+		size = 0;
+		removedSize = 0;
+		needsSort = false;
+	}
+
+	/**
+	 * Adds algo if it's not in this list yet.
+	 *
+	 * @param algo
+	 *            algo
+	 */
+	public void add(AlgoElement algo) {
+		if (algo.updateListStamp == stamp || algo.updateListStamp == -stamp) {
+			return;
+		}
+		if (size > 0 && !needsSort) {
+			int order = algos[size - 1].compareTo(algo);
+			if (order == 0) {
+				// stamp was overwritten by another list
+				return;
+			}
+			// an earlier duplicate is dropped by sorting
+			needsSort = order > 0;
+		}
+		algo.updateListStamp = stamp;
+		if (size == algos.length) {
+			algos = Arrays.copyOf(algos, 2 * size);
+		}
+		algos[size++] = algo;
+	}
+
+	/**
+	 * Removes algo from this list; it won't be added again until the list is
+	 * cleared.
+	 *
+	 * @param algo
+	 *            algo
+	 */
+	public void remove(AlgoElement algo) {
+		if (algo.updateListStamp == -stamp) {
+			return;
+		}
+		algo.updateListStamp = -stamp;
+		if (removedSize == removed.length) {
+			removed = Arrays.copyOf(removed, 2 * removedSize);
+		}
+		removed[removedSize++] = algo;
+		// removed algos are dropped when sorting
+		needsSort = true;
+	}
+
+	/**
+	 * @return number of algos
+	 */
+	public int size() {
+		sort();
+		return size;
+	}
+
+	/**
+	 * @param i
+	 *            index
+	 * @return i-th algo in update order
+	 */
+	public AlgoElement get(int i) {
+		sort();
+		return algos[i];
+	}
+
+	private void sort() {
+		if (!needsSort) {
+			return;
+		}
+		needsSort = false;
+		// other lists may have overwritten the marks of removed algos
+		for (int i = 0; i < removedSize; i++) {
+			removed[i].updateListStamp = -stamp;
+		}
+		int kept = 0;
+		for (int i = 0; i < size; i++) {
+			if (algos[i].updateListStamp != -stamp) {
+				algos[kept++] = algos[i];
+			}
+		}
+		Arrays.fill(algos, kept, size, null);
+		size = kept;
+		if (size > 1) {
+			bucketSort();
+		}
+	}
+
+	/**
+	 * Distributes the algos into one bucket per algo by construction index,
+	 * sorts the buckets and drops duplicates.
+	 */
+	private void bucketSort() {
+		if (keys.length < size) {
+			keys = new int[algos.length];
+			sorted = new AlgoElement[algos.length];
+			bucketStart = new int[algos.length + 1];
+		}
+		int min = Integer.MAX_VALUE;
+		int max = Integer.MIN_VALUE;
+		for (int i = 0; i < size; i++) {
+			keys[i] = algos[i].getConstructionIndex();
+			min = Math.min(min, keys[i]);
+			max = Math.max(max, keys[i]);
+		}
+		double scale = size / (max - (double) min + 1);
+		Arrays.fill(bucketStart, 0, size + 1, 0);
+		for (int i = 0; i < size; i++) {
+			bucketStart[(int) ((keys[i] - (double) min) * scale) + 1]++;
+		}
+		for (int b = 0; b < size; b++) {
+			bucketStart[b + 1] += bucketStart[b];
+		}
+		// bucketStart[b] is the next free place of bucket b meanwhile
+		for (int i = 0; i < size; i++) {
+			int b = (int) ((keys[i] - (double) min) * scale);
+			sorted[bucketStart[b]++] = algos[i];
+		}
+		int kept = 0;
+		int start = 0;
+		for (int b = 0; b < size; b++) {
+			int end = bucketStart[b];
+			if (end - start > INSERTION_SORT_MAX) {
+				Arrays.sort(sorted, start, end);
+			} else {
+				insertionSort(start, end);
+			}
+			for (int i = start; i < end; i++) {
+				if (kept == 0 || algos[kept - 1] != sorted[i]) {
+					algos[kept++] = sorted[i];
+				}
+			}
+			start = end;
+		}
+		Arrays.fill(sorted, 0, size, null);
+		Arrays.fill(algos, kept, size, null);
+		size = kept;
+	}
+
+	private void insertionSort(int start, int end) {
+		for (int i = start + 1; i < end; i++) {
+			AlgoElement algo = sorted[i];
+			int j = i - 1;
+			while (j >= start && sorted[j].compareTo(algo) > 0) {
+				sorted[j + 1] = sorted[j];
+				j--;
+			}
+			sorted[j + 1] = algo;
+		}
+	}
+}
@@ -329,6 +329,34 @@ public class AlgorithmSet implements Iterable<AlgoElement> {
 		}
 	}
 
+	/**
+	 * Adds all algorithms in this set to the given update list
+	 * 
+	 * @param list
+	 *            update list
+	 */
+	final public void addAllToList(AlgoUpdateList list) {
+		Link cur = getHead();
+		while (cur != null) {
+			list.add(cur.algo);
+			cur = cur.next;
+		}
+	}
+
+	/**
+	 * Removes all algorithms in this set from the given update list
+	 * 
+	 * @param list
+	 *            update list
+	 */
+	final public void removeAllFromList(AlgoUpdateList list) {
+		Link cur = getHead();
+		while (cur != null) {
+			list.remove(cur.algo);
+			cur = cur.next;
+		}
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
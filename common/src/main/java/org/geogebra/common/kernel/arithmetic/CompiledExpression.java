@@ -0,0 +1,436 @@
+package org.geogebra.common.kernel.arithmetic;
+
+import java.util.ArrayList;
+
+import org.geogebra.common.kernel.Kernel;
+import org.geogebra.common.kernel.geos.GeoDummyVariable;
+import org.geogebra.common.kernel.geos.GeoFunction;
+import org.geogebra.common.kernel.geos.GeoNumeric;
+import org.geogebra.common.plugin.Operation;
+import org.geogebra.common.util.DoubleUtil;
+import org.geogebra.common.util.MyMath;
+
+/**
+ * Purely numeric expression lowered to a flat postfix program that can be
+ * evaluated without allocations. Values of numbers and GeoElements in the
+ * expression are read on every evaluation, so the program stays valid as long
+ * as the structure of the tree does not change; the versions of the compiled
+ * nodes are kept to check that, which is only needed after some tree was
+ * changed in place.
+ *
+ * Results match {@link ExpressionNode#evaluateDouble()}; expressions with
+ * lists, texts, vectors or other non-numeric operations cannot be compiled.
+ */
+public final class CompiledExpression {
+
+	private static final int LOAD_VAR = 0;
+	private static final int LOAD_VALUE = 1;
+	private static final int CALL_FUNCTION = 2;
+	private static final int PLUS = 3;
+	private static final int MINUS = 4;
+	private static final int MULTIPLY = 5;
+	private static final int DIVIDE = 6;
+	private static final int POWER = 7;
+	private static final int POWER_FRACTION = 8;
+	private static final int SIN = 9;
+	private static final int COS = 10;
+	private static final int TAN = 11;
+	private static final int EXP = 12;
+	private static final int LOG = 13;
+	private static final int LOG10 = 14;
+	private static final int LOG2 = 15;
+	private static final int SQRT = 16;
+	private static final int CBRT = 17;
+	private static final int ABS = 18;
+	private static final int SGN = 19;
+	private static final int SINH = 20;
+	private static final int COSH = 21;
+	private static final int TANH = 22;
+
+	/** null if the expression is not purely numeric */
+	private final int[] code;
+	private final NumberValue[] values;
+	private final GeoFunction[] functions;
+	private final double[] stack;
+	private final double[] args;
+	/** nodes visited by the compiler and their versions at that time */
+	private final ExpressionNode[] nodes;
+	private final int[] versions;
+	/** changes of all trees when the versions were last checked */
+	private int checkedChanges;
+
+	private CompiledExpression(Compiler compiler, boolean numeric,
+			int varCount) {
+		if (numeric) {
+			code = new int[compiler.code.size()];
+			for (int i = 0; i < code.length; i++) {
+				code[i] = compiler.code.get(i);
+			}
+		} else {
+			code = null;
+		}
+		values = compiler.values.toArray(new NumberValue[0]);
+		functions = compiler.functions.toArray(new GeoFunction[0]);
+		stack = new double[compiler.maxDepth];
+		args = new double[varCount];
+		nodes = compiler.nodes.toArray(new ExpressionNode[0]);
+		versions = new int[nodes.length];
+		for (int i = 0; i < nodes.length; i++) {
+			versions[i] = nodes[i].getStructureVersion();
+		}
+		checkedChanges = ExpressionNode.getStructureChanges();
+	}
+
+	private CompiledExpression(CompiledExpression original) {
+		code = original.code;
+		values = original.values;
+		functions = original.functions;
+		stack = new double[original.stack.length];
+		args = new double[original.args.length];
+		nodes = original.nodes;
+		versions = original.versions;
+		checkedChanges = original.checkedChanges;
+	}
+
+	/**
+	 * @param expression
+	 *            expression
+	 * @param vars
+	 *            function variables, values are passed to evaluate() in the
+	 *            same order
+	 * @return compiled expression or null if the expression is not purely
+	 *         numeric
+	 */
+	public static CompiledExpression compile(ExpressionNode expression,
+			FunctionVariable[] vars) {
+		CompiledExpression compiled = compileTree(expression, vars);
+		return compiled != null && compiled.isNumeric() ? compiled : null;
+	}
+
+	/**
+	 * Like {@link #compile(ExpressionNode, FunctionVariable[])}, but also
+	 * returns the result for expressions that are not purely numeric, so that
+	 * callers can check whether the tree changed since.
+	 * 
+	 * @param expression
+	 *            expression
+	 * @param vars
+	 *            function variables
+	 * @return compiled expression, null if expression or variables are null
+	 */
+	static CompiledExpression compileTree(ExpressionNode expression,
+			FunctionVariable[] vars) {
+		if (expression == null || vars == null) {
+			return null;
+		}
+		Compiler compiler = new Compiler(vars);
+		boolean numeric = compiler.compile(expression);
+		return new CompiledExpression(compiler, numeric, vars.length);
+	}
+
+	/**
+	 * @return whether the expression could be compiled
+	 */
+	boolean isNumeric() {
+		return code != null;
+	}
+
+	/**
+	 * @return whether no node of the expression was changed since it was
+	 *         compiled
+	 */
+	boolean isValid() {
+		int changes = ExpressionNode.getStructureChanges();
+		if (changes == checkedChanges) {
+			return true;
+		}
+		for (int i = 0; i < nodes.length; i++) {
+			if (nodes[i].getStructureVersion() != versions[i]) {
+				return false;
+			}
+		}
+		checkedChanges = changes;
+		return true;
+	}
+
+	/**
+	 * Numbers and GeoElements are only read during evaluation, but calls to
+	 * other functions use their shared state.
+	 * 
+	 * @return copy with its own stack that may be evaluated in parallel with
+	 *         this one, or null if the expression calls functions
+	 */
+	public CompiledExpression copyForThread() {
+		return functions.length == 0 ? new CompiledExpression(this) : null;
+	}
+
+	/**
+	 * @param x
+	 *            value of the only variable
+	 * @return value of the expression
+	 */
+	public double evaluate(double x) {
+		args[0] = x;
+		return evaluate(args);
+	}
+
+	/**
+	 * @param x
+	 *            value of first variable
+	 * @param y
+	 *            value of second variable
+	 * @return value of the expression
+	 */
+	public double evaluate(double x, double y) {
+		args[0] = x;
+		args[1] = y;
+		return evaluate(args);
+	}
+
+	/**
+	 * @param vars
+	 *            values of variables
+	 * @return value of the expression
+	 */
+	public double evaluate(double[] vars) {
+		final double[] st = stack;
+		int sp = -1;
+		int pc = 0;
+		double a, b;
+		while (pc < code.length) {
+			switch (code[pc++]) {
+			case LOAD_VAR:
+				st[++sp] = vars[code[pc++]];
+				break;
+			case LOAD_VALUE:
+				st[++sp] = values[code[pc++]].evaluateDouble();
+				break;
+			case CALL_FUNCTION:
+				st[sp] = functions[code[pc++]].value(st[sp]);
+				break;
+			case PLUS:
+				b = st[sp--];
+				st[sp] += b;
+				break;
+			case MINUS:
+				b = st[sp--];
+				st[sp] -= b;
+				break;
+			case MULTIPLY:
+				b = st[sp--];
+				st[sp] *= b;
+				break;
+			case DIVIDE:
+				b = st[sp--];
+				st[sp] /= b;
+				break;
+			case POWER:
+				b = st[sp--];
+				st[sp] = Math.pow(st[sp], b);
+				break;
+			case POWER_FRACTION:
+				b = st[sp--];
+				a = st[sp--];
+				st[sp] = st[sp] < 0
+						? ExpressionNodeEvaluator.negPower(st[sp], a, b)
+						: Math.pow(st[sp], a / b);
+				break;
+			case SIN:
+				st[sp] = Math.sin(st[sp]);
+				break;
+			case COS:
+				st[sp] = Math.cos(st[sp]);
+				break;
+			case TAN:
+				st[sp] = tan(st[sp]);
+				break;
+			case EXP:
+				st[sp] = Math.exp(st[sp]);
+				break;
+			case LOG:
+				st[sp] = Math.log(st[sp]);
+				break;
+			case LOG10:
+				st[sp] = Math.log(st[sp]) / MyMath.LOG10;
+				break;
+			case LOG2:
+				st[sp] = Math.log(st[sp]) / MyMath.LOG2;
+				break;
+			case SQRT:
+				st[sp] = Math.sqrt(st[sp]);
+				break;
+			case CBRT:
+				st[sp] = MyMath.cbrt(st[sp]);
+				break;
+			case ABS:
+				st[sp] = Math.abs(st[sp]);
+				break;
+			case SGN:
+				st[sp] = MyMath.sgn(st[sp]);
+				break;
+			case SINH:
+				st[sp] = MyMath.sinh(st[sp]);
+				break;
+			case COSH:
+				st[sp] = MyMath.cosh(st[sp]);
+				break;
+			case TANH:
+				st[sp] = MyMath.tanh(st[sp]);
+				break;
+			default:
+				return Double.NaN;
+			}
+		}
+		return st[0];
+	}
+
+	/**
+	 * Same as {@link MyDouble#tan()}
+	 */
+	private static double tan(double val) {
+		if (DoubleUtil.isEqual(Math.abs(val) % Math.PI, Kernel.PI_HALF)) {
+			return Double.NaN;
+		}
+		double ret = Math.tan(val);
+		return DoubleUtil.isZero(ret) ? 0 : ret;
+	}
+
+	/**
+	 * Translates expression tree to postfix code.
+	 */
+	private static class Compiler {
+		private final FunctionVariable[] vars;
+		protected final ArrayList<Integer> code = new ArrayList<>();
+		protected final ArrayList<NumberValue> values = new ArrayList<>();
+		protected final ArrayList<GeoFunction> functions = new ArrayList<>();
+		protected final ArrayList<ExpressionNode> nodes = new ArrayList<>();
+		private int depth = 0;
+		protected int maxDepth = 0;
+
+		protected Compiler(FunctionVariable[] vars) {
+			this.vars = vars;
+		}
+
+		protected boolean compile(ExpressionValue ev) {
+			if (ev instanceof ExpressionNode) {
+				ExpressionNode node = (ExpressionNode) ev;
+				// also when compiling fails, the node may become numeric
+				nodes.add(node);
+				if (node.isLeaf()) {
+					return compile(node.getLeft());
+				}
+				return compileNode(node);
+			}
+			return compileLeaf(ev);
+		}
+
+		private boolean compileLeaf(ExpressionValue ev) {
+			if (ev instanceof FunctionVariable) {
+				for (int i = 0; i < vars.length; i++) {
+					if (vars[i] == ev) {
+						push(LOAD_VAR, i);
+						return true;
+					}
+				}
+				// variable of some other function
+				return false;
+			}
+			if (ev instanceof MyDouble || (ev instanceof GeoNumeric
+					&& !(ev instanceof GeoDummyVariable))) {
+				values.add((NumberValue) ev);
+				push(LOAD_VALUE, values.size() - 1);
+				return true;
+			}
+			return false;
+		}
+
+		private boolean compileNode(ExpressionNode node) {
+			ExpressionValue left = node.getLeft();
+			ExpressionValue right = node.getRight();
+			switch (node.getOperation()) {
+			case PLUS:
+				return binary(left, right, PLUS);
+			case MINUS:
+				return binary(left, right, MINUS);
+			case MULTIPLY:
+				return binary(left, right, MULTIPLY);
+			case DIVIDE:
+				return binary(left, right, DIVIDE);
+			case POWER:
+				if (right instanceof ExpressionNode && ((ExpressionNode) right)
+						.getOperation() == Operation.DIVIDE) {
+					// negative base needs numerator and denominator, see
+					// ExpressionNodeEvaluator.negPower
+					ExpressionNode exponent = (ExpressionNode) right;
+					if (!compile(left) || !compile(exponent.getLeft())
+							|| !compile(exponent.getRight())) {
+						return false;
+					}
+					return op(POWER_FRACTION, 2);
+				}
+				return binary(left, right, POWER);
+			case FUNCTION:
+				if (!(left instanceof GeoFunction) || !compile(right)) {
+					return false;
+				}
+				functions.add((GeoFunction) left);
+				code.add(CALL_FUNCTION);
+				code.add(functions.size() - 1);
+				return true;
+			case SIN:
+				return unary(left, SIN);
+			case COS:
+				return unary(left, COS);
+			case TAN:
+				return unary(left, TAN);
+			case EXP:
+				return unary(left, EXP);
+			case LOG:
+				return unary(left, LOG);
+			case LOG10:
+				return unary(left, LOG10);
+			case LOG2:
+				return unary(left, LOG2);
+			case SQRT:
+			case SQRT_SHORT:
+				return unary(left, SQRT);
+			case CBRT:
+				return unary(left, CBRT);
+			case ABS:
+				return unary(left, ABS);
+			case SGN:
+				return unary(left, SGN);
+			case SINH:
+				return unary(left, SINH);
+			case COSH:
+				return unary(left, COSH);
+			case TANH:
+				return unary(left, TANH);
+			default:
+				return false;
+			}
+		}
+
+		private boolean unary(ExpressionValue arg, int opcode) {
+			return compile(arg) && op(opcode, 0);
+		}
+
+		private boolean binary(ExpressionValue left, ExpressionValue right,
+				int opcode) {
+			return compile(left) && compile(right) && op(opcode, 1);
+		}
+
+		private void push(int opcode, int operand) {
+			code.add(opcode);
+			code.add(operand);
+			depth++;
+			maxDepth = Math.max(depth, maxDepth);
+		}
+
+		private boolean op(int opcode, int popped) {
+			code.add(opcode);
+			depth -= popped;
+			return true;
+		}
+	}
+}
@@ -88,6 +88,13 @@ public class ExpressionNode extends ValidExpression
 	// (answer not displayed in Algebra View)
 	private AlgoElement isSecret;
 
+	// counts in-place changes of this node, used to invalidate compiled
+	// expressions (see CompiledExpression)
+	private int structureVersion = 0;
+	// counts in-place changes of all nodes, so that compiled expressions
+	// only need to check their nodes after some tree changed
+	private static int structureChanges = 0;
+
 	/**
 	 * Creates dummy expression node
 	 */
@@ -186,6 +193,7 @@ public class ExpressionNode extends ValidExpression
 	 */
 	public void setOperation(Operation op) {
 		operation = op;
+		structureChanged();
 	}
 
 	/**
@@ -209,6 +217,7 @@ public class ExpressionNode extends ValidExpression
 	 */
 	final public void setLeft(ExpressionValue l) {
 		left = l;
+		structureChanged();
 		left.setInTree(true); // needed fot list operations eg k=2 then k {1,2}
 	}
 
@@ -238,6 +247,7 @@ public class ExpressionNode extends ValidExpression
 	 */
 	final public void setRight(ExpressionValue r) {
 		right = r;
+		structureChanged();
 		if (right != null) {
 			right.setInTree(true); // needed for list operations eg k=2 then k
 			// {1,2}
@@ -348,6 +358,7 @@ public class ExpressionNode extends ValidExpression
 	 * leaf objects (of type ExpressionValue).
 	 */
 	final public void simplifyLeafs() {
+		structureChanged();
 		if (left.isExpressionNode()) {
 			ExpressionNode node = (ExpressionNode) left;
 			if (node.leaf) {
@@ -381,6 +392,7 @@ public class ExpressionNode extends ValidExpression
 			((ExpressionNode) left).simplifyAndEvalCommands(info);
 		} else if (left instanceof Command) {
 			left = ((Command) left).simplify(info);
+			structureChanged();
 		}
 
 		if (right != null) {
@@ -388,6 +400,7 @@ public class ExpressionNode extends ValidExpression
 				((ExpressionNode) right).simplifyAndEvalCommands(info);
 			} else if (right instanceof Command) {
 				right = ((Command) right).simplify(info);
+				structureChanged();
 			}
 		}
 	}
@@ -396,6 +409,8 @@ public class ExpressionNode extends ValidExpression
 	 * Replaces all constant parts in tree by their values
 	 */
 	final public void simplifyConstantIntegers() {
+		ExpressionValue oldLeft = left;
+		ExpressionValue oldRight = right;
 		if (left.isExpressionNode()) {
 			left = doSimplifyConstantIntegers(left);
 		}
@@ -403,6 +418,9 @@ public class ExpressionNode extends ValidExpression
 		if ((right != null) && right.isExpressionNode()) {
 			right = doSimplifyConstantIntegers(right);
 		}
+		if (left != oldLeft || right != oldRight) {
+			structureChanged();
+		}
 	}
 
 	private static ExpressionValue doSimplifyConstantIntegers(
@@ -473,6 +491,7 @@ public class ExpressionNode extends ValidExpression
 					// if e was autocreated
 					operation = Operation.EXP;
 					left = right;
+					structureChanged();
 					kernel.getConstruction().removeLabel(geo);
 				}
 			}
@@ -490,6 +509,7 @@ public class ExpressionNode extends ValidExpression
 					// if e was autocreated
 					left = new ExpressionNode(kernel, new MyDouble(kernel, 1.0),
 							Operation.EXP, null);
+					structureChanged();
 					kernel.getConstruction().removeLabel(geo);
 				}
 			} else if ((right instanceof NumberValue)
@@ -501,6 +521,7 @@ public class ExpressionNode extends ValidExpression
 					// if e was autocreated
 					right = new ExpressionNode(kernel,
 							new MyDouble(kernel, 1.0), Operation.EXP, null);
+					structureChanged();
 					kernel.getConstruction().removeLabel(geo);
 				}
 			}
@@ -519,6 +540,7 @@ public class ExpressionNode extends ValidExpression
 		if (left.isVariable()) {
 			left = ((Variable) left).resolveAsExpressionValue(
 					info.getSymbolicMode());
+			structureChanged();
 			if (operation == Operation.POWER
 					|| operation == Operation.FACTORIAL) {
 				fixPowerFactorial(Operation.MULTIPLY);
@@ -535,6 +557,7 @@ public class ExpressionNode extends ValidExpression
 			if (right.isVariable()) {
 				right = ((Variable) right).resolveAsExpressionValue(
 						info.getSymbolicMode());
+				structureChanged();
 			} else {
 				right.resolveVariables(info);
 			}
@@ -711,6 +734,7 @@ public class ExpressionNode extends ValidExpression
 	 */
 	public final int replaceVariables(String varName, FunctionVariable fVar) {
 		int replacements = 0;
+		structureChanged();
 
 		// left tree
 		if (left.isExpressionNode()) {
@@ -795,6 +819,7 @@ public class ExpressionNode extends ValidExpression
 		if ((xVar == null) && ((yVar == null) & (zVar == null))) {
 			return 0;
 		}
+		structureChanged();
 
 		// left tree
 		if (left.isExpressionNode()) {
@@ -882,6 +907,7 @@ public class ExpressionNode extends ValidExpression
 		if (ev != this) {
 			return ev;
 		}
+		structureChanged();
 		if (left != null) {
 			left = left.traverse(t);
 		}
@@ -903,6 +929,7 @@ public class ExpressionNode extends ValidExpression
 
 	@Override
 	public void replaceChildrenByValues(GeoElement geo) {
+		structureChanged();
 		// left tree
 		if (left.isGeoElement()) {
 			GeoElement treeGeo = (GeoElement) left;
@@ -3135,6 +3162,27 @@ public class ExpressionNode extends ValidExpression
 		return super.evaluateDouble();
 	}
 
+	/**
+	 * @return counter of in-place modifications of this node; compiled
+	 *         expressions are only valid while the versions of their nodes do
+	 *         not change
+	 */
+	int getStructureVersion() {
+		return structureVersion;
+	}
+
+	/**
+	 * @return counter of in-place modifications of all nodes
+	 */
+	static int getStructureChanges() {
+		return structureChanges;
+	}
+
+	private void structureChanged() {
+		structureVersion++;
+		structureChanges++;
+	}
+
 	private double evaluateMultiplyDouble() {
 		double lt = left.evaluateDouble();
 		if (!Double.isNaN(lt)) {
@@ -194,6 +194,10 @@ public class Function extends FunctionNVar
 			return evaluateBoolean(x) ? 1 : 0;
 		}
 		// NumberValue
+		CompiledExpression compiledExpression = getCompiledExpression();
+		if (compiledExpression != null) {
+			return compiledExpression.evaluate(x);
+		}
 		fVars[0].set(x);
 		return expression.evaluateDouble();
 
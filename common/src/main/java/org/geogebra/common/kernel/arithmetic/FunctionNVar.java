@@ -68,6 +68,10 @@ public class FunctionNVar extends ValidExpression
 	private boolean shortLHS;
 	private ExpressionNode casEvalExpression;
 	private String casEvalStringSymbolic;
+	private CompiledExpression compiled;
+	// expression and variables the compiled form was created for
+	private ExpressionNode compiledFor;
+	private FunctionVariable[] compiledVars;
 
 	private static ArrayList<ExpressionNode> undecided = new ArrayList<>();
 
@@ -221,6 +225,7 @@ public class FunctionNVar extends ValidExpression
 	 */
 	public void setExpression(ExpressionNode exp) {
 		expression = exp;
+		compiledFor = null;
 	}
 
 	/**
@@ -234,6 +239,27 @@ public class FunctionNVar extends ValidExpression
 	public void setExpression(ExpressionNode exp, FunctionVariable[] vars) {
 		expression = exp;
 		fVars = vars;
+		compiledFor = null;
+	}
+
+	/**
+	 * Returns compiled form of this function's expression if compiled
+	 * evaluation is turned on in kernel. The compiled form is recreated
+	 * whenever the expression changes.
+	 * 
+	 * @return compiled expression or null if the tree walker has to be used
+	 */
+	protected CompiledExpression getCompiledExpression() {
+		if (kernel == null || !kernel.isCompiledFunctions()) {
+			return null;
+		}
+		if (compiledFor != expression || compiledVars != fVars
+				|| compiled == null || !compiled.isValid()) {
+			compiled = CompiledExpression.compileTree(expression, fVars);
+			compiledFor = expression;
+			compiledVars = fVars;
+		}
+		return compiled != null && compiled.isNumeric() ? compiled : null;
 	}
 
 	@Override
@@ -470,6 +496,10 @@ public class FunctionNVar extends ValidExpression
 			return evaluateBoolean(vals) ? 1 : 0;
 		}
 		// NumberValue
+		CompiledExpression compiledExpression = getCompiledExpression();
+		if (compiledExpression != null) {
+			return compiledExpression.evaluate(vals);
+		}
 		if (fVars != null) {
 			for (int i = 0; i < fVars.length; i++) {
 				fVars[i].set(vals[i]);
@@ -485,6 +515,10 @@ public class FunctionNVar extends ValidExpression
 			return evaluateBoolean(new double[] { x, y }) ? 1 : 0;
 		}
 		// NumberValue
+		CompiledExpression compiledExpression = getCompiledExpression();
+		if (compiledExpression != null) {
+			return compiledExpression.evaluate(x, y);
+		}
 
 		fVars[0].set(x);
 		fVars[1].set(y);
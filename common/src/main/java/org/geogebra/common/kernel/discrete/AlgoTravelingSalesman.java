@@ -6,17 +6,19 @@ import org.geogebra.common.kernel.Construction;
 import org.geogebra.common.kernel.MyPoint;
 import org.geogebra.common.kernel.SegmentType;
 import org.geogebra.common.kernel.commands.Commands;
+import org.geogebra.common.kernel.discrete.delaunay.PointDt;
 import org.geogebra.common.kernel.discrete.tsp.TSP;
 import org.geogebra.common.kernel.discrete.tsp.TSPSolver;
-import org.geogebra.common.kernel.geos.GeoElement;
 import org.geogebra.common.kernel.geos.GeoList;
-import org.geogebra.common.kernel.kernelND.GeoPointND;
 
 /**
  * Traveling Salesman with euclidian metric
  *
  */
 public class AlgoTravelingSalesman extends AlgoDiscrete {
+
+	private ListTriangulation triangulation;
+
 	/**
 	 * @param cons
 	 *            construction
@@ -44,21 +46,31 @@ public class AlgoTravelingSalesman extends AlgoDiscrete {
 			return;
 		}
 
-		double[] inhom = new double[2];
-
-		// Opt3 opt3 = new Opt3();
-		// final BranchBound construction = new BranchBound(500, opt3);
+		if (triangulation == null) {
+			triangulation = new ListTriangulation();
+		}
+		triangulation.update(inputList);
+		if (!triangulation.isChanged() && locus.isDefined() && al != null) {
+			return;
+		}
 
-		MyPoint[] nodes = new MyPoint[size];
+		// visiting the points in preorder of the minimum spanning tree gives
+		// a tour at most twice as long as the optimum, so that 2-opt only
+		// needs a few moves
+		ArrayList<PointDt> vertices = new ArrayList<>();
+		SparseGraph graph = triangulation.createDelaunayGraph(vertices);
+		int[] order = graph.subgraph(graph.minimumSpanningForest())
+				.depthFirstOrder();
 
-		for (int i = 0; i < size; i++) {
-			GeoElement geo = inputList.get(i);
-			if (geo.isDefined() && geo.isGeoPoint()) {
-				GeoPointND p = (GeoPointND) geo;
-				p.getInhomCoords(inhom);
-				nodes[i] = new MyPoint(inhom[0], inhom[1]);
-				// Log.error(i + " " + nodes[i].toString());
-			}
+		int count = order.length;
+		if (count == 0) {
+			locus.setUndefined();
+			return;
+		}
+		MyPoint[] nodes = new MyPoint[count];
+		for (int i = 0; i < count; i++) {
+			PointDt vertex = vertices.get(order[i]);
+			nodes[i] = new MyPoint(vertex.x(), vertex.y());
 		}
 
 		final TSP tsp = new TSPSolver();
@@ -71,7 +83,7 @@ public class AlgoTravelingSalesman extends AlgoDiscrete {
 			al.clear();
 		}
 
-		for (int i = 0; i < size; i++) {
+		for (int i = 0; i < count; i++) {
 			// Log.error(i + " " + nodes[i].toString());
 			nodes[i].setLineTo(i != 0);
 			al.add(nodes[i]);
@@ -0,0 +1,255 @@
+package org.geogebra.common.kernel.discrete;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+
+import org.geogebra.common.kernel.MyPoint;
+import org.geogebra.common.kernel.SegmentType;
+import org.geogebra.common.kernel.discrete.delaunay.BoundingBox;
+import org.geogebra.common.kernel.discrete.delaunay.DelaunayTriangulation;
+import org.geogebra.common.kernel.discrete.delaunay.PointDt;
+import org.geogebra.common.kernel.discrete.delaunay.TriangleDt;
+import org.geogebra.common.kernel.geos.GeoElement;
+import org.geogebra.common.kernel.geos.GeoList;
+import org.geogebra.common.kernel.kernelND.GeoPointND;
+import org.geogebra.common.util.DoubleUtil;
+import org.geogebra.common.util.MyMath;
+
+/**
+ * Delaunay triangulation of the points in a list, kept between updates of the
+ * list: if the coordinates did not change the last triangulation is reused,
+ * if points were only appended they are inserted into it, otherwise it is
+ * rebuilt. Duplicate points are ignored by the triangulation, so points with
+ * equal coordinates need no special treatment.
+ */
+public class ListTriangulation {
+
+	private DelaunayTriangulation triangulation;
+	/** x and y of each list element, NaN for elements that are not points */
+	private double[] coords = new double[0];
+	private boolean changed;
+
+	/**
+	 * @param list
+	 *            list of points, other elements are ignored
+	 * @return triangulation of the points
+	 */
+	public DelaunayTriangulation update(GeoList list) {
+		double[] newCoords = new double[2 * list.size()];
+		double[] inhom = new double[2];
+		for (int i = 0; i < list.size(); i++) {
+			GeoElement geo = list.get(i);
+			if (geo.isDefined() && geo.isGeoPoint()) {
+				((GeoPointND) geo).getInhomCoords(inhom);
+				newCoords[2 * i] = inhom[0];
+				newCoords[2 * i + 1] = inhom[1];
+			} else {
+				newCoords[2 * i] = Double.NaN;
+				newCoords[2 * i + 1] = Double.NaN;
+			}
+		}
+
+		int start = 0;
+		if (triangulation != null && newCoords.length >= coords.length
+				&& startsWith(newCoords, coords)) {
+			start = coords.length;
+		} else {
+			triangulation = new DelaunayTriangulation();
+		}
+		changed = start < newCoords.length || start == 0;
+		for (int i = start; i < newCoords.length; i += 2) {
+			if (!Double.isNaN(newCoords[i])) {
+				triangulation.insertPoint(
+						new PointDt(newCoords[i], newCoords[i + 1]));
+			}
+		}
+		coords = newCoords;
+		return triangulation;
+	}
+
+	private static boolean startsWith(double[] values, double[] prefix) {
+		for (int i = 0; i < prefix.length; i++) {
+			if (Double.compare(values[i], prefix[i]) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return whether the last update changed the triangulation
+	 */
+	public boolean isChanged() {
+		return changed;
+	}
+
+	/**
+	 * @return number of distinct points in the triangulation
+	 */
+	public int size() {
+		return triangulation == null ? 0 : triangulation.size();
+	}
+
+	/**
+	 * Adds every edge of the triangulation once.
+	 *
+	 * @param al
+	 *            output path, gets a segment per edge
+	 */
+	public void addDelaunayEdges(ArrayList<MyPoint> al) {
+		ArrayList<TriangleDt> triangles = new ArrayList<>();
+		HashMap<TriangleDt, Integer> index = indexTriangles(triangles);
+		for (TriangleDt triangle : triangles) {
+			if (triangle.isHalfplane()) {
+				continue;
+			}
+			int i = index.get(triangle);
+			addDelaunayEdge(al, triangle.p1(), triangle.p2(),
+					triangle.next_12(), i, index);
+			addDelaunayEdge(al, triangle.p2(), triangle.p3(),
+					triangle.next_23(), i, index);
+			addDelaunayEdge(al, triangle.p3(), triangle.p1(),
+					triangle.next_31(), i, index);
+		}
+	}
+
+	private static void addDelaunayEdge(ArrayList<MyPoint> al, PointDt a,
+			PointDt b, TriangleDt neighbor, int i,
+			HashMap<TriangleDt, Integer> index) {
+		// shared edges are added from the triangle with smaller index
+		if (neighbor == null || neighbor.isHalfplane()
+				|| index.get(neighbor) > i) {
+			addSegment(al, a.x(), a.y(), b.x(), b.y());
+		}
+	}
+
+	/**
+	 * @param vertices
+	 *            output list, gets the distinct points of the triangulation
+	 * @return graph of the triangulation edges weighted by their length,
+	 *         vertex i of the graph is vertices.get(i)
+	 */
+	public SparseGraph createDelaunayGraph(ArrayList<PointDt> vertices) {
+		HashMap<PointDt, Integer> vertexIndex = new HashMap<>();
+		Iterator<PointDt> points = triangulation.verticesIterator();
+		while (points.hasNext()) {
+			PointDt point = points.next();
+			vertexIndex.put(point, vertices.size());
+			vertices.add(point);
+		}
+		SparseGraph graph = new SparseGraph(vertices.size());
+		if (triangulation.allCollinear) {
+			// vertices are sorted by x and y, so consecutive ones are adjacent
+			for (int i = 1; i < vertices.size(); i++) {
+				addGraphEdge(graph, vertices.get(i - 1), i - 1,
+						vertices.get(i), i);
+			}
+			return graph;
+		}
+		ArrayList<TriangleDt> triangles = new ArrayList<>();
+		HashMap<TriangleDt, Integer> index = indexTriangles(triangles);
+		for (TriangleDt triangle : triangles) {
+			if (triangle.isHalfplane()) {
+				continue;
+			}
+			int i = index.get(triangle);
+			PointDt[] corners = { triangle.p1(), triangle.p2(), triangle.p3() };
+			TriangleDt[] neighbors = { triangle.next_12(), triangle.next_23(),
+					triangle.next_31() };
+			for (int k = 0; k < 3; k++) {
+				TriangleDt neighbor = neighbors[k];
+				if (neighbor == null || neighbor.isHalfplane()
+						|| index.get(neighbor) > i) {
+					PointDt a = corners[k];
+					PointDt b = corners[(k + 1) % 3];
+					addGraphEdge(graph, a, vertexIndex.get(a), b,
+							vertexIndex.get(b));
+				}
+			}
+		}
+		return graph;
+	}
+
+	private static void addGraphEdge(SparseGraph graph, PointDt a, int i,
+			PointDt b, int j) {
+		graph.addEdge(i, j, MyMath.length(a.x() - b.x(), a.y() - b.y()));
+	}
+
+	/**
+	 * Adds the edges of the Voronoi diagram: a segment between the
+	 * circumcenters of each pair of adjacent triangles and a ray for each edge
+	 * of the convex hull.
+	 *
+	 * @param al
+	 *            output path
+	 */
+	public void addVoronoiEdges(ArrayList<MyPoint> al) {
+		BoundingBox box = triangulation.getBoundingBox();
+		// rays end far outside of the points
+		double rayLength = Math.max(500,
+				10 * (box.getWidth() + box.getHeight()));
+		ArrayList<TriangleDt> triangles = new ArrayList<>();
+		HashMap<TriangleDt, Integer> index = indexTriangles(triangles);
+		for (TriangleDt triangle : triangles) {
+			if (triangle.isHalfplane()) {
+				continue;
+			}
+			int i = index.get(triangle);
+			PointDt center = triangle.getCircumcircle().center();
+			addVoronoiEdge(al, center, triangle.p1(), triangle.p2(),
+					triangle.p3(), triangle.next_12(), i, index, rayLength);
+			addVoronoiEdge(al, center, triangle.p2(), triangle.p3(),
+					triangle.p1(), triangle.next_23(), i, index, rayLength);
+			addVoronoiEdge(al, center, triangle.p3(), triangle.p1(),
+					triangle.p2(), triangle.next_31(), i, index, rayLength);
+		}
+	}
+
+	private static void addVoronoiEdge(ArrayList<MyPoint> al, PointDt center,
+			PointDt a, PointDt b, PointDt opposite, TriangleDt neighbor, int i,
+			HashMap<TriangleDt, Integer> index, double rayLength) {
+		if (neighbor == null) {
+			return;
+		}
+		if (neighbor.isHalfplane()) {
+			// normal of the hull edge, pointing away from the triangle
+			double nx = a.y() - b.y();
+			double ny = b.x() - a.x();
+			if (nx * (opposite.x() - a.x()) + ny * (opposite.y() - a.y()) > 0) {
+				nx = -nx;
+				ny = -ny;
+			}
+			double scale = rayLength / MyMath.length(nx, ny);
+			addSegment(al, center.x(), center.y(), center.x() + nx * scale,
+					center.y() + ny * scale);
+		} else if (index.get(neighbor) > i) {
+			PointDt center2 = neighbor.getCircumcircle().center();
+			// cocircular points give triangles with equal circumcenters
+			if (!DoubleUtil.isEqual(center.x(), center2.x())
+					|| !DoubleUtil.isEqual(center.y(), center2.y())) {
+				addSegment(al, center.x(), center.y(), center2.x(),
+						center2.y());
+			}
+		}
+	}
+
+	private HashMap<TriangleDt, Integer> indexTriangles(
+			ArrayList<TriangleDt> triangles) {
+		// TriangleDt uses identity for equals and hashCode
+		HashMap<TriangleDt, Integer> index = new HashMap<>();
+		Iterator<TriangleDt> it = triangulation.trianglesIterator();
+		while (it.hasNext()) {
+			TriangleDt triangle = it.next();
+			index.put(triangle, triangles.size());
+			triangles.add(triangle);
+		}
+		return index;
+	}
+
+	private static void addSegment(ArrayList<MyPoint> al, double x1,
+			double y1, double x2, double y2) {
+		al.add(new MyPoint(x1, y1, SegmentType.MOVE_TO));
+		al.add(new MyPoint(x2, y2, SegmentType.LINE_TO));
+	}
+}
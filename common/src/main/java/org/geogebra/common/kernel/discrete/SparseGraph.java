@@ -0,0 +1,341 @@
+package org.geogebra.common.kernel.discrete;
+
+/**
+ * Undirected weighted graph with vertices 0 to n-1, stored in primitive
+ * arrays. Meant for sparse graphs such as Delaunay triangulations, where the
+ * algorithms below run in O(e log e).
+ */
+public class SparseGraph {
+
+	private final int vertexCount;
+	private int edgeCount = 0;
+	private int[] from = new int[16];
+	private int[] to = new int[16];
+	private double[] weights = new double[16];
+
+	/** adjacent edges of vertex v are adjacency[offsets[v]..offsets[v+1]) */
+	private int[] offsets;
+	private int[] adjacency;
+
+	/**
+	 * @param vertexCount
+	 *            number of vertices
+	 */
+	public SparseGraph(int vertexCount) {
+		this.vertexCount = vertexCount;
+	}
+
+	/**
+	 * @param v1
+	 *            first vertex
+	 * @param v2
+	 *            second vertex
+	 * @param weight
+	 *            non-negative weight
+	 * @return index of the new edge
+	 */
+	public int addEdge(int v1, int v2, double weight) {
+		if (edgeCount == from.length) {
+			from = grow(from);
+			to = grow(to);
+			double[] grown = new double[2 * edgeCount];
+			System.arraycopy(weights, 0, grown, 0, edgeCount);
+			weights = grown;
+		}
+		from[edgeCount] = v1;
+		to[edgeCount] = v2;
+		weights[edgeCount] = weight;
+		offsets = null;
+		return edgeCount++;
+	}
+
+	private static int[] grow(int[] array) {
+		int[] grown = new int[2 * array.length];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+
+	/**
+	 * @return number of vertices
+	 */
+	public int getVertexCount() {
+		return vertexCount;
+	}
+
+	/**
+	 * @return number of edges
+	 */
+	public int getEdgeCount() {
+		return edgeCount;
+	}
+
+	/**
+	 * @param edge
+	 *            edge index
+	 * @return first vertex of the edge
+	 */
+	public int getFrom(int edge) {
+		return from[edge];
+	}
+
+	/**
+	 * @param edge
+	 *            edge index
+	 * @return second vertex of the edge
+	 */
+	public int getTo(int edge) {
+		return to[edge];
+	}
+
+	/**
+	 * @param edge
+	 *            edge index
+	 * @return weight of the edge
+	 */
+	public double getWeight(int edge) {
+		return weights[edge];
+	}
+
+	/**
+	 * Kruskal's algorithm with union-find.
+	 *
+	 * @return indices of the edges of a minimum spanning forest
+	 */
+	public int[] minimumSpanningForest() {
+		Heap heap = new Heap(edgeCount);
+		for (int e = 0; e < edgeCount; e++) {
+			heap.push(e, weights[e]);
+		}
+		int[] parent = new int[vertexCount];
+		int[] rank = new int[vertexCount];
+		for (int v = 0; v < vertexCount; v++) {
+			parent[v] = v;
+		}
+		int[] result = new int[Math.max(vertexCount - 1, 0)];
+		int count = 0;
+		while (!heap.isEmpty() && count < result.length) {
+			int e = heap.pop();
+			int root1 = find(parent, from[e]);
+			int root2 = find(parent, to[e]);
+			if (root1 == root2) {
+				continue;
+			}
+			if (rank[root1] < rank[root2]) {
+				parent[root1] = root2;
+			} else {
+				parent[root2] = root1;
+				if (rank[root1] == rank[root2]) {
+					rank[root1]++;
+				}
+			}
+			result[count++] = e;
+		}
+		if (count < result.length) {
+			int[] forest = new int[count];
+			System.arraycopy(result, 0, forest, 0, count);
+			return forest;
+		}
+		return result;
+	}
+
+	private static int find(int[] parent, int vertex) {
+		int v = vertex;
+		while (parent[v] != v) {
+			// path halving
+			parent[v] = parent[parent[v]];
+			v = parent[v];
+		}
+		return v;
+	}
+
+	/**
+	 * Dijkstra's algorithm.
+	 *
+	 * @param start
+	 *            start vertex
+	 * @param end
+	 *            end vertex
+	 * @param weighted
+	 *            whether to use edge weights, otherwise every edge counts 1
+	 * @return vertices of a shortest path from start to end, null if end is
+	 *         not reachable
+	 */
+	public int[] shortestPath(int start, int end, boolean weighted) {
+		buildAdjacency();
+		double[] distance = new double[vertexCount];
+		int[] previous = new int[vertexCount];
+		boolean[] done = new boolean[vertexCount];
+		for (int v = 0; v < vertexCount; v++) {
+			distance[v] = Double.POSITIVE_INFINITY;
+			previous[v] = -1;
+		}
+		distance[start] = 0;
+		Heap heap = new Heap(16);
+		heap.push(start, 0);
+		while (!heap.isEmpty()) {
+			int v = heap.pop();
+			if (v == end) {
+				break;
+			}
+			// the heap may contain outdated entries for v
+			if (done[v]) {
+				continue;
+			}
+			done[v] = true;
+			for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+				int e = adjacency[i];
+				int w = from[e] == v ? to[e] : from[e];
+				double d = distance[v] + (weighted ? weights[e] : 1);
+				if (d < distance[w]) {
+					distance[w] = d;
+					previous[w] = v;
+					heap.push(w, d);
+				}
+			}
+		}
+		if (Double.isInfinite(distance[end])) {
+			return null;
+		}
+		int length = 1;
+		for (int v = end; v != start; v = previous[v]) {
+			length++;
+		}
+		int[] path = new int[length];
+		for (int v = end, i = length - 1; i >= 0; v = previous[v], i--) {
+			path[i] = v;
+		}
+		return path;
+	}
+
+	/**
+	 * @return all vertices in depth first preorder, each component is
+	 *         traversed from its smallest vertex
+	 */
+	public int[] depthFirstOrder() {
+		buildAdjacency();
+		int[] order = new int[vertexCount];
+		int count = 0;
+		boolean[] visited = new boolean[vertexCount];
+		int[] stack = new int[Math.max(edgeCount + 1, 1)];
+		for (int root = 0; root < vertexCount; root++) {
+			if (visited[root]) {
+				continue;
+			}
+			int top = 0;
+			stack[top++] = root;
+			while (top > 0) {
+				int v = stack[--top];
+				if (visited[v]) {
+					continue;
+				}
+				visited[v] = true;
+				order[count++] = v;
+				// push in reverse to visit neighbors in edge order
+				for (int i = offsets[v + 1] - 1; i >= offsets[v]; i--) {
+					int e = adjacency[i];
+					int w = from[e] == v ? to[e] : from[e];
+					if (!visited[w]) {
+						if (top == stack.length) {
+							stack = grow(stack);
+						}
+						stack[top++] = w;
+					}
+				}
+			}
+		}
+		return order;
+	}
+
+	/**
+	 * @param edges
+	 *            edge indices
+	 * @return graph with the same vertices and only the given edges
+	 */
+	public SparseGraph subgraph(int[] edges) {
+		SparseGraph graph = new SparseGraph(vertexCount);
+		for (int e : edges) {
+			graph.addEdge(from[e], to[e], weights[e]);
+		}
+		return graph;
+	}
+
+	private void buildAdjacency() {
+		if (offsets != null) {
+			return;
+		}
+		offsets = new int[vertexCount + 1];
+		for (int e = 0; e < edgeCount; e++) {
+			offsets[from[e] + 1]++;
+			offsets[to[e] + 1]++;
+		}
+		for (int v = 0; v < vertexCount; v++) {
+			offsets[v + 1] += offsets[v];
+		}
+		adjacency = new int[2 * edgeCount];
+		int[] fill = new int[vertexCount];
+		System.arraycopy(offsets, 0, fill, 0, vertexCount);
+		for (int e = 0; e < edgeCount; e++) {
+			adjacency[fill[from[e]]++] = e;
+			adjacency[fill[to[e]]++] = e;
+		}
+	}
+
+	/**
+	 * Binary min-heap of ints with double keys.
+	 */
+	private static class Heap {
+		private int[] items;
+		private double[] keys;
+		private int size = 0;
+
+		Heap(int capacity) {
+			items = new int[Math.max(capacity, 1)];
+			keys = new double[items.length];
+		}
+
+		boolean isEmpty() {
+			return size == 0;
+		}
+
+		void push(int item, double key) {
+			if (size == items.length) {
+				items = grow(items);
+				double[] grown = new double[2 * size];
+				System.arraycopy(keys, 0, grown, 0, size);
+				keys = grown;
+			}
+			int i = size++;
+			while (i > 0 && keys[(i - 1) / 2] > key) {
+				int parent = (i - 1) / 2;
+				items[i] = items[parent];
+				keys[i] = keys[parent];
+				i = parent;
+			}
+			items[i] = item;
+			keys[i] = key;
+		}
+
+		int pop() {
+			int result = items[0];
+			size--;
+			int item = items[size];
+			double key = keys[size];
+			int i = 0;
+			while (2 * i + 1 < size) {
+				int child = 2 * i + 1;
+				if (child + 1 < size && keys[child + 1] < keys[child]) {
+					child++;
+				}
+				if (keys[child] >= key) {
+					break;
+				}
+				items[i] = items[child];
+				keys[i] = keys[child];
+				i = child;
+			}
+			items[i] = item;
+			keys[i] = key;
+			return result;
+		}
+	}
+}
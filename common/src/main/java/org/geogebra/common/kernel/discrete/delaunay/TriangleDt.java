@@ -231,6 +231,13 @@ public class TriangleDt {
 		return circum;
 	}
 
+	/**
+	 * @return circumscribed circle, infinite for degenerate triangles
+	 */
+	public CircleDt getCircumcircle() {
+		return circum;
+	}
+
 	boolean circumcircleContains(PointDt p) {
 
 		return circum.radius() > circum.center().distance2(p);
@@ -2163,6 +2163,24 @@ public class GeoCasCell extends GeoElement
 		}
 	}
 
+	/**
+	 * Builds the expression that computeOutput would send to the CAS, without
+	 * computing the output.
+	 * 
+	 * @return CAS input or null if the output is not computed by the CAS
+	 */
+	public ValidExpression getCasInput() {
+		if (useAsText || isCircularDefinition || useGeoGebraFallback
+				|| evalVE == null || input.contains("Surface")
+				|| getAssignmentType() == AssignmentType.DELAYED
+				|| getNSolveCmdNeeded()) {
+			return null;
+		}
+		ValidExpression ve = wrapEvaluate(evalVE,
+				isSubstitute() && !isKeepInputUsed());
+		return expandEvalVE(pointList ? wrapPointList(ve) : ve);
+	}
+
 	/**
 	 * @return whether top level command is Substitute
 	 */
@@ -2219,89 +2237,8 @@ public class GeoCasCell extends GeoElement
 					adjustPointList(true);
 				}
 
-				expandedEvalVE = pointList ? wrapPointList(evalVE) : evalVE;
-				if (expandedEvalVE.isTopLevelCommand()
-						&& !expandedEvalVE.isTopLevelCommand("Evaluate")
-						&& ((Command) expandedEvalVE
-								.unwrap()).getArgumentNumber() != 1
-						&& ((Command) expandedEvalVE
-								.unwrap()).getArgument(0) != null) {
-					ExpressionNode node = ((Command) expandedEvalVE.unwrap())
-							.getArgument(0);
-					if (!(node.getLeft() instanceof GeoSurfaceCartesianND)
-							&& !(node.getRight() instanceof MyList)) {
-						// needed for GGB-494
-						// replace GeoSurfaceCartesian3D geos with MyVect3D with
-						// expressions of surface
-						expandedEvalVE = (ValidExpression) expandedEvalVE
-								.traverse(GeoSurfaceReplacer.getInstance());
-					}
-				}
-
-				if (!expandedEvalVE.isTopLevelCommand("Delete")
-						&& !this.getNSolveCmdNeeded()) {
-					FunctionExpander fex = FunctionExpander.getCollector();
-					expandedEvalVE = (ValidExpression) expandedEvalVE.wrap()
-							.getCopy(kernel).traverse(fex);
-					expandedEvalVE = processSolveCommand(expandedEvalVE);
-					// needed for GGB-955
-					expandedEvalVE = processSolutionCommand(expandedEvalVE);
-				}
-
-				// make work NSolve with cell input
-				if (expandedEvalVE.isTopLevelCommand("NSolve")
-						&& ((Command) expandedEvalVE.unwrap()).getArgument(0)
-										.getLeft() instanceof GeoCasCell) {
-					GeoCasCell cellArg = ((GeoCasCell) ((Command) expandedEvalVE
-							.unwrap()).getArgument(0).getLeft());
-					ExpressionNode inputVEofGeoCasCell = (ExpressionNode) cellArg
-							.getInputVE();
-					((Command) expandedEvalVE.unwrap()).setArgument(0,
-							inputVEofGeoCasCell);
-				}
-
-				// hack needed for GGB-494
-				// Solve command with list of equs and list of vars
-				if (expandedEvalVE instanceof ExpressionNode
-						&& ((ExpressionNode) expandedEvalVE)
-								.getLeft() instanceof Command
-						&& "Solve"
-								.equals(((Command) ((ExpressionNode) expandedEvalVE)
-										.getLeft()).getName())
-						&& ((Command) ((ExpressionNode) expandedEvalVE)
-								.getLeft()).getArgumentNumber() == 2) {
-					// get list of equations
-					ExpressionValue equListV = ((Command) ((ExpressionNode) expandedEvalVE)
-							.getLeft()).getArgument(0).unwrap();
-					if (equListV instanceof MyList) {
-						MyList equList = (MyList) equListV;
-						// "x" geoDummy instead of functionVariable
-						GeoDummyVariable x = new GeoDummyVariable(cons, "x");
-						// "y" geoDummy instead of functionVariable
-						GeoDummyVariable y = new GeoDummyVariable(cons, "y");
-						for (int i = 0; i < equList.size(); i++) {
-							if (equList
-									.getListElement(i) instanceof ExpressionNode
-									&& equList.getListElement(i)
-											.unwrap() instanceof Equation) {
-								// set Equation in list of equs instead of
-								// ExpressionNode that contains Equation
-								equList.setListElement(i,
-										equList.getListElement(i).unwrap());
-								// Equation contains "x" functionVariable
-								// replace with simple GeoDummyVariable
-								equList.getListElement(i)
-										.traverse(GeoDummyReplacer
-												.getReplacer("x", x, true));
-								// Equation contains "y" functionVariable
-								// replace with simple GeoDummyVariable
-								equList.getListElement(i)
-										.traverse(GeoDummyReplacer
-												.getReplacer("y", y, true));
-							}
-						}
-					}
-				}
+				expandedEvalVE = expandEvalVE(
+						pointList ? wrapPointList(evalVE) : evalVE);
 
 				// we need the row number of this row
 				// to store the arbitrary constant in construction
@@ -2449,6 +2386,98 @@ public class GeoCasCell extends GeoElement
 				allowFunction);
 	}
 
+	/**
+	 * Applies the replacements that are needed before evaluating an
+	 * expression of this cell in the CAS.
+	 * 
+	 * @param ve
+	 *            wrapped evaluation expression
+	 * @return expression to be sent to the CAS
+	 */
+	private ValidExpression expandEvalVE(ValidExpression ve) {
+		ValidExpression expanded = ve;
+		if (expanded.isTopLevelCommand()
+				&& !expanded.isTopLevelCommand("Evaluate")
+				&& ((Command) expanded.unwrap()).getArgumentNumber() != 1
+				&& ((Command) expanded.unwrap()).getArgument(0) != null) {
+			ExpressionNode node = ((Command) expanded.unwrap()).getArgument(0);
+			if (!(node.getLeft() instanceof GeoSurfaceCartesianND)
+					&& !(node.getRight() instanceof MyList)) {
+				// needed for GGB-494
+				// replace GeoSurfaceCartesian3D geos with MyVect3D with
+				// expressions of surface
+				expanded = (ValidExpression) expanded
+						.traverse(GeoSurfaceReplacer.getInstance());
+			}
+		}
+
+		if (!expanded.isTopLevelCommand("Delete")
+				&& !this.getNSolveCmdNeeded()) {
+			FunctionExpander fex = FunctionExpander.getCollector();
+			expanded = (ValidExpression) expanded.wrap()
+					.getCopy(kernel).traverse(fex);
+			expanded = processSolveCommand(expanded);
+			// needed for GGB-955
+			expanded = processSolutionCommand(expanded);
+		}
+
+		// make work NSolve with cell input
+		if (expanded.isTopLevelCommand("NSolve")
+				&& ((Command) expanded.unwrap()).getArgument(0)
+								.getLeft() instanceof GeoCasCell) {
+			GeoCasCell cellArg = ((GeoCasCell) ((Command) expanded
+					.unwrap()).getArgument(0).getLeft());
+			ExpressionNode inputVEofGeoCasCell = (ExpressionNode) cellArg
+					.getInputVE();
+			((Command) expanded.unwrap()).setArgument(0,
+					inputVEofGeoCasCell);
+		}
+
+		// hack needed for GGB-494
+		// Solve command with list of equs and list of vars
+		if (expanded instanceof ExpressionNode
+				&& ((ExpressionNode) expanded)
+						.getLeft() instanceof Command
+				&& "Solve"
+						.equals(((Command) ((ExpressionNode) expanded)
+								.getLeft()).getName())
+				&& ((Command) ((ExpressionNode) expanded)
+						.getLeft()).getArgumentNumber() == 2) {
+			// get list of equations
+			ExpressionValue equListV = ((Command) ((ExpressionNode) expanded)
+					.getLeft()).getArgument(0).unwrap();
+			if (equListV instanceof MyList) {
+				MyList equList = (MyList) equListV;
+				// "x" geoDummy instead of functionVariable
+				GeoDummyVariable x = new GeoDummyVariable(cons, "x");
+				// "y" geoDummy instead of functionVariable
+				GeoDummyVariable y = new GeoDummyVariable(cons, "y");
+				for (int i = 0; i < equList.size(); i++) {
+					if (equList
+							.getListElement(i) instanceof ExpressionNode
+							&& equList.getListElement(i)
+									.unwrap() instanceof Equation) {
+						// set Equation in list of equs instead of
+						// ExpressionNode that contains Equation
+						equList.setListElement(i,
+								equList.getListElement(i).unwrap());
+						// Equation contains "x" functionVariable
+						// replace with simple GeoDummyVariable
+						equList.getListElement(i)
+								.traverse(GeoDummyReplacer
+										.getReplacer("x", x, true));
+						// Equation contains "y" functionVariable
+						// replace with simple GeoDummyVariable
+						equList.getListElement(i)
+								.traverse(GeoDummyReplacer
+										.getReplacer("y", y, true));
+					}
+				}
+			}
+		}
+		return expanded;
+	}
+
 	// replace in Solutions[{h(s)=g(t)},{s,t}] vector nodes with equations
 	private ValidExpression processSolutionCommand(ValidExpression ve) {
 		if (ve.isTopLevelCommand("Solutions")) {
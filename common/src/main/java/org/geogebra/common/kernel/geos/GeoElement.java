@@ -19,7 +19,6 @@ the Free Software Foundation.
 package org.geogebra.common.kernel.geos;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -57,6 +56,7 @@ import org.geogebra.common.kernel.algos.AlgoIntegralODE;
 import org.geogebra.common.kernel.algos.AlgoJoinPointsSegment;
 import org.geogebra.common.kernel.algos.AlgoMacroInterface;
 import org.geogebra.common.kernel.algos.AlgoName;
+import org.geogebra.common.kernel.algos.AlgoUpdateList;
 import org.geogebra.common.kernel.algos.AlgorithmSet;
 import org.geogebra.common.kernel.algos.ConstructionElement;
 import org.geogebra.common.kernel.algos.DrawInformationAlgo;
@@ -392,16 +392,9 @@ public abstract class GeoElement extends ConstructionElement
 	private List<Integer> viewFlags = null;
 
 	private NumberFormatAdapter numberFormatter6;
-	private static volatile TreeSet<AlgoElement> tempSet;
-
-	private static Comparator<AlgoElement> algoComparator = new Comparator<AlgoElement>() {
-
-		@Override
-		public int compare(AlgoElement o1, AlgoElement o2) {
-			return o1.compareTo(o2);
-		}
-
-	};
+	private static volatile AlgoUpdateList tempSet;
+	private static ArrayList<AlgoUpdateList> locationLists = new ArrayList<>();
+	private static int locationDepth = 0;
 
 	@Override
 	public int getColorSpace() {
@@ -3591,12 +3584,12 @@ public abstract class GeoElement extends ConstructionElement
 				algoUpdateSet.updateAll();
 			} else {
 				// join both algoUpdateSets and update all algorithms
-				final TreeSet<AlgoElement> tempAlgoSet = getTempSet();
+				final AlgoUpdateList tempAlgoSet = getTempSet();
 				tempAlgoSet.clear();
-				algoUpdateSet.addAllToCollection(tempAlgoSet);
-				secondGeo.algoUpdateSet.addAllToCollection(tempAlgoSet);
-				for (final AlgoElement algo : tempAlgoSet) {
-					algo.update();
+				algoUpdateSet.addAllToList(tempAlgoSet);
+				secondGeo.algoUpdateSet.addAllToList(tempAlgoSet);
+				for (int i = 0; i < tempAlgoSet.size(); i++) {
+					tempAlgoSet.get(i).update();
 				}
 			}
 		}
@@ -3622,7 +3615,7 @@ public abstract class GeoElement extends ConstructionElement
 	 *            geos to be updated
 	 * 
 	 * @param tempSet1
-	 *            a temporary set that is used to collect all algorithms that
+	 *            a temporary list that is used to collect all algorithms that
 	 *            need to be updated
 	 * 
 	 * @param updateCascadeAll
@@ -3630,7 +3623,7 @@ public abstract class GeoElement extends ConstructionElement
 	 */
 	final static public synchronized void updateCascade(
 			final ArrayList<? extends GeoElementND> geos,
-			final TreeSet<AlgoElement> tempSet1,
+			final AlgoUpdateList tempSet1,
 			final boolean updateCascadeAll) {
 
 		// only one geo: call updateCascade()
@@ -3654,17 +3647,13 @@ public abstract class GeoElement extends ConstructionElement
 					&& (geo.hasAlgoUpdateSet())) {
 				// add all dependent algos of geo to the overall algorithm
 				// set
-				geo.getAlgoUpdateSet().addAllToCollection(tempSet1);
+				geo.getAlgoUpdateSet().addAllToList(tempSet1);
 			}
 		}
 
-		// now we have one nice algorithm set that we can update
-		if (tempSet1.size() > 0) {
-			final Iterator<AlgoElement> it = tempSet1.iterator();
-			while (it.hasNext()) {
-				final AlgoElement algo = it.next();
-				algo.update();
-			}
+		// now we have one nice algorithm list that we can update
+		for (int i = 0; i < tempSet1.size(); i++) {
+			tempSet1.get(i).update();
 		}
 
 	}
@@ -3681,41 +3670,46 @@ public abstract class GeoElement extends ConstructionElement
 	final static public synchronized void updateCascadeLocation(
 			final ArrayList<Locateable> geos, Construction cons) {
 		// build update set of all algorithms in construction element order
-		// clear temp set
-		final TreeSet<AlgoElement> tempSet1 = new TreeSet<>();
-
-		final int size = geos.size();
-		for (int i = 0; i < size; i++) {
-			final Locateable geo = geos.get(i);
+		// updates may lead to nested calls, use one list per level
+		if (locationLists.size() <= locationDepth) {
+			locationLists.add(new AlgoUpdateList());
+		}
+		final AlgoUpdateList tempSet1 = locationLists.get(locationDepth);
+		tempSet1.clear();
+		locationDepth++;
+		try {
+			final int size = geos.size();
+			for (int i = 0; i < size; i++) {
+				final Locateable geo = geos.get(i);
 
-			geo.updateLocation();
+				geo.updateLocation();
 
-			if ((geo.isIndependent() || geo.isGeoText())
-					&& (geo.hasAlgoUpdateSet())) {
-				// add all dependent algos of geo to the overall algorithm
-				// set
-				geo.getAlgoUpdateSet().addAllToCollection(tempSet1);
+				if ((geo.isIndependent() || geo.isGeoText())
+						&& (geo.hasAlgoUpdateSet())) {
+					// add all dependent algos of geo to the overall algorithm
+					// set
+					geo.getAlgoUpdateSet().addAllToList(tempSet1);
+				}
 			}
-		}
 
-		// remove algos currently updated
-		AlgorithmSet algoSetCurrentlyUpdated = cons
-				.getAlgoSetCurrentlyUpdated();
-		if (algoSetCurrentlyUpdated != null) {
-			algoSetCurrentlyUpdated.removeAllFromCollection(tempSet1);
-		}
+			// remove algos currently updated
+			AlgorithmSet algoSetCurrentlyUpdated = cons
+					.getAlgoSetCurrentlyUpdated();
+			if (algoSetCurrentlyUpdated != null) {
+				algoSetCurrentlyUpdated.removeAllFromList(tempSet1);
+			}
 
-		// now we have one nice algorithm set that we can update
-		if (tempSet1.size() > 0) {
-			final Iterator<AlgoElement> it = tempSet1.iterator();
-			while (it.hasNext()) {
+			// now we have one nice algorithm list that we can update
+			for (int i = 0; i < tempSet1.size(); i++) {
 				try {
-					final AlgoElement algo = it.next();
-					algo.update();
+					tempSet1.get(i).update();
 				} catch (Exception e) {
 					e.printStackTrace();
 				}
 			}
+		} finally {
+			locationDepth--;
+			tempSet1.clear();
 		}
 	}
 
@@ -3728,13 +3722,13 @@ public abstract class GeoElement extends ConstructionElement
 	 *            geos to be updated
 	 * 
 	 * @param tempSet2
-	 *            a temporary set that is used to collect all algorithms that
+	 *            a temporary list that is used to collect all algorithms that
 	 *            need to be updated
 	 * @param lastAlgo
 	 *            stop cascade on this algo
 	 */
 	final static public void updateCascadeUntil(final ArrayList<?> geos,
-			final TreeSet<AlgoElement> tempSet2, final AlgoElement lastAlgo) {
+			final AlgoUpdateList tempSet2, final AlgoElement lastAlgo) {
 		// only one geo: call updateCascade()
 		if (geos.size() == 1) {
 			final ConstructionElement ce = (ConstructionElement) geos.get(0);
@@ -3760,22 +3754,19 @@ public abstract class GeoElement extends ConstructionElement
 						&& (geo.algoUpdateSet != null)) {
 					// add all dependent algos of geo to the overall algorithm
 					// set
-					geo.algoUpdateSet.addAllToCollection(tempSet2);
+					geo.algoUpdateSet.addAllToList(tempSet2);
 				}
 			}
 		}
 
-		// now we have one nice algorithm set that we can update
-		if (tempSet2.size() > 0) {
-			final Iterator<AlgoElement> it = tempSet2.iterator();
-			while (it.hasNext()) {
-				final AlgoElement algo = it.next();
+		// now we have one nice algorithm list that we can update
+		for (int i = 0; i < tempSet2.size(); i++) {
+			final AlgoElement algo = tempSet2.get(i);
 
-				algo.update();
+			algo.update();
 
-				if (algo == lastAlgo) {
-					return;
-				}
+			if (algo == lastAlgo) {
+				return;
 			}
 		}
 	}
@@ -5972,9 +5963,9 @@ public abstract class GeoElement extends ConstructionElement
 	/**
 	 * @return temporary set of algoritms
 	 */
-	protected static TreeSet<AlgoElement> getTempSet() {
+	protected static AlgoUpdateList getTempSet() {
 		if (tempSet == null) {
-			tempSet = new TreeSet<>(algoComparator);
+			tempSet = new AlgoUpdateList();
 		}
 		return tempSet;
 	}
@@ -6395,6 +6386,7 @@ public abstract class GeoElement extends ConstructionElement
 		}
 		scripts[evt.ordinal()] = script;
 		script.bind(this, evt);
+		cons.elementChanged(this);
 	}
 
 	/**
@@ -6664,6 +6656,7 @@ public abstract class GeoElement extends ConstructionElement
 	@Override
 	public void setSelectionAllowed(final boolean selected2) {
 		selectionAllowed = selected2;
+		cons.elementChanged(this);
 	}
 
 	/**
@@ -2982,6 +2982,7 @@ public class GeoFunction extends GeoElement implements VarString, Translateable,
 	@Override
 	public void setTableColumn(int column) {
 		this.tableViewColumn = column;
+		cons.elementChanged(this);
 	}
 
 	@Override
@@ -2992,5 +2993,6 @@ public class GeoFunction extends GeoElement implements VarString, Translateable,
 	@Override
 	public void setPointsVisible(boolean pointsVisible) {
 		this.pointsVisible = pointsVisible;
+		cons.elementChanged(this);
 	}
 }
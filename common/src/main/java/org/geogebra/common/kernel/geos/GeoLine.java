@@ -2053,6 +2053,7 @@ public class GeoLine extends GeoVec3D implements Path, Translateable,
 	@Override
 	public void setTableColumn(int col) {
 		tableColumn = col;
+		cons.elementChanged(this);
 	}
 
 	@Override
@@ -2063,6 +2064,7 @@ public class GeoLine extends GeoVec3D implements Path, Translateable,
 	@Override
 	public void setPointsVisible(boolean pointsVisible) {
 		this.pointsVisible = pointsVisible;
+		cons.elementChanged(this);
 	}
 
 }
\ No newline at end of file
@@ -78,6 +78,9 @@ public class GeoList extends GeoElement
 	// so we keep a cacheList of all old list elements
 	private final ArrayList<GeoElementND> cacheList;
 
+	/** values of the elements, see {@link #getNumericValues()} */
+	private double[] numericValues;
+
 	private boolean isDefined = true;
 	private boolean isDrawable = true;
 	private boolean drawAsComboBox = false;
@@ -592,6 +595,7 @@ public class GeoList extends GeoElement
 	 */
 	public void setDefined(final boolean flag) {
 		isDefined = flag;
+		numericValues = null;
 
 		if (!isDefined) {
 
@@ -639,6 +643,7 @@ public class GeoList extends GeoElement
 	 */
 	public final void clear() {
 		elements.clear();
+		numericValues = null;
 	}
 
 	/**
@@ -667,6 +672,7 @@ public class GeoList extends GeoElement
 	public final void add(final GeoElementND geo) {
 		// add geo to end of list
 		elements.add(geo.toGeoElement());
+		numericValues = null;
 
 		if (elements.size() == 1) {
 			setTypeStringForXML(geo.getXMLtypeString());
@@ -729,6 +735,7 @@ public class GeoList extends GeoElement
 	 */
 	public final void remove(final GeoElement geo) {
 		elements.remove(geo);
+		numericValues = null;
 
 	}
 
@@ -755,6 +762,7 @@ public class GeoList extends GeoElement
 	 */
 	public final void remove(final int index) {
 		elements.remove(index);
+		numericValues = null;
 
 	}
 
@@ -801,6 +809,43 @@ public class GeoList extends GeoElement
 		}
 	}
 
+	/**
+	 * Values of a list of numbers as one array, so that statistics don't need
+	 * to evaluate every element. Only lists whose numbers are all unlabeled
+	 * are supported, those can only change together with the list. The array
+	 * is kept until the list changes or is updated.
+	 * 
+	 * @return values of the elements; null if some element is labeled or not
+	 *         a number. Must not be modified.
+	 */
+	public double[] getNumericValues() {
+		if (numericValues == null) {
+			final int size = elements.size();
+			final double[] values = new double[size];
+			for (int i = 0; i < size; i++) {
+				final GeoElement geo = elements.get(i);
+				if (!(geo instanceof GeoNumeric) || geo.isLabelSet()) {
+					return null;
+				}
+				values[i] = geo.evaluateDouble();
+			}
+			numericValues = values;
+		}
+		return numericValues;
+	}
+
+	/**
+	 * Sets the values of a list of unlabeled numbers that were just added,
+	 * e.g. imported data, so that {@link #getNumericValues()} doesn't need to
+	 * evaluate the elements.
+	 * 
+	 * @param values
+	 *            values of the elements, must not be modified afterwards
+	 */
+	public void setNumericValues(double[] values) {
+		numericValues = values.length == elements.size() ? values : null;
+	}
+
 	/**
 	 * Increases capcity of this list if necessary
 	 *
@@ -1085,6 +1130,8 @@ public class GeoList extends GeoElement
 	 */
 	@Override
 	public void update(boolean drag) {
+		// elements may have changed in place
+		numericValues = null;
 		super.update(drag);
 
 		// update information on whether this path is fit for AlgoLocus
@@ -1162,7 +1209,7 @@ public class GeoList extends GeoElement
 
 	@Override
 	public void setZero() {
-		elements.clear();
+		clear();
 	}
 
 	@Override
@@ -3152,6 +3199,7 @@ public class GeoList extends GeoElement
 	 */
 	public void setListElement(int i, GeoElement element) {
 		this.elements.set(i, element);
+		numericValues = null;
 		this.applyVisualStyle(element);
 		// this.elementType = element.getGeoClassType();
 		isDrawable = true;
@@ -135,8 +135,6 @@ public class GeoPoint extends GeoVec3D implements VectorValue, PathOrPoint,
 
 	private StringBuilder sbBuildValueString = new StringBuilder(50);
 
-	private static volatile TreeSet<AlgoElement> tempSet;
-
 	private Coords coords2D;
 	private Coords inhomCoords3D;
 	private Coords inhomCoords2D;
@@ -1876,13 +1874,6 @@ public class GeoPoint extends GeoVec3D implements VectorValue, PathOrPoint,
 		}
 	}
 
-	protected static TreeSet<AlgoElement> getTempSet() {
-		if (tempSet == null) {
-			tempSet = new TreeSet<>();
-		}
-		return tempSet;
-	}
-
 	@Override
 	public LocateableList getLocateableList() {
 		if (locateableList == null) {
@@ -19,6 +19,8 @@ class Rect {
 	double fy;
 	boolean singular;
 	Coords coords = new Coords(3);
+	/** result of presplit(), returned by the next split() */
+	private Rect[] children;
 
 	public Rect(int x, int y, double fx, double fy, boolean singular) {
 		this.x = x;
@@ -30,6 +32,11 @@ class Rect {
 	}
 
 	public Rect[] split(GeoImplicitCurve geoImplicitCurve, int factor) {
+		if (children != null) {
+			Rect[] rect = children;
+			children = null;
+			return rect;
+		}
 		double fx2 = fx * 0.5;
 		double fy2 = fy * 0.5;
 		double x1 = this.coords.val[0];
@@ -63,6 +70,21 @@ class Rect {
 		return rect;
 	}
 
+	/**
+	 * Splits this rectangle in advance, the next call of split() returns the
+	 * same rectangles.
+	 * 
+	 * @param geoImplicitCurve
+	 *            curve
+	 * @param factor
+	 *            number of a squarefree factor
+	 * @return the four quarters of this rectangle
+	 */
+	public Rect[] presplit(GeoImplicitCurve geoImplicitCurve, int factor) {
+		children = split(geoImplicitCurve, factor);
+		return children;
+	}
+
 	public double x1() {
 		return this.coords.val[0];
 	}
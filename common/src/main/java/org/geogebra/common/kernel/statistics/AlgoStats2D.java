@@ -162,21 +162,37 @@ public abstract class AlgoStats2D extends AlgoElement {
 				return;
 			}
 
-			for (int i = 0; i < sizex; i++) {
-				GeoElement geox = geoListx.get(i);
-				GeoElement geoy = geoListy.get(i);
-				if (geox instanceof NumberValue
-						&& geoy instanceof NumberValue) {
-					valx = geox.evaluateDouble();
-					valy = geoy.evaluateDouble();
+			// e.g. imported data columns, no need to evaluate every element
+			double[] valuesx = geoListx.getNumericValues();
+			double[] valuesy = valuesx == null ? null
+					: geoListy.getNumericValues();
+			if (valuesy != null) {
+				for (int i = 0; i < sizex; i++) {
+					valx = valuesx[i];
+					valy = valuesy[i];
 					sumx += valx;
 					sumy += valy;
 					sumxx += valx * valx;
 					sumyy += valy * valy;
 					sumxy += valx * valy;
-				} else {
-					result.setUndefined();
-					return;
+				}
+			} else {
+				for (int i = 0; i < sizex; i++) {
+					GeoElement geox = geoListx.get(i);
+					GeoElement geoy = geoListy.get(i);
+					if (geox instanceof NumberValue
+							&& geoy instanceof NumberValue) {
+						valx = geox.evaluateDouble();
+						valy = geoy.evaluateDouble();
+						sumx += valx;
+						sumy += valy;
+						sumxx += valx * valx;
+						sumyy += valy * valy;
+						sumxy += valx * valy;
+					} else {
+						result.setUndefined();
+						return;
+					}
 				}
 			}
 		} else { // MODE_LISTOFPOINTS
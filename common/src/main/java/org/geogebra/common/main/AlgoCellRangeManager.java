@@ -1,8 +1,10 @@
 package org.geogebra.common.main;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 
 import org.geogebra.common.awt.GPoint;
+import org.geogebra.common.gui.view.spreadsheet.CellRange;
 import org.geogebra.common.kernel.Construction;
 import org.geogebra.common.kernel.geos.GeoElement;
 import org.geogebra.common.kernel.statistics.AlgoCellRange;
@@ -17,6 +19,8 @@ import org.geogebra.common.kernel.statistics.AlgoCellRange;
  */
 public class AlgoCellRangeManager {
 	private HashMap<String, AlgoCellRange> algos;
+	/** ranges of the algos, to find algos affected by a cell quickly */
+	private final CellRangeIndex<AlgoCellRange> index = new CellRangeIndex<>();
 
 	/**
 	 * Removes an AlgoCellRange algorithm from the internal algorithm list.
@@ -27,6 +31,7 @@ public class AlgoCellRangeManager {
 	public void unregisterCellRangeListenerAlgo(AlgoCellRange algo) {
 		if (algos != null) {
 			algos.remove(getKey(algo.getStart(), algo.getEnd()));
+			index.remove(algo);
 		}
 
 	}
@@ -51,10 +56,8 @@ public class AlgoCellRangeManager {
 			return;
 		}
 
-		for (AlgoCellRange algo : algos.values()) {
-			if (algo.getCellRange().contains(location)) {
-				algo.updateList(geo, isRemoveAction);
-			}
+		for (AlgoCellRange algo : getAffectedAlgos(location)) {
+			algo.updateList(geo, isRemoveAction);
 		}
 	}
 
@@ -71,11 +74,29 @@ public class AlgoCellRangeManager {
 			return;
 		}
 
-		for (AlgoCellRange algo : algos.values()) {
+		for (AlgoCellRange algo : getAffectedAlgos(location)) {
+			algo.addToList(geo, location);
+		}
+	}
+
+	/**
+	 * @param location
+	 *            spreadsheet coordinate location
+	 * @return algos with cell ranges that contain the location
+	 */
+	private ArrayList<AlgoCellRange> getAffectedAlgos(GPoint location) {
+		ArrayList<AlgoCellRange> candidates = new ArrayList<>();
+		ArrayList<AlgoCellRange> result = new ArrayList<>();
+		if (location == null) {
+			return result;
+		}
+		index.query(location.x, location.y, candidates);
+		for (AlgoCellRange algo : candidates) {
 			if (algo.getCellRange().contains(location)) {
-				algo.addToList(geo, location);
+				result.add(algo);
 			}
 		}
+		return result;
 	}
 
 	/**
@@ -85,6 +106,7 @@ public class AlgoCellRangeManager {
 		if (algos != null) {
 			algos.clear();
 		}
+		index.clear();
 	}
 
 	/**
@@ -111,6 +133,7 @@ public class AlgoCellRangeManager {
 		if (algo == null) {
 			algo = new AlgoCellRange(cons, label, start, end);
 			algos.put(key, algo);
+			addToIndex(algo);
 		} else {
 			if (label != null && label.length() > 0) {
 				algo.getList().setLabel(label);
@@ -124,6 +147,18 @@ public class AlgoCellRangeManager {
 
 	}
 
+	private void addToIndex(AlgoCellRange algo) {
+		CellRange range = algo.getCellRange();
+		// -1 stands for all rows or columns
+		int minColumn = Math.max(range.getMinColumn(), 0);
+		int maxColumn = range.getMaxColumn() < 0 ? Integer.MAX_VALUE
+				: range.getMaxColumn();
+		int minRow = Math.max(range.getMinRow(), 0);
+		int maxRow = range.getMaxRow() < 0 ? Integer.MAX_VALUE
+				: range.getMaxRow();
+		index.add(algo, minColumn, minRow, maxColumn, maxRow);
+	}
+
 	private static String getKey(String start, String end) {
 		return start + ":" + end;
 	}
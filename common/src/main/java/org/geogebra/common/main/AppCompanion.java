@@ -1,5 +1,6 @@
 package org.geogebra.common.main;
 
+import org.geogebra.common.euclidian.DrawEquation;
 import org.geogebra.common.euclidian.EuclidianView;
 import org.geogebra.common.euclidianForPlane.EuclidianViewForPlaneCompanionInterface;
 import org.geogebra.common.geogebra3D.euclidian3D.printer3D.Format;
@@ -127,6 +128,10 @@ public class AppCompanion {
 	 */
 	public void resetFonts() {
 		app.getFontManager().setFontSize(app.getGUIFontSize());
+		DrawEquation drawEquation = app.getDrawEquation();
+		if (drawEquation != null) {
+			drawEquation.clearCache();
+		}
 		if (app.euclidianView != null) {
 			app.euclidianView.updateFonts();
 		}
@@ -0,0 +1,285 @@
+package org.geogebra.common.main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Index of rectangular spreadsheet ranges that finds the ranges containing a
+ * cell without testing all of them. Ranges are kept in nested interval trees:
+ * the outer tree splits them by rows, the ranges overlapping the center row
+ * of an outer node are split by columns in an inner tree, whose nodes keep
+ * the ranges overlapping their center column sorted by first and by last
+ * column. Removed ranges are only marked, and ranges added since the trees
+ * were built are tested one by one; the trees are rebuilt on a query once
+ * there are too many of either.
+ *
+ * @param <T>
+ *            type of indexed items
+ */
+public class CellRangeIndex<T> {
+
+	/** ranges that are tested one by one before the trees are rebuilt */
+	private static final int MAX_PENDING = 32;
+
+	/** ranges of all items */
+	private final IdentityHashMap<T, Range<T>> ranges = new IdentityHashMap<>();
+	/** ranges added since the trees were built */
+	private final ArrayList<Range<T>> pending = new ArrayList<>();
+	private Node<T> root = null;
+	private int treeSize = 0;
+	private int removedFromTree = 0;
+
+	private static class Range<T> {
+		final T item;
+		final int minColumn;
+		final int minRow;
+		final int maxColumn;
+		final int maxRow;
+		boolean inTree = false;
+		boolean removed = false;
+
+		Range(T item, int minColumn, int minRow, int maxColumn, int maxRow) {
+			this.item = item;
+			this.minColumn = minColumn;
+			this.minRow = minRow;
+			this.maxColumn = maxColumn;
+			this.maxRow = maxRow;
+		}
+
+		int getMin(boolean rows) {
+			return rows ? minRow : minColumn;
+		}
+
+		int getMax(boolean rows) {
+			return rows ? maxRow : maxColumn;
+		}
+
+		boolean contains(int column, int row) {
+			return !removed && column >= minColumn && column <= maxColumn
+					&& row >= minRow && row <= maxRow;
+		}
+	}
+
+	/**
+	 * Node of the row tree (with an inner column tree) or of a column tree
+	 * (with sorted ranges).
+	 */
+	private static class Node<T> {
+		final int center;
+		/** column tree of the ranges containing center row */
+		Node<T> inner;
+		/** ranges containing center column, ascending by first column */
+		ArrayList<Range<T>> byMinColumn;
+		/** ranges containing center column, descending by last column */
+		ArrayList<Range<T>> byMaxColumn;
+		Node<T> left;
+		Node<T> right;
+
+		Node(int center) {
+			this.center = center;
+		}
+	}
+
+	private static final Comparator<Range<?>> BY_MIN_COLUMN = new Comparator<Range<?>>() {
+		@Override
+		public int compare(Range<?> r1, Range<?> r2) {
+			return r1.minColumn < r2.minColumn ? -1
+					: (r1.minColumn > r2.minColumn ? 1 : 0);
+		}
+	};
+
+	private static final Comparator<Range<?>> BY_MAX_COLUMN_DESCENDING = new Comparator<Range<?>>() {
+		@Override
+		public int compare(Range<?> r1, Range<?> r2) {
+			return r1.maxColumn > r2.maxColumn ? -1
+					: (r1.maxColumn < r2.maxColumn ? 1 : 0);
+		}
+	};
+
+	/**
+	 * Adds the range of an item, replacing its previous range.
+	 *
+	 * @param item
+	 *            item to add
+	 * @param minColumn
+	 *            first column of the range
+	 * @param minRow
+	 *            first row of the range
+	 * @param maxColumn
+	 *            last column of the range
+	 * @param maxRow
+	 *            last row of the range
+	 */
+	public void add(T item, int minColumn, int minRow, int maxColumn,
+			int maxRow) {
+		remove(item);
+		Range<T> range = new Range<>(item, minColumn, minRow, maxColumn,
+				maxRow);
+		ranges.put(item, range);
+		pending.add(range);
+	}
+
+	/**
+	 * @param item
+	 *            item to remove
+	 * @return whether the item was in the index
+	 */
+	public boolean remove(T item) {
+		Range<T> range = ranges.remove(item);
+		if (range == null) {
+			return false;
+		}
+		range.removed = true;
+		if (range.inTree) {
+			removedFromTree++;
+		} else {
+			pending.remove(range);
+		}
+		return true;
+	}
+
+	/**
+	 * Removes all ranges.
+	 */
+	public void clear() {
+		ranges.clear();
+		pending.clear();
+		root = null;
+		treeSize = 0;
+		removedFromTree = 0;
+	}
+
+	/**
+	 * @return number of indexed ranges
+	 */
+	public int size() {
+		return ranges.size();
+	}
+
+	/**
+	 * @param column
+	 *            column of the cell
+	 * @param row
+	 *            row of the cell
+	 * @param result
+	 *            list to which items of all ranges containing the cell are
+	 *            added
+	 */
+	public void query(int column, int row, List<T> result) {
+		if (pending.size() > MAX_PENDING
+				|| removedFromTree > treeSize / 2) {
+			rebuild();
+		}
+		Node<T> node = root;
+		while (node != null) {
+			queryColumns(node.inner, column, row, result);
+			if (row < node.center) {
+				node = node.left;
+			} else if (row > node.center) {
+				node = node.right;
+			} else {
+				node = null;
+			}
+		}
+		for (Range<T> range : pending) {
+			addIfContains(range, column, row, result);
+		}
+	}
+
+	private static <T> void queryColumns(Node<T> start, int column, int row,
+			List<T> result) {
+		Node<T> node = start;
+		while (node != null) {
+			if (column < node.center) {
+				for (Range<T> range : node.byMinColumn) {
+					if (range.minColumn > column) {
+						break;
+					}
+					addIfContains(range, column, row, result);
+				}
+				node = node.left;
+			} else if (column > node.center) {
+				for (Range<T> range : node.byMaxColumn) {
+					if (range.maxColumn < column) {
+						break;
+					}
+					addIfContains(range, column, row, result);
+				}
+				node = node.right;
+			} else {
+				for (Range<T> range : node.byMinColumn) {
+					addIfContains(range, column, row, result);
+				}
+				node = null;
+			}
+		}
+	}
+
+	private static <T> void addIfContains(Range<T> range, int column,
+			int row, List<T> result) {
+		if (range.contains(column, row)) {
+			result.add(range.item);
+		}
+	}
+
+	private void rebuild() {
+		ArrayList<Range<T>> list = new ArrayList<>(ranges.values());
+		for (Range<T> range : list) {
+			range.inTree = true;
+		}
+		pending.clear();
+		treeSize = list.size();
+		removedFromTree = 0;
+		root = build(list, true);
+	}
+
+	/**
+	 * @param list
+	 *            ranges
+	 * @param rows
+	 *            whether to split the ranges by rows or by columns
+	 * @return root of the tree
+	 */
+	private static <T> Node<T> build(ArrayList<Range<T>> list, boolean rows) {
+		if (list.isEmpty()) {
+			return null;
+		}
+		// median of the range midpoints
+		int[] mids = new int[list.size()];
+		for (int i = 0; i < mids.length; i++) {
+			Range<T> range = list.get(i);
+			mids[i] = range.getMin(rows)
+					+ (range.getMax(rows) - range.getMin(rows)) / 2;
+		}
+		Arrays.sort(mids);
+		Node<T> node = new Node<>(mids[mids.length / 2]);
+
+		ArrayList<Range<T>> left = new ArrayList<>();
+		ArrayList<Range<T>> right = new ArrayList<>();
+		ArrayList<Range<T>> overlapping = new ArrayList<>();
+		for (Range<T> range : list) {
+			if (range.getMax(rows) < node.center) {
+				left.add(range);
+			} else if (range.getMin(rows) > node.center) {
+				right.add(range);
+			} else {
+				overlapping.add(range);
+			}
+		}
+		if (rows) {
+			node.inner = build(overlapping, false);
+		} else {
+			node.byMinColumn = overlapping;
+			Collections.sort(node.byMinColumn, BY_MIN_COLUMN);
+			node.byMaxColumn = new ArrayList<>(overlapping);
+			Collections.sort(node.byMaxColumn, BY_MAX_COLUMN_DESCENDING);
+		}
+		node.left = build(left, rows);
+		node.right = build(right, rows);
+		return node;
+	}
+}
@@ -17,7 +17,7 @@ import org.geogebra.common.kernel.ConstructionDefaults;
 import org.geogebra.common.kernel.Kernel;
 import org.geogebra.common.kernel.StringTemplate;
 import org.geogebra.common.kernel.Matrix.Coords;
-import org.geogebra.common.kernel.algos.AlgoElement;
+import org.geogebra.common.kernel.algos.AlgoUpdateList;
 import org.geogebra.common.kernel.geos.Furniture;
 import org.geogebra.common.kernel.geos.GeoAngle;
 import org.geogebra.common.kernel.geos.GeoBoolean;
@@ -48,7 +48,7 @@ public abstract class GlobalKeyDispatcher {
 	/** selection */
 	protected final SelectionManager selection;
 
-	private TreeSet<AlgoElement> tempSet;
+	private AlgoUpdateList tempSet;
 	private Coords tempVec;
 
 	/**
@@ -96,9 +96,9 @@ public abstract class GlobalKeyDispatcher {
 	/**
 	 * @return temporary set of algos
 	 */
-	protected TreeSet<AlgoElement> getTempSet() {
+	protected AlgoUpdateList getTempSet() {
 		if (tempSet == null) {
-			tempSet = new TreeSet<>();
+			tempSet = new AlgoUpdateList();
 		}
 		return tempSet;
 	}
@@ -55,6 +55,7 @@ import org.geogebra.common.main.settings.EuclidianSettings;
 import org.geogebra.common.util.AsyncOperation;
 import org.geogebra.common.util.Exercise;
 import org.geogebra.common.util.StringUtil;
+import org.geogebra.common.util.debug.GeoGebraProfiler;
 import org.geogebra.common.util.debug.Log;
 
 import com.himamis.retex.renderer.share.TeXFormula;
@@ -783,6 +784,16 @@ public abstract class GgbAPI implements JavaScriptAPI {
 		return kernel.getFrameRate();
 	}
 
+	@Override
+	public void setElementProfiling(int sampleInterval) {
+		GeoGebraProfiler.setElementSampling(sampleInterval);
+	}
+
+	@Override
+	public String getElementProfile(int n) {
+		return GeoGebraProfiler.getElementProfileJSON(n);
+	}
+
 	@Override
 	public synchronized void registerAddListener(String JSFunctionName) {
 		app.getScriptManager().registerAddListener(JSFunctionName);
@@ -438,6 +438,23 @@ public interface JavaScriptAPI {
 
 	public double getFrameRate();
 
+	/**
+	 * Starts recording compute times of algos and update / draw times of
+	 * drawables.
+	 * 
+	 * @param sampleInterval
+	 *            measure every n-th compute, update or draw; 0 to stop
+	 */
+	public void setElementProfiling(int sampleInterval);
+
+	/**
+	 * @param n
+	 *            number of entries per category
+	 * @return JSON with the n slowest algo types, algos, drawable updates and
+	 *         drawable draws
+	 */
+	public String getElementProfile(int n);
+
 	/**
 	 * Returns true if the object with the given name has a vaild value at the
 	 * moment.
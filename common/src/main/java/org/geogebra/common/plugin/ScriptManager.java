@@ -404,6 +404,8 @@ public abstract class ScriptManager implements EventListener {
 		}
 		Log.debug(JSFunctionName);
 		map.put(geo, JsScript.fromName(app, JSFunctionName));
+		// listeners are part of the undo XML
+		geo.getConstruction().elementChanged(geo);
 		return map;
 	}
 
@@ -414,8 +416,8 @@ public abstract class ScriptManager implements EventListener {
 			HashMap<GeoElement, JsScript> map, String objName) {
 		if (map != null) {
 			GeoElement geo = app.getKernel().lookupLabel(objName);
-			if (geo != null) {
-				map.remove(geo);
+			if (geo != null && map.remove(geo) != null) {
+				geo.getConstruction().elementChanged(geo);
 			}
 		}
 	}
@@ -0,0 +1,129 @@
+package org.geogebra.common.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least recently used cache bounded both by number of entries and by total
+ * weight of entries (an estimate of their memory footprint supplied by the
+ * caller). Counts hits and misses of {@link #get(Object)}.
+ *
+ * @param <K>
+ *            key type
+ * @param <V>
+ *            value type
+ */
+public class WeightedLRUCache<K, V> {
+
+	private final int maxEntries;
+	private final long maxWeight;
+	private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16,
+			0.75f, true);
+	private long weight = 0;
+	private long hits = 0;
+	private long misses = 0;
+
+	private static class Entry<V> {
+		final V value;
+		final int weight;
+
+		Entry(V value, int weight) {
+			this.value = value;
+			this.weight = weight;
+		}
+	}
+
+	/**
+	 * @param maxEntries
+	 *            maximal number of entries
+	 * @param maxWeight
+	 *            maximal total weight of entries
+	 */
+	public WeightedLRUCache(int maxEntries, long maxWeight) {
+		this.maxEntries = maxEntries;
+		this.maxWeight = maxWeight;
+	}
+
+	/**
+	 * @param key
+	 *            key
+	 * @return cached value or null
+	 */
+	public synchronized V get(K key) {
+		Entry<V> entry = entries.get(key);
+		if (entry == null) {
+			misses++;
+			return null;
+		}
+		hits++;
+		return entry.value;
+	}
+
+	/**
+	 * Adds value and evicts least recently used entries until both limits are
+	 * met. Values heavier than the weight limit are not stored.
+	 *
+	 * @param key
+	 *            key
+	 * @param value
+	 *            value
+	 * @param valueWeight
+	 *            estimated size of the value
+	 */
+	public synchronized void put(K key, V value, int valueWeight) {
+		Entry<V> old = entries.remove(key);
+		if (old != null) {
+			weight -= old.weight;
+		}
+		if (valueWeight > maxWeight) {
+			return;
+		}
+		entries.put(key, new Entry<>(value, valueWeight));
+		weight += valueWeight;
+		Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+		while ((entries.size() > maxEntries || weight > maxWeight)
+				&& it.hasNext()) {
+			weight -= it.next().getValue().weight;
+			it.remove();
+		}
+	}
+
+	/**
+	 * Removes all entries and resets the counters.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		weight = 0;
+		hits = 0;
+		misses = 0;
+	}
+
+	/**
+	 * @return number of entries
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * @return total weight of entries
+	 */
+	public synchronized long getWeight() {
+		return weight;
+	}
+
+	/**
+	 * @return number of successful lookups
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * @return number of failed lookups
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+}
@@ -0,0 +1,222 @@
+package org.geogebra.common.util.debug;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latency histograms of algorithm updates (per algorithm type and per
+ * instance) and of drawable updates and draws (per element), collected by
+ * {@link GeoGebraProfiler}. Only every n-th update or draw is measured.
+ */
+public class ElementProfile {
+
+	/** limit of entries per category, to bound memory for huge files */
+	private static final int MAX_ENTRIES = 2000;
+
+	private final int sampleInterval;
+	/** counted without lock, as every update and draw asks for it */
+	private final AtomicInteger calls = new AtomicInteger();
+
+	private final HashMap<String, Entry> algoTypes = new HashMap<>();
+	private final HashMap<String, Entry> algos = new HashMap<>();
+	private final HashMap<String, Entry> drawableUpdates = new HashMap<>();
+	private final HashMap<String, Entry> drawableDraws = new HashMap<>();
+
+	/**
+	 * Measured element.
+	 */
+	private static class Entry {
+		/** algo command or geo type */
+		final String name;
+		/** label, may be null */
+		final String label;
+		/** measured times */
+		final LatencyHistogram histogram = new LatencyHistogram();
+
+		Entry(String name, String label) {
+			this.name = name;
+			this.label = label;
+		}
+	}
+
+	private static final Comparator<Entry> BY_TOTAL = new Comparator<Entry>() {
+		@Override
+		public int compare(Entry e1, Entry e2) {
+			long t1 = e1.histogram.getTotal();
+			long t2 = e2.histogram.getTotal();
+			return t1 > t2 ? -1 : (t1 < t2 ? 1 : 0);
+		}
+	};
+
+	/**
+	 * @param sampleInterval
+	 *            measure every n-th update or draw
+	 */
+	public ElementProfile(int sampleInterval) {
+		this.sampleInterval = Math.max(sampleInterval, 1);
+	}
+
+	/**
+	 * @return whether the next update or draw should be measured
+	 */
+	boolean nextSample() {
+		// ignore the sign bit, so that overflow keeps the interval
+		return (calls.incrementAndGet() & Integer.MAX_VALUE)
+				% sampleInterval == 0;
+	}
+
+	/**
+	 * @param command
+	 *            algo command name
+	 * @param label
+	 *            label of first output
+	 * @param millis
+	 *            compute time in milliseconds
+	 */
+	void addAlgo(String command, String label, double millis) {
+		long micros = Math.round(millis * 1000);
+		record(algoTypes, command, command, null, micros);
+		// algos without label are only told apart by their command
+		record(algos, label == null ? command : command + ":" + label,
+				command, label, micros);
+	}
+
+	/**
+	 * @param type
+	 *            geo type
+	 * @param label
+	 *            label
+	 * @param millis
+	 *            update time in milliseconds
+	 */
+	void addDrawableUpdate(String type, String label, double millis) {
+		record(drawableUpdates, label, type, label, Math.round(millis * 1000));
+	}
+
+	/**
+	 * @param type
+	 *            geo type
+	 * @param label
+	 *            label
+	 * @param millis
+	 *            draw time in milliseconds
+	 */
+	void addDrawableDraw(String type, String label, double millis) {
+		record(drawableDraws, label, type, label, Math.round(millis * 1000));
+	}
+
+	private static void record(HashMap<String, Entry> entries, String key,
+			String name, String label, long micros) {
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			if (entries.size() >= MAX_ENTRIES) {
+				return;
+			}
+			entry = new Entry(name, label);
+			entries.put(key, entry);
+		}
+		entry.histogram.record(micros);
+	}
+
+	/**
+	 * @param command
+	 *            algo command name
+	 * @return measured compute times of all algos with this command
+	 */
+	public LatencyHistogram getAlgoType(String command) {
+		Entry entry = algoTypes.get(command);
+		return entry == null ? null : entry.histogram;
+	}
+
+	/**
+	 * @param label
+	 *            label of element
+	 * @return measured draw times of the element
+	 */
+	public LatencyHistogram getDrawableDraw(String label) {
+		Entry entry = drawableDraws.get(label);
+		return entry == null ? null : entry.histogram;
+	}
+
+	/**
+	 * Top offenders of each category, sorted by total measured time. Times
+	 * are in milliseconds; counts are numbers of samples.
+	 *
+	 * @param n
+	 *            maximal number of entries per category
+	 * @return JSON object with arrays algoTypes, algos, drawableUpdates and
+	 *         drawableDraws
+	 */
+	public String toJSON(int n) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("{\"sampleInterval\":");
+		sb.append(sampleInterval);
+		appendTop(sb, "algoTypes", algoTypes, n);
+		appendTop(sb, "algos", algos, n);
+		appendTop(sb, "drawableUpdates", drawableUpdates, n);
+		appendTop(sb, "drawableDraws", drawableDraws, n);
+		sb.append('}');
+		return sb.toString();
+	}
+
+	private static void appendTop(StringBuilder sb, String category,
+			HashMap<String, Entry> entries, int n) {
+		ArrayList<Entry> sorted = new ArrayList<>(entries.values());
+		Collections.sort(sorted, BY_TOTAL);
+		sb.append(",\"");
+		sb.append(category);
+		sb.append("\":[");
+		for (int i = 0; i < Math.min(n, sorted.size()); i++) {
+			Entry entry = sorted.get(i);
+			LatencyHistogram histogram = entry.histogram;
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append("{\"name\":");
+			appendString(sb, entry.name);
+			if (entry.label != null) {
+				sb.append(",\"label\":");
+				appendString(sb, entry.label);
+			}
+			sb.append(",\"count\":");
+			sb.append(histogram.getCount());
+			appendMillis(sb, "total", histogram.getTotal());
+			appendMillis(sb, "mean", Math.round(histogram.getMean()));
+			appendMillis(sb, "p50", histogram.getValueAtPercentile(50));
+			appendMillis(sb, "p90", histogram.getValueAtPercentile(90));
+			appendMillis(sb, "p99", histogram.getValueAtPercentile(99));
+			appendMillis(sb, "max", histogram.getMax());
+			sb.append('}');
+		}
+		sb.append(']');
+	}
+
+	private static void appendMillis(StringBuilder sb, String key,
+			long micros) {
+		sb.append(",\"");
+		sb.append(key);
+		sb.append("\":");
+		sb.append(micros / 1000.0);
+	}
+
+	private static void appendString(StringBuilder sb, String str) {
+		sb.append('"');
+		for (int i = 0; i < str.length(); i++) {
+			char c = str.charAt(i);
+			if (c == '"' || c == '\\') {
+				sb.append('\\');
+				sb.append(c);
+			} else if (c < 32) {
+				sb.append("\\u00");
+				sb.append(Character.forDigit(c >> 4, 16));
+				sb.append(Character.forDigit(c & 15, 16));
+			} else {
+				sb.append(c);
+			}
+		}
+		sb.append('"');
+	}
+}
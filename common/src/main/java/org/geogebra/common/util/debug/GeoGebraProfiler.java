@@ -27,6 +27,8 @@ public abstract class GeoGebraProfiler {
 	private static volatile long hitTime;
 	private static volatile long cascadeTime;
 
+	private static volatile ElementProfile elementProfile;
+
 	private static Object lock = new Object();
 
 	/**
@@ -65,6 +67,14 @@ public abstract class GeoGebraProfiler {
 	 */
 	public abstract void trace();
 
+	/**
+	 * @return current time in milliseconds, as precise as the platform
+	 *         allows
+	 */
+	public double getMillisecondTime() {
+		return System.currentTimeMillis();
+	}
+
 	/**
 	 * @return GeoGebraProfiler(Web/Desktop) instance
 	 */
@@ -208,4 +218,117 @@ public abstract class GeoGebraProfiler {
 			drags++;
 		}
 	}
+
+	/**
+	 * Starts recording compute times of algos and update / draw times of
+	 * drawables; restarting clears the recorded times.
+	 * 
+	 * @param sampleInterval
+	 *            measure every n-th compute, update or draw; 0 to stop
+	 *            recording
+	 */
+	public static void setElementSampling(int sampleInterval) {
+		synchronized (lock) {
+			elementProfile = sampleInterval > 0
+					? new ElementProfile(sampleInterval) : null;
+		}
+	}
+
+	/**
+	 * @return recorded element times, null if not recording
+	 */
+	public static ElementProfile getElementProfile() {
+		return elementProfile;
+	}
+
+	/**
+	 * Call before compute, update or draw of an element and pass the result to
+	 * addAlgoSample, addDrawableUpdate or addDrawableDraw. Cheap when element
+	 * sampling is off.
+	 * 
+	 * @return start time if the current call should be measured, -1 otherwise
+	 */
+	public static double startElementSample() {
+		ElementProfile profile = elementProfile;
+		if (profile == null) {
+			return -1;
+		}
+		if (!profile.nextSample()) {
+			return -1;
+		}
+		return getInstance().getMillisecondTime();
+	}
+
+	/**
+	 * @param command
+	 *            algo command name
+	 * @param label
+	 *            label of first output
+	 * @param start
+	 *            result of startElementSample()
+	 */
+	public static void addAlgoSample(String command, String label,
+			double start) {
+		ElementProfile profile = elementProfile;
+		if (profile != null && start >= 0) {
+			double time = getInstance().getMillisecondTime() - start;
+			synchronized (lock) {
+				profile.addAlgo(command, label, time);
+			}
+		}
+	}
+
+	/**
+	 * @param type
+	 *            geo type
+	 * @param label
+	 *            label
+	 * @param start
+	 *            result of startElementSample()
+	 */
+	public static void addDrawableUpdate(String type, String label,
+			double start) {
+		ElementProfile profile = elementProfile;
+		if (profile != null && start >= 0) {
+			double time = getInstance().getMillisecondTime() - start;
+			synchronized (lock) {
+				profile.addDrawableUpdate(type, label, time);
+			}
+		}
+	}
+
+	/**
+	 * @param type
+	 *            geo type
+	 * @param label
+	 *            label
+	 * @param start
+	 *            result of startElementSample()
+	 */
+	public static void addDrawableDraw(String type, String label,
+			double start) {
+		ElementProfile profile = elementProfile;
+		if (profile != null && start >= 0) {
+			double time = getInstance().getMillisecondTime() - start;
+			synchronized (lock) {
+				profile.addDrawableDraw(type, label, time);
+			}
+		}
+	}
+
+	/**
+	 * @param n
+	 *            number of entries per category
+	 * @return slowest elements as JSON, see {@link ElementProfile#toJSON(int)};
+	 *         empty object if not recording
+	 */
+	public static String getElementProfileJSON(int n) {
+		ElementProfile profile = elementProfile;
+		if (profile == null) {
+			return "{}";
+		}
+		synchronized (lock) {
+			return profile.toJSON(n);
+		}
+	}
 }
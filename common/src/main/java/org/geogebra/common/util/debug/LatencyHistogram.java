@@ -0,0 +1,110 @@
+package org.geogebra.common.util.debug;
+
+/**
+ * Histogram of durations in microseconds with buckets of logarithmically
+ * growing width (as in HdrHistogram): values below 32 are counted exactly,
+ * larger values with a relative error below 1/16. Memory is proportional to
+ * the logarithm of the largest recorded value.
+ */
+public class LatencyHistogram {
+
+	/** values below 2^EXACT_BITS get their own bucket */
+	private static final int EXACT_BITS = 5;
+	private static final int EXACT = 1 << EXACT_BITS;
+	/** number of buckets for each power of two above EXACT */
+	private static final int SUB_BUCKETS = EXACT / 2;
+
+	private int[] counts = new int[EXACT];
+	private long count;
+	private long total;
+	private long max;
+
+	/**
+	 * @param micros
+	 *            duration in microseconds, negative values are counted as 0
+	 */
+	public void record(long micros) {
+		long value = Math.max(micros, 0);
+		int index = bucketIndex(value);
+		if (index >= counts.length) {
+			int[] grown = new int[Math.max(index + 1, 2 * counts.length)];
+			System.arraycopy(counts, 0, grown, 0, counts.length);
+			counts = grown;
+		}
+		counts[index]++;
+		count++;
+		total += value;
+		max = Math.max(max, value);
+	}
+
+	private static int bucketIndex(long value) {
+		if (value < EXACT) {
+			return (int) value;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(value) - (EXACT_BITS - 1);
+		int sub = (int) (value >> shift);
+		return EXACT + (shift - 1) * SUB_BUCKETS + sub - SUB_BUCKETS;
+	}
+
+	/**
+	 * @return largest value that falls into given bucket
+	 */
+	private static long highestValueInBucket(int index) {
+		if (index < EXACT) {
+			return index;
+		}
+		int shift = (index - EXACT) / SUB_BUCKETS + 1;
+		long sub = (index - EXACT) % SUB_BUCKETS + SUB_BUCKETS;
+		return ((sub + 1) << shift) - 1;
+	}
+
+	/**
+	 * @return number of recorded values
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * @return sum of recorded values in microseconds
+	 */
+	public long getTotal() {
+		return total;
+	}
+
+	/**
+	 * @return largest recorded value in microseconds
+	 */
+	public long getMax() {
+		return max;
+	}
+
+	/**
+	 * @return mean of recorded values in microseconds
+	 */
+	public double getMean() {
+		return count == 0 ? 0 : total / (double) count;
+	}
+
+	/**
+	 * @param percentile
+	 *            percentile between 0 and 100
+	 * @return value such that given percentage of recorded values is smaller
+	 *         or equal (up to bucket precision), in microseconds
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (count == 0) {
+			return 0;
+		}
+		long rank = Math.max(1,
+				(long) Math.ceil(Math.min(percentile, 100) / 100 * count));
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return Math.min(highestValueInBucket(i), max);
+			}
+		}
+		return max;
+	}
+}
@@ -14,6 +14,8 @@ package org.geogebra.desktop;
 
 import java.awt.Frame;
 import java.awt.Toolkit;
+import java.io.File;
+import java.io.IOException;
 import java.net.URL;
 
 import org.geogebra.common.GeoGebraConstants;
@@ -22,6 +24,7 @@ import org.geogebra.common.util.Util;
 import org.geogebra.common.util.debug.Log;
 import org.geogebra.desktop.gui.app.GeoGebraFrame;
 import org.geogebra.desktop.main.AppD;
+import org.geogebra.desktop.main.GeoGebraBatchExport;
 import org.geogebra.desktop.main.GeoGebraServer;
 
 public class GeoGebra {
@@ -80,7 +83,22 @@ public class GeoGebra {
 		}
 		if (args.containsArg("startHttpServer")) {
 			Log.error("startHttpServer");
-			new GeoGebraServer(args.getStringValue("startHttpServer"));
+			new GeoGebraServer(args.getStringValue("startHttpServer"),
+					args.getIntValue("serverApps",
+							GeoGebraServer.DEFAULT_APPS),
+					args.getIntValue("serverQueue",
+							GeoGebraServer.DEFAULT_QUEUE),
+					args.getIntValue("serverTimeout",
+							GeoGebraServer.DEFAULT_TIMEOUT),
+					args.containsArg("serverBase")
+							? new File(args.getStringValue("serverBase"))
+							: null,
+					args.getIntValue("serverPort",
+							GeoGebraServer.DEFAULT_PORT));
+			return;
+		}
+		if (args.containsArg("batchExport")) {
+			AppD.exit(batchExport(args));
 			return;
 		}
 		if (args.containsArg("help") || args.containsArg("proverhelp")
@@ -116,6 +134,40 @@ public class GeoGebra {
 		}
 	}
 
+	/**
+	 * Exports files listed by --batchExport (directory or manifest) with
+	 * headless apps.
+	 *
+	 * @param args
+	 *            command line arguments
+	 * @return exit code, 1 if any file failed
+	 */
+	private static int batchExport(CommandLineArguments args) {
+		File output = new File(args.containsArg("batchOutput")
+				? args.getStringValue("batchOutput") : ".");
+		String format = args.containsArg("batchFormat")
+				? args.getStringValue("batchFormat").toLowerCase() : "png";
+		try {
+			if (!output.isDirectory() && !output.mkdirs()) {
+				Log.error("Can't create " + output);
+				return 1;
+			}
+			GeoGebraBatchExport export = new GeoGebraBatchExport(output,
+					format, args.getIntValue("maxSize", 0),
+					args.getIntValue("dpi", 72),
+					args.getIntValue("batchThreads",
+							GeoGebraServer.DEFAULT_APPS),
+					new File(args.containsArg("batchReport")
+							? args.getStringValue("batchReport")
+							: new File(output, "report.tsv").getPath()));
+			return export.run(new File(args.getStringValue("batchExport")))
+					> 0 ? 1 : 0;
+		} catch (IOException | IllegalArgumentException e) {
+			Log.error("Batch export failed: " + e.getMessage());
+			return 1;
+		}
+	}
+
 	protected void startGeoGebra(CommandLineArguments args) {
 		// create and open first GeoGebra window
 		GeoGebraFrame.main(args);
@@ -422,6 +422,7 @@ public class GGraphics2DD implements GGraphics2D {
 	/**
 	 * Dispose wrapped implementation
 	 */
+	@Override
 	public void dispose() {
 		impl.dispose();
 	}
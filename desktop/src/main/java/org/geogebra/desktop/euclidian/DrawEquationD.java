@@ -144,6 +144,13 @@ public class DrawEquationD extends DrawEquation {
 		latexIcon.setImage(image);
 	}
 
+	@Override
+	public void clearCache() {
+		super.clearCache();
+		// images of the old font sizes won't be used again
+		JLaTeXMathCache.clearCache();
+	}
+
 	@Override
 	public GDimension measureEquation(App app, GeoElement geo0, String text,
 			GFont font, boolean serif) {
@@ -24,6 +24,7 @@ import java.awt.GraphicsConfiguration;
 import java.awt.Image;
 import java.awt.Point;
 import java.awt.Toolkit;
+import java.awt.Transparency;
 import java.awt.event.ComponentEvent;
 import java.awt.event.ComponentListener;
 import java.awt.event.MouseEvent;
@@ -837,6 +838,21 @@ public class EuclidianViewD extends EuclidianView
 		}
 	}
 
+	@Override
+	protected GBufferedImage newLayerImage() {
+		GraphicsConfiguration gc = evjpanel.getGraphicsConfiguration();
+		try {
+			if (gc != null) {
+				return new GBufferedImageD(gc.createCompatibleImage(getWidth(),
+						getHeight(), Transparency.TRANSLUCENT));
+			}
+			return new GBufferedImageD(getWidth(), getHeight(),
+					GBufferedImage.TYPE_INT_ARGB);
+		} catch (OutOfMemoryError e) {
+			return null;
+		}
+	}
+
 	@Override
 	public void clearView() {
 		evjpanel.removeAll(); // remove hotEqns
@@ -1006,13 +1006,59 @@ public class GraphicExportDialog extends JDialog implements KeyListener {
 			boolean textAsShapes, int pixelWidth, int pixelHeight,
 			double cmWidth, double cmHeight, double exportScale,
 			boolean transparent0) {
+		setSVGProperties(textAsShapes);
+		try {
+			writeSVG(app, ev, file, pixelWidth, pixelHeight, cmWidth, cmHeight,
+					exportScale, transparent0);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Sets the properties of all SVG exports; they are global, so they must
+	 * not change while another thread exports.
+	 * 
+	 * @param textAsShapes
+	 *            whether to convert text to curves
+	 */
+	public static void setSVGProperties(boolean textAsShapes) {
 		UserProperties props = (UserProperties) SVGGraphics2D
 				.getDefaultProperties();
 		props.setProperty(SVGGraphics2D.EMBED_FONTS, !textAsShapes);
 		props.setProperty(AbstractVectorGraphicsIO.TEXT_AS_SHAPES,
 				textAsShapes);
 		SVGGraphics2D.setDefaultProperties(props);
+	}
 
+	/**
+	 * Writes SVG with the properties from
+	 * {@link #setSVGProperties(boolean)}.
+	 * 
+	 * @param app
+	 *            application
+	 * @param ev
+	 *            view
+	 * @param file
+	 *            target stream
+	 * @param pixelWidth
+	 *            width in pixels
+	 * @param pixelHeight
+	 *            height in pixels
+	 * @param cmWidth
+	 *            width in cm
+	 * @param cmHeight
+	 *            height in cm
+	 * @param exportScale
+	 *            scale units / cm
+	 * @param transparent0
+	 *            transparent?
+	 * @throws IOException
+	 *             if the SVG can't be written
+	 */
+	public static void writeSVG(App app, EuclidianView ev, OutputStream file,
+			int pixelWidth, int pixelHeight, double cmWidth, double cmHeight,
+			double exportScale, boolean transparent0) throws IOException {
 		// added SVGExtensions to support grouped objects in layers
 		SVGExtensions g;
 		try {
@@ -1054,8 +1100,6 @@ public class GraphicExportDialog extends JDialog implements KeyListener {
 
 			g.endExport();
 			expGraphics.resetClip();
-		} catch (IOException e) {
-			e.printStackTrace();
 		} finally {
 			app.setExporting(ExportType.NONE, 1);
 		}
@@ -203,6 +203,12 @@ public class EpsGraphicsD extends EpsGraphics {
 
 	}
 
+	@Override
+	public void dispose() {
+		// nothing to do
+
+	}
+
 	@Override
 	public void drawImage(MyImage img, int sx, int sy, int sw, int sh, int dx,
 			int dy) {
@@ -93,6 +93,13 @@ public class CopyPasteCutD extends CopyPasteCut {
 		return paste(column1, row1, column2, row2, contents);
 	}
 
+	@Override
+	protected String getClipboardText() {
+		Clipboard clipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
+		return DataImportD
+				.convertTransferableToString(clipboard.getContents(null));
+	}
+
 	/**
 	 * Pastes data from given Transferable into the given spreadsheet cells.
 	 * 
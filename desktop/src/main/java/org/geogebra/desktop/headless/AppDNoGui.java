@@ -304,7 +304,8 @@ public class AppDNoGui extends App implements AppDI {
 	@Override
 	public MyImage getExternalImageAdapter(String filename, int width,
 			int height) {
-		MyImageJre im = ImageManagerD.getExternalImage(filename);
+		MyImageJre im = ((ImageManagerD) getImageManager())
+				.getExternalImage(filename);
 		return im;
 	}
 
@@ -827,6 +828,10 @@ public class AppDNoGui extends App implements AppDI {
 		// TODO Auto-generated method stub
 	}
 
+	public void addExternalImageData(String name, byte[] data) {
+		// images are not drawn without GUI
+	}
+
 	public void storeFrameCenter() {
 		// TODO Auto-generated method stub
 	}
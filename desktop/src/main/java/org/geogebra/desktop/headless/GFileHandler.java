@@ -2,6 +2,9 @@ package org.geogebra.desktop.headless;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 
@@ -11,6 +14,7 @@ import org.geogebra.common.jre.util.Base64;
 import org.geogebra.common.main.App;
 import org.geogebra.common.main.MyError;
 import org.geogebra.common.util.Charsets;
+import org.geogebra.desktop.io.MyXMLioD;
 
 public class GFileHandler {
 	/**
@@ -27,18 +31,7 @@ public class GFileHandler {
 	public static boolean loadXML(App app, InputStream is, boolean isMacroFile)
 			throws Exception {
 		try {
-			if (!isMacroFile) {
-				app.setMoveMode();
-			}
-
-			// store current location of the window
-			((AppDI) app).storeFrameCenter();
-
-			// make sure objects are displayed in the correct View
-			app.setActiveView(App.VIEW_EUCLIDIAN);
-
-			// reset unique id (for old files, in case they don't have one)
-			app.resetUniqueId();
+			beforeLoad(app, isMacroFile);
 
 			BufferedInputStream bis = new BufferedInputStream(is);
 
@@ -77,17 +70,45 @@ public class GFileHandler {
 			is.close();
 			bis.close();
 
-			if (!isMacroFile) {
-				app.getKernel().initUndoInfo();
-				app.setSaved();
-				app.resetCurrentFile();
-			}
-
-			// command list may have changed due to macros
-			app.updateCommandDictionary();
-
-			((AppDI) app).hideDockBarPopup();
+			afterLoad(app, isMacroFile);
+			return true;
+		} catch (MyError err) {
+			app.resetCurrentFile();
+			app.showError(err);
+			return false;
+		}
+	}
 
+	/**
+	 * Loads a file with random access to its zip entries, so that the
+	 * construction XML is parsed directly from the file. Falls back to
+	 * {@link #loadXML(App, InputStream, boolean)} for files that are not zip
+	 * archives (e.g. base64 encoded).
+	 * 
+	 * @param app
+	 *            app
+	 * @param file
+	 *            ggb or ggt file
+	 * @param isMacroFile
+	 *            macro?
+	 * @return whether successfully loaded
+	 * @throws Exception
+	 *             for invalid XML; MyErrors are ignored
+	 */
+	public static boolean loadXML(App app, File file, boolean isMacroFile)
+			throws Exception {
+		if (!isZipFile(file)) {
+			FileInputStream fis = new FileInputStream(file);
+			try {
+				return loadXML(app, fis, isMacroFile);
+			} finally {
+				fis.close();
+			}
+		}
+		try {
+			beforeLoad(app, isMacroFile);
+			((MyXMLioD) app.getXMLio()).readZipFromFile(file, isMacroFile);
+			afterLoad(app, isMacroFile);
 			return true;
 		} catch (MyError err) {
 			app.resetCurrentFile();
@@ -95,4 +116,43 @@ public class GFileHandler {
 			return false;
 		}
 	}
+
+	private static boolean isZipFile(File file) throws IOException {
+		FileInputStream fis = new FileInputStream(file);
+		try {
+			// local file header signature PK\3\4
+			return fis.read() == 'P' && fis.read() == 'K' && fis.read() == 3
+					&& fis.read() == 4;
+		} finally {
+			fis.close();
+		}
+	}
+
+	private static void beforeLoad(App app, boolean isMacroFile) {
+		if (!isMacroFile) {
+			app.setMoveMode();
+		}
+
+		// store current location of the window
+		((AppDI) app).storeFrameCenter();
+
+		// make sure objects are displayed in the correct View
+		app.setActiveView(App.VIEW_EUCLIDIAN);
+
+		// reset unique id (for old files, in case they don't have one)
+		app.resetUniqueId();
+	}
+
+	private static void afterLoad(App app, boolean isMacroFile) {
+		if (!isMacroFile) {
+			app.getKernel().initUndoInfo();
+			app.setSaved();
+			app.resetCurrentFile();
+		}
+
+		// command list may have changed due to macros
+		app.updateCommandDictionary();
+
+		((AppDI) app).hideDockBarPopup();
+	}
 }
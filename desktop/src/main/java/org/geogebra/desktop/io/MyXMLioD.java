@@ -22,8 +22,11 @@ import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Enumeration;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
 import javax.imageio.ImageIO;
@@ -58,17 +61,9 @@ public class MyXMLioD extends MyXMLioJre {
 	protected final void readZip(ZipInputStream zip, boolean isGGTfile)
 			throws Exception {
 
-		// we have to read everything (i.e. all images)
-		// before we process the XML file, that's why we
-		// read the XML file into a buffer first
-		byte[] xmlFileBuffer = null;
-		byte[] macroXmlFileBuffer = null;
-		byte[] defaults2dXmlFileBuffer = null;
-		byte[] defaults3dXmlFileBuffer = null;
-		boolean xmlFound = false;
-		boolean macroXMLfound = false;
-		boolean javaScriptFound = false;
-		boolean structureFound = false;
+		// we have to read everything (i.e. all macros) before we process the
+		// XML file, that's why we read the XML file into a buffer first
+		ZipContent content = new ZipContent(isGGTfile);
 
 		// get all entries from the zip archive
 		while (true) {
@@ -81,102 +76,178 @@ public class MyXMLioD extends MyXMLioJre {
 			if (entry == null) {
 				break;
 			}
-			String name = entry.getName();
+			content.readEntry(entry.getName(), zip);
 
+			// get next entry
+			try {
+				zip.closeEntry();
+			} catch (Exception e) {
+				Log.error(e.getMessage());
+			}
+		}
+		zip.close();
+
+		content.process(null);
+	}
+
+	/**
+	 * Reads a ggb or ggt file using random access to its entries: all other
+	 * entries are read first, so the construction XML can be parsed directly
+	 * from the compressed entry instead of being loaded into memory.
+	 * 
+	 * @param file
+	 *            ggb or ggt file
+	 * @param isGGTfile
+	 *            true for ggt files
+	 * @throws Exception
+	 *             when file is not accessible / is not valid ggb
+	 */
+	public final void readZipFromFile(File file, boolean isGGTfile)
+			throws Exception {
+		ZipFile zip = new ZipFile(file);
+		try {
+			ZipContent content = new ZipContent(isGGTfile);
+			ZipEntry xmlEntry = null;
+			Enumeration<? extends ZipEntry> entries = zip.entries();
+			while (entries.hasMoreElements()) {
+				ZipEntry entry = entries.nextElement();
+				if (entry.getName().equals(XML_FILE)) {
+					xmlEntry = entry;
+				} else {
+					InputStream is = zip.getInputStream(entry);
+					try {
+						content.readEntry(entry.getName(), is);
+					} finally {
+						is.close();
+					}
+				}
+			}
+			if (xmlEntry != null) {
+				content.xmlFound = true;
+			}
+			content.process(xmlEntry == null || isGGTfile ? null
+					: zip.getInputStream(xmlEntry));
+		} finally {
+			zip.close();
+		}
+	}
+
+	/**
+	 * Entries of a ggb file, collected until all of them are read.
+	 */
+	private class ZipContent {
+		private final boolean isGGTfile;
+		private byte[] xmlFileBuffer = null;
+		private byte[] macroXmlFileBuffer = null;
+		private byte[] defaults2dXmlFileBuffer = null;
+		private byte[] defaults3dXmlFileBuffer = null;
+		private boolean xmlFound = false;
+		private boolean macroXMLfound = false;
+		private boolean javaScriptFound = false;
+		private boolean structureFound = false;
+
+		ZipContent(boolean isGGTfile) {
+			this.isGGTfile = isGGTfile;
+		}
+
+		/**
+		 * @param name
+		 *            entry name
+		 * @param is
+		 *            entry content
+		 * @throws IOException
+		 *             when entry is not readable
+		 */
+		void readEntry(String name, InputStream is) throws IOException {
 			if (name.equals("structure.json")) {
 				structureFound = true;
 			} else if (name.equals(XML_FILE)) {
 				// load xml file into memory first
-				xmlFileBuffer = UtilD.loadIntoMemory(zip);
+				xmlFileBuffer = UtilD.loadIntoMemory(is);
 				xmlFound = true;
 				handler = getGGBHandler();
 			} else if (name.equals(XML_FILE_DEFAULTS_2D)) {
 				// load defaults xml file into memory first
-				defaults2dXmlFileBuffer = UtilD.loadIntoMemory(zip);
+				defaults2dXmlFileBuffer = UtilD.loadIntoMemory(is);
 				handler = getGGBHandler();
 			} else if (app.is3D() && name.equals(XML_FILE_DEFAULTS_3D)) {
 				// load defaults xml file into memory first
-				defaults3dXmlFileBuffer = UtilD.loadIntoMemory(zip);
+				defaults3dXmlFileBuffer = UtilD.loadIntoMemory(is);
 				handler = getGGBHandler();
 			} else if (name.equals(XML_FILE_MACRO)) {
 				// load macro xml file into memory first
-				macroXmlFileBuffer = UtilD.loadIntoMemory(zip);
+				macroXmlFileBuffer = UtilD.loadIntoMemory(is);
 				macroXMLfound = true;
 				handler = getGGBHandler();
 			} else if (name.equals(JAVASCRIPT_FILE)) {
 				// load JavaScript
-				kernel.setLibraryJavaScript(UtilD.loadIntoString(zip));
+				kernel.setLibraryJavaScript(UtilD.loadIntoString(is));
 				javaScriptFound = true;
-			} else if (StringUtil.toLowerCaseUS(name).endsWith("svg")) {
-				String svg = UtilD.loadIntoString(zip);
-
-				MyImageD img = new MyImageD(svg, name);
-
-				((AppDI) app).addExternalImage(name, img);
-
+			} else if ("".equals(name)) {
+				Log.warn("image in zip file with empty name");
+			} else if (StringUtil.getFileExtension(name).isAllowedImage()) {
+				// images (and the thumbnail) are decoded on first use
+				((AppDI) app).addExternalImageData(name,
+						UtilD.loadIntoMemory(is));
 			} else {
-				// try to load image
-				try {
-					BufferedImage img = ImageIO.read(zip);
-					if ("".equals(name)) {
-						Log.warn("image in zip file with empty name");
-					} else {
-						((AppDI) app).addExternalImage(name, new MyImageD(img));
-					}
-				} catch (IOException e) {
-					Log.debug("readZipFromURL: image could not be loaded: "
-							+ name);
-					e.printStackTrace();
-				}
-			}
-
-			// get next entry
-			try {
-				zip.closeEntry();
-			} catch (Exception e) {
-				Log.error(e.getMessage());
+				Log.debug("readZip: unknown entry " + name);
 			}
 		}
-		zip.close();
 
-		if (!isGGTfile) {
-			// ggb file: remove all macros from kernel before processing
-			kernel.removeAllMacros();
-		}
+		/**
+		 * Processes macros, construction and defaults.
+		 * 
+		 * @param xmlStream
+		 *            construction XML if it was not read into a buffer
+		 * @throws Exception
+		 *             on parsing error or if there is no XML
+		 */
+		void process(InputStream xmlStream) throws Exception {
+			if (!isGGTfile) {
+				// ggb file: remove all macros from kernel before processing
+				kernel.removeAllMacros();
+			}
 
-		// process macros
-		if (macroXmlFileBuffer != null) {
-			// don't clear kernel for macro files
-			kernel.getConstruction().setFileLoading(true);
-			processXMLBuffer(macroXmlFileBuffer, !isGGTfile, isGGTfile);
-			kernel.getConstruction().setFileLoading(false);
-		}
+			// process macros
+			if (macroXmlFileBuffer != null) {
+				// don't clear kernel for macro files
+				kernel.getConstruction().setFileLoading(true);
+				processXMLBuffer(macroXmlFileBuffer, !isGGTfile, isGGTfile);
+				kernel.getConstruction().setFileLoading(false);
+			}
 
-		// process construction
-		if (!isGGTfile && xmlFileBuffer != null) {
-			kernel.getConstruction().setFileLoading(true);
-			app.getCompanion().resetEuclidianViewForPlaneIds();
-			processXMLBuffer(xmlFileBuffer, !macroXMLfound, isGGTfile);
-			kernel.getConstruction().setFileLoading(false);
-		}
+			// process construction
+			if (!isGGTfile && xmlStream != null) {
+				handler = getGGBHandler();
+				kernel.getConstruction().setFileLoading(true);
+				app.getCompanion().resetEuclidianViewForPlaneIds();
+				processXMLStream(xmlStream, !macroXMLfound, isGGTfile);
+				kernel.getConstruction().setFileLoading(false);
+			} else if (!isGGTfile && xmlFileBuffer != null) {
+				kernel.getConstruction().setFileLoading(true);
+				app.getCompanion().resetEuclidianViewForPlaneIds();
+				processXMLBuffer(xmlFileBuffer, !macroXMLfound, isGGTfile);
+				kernel.getConstruction().setFileLoading(false);
+			}
 
-		// process defaults (after construction for labeling styles)
-		if (defaults2dXmlFileBuffer != null) {
-			kernel.getConstruction().setFileLoading(true);
-			processXMLBuffer(defaults2dXmlFileBuffer, false, true);
-			kernel.getConstruction().setFileLoading(false);
-		}
-		if (defaults3dXmlFileBuffer != null) {
-			kernel.getConstruction().setFileLoading(true);
-			processXMLBuffer(defaults3dXmlFileBuffer, false, true);
-			kernel.getConstruction().setFileLoading(false);
-		}
+			// process defaults (after construction for labeling styles)
+			if (defaults2dXmlFileBuffer != null) {
+				kernel.getConstruction().setFileLoading(true);
+				processXMLBuffer(defaults2dXmlFileBuffer, false, true);
+				kernel.getConstruction().setFileLoading(false);
+			}
+			if (defaults3dXmlFileBuffer != null) {
+				kernel.getConstruction().setFileLoading(true);
+				processXMLBuffer(defaults3dXmlFileBuffer, false, true);
+				kernel.getConstruction().setFileLoading(false);
+			}
 
-		if (!javaScriptFound && !isGGTfile) {
-			kernel.resetLibraryJavaScript();
-		}
-		if (!(macroXMLfound || xmlFound || structureFound)) {
-			throw new Exception("No XML data found in file.");
+			if (!javaScriptFound && !isGGTfile) {
+				kernel.resetLibraryJavaScript();
+			}
+			if (!(macroXMLfound || xmlFound || structureFound)) {
+				throw new Exception("No XML data found in file.");
+			}
 		}
 	}
 
@@ -12,10 +12,6 @@ the Free Software Foundation.
 
 package org.geogebra.desktop.kernel;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.io.InputStream;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 
@@ -23,6 +19,7 @@ import javax.swing.DefaultListSelectionModel;
 
 import org.geogebra.common.kernel.AppState;
 import org.geogebra.common.kernel.Construction;
+import org.geogebra.common.kernel.DeltaAppState;
 import org.geogebra.common.kernel.UndoCommand;
 import org.geogebra.common.kernel.UndoManager;
 import org.geogebra.common.main.App;
@@ -30,17 +27,18 @@ import org.geogebra.common.plugin.Event;
 import org.geogebra.common.plugin.EventType;
 import org.geogebra.common.util.debug.Log;
 import org.geogebra.desktop.cas.view.CASViewD;
-import org.geogebra.desktop.io.MyXMLioD;
 
 /**
  * UndoManager handles undo information for a Construction. It uses an undo info
- * list with construction snapshots in temporary files.
+ * list with construction snapshots that share unchanged elements with the
+ * previous snapshot.
  * 
  * @author Markus Hohenwarter
  */
 public class UndoManagerD extends UndoManager {
 
 	private boolean sync;
+	private DeltaAppState lastState;
 
 	/**
 	 * Creates a new UndowManager for the given Construction.
@@ -118,9 +116,10 @@ public class UndoManagerD extends UndoManager {
 			@Override
 			public Object run() {
 				try {
-					// perform the security-sensitive operation here
-					// save to file
-					AppState appStateToAdd = new FileAppState(undoXML);
+					// only changed elements need new memory
+					DeltaAppState appStateToAdd = new DeltaAppState(
+							undoXML.toString(), lastState);
+					lastState = appStateToAdd;
 
 					// insert undo info
 					UndoCommand command = new UndoCommand(appStateToAdd);
@@ -151,12 +150,8 @@ public class UndoManagerD extends UndoManager {
 	final protected synchronized void loadUndoInfo(final AppState info,
 			String slideID) {
 
-		InputStream is = null;
-
 		try {
-			// load from file
-			File tempFile = ((FileAppState) info).getFile();
-			is = new FileInputStream(tempFile);
+			String tempXML = info.getXml();
 
 			// make sure objects are displayed in the correct View
 			app.setActiveView(App.VIEW_EUCLIDIAN);
@@ -191,7 +186,19 @@ public class UndoManagerD extends UndoManager {
 
 			// load undo info
 			app.getScriptManager().disableListeners();
-			((MyXMLioD) construction.getXMLio()).readZipFromMemory(is);
+			if (!loadDelta(info)) {
+				// same as reading a ggb file without macros and JavaScript
+				app.getKernel().removeAllMacros();
+				construction.setFileLoading(true);
+				try {
+					app.getCompanion().resetEuclidianViewForPlaneIds();
+					construction.getXMLio().processXMLString(tempXML, true,
+							false, true, false);
+				} finally {
+					construction.setFileLoading(false);
+				}
+				app.getKernel().resetLibraryJavaScript();
+			}
 			if (changed) {
 				listSelModel.setAnchorSelectionIndex(anchorIndex);
 				listSelModel.setLeadSelectionIndex(leadIndex);
@@ -206,15 +213,6 @@ public class UndoManagerD extends UndoManager {
 			restoreCurrentUndoInfo();
 		} catch (java.lang.OutOfMemoryError err) {
 			Log.error("UndoManager.loadUndoInfo: " + err.toString());
-		} finally {
-			try {
-				if (is != null) {
-					is.close();
-				}
-			} catch (IOException e) {
-				Log.error("setUndoInfo: " + e.toString());
-				e.printStackTrace();
-			}
 		}
 
 	}
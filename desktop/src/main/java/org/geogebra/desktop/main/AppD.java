@@ -117,6 +117,9 @@ import org.geogebra.common.GeoGebraConstants.Versions;
 import org.geogebra.common.awt.GDimension;
 import org.geogebra.common.awt.GFont;
 import org.geogebra.common.awt.MyImage;
+import org.geogebra.common.cas.CASparser;
+import org.geogebra.common.cas.GeoGebraCAS;
+import org.geogebra.common.cas.giac.GiacContextPool;
 import org.geogebra.common.euclidian.EuclidianConstants;
 import org.geogebra.common.euclidian.EuclidianController;
 import org.geogebra.common.euclidian.EuclidianCursor;
@@ -137,12 +140,15 @@ import org.geogebra.common.io.layout.DockPanelData;
 import org.geogebra.common.io.layout.Perspective;
 import org.geogebra.common.io.layout.PerspectiveDecoder;
 import org.geogebra.common.javax.swing.GImageIcon;
+import org.geogebra.common.jre.cas.MappedCasResultStore;
 import org.geogebra.common.jre.factory.FormatFactoryJre;
 import org.geogebra.common.jre.gui.MyImageJre;
 import org.geogebra.common.jre.headless.AppDI;
+import org.geogebra.common.jre.kernel.ForkJoinExecutor;
 import org.geogebra.common.jre.kernel.commands.CommandDispatcher3DJre;
 import org.geogebra.common.jre.kernel.commands.CommandDispatcherJre;
 import org.geogebra.common.jre.util.Base64;
+import org.geogebra.common.kernel.CASGenericInterface;
 import org.geogebra.common.kernel.Construction;
 import org.geogebra.common.kernel.Kernel;
 import org.geogebra.common.kernel.Macro;
@@ -176,6 +182,7 @@ import org.geogebra.common.util.LowerCaseDictionary;
 import org.geogebra.common.util.NormalizerMinimal;
 import org.geogebra.common.util.StringUtil;
 import org.geogebra.common.util.Util;
+import org.geogebra.common.util.debug.GeoGebraProfiler;
 import org.geogebra.common.util.debug.Log;
 import org.geogebra.common.util.debug.Log.LogDestination;
 import org.geogebra.desktop.CommandLineArguments;
@@ -229,6 +236,7 @@ import org.geogebra.desktop.plugin.UDPLoggerD;
 import org.geogebra.desktop.sound.SoundManagerD;
 import org.geogebra.desktop.util.FrameCollector;
 import org.geogebra.desktop.util.GTimerD;
+import org.geogebra.desktop.util.GeoGebraProfilerD;
 import org.geogebra.desktop.util.GuiResourcesD;
 import org.geogebra.desktop.util.ImageManagerD;
 import org.geogebra.desktop.util.ImageResourceD;
@@ -272,6 +280,8 @@ public class AppD extends App implements KeyEventDispatcher, AppDI {
 	// ==============================================================
 
 	private static LinkedList<File> fileList = new LinkedList<>();
+	/** CAS result store shared by all windows */
+	private static MappedCasResultStore casResultStore;
 	protected File currentPath, currentImagePath, currentFile = null;
 
 	/**
@@ -740,6 +750,10 @@ public class AppD extends App implements KeyEventDispatcher, AppDI {
 																	// accepted
 					+ "  --showSplash=BOOLEAN\tenable/disable the splash screen\n"
 					+ "  --enableUndo=BOOLEAN\tenable/disable Undo\n"
+					+ "  --parallelUpdate=BOOLEAN\tupdate independent parts of construction in parallel\n"
+					+ "  --casCache=FILENAME\tkeep CAS results in a file between sessions\n"
+					+ "  --giacContexts=NUMBER\tevaluate independent CAS cells in NUMBER Giac contexts concurrently\n"
+					+ "  --profileElements=NUMBER\trecord update and draw times of every n-th element update (see getElementProfile)\n"
 					+ "  --fontSize=NUMBER\tset default font size\n"
 					+ "  --showAxes=BOOLEAN\tshow/hide coordinate axes\n"
 					+ "  --showGrid=BOOLEAN\tshow/hide grid\n"
@@ -908,6 +922,26 @@ public class AppD extends App implements KeyEventDispatcher, AppDI {
 			setUndoActive(false);
 		}
 
+		if (args.getBooleanValue("parallelUpdate", false)) {
+			kernel.setParallelExecutor(new ForkJoinExecutor());
+		}
+
+		String casCache = args.getStringValue("casCache");
+		if (casCache.length() > 0) {
+			kernel.setCasResultStore(getCasResultStore(casCache));
+		}
+
+		int giacContexts = args.getIntValue("giacContexts", 0);
+		if (giacContexts > 0) {
+			setGiacContextPool(giacContexts);
+		}
+
+		int profileElements = args.getIntValue("profileElements", 0);
+		if (profileElements > 0) {
+			GeoGebraProfiler.init(new GeoGebraProfilerD());
+			GeoGebraProfiler.setElementSampling(profileElements);
+		}
+
 		if (args.containsArg("showAxes")) {
 			boolean showAxesParam = args.getBooleanValue("showAxes", true);
 			this.showAxes[0] = showAxesParam;
@@ -1119,6 +1153,48 @@ public class AppD extends App implements KeyEventDispatcher, AppDI {
 
 	}
 
+	private void setGiacContextPool(int size) {
+		if (size < 2) {
+			return;
+		}
+		CASparser parser = ((GeoGebraCAS) kernel.getGeoGebraCAS())
+				.getCASparser();
+		CASGenericInterface[] contexts = new CASGenericInterface[size];
+		for (int i = 0; i < size; i++) {
+			contexts[i] = getCASFactory().newGiac(parser, kernel);
+			getSettings().getCasSettings().addListener(contexts[i]);
+		}
+		kernel.setGiacContextPool(
+				new GiacContextPool(contexts, new ForkJoinExecutor(size)));
+	}
+
+	private static synchronized MappedCasResultStore getCasResultStore(
+			String fileName) {
+		if (casResultStore == null) {
+			try {
+				final MappedCasResultStore store = new MappedCasResultStore(
+						new File(fileName), GeoGebraConstants.VERSION_STRING,
+						MappedCasResultStore.DEFAULT_CAPACITY);
+				// shared by all apps, released when the JVM exits
+				Runtime.getRuntime().addShutdownHook(new Thread() {
+					@Override
+					public void run() {
+						try {
+							store.close();
+						} catch (IOException e) {
+							Log.warn("Closing CAS result store failed: "
+									+ e.getMessage());
+						}
+					}
+				});
+				casResultStore = store;
+			} catch (IOException e) {
+				Log.warn("CAS result store not available: " + e.getMessage());
+			}
+		}
+		return casResultStore;
+	}
+
 	private static void setProverOption(String option) {
 		String[] str = option.split(":", 2);
 		ProverSettings proverSettings = ProverSettings.get();
@@ -2071,13 +2147,13 @@ public class AppD extends App implements KeyEventDispatcher, AppDI {
 
 	@Override
 	public MyImageD getExternalImage(String filename) {
-		return ImageManagerD.getExternalImage(filename);
+		return imageManager.getExternalImage(filename);
 	}
 
 	@Override
 	public final MyImage getExternalImageAdapter(String filename, int width,
 			int height) {
-		MyImageD im = ImageManagerD.getExternalImage(filename);
+		MyImageD im = imageManager.getExternalImage(filename);
 		return im;
 	}
 
@@ -2086,6 +2162,11 @@ public class AppD extends App implements KeyEventDispatcher, AppDI {
 		imageManager.addExternalImage(filename, image);
 	}
 
+	@Override
+	public void addExternalImageData(String filename, byte[] data) {
+		imageManager.addExternalImageData(filename, data);
+	}
+
 	@Override
 	public GImageIcon wrapGetModeIcon(int mode) {
 		return new GImageIconD(getModeIcon(mode));
@@ -3332,20 +3413,17 @@ public class AppD extends App implements KeyEventDispatcher, AppDI {
 	 * @return true if successful
 	 */
 	final public boolean loadXML(File file, boolean isMacroFile) {
-		FileInputStream fis = null;
 		try {
-			fis = new FileInputStream(file);
-
 			boolean success = false;
 
 			// pretend we're initializing the application to prevent unnecessary
 			// update
 			if (!initing) {
 				initing = true;
-				success = GFileHandler.loadXML(this, fis, isMacroFile);
+				success = GFileHandler.loadXML(this, file, isMacroFile);
 				initing = false;
 			} else {
-				success = GFileHandler.loadXML(this, fis, isMacroFile);
+				success = GFileHandler.loadXML(this, file, isMacroFile);
 			}
 
 			if (success && !isMacroFile) {
@@ -3361,13 +3439,6 @@ public class AppD extends App implements KeyEventDispatcher, AppDI {
 			return false;
 		} finally {
 			initing = false;
-			if (fis != null) {
-				try {
-					fis.close();
-				} catch (IOException e) {
-					e.printStackTrace();
-				}
-			}
 		}
 	}
 
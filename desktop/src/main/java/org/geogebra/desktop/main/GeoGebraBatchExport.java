@@ -0,0 +1,286 @@
+package org.geogebra.desktop.main;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+
+import org.geogebra.common.awt.GBufferedImage;
+import org.geogebra.common.euclidian.EuclidianView;
+import org.geogebra.common.main.App.ExportType;
+import org.geogebra.common.util.debug.Log;
+import org.geogebra.desktop.awt.GBufferedImageD;
+import org.geogebra.desktop.export.GraphicExportDialog;
+import org.geogebra.desktop.headless.AppDNoGui;
+import org.geogebra.desktop.io.MyXMLioD;
+
+/**
+ * Exports the graphics view of many ggb files as PNG or SVG in one process.
+ * Files are read from a directory (recursively) or from a manifest with one
+ * path per line and rendered by a {@link ServerAppPool}, so the JVM, fonts
+ * and LaTeX caches are shared and each app is initialized once. Outputs keep
+ * the paths relative to the directory or manifest; files whose output would
+ * be outside of the output directory or overwrite another output fail. Every
+ * file gets a line with status, time in milliseconds, input and output or
+ * error in a tab separated report.
+ */
+public class GeoGebraBatchExport {
+
+	private static final String EXTENSION = ".ggb";
+
+	private final File outputDir;
+	private final Path outputRoot;
+	/** outputs of submitted files, only used by the submitting thread */
+	private final HashSet<Path> outputs = new HashSet<>();
+	private final String format;
+	private final int maxSize;
+	private final int dpi;
+	private final ServerAppPool pool;
+	/**
+	 * limits the files waiting for an app; the queue of the pool has room for
+	 * all of them, as a permit is released before the app is free again
+	 */
+	private final Semaphore pending;
+	private final int maxPending;
+	private final PrintWriter report;
+	private final AtomicInteger exported = new AtomicInteger();
+	private final AtomicInteger failed = new AtomicInteger();
+
+	/**
+	 * @param outputDir
+	 *            directory for the exported files
+	 * @param format
+	 *            png or svg
+	 * @param maxSize
+	 *            maximal width and height in pixels, 0 to export at 100%
+	 * @param dpi
+	 *            resolution for the physical size of SVG files
+	 * @param threads
+	 *            number of apps
+	 * @param reportFile
+	 *            report, one line per file
+	 * @throws IOException
+	 *             if the report can't be created
+	 */
+	public GeoGebraBatchExport(File outputDir, String format, int maxSize,
+			int dpi, int threads, File reportFile) throws IOException {
+		if (!"png".equals(format) && !"svg".equals(format)) {
+			throw new IllegalArgumentException("Unsupported format " + format);
+		}
+		this.outputDir = outputDir;
+		this.outputRoot = normalize(outputDir);
+		this.format = format;
+		this.maxSize = maxSize;
+		this.dpi = dpi;
+		if ("svg".equals(format)) {
+			// global properties, the exports must not set them concurrently
+			GraphicExportDialog.setSVGProperties(true);
+		}
+		this.maxPending = 2 * threads;
+		this.pool = new ServerAppPool(threads, maxPending, null);
+		this.pending = new Semaphore(maxPending);
+		this.report = new PrintWriter(new OutputStreamWriter(
+				new FileOutputStream(reportFile), "UTF-8"));
+	}
+
+	/**
+	 * Exports all files and waits until they are done.
+	 *
+	 * @param input
+	 *            directory with ggb files or manifest listing them
+	 * @return number of files that failed
+	 * @throws IOException
+	 *             if the manifest can't be read
+	 */
+	public int run(File input) throws IOException {
+		long start = System.nanoTime();
+		try {
+			if (input.isDirectory()) {
+				exportDirectory(input, outputDir);
+			} else {
+				exportManifest(input);
+			}
+			// all permits are back once the last file is done
+			pending.acquireUninterruptibly(maxPending);
+		} finally {
+			pool.shutdown();
+			report.close();
+		}
+		double seconds = (System.nanoTime() - start) / 1E9;
+		Log.debug("Exported " + exported.get() + " files, " + failed.get()
+				+ " failed, in " + seconds + "s ("
+				+ Math.round(exported.get() / seconds) + " files/s)");
+		return failed.get();
+	}
+
+	private void exportDirectory(File dir, File target) {
+		File[] files = dir.listFiles();
+		if (files == null) {
+			return;
+		}
+		// stable order for comparable reports
+		Arrays.sort(files);
+		for (File file : files) {
+			if (file.isDirectory()) {
+				exportDirectory(file, new File(target, file.getName()));
+			} else if (file.getName().toLowerCase().endsWith(EXTENSION)) {
+				submit(file, new File(target, getOutputName(file)));
+			}
+		}
+	}
+
+	private void exportManifest(File manifest) throws IOException {
+		File base = manifest.getAbsoluteFile().getParentFile();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(
+				new FileInputStream(manifest), "UTF-8"));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#")) {
+					continue;
+				}
+				File file = new File(line);
+				if (!file.isAbsolute()) {
+					file = new File(base, line);
+				}
+				// keep the path relative to the manifest in the output
+				Path relative = normalize(base).relativize(normalize(file));
+				File target = new File(outputDir, relative.toString())
+						.getParentFile();
+				submit(file, new File(target, getOutputName(file)));
+			}
+		} finally {
+			reader.close();
+		}
+	}
+
+	private String getOutputName(File file) {
+		String name = file.getName();
+		int dot = name.lastIndexOf('.');
+		return (dot > 0 ? name.substring(0, dot) : name) + "." + format;
+	}
+
+	private static Path normalize(File file) {
+		return file.getAbsoluteFile().toPath().normalize();
+	}
+
+	/**
+	 * @param output
+	 *            output file
+	 * @return error message, null if the output is in the output directory
+	 *         and no other file uses it
+	 */
+	private String claimOutput(File output) {
+		Path path = normalize(output);
+		if (!path.startsWith(outputRoot)) {
+			return "Output " + path + " is outside of " + outputRoot;
+		}
+		if (!outputs.add(path)) {
+			return "Output " + path + " is used for another file";
+		}
+		return null;
+	}
+
+	private void submit(final File file, final File output) {
+		String error = claimOutput(output);
+		if (error != null) {
+			failed.incrementAndGet();
+			report("failed", System.nanoTime(), file, error);
+			return;
+		}
+		pending.acquireUninterruptibly();
+		try {
+			submitExport(file, output);
+		} catch (RejectedExecutionException e) {
+			pending.release();
+			failed.incrementAndGet();
+			report("failed", System.nanoTime(), file, String.valueOf(e));
+		}
+	}
+
+	private void submitExport(final File file, final File output) {
+		pool.submit(new ServerAppPool.Task<Void>() {
+			@Override
+			public Void run(AppDNoGui app) {
+				long start = System.nanoTime();
+				try {
+					export(app, file, output);
+					exported.incrementAndGet();
+					report("ok", start, file, output.getPath());
+				} catch (Throwable t) {
+					failed.incrementAndGet();
+					report("failed", start, file, String.valueOf(t));
+					// replaces the app
+					if (t instanceof RuntimeException) {
+						throw (RuntimeException) t;
+					}
+					if (t instanceof Error) {
+						throw (Error) t;
+					}
+				} finally {
+					pending.release();
+				}
+				return null;
+			}
+		});
+	}
+
+	private void export(AppDNoGui app, File file, File output)
+			throws Exception {
+		((MyXMLioD) app.getXMLio()).readZipFromFile(file, false);
+		EuclidianView ev = app.getActiveEuclidianView();
+		ev.updateBackground();
+		double scale = maxSize > 0
+				? Math.min(maxSize / (double) ev.getExportWidth(),
+						maxSize / (double) ev.getExportHeight())
+				: 1;
+		File dir = output.getParentFile();
+		if (dir != null && !dir.isDirectory() && !dir.mkdirs()
+				&& !dir.isDirectory()) {
+			throw new IOException("Can't create " + dir);
+		}
+		if ("png".equals(format)) {
+			GBufferedImage img = ev.getExportImage(scale, true,
+					ExportType.PNG);
+			if (img == null
+					|| !ImageIO.write(GBufferedImageD.getAwtBufferedImage(img),
+							"png", output)) {
+				throw new IOException("No PNG writer");
+			}
+		} else {
+			int pixelWidth = (int) Math.floor(ev.getExportWidth() * scale);
+			int pixelHeight = (int) Math.floor(ev.getExportHeight() * scale);
+			OutputStream out = new FileOutputStream(output);
+			try {
+				GraphicExportDialog.writeSVG(app, ev, out, pixelWidth,
+						pixelHeight, pixelWidth * 2.54 / dpi,
+						pixelHeight * 2.54 / dpi, scale, true);
+			} finally {
+				out.close();
+			}
+		}
+	}
+
+	private void report(String status, long start, File file,
+			String message) {
+		long millis = (System.nanoTime() - start) / 1000000;
+		synchronized (report) {
+			report.println(status + "\t" + millis + "\t" + file.getPath()
+					+ "\t" + message);
+		}
+	}
+}
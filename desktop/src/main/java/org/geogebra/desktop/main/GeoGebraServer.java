@@ -1,182 +1,650 @@
-package org.geogebra.desktop.main;
-
-import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
-import java.net.InetSocketAddress;
-
-import org.geogebra.common.kernel.StringTemplate;
-import org.geogebra.common.kernel.arithmetic.ExpressionNodeConstants.StringType;
-import org.geogebra.common.main.App;
-import org.geogebra.common.move.ggtapi.models.json.JSONArray;
-import org.geogebra.common.move.ggtapi.models.json.JSONException;
-import org.geogebra.common.move.ggtapi.models.json.JSONObject;
-import org.geogebra.common.plugin.GgbAPI;
-import org.geogebra.common.util.debug.Log;
-import org.geogebra.desktop.headless.AppDNoGui;
-import org.geogebra.desktop.util.HttpRequestD;
-
-import com.sun.net.httpserver.HttpExchange;
-import com.sun.net.httpserver.HttpHandler;
-import com.sun.net.httpserver.HttpServer;
-
-public class GeoGebraServer {
-
-	App app;
-	GgbAPI api;
-	String secret;
-
-	public GeoGebraServer(String secret) {
-		this.app = new AppDNoGui(new LocalizationD(3), false);
-		api = app.getGgbApi();
-		this.secret = secret;
-
-		HttpServer server;
-		try {
-			server = HttpServer.create(new InetSocketAddress(8000), 0);
-			server.createContext("/v0.1/json", new MyHandlerJSON());
-			server.start();
-		} catch (IOException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		}
-
-	}
-
-	class MyHandlerJSON implements HttpHandler {
-		@Override
-		public void handle(HttpExchange t) throws IOException {
-
-			app.reset();
-			api.setRounding("10");
-
-			boolean testing = false;
-
-			String inputJSON = null;
-			String result;
-			try {
-				inputJSON = HttpRequestD.readOutput(t.getRequestBody());
-
-				
-				
-				if (inputJSON == null) {
-					// ? syntax eg
-					// http://localhost:8000/test?123=456
-					inputJSON = t.getRequestURI().getQuery();
-					testing = true;
-				}
-
-				Log.error(inputJSON);
-				JSONObject topLevel = new JSONObject(inputJSON);
-				if (secret != null) {
-					Log.debug("secret = " + topLevel.get("secret"));
-
-					if (!secret.equals(topLevel.get("secret"))) {
-						writeError(t, "Wrong secret", testing);
-						return;
-					}
-
-				}
-				JSONArray json = topLevel.getJSONArray("commands");
-				int i = 0;
-				JSONArray results = new JSONArray();
-				while (i < json.length()) {
-					Object testVal = json.opt(i);
-					if (!(testVal instanceof JSONObject)) {
-						Log.debug("Invalid JSON:" + testVal);
-						i++;
-						continue;
-					}
-					JSONObject test = (JSONObject) testVal;
-
-
-					
-					String cmd = test.get("cmd").toString();
-					String args = test.get("args").toString();
-					Log.debug("cmd = " + cmd);
-					Log.debug("args = " + args);
-
-					// Log.error(api.evalCommandCAS("Expand[(x+1)^2]"));
-
-					if ("evalCommand".equals(cmd)) {
-						api.evalCommand(args);
-					} else if ("evalLaTeX".equals(cmd)) {
-						api.evalLaTeX(args, 0);
-					} else if ("getValue".equals(cmd)) {
-						results.put(api.getValue(args));
-					} else if ("getValueString".equals(cmd)) {
-						results.put(api.getValueString(args));
-					} else if ("getLaTeXString".equals(cmd)) {
-						results.put(api.getLaTeXString(args));
-					} else if ("setRounding".equals(cmd)) {
-						api.setRounding(args);
-					} else if ("evalCommandCAS".equals(cmd)) {
-						results.put(api.evalCommandCAS(args));
-					} else if ("evalGeoGebraCAS".equals(cmd)) {
-						results.put(app.getKernel().evaluateGeoGebraCAS(args,
-								null, StringTemplate
-										.fullFigures(StringType.GEOGEBRA)));
-					} else if ("expressionEvaluatesToZero".equals(cmd)) {
-
-						String answer = app.getKernel().evaluateGeoGebraCAS(
-								"Simplify[" + args + "]", null,
-								StringTemplate.defaultTemplate);
-
-						results.put("0".equals(answer) ? "true" : "false");
-					}
-
-					i++;
-
-				}
-				result = results.toString();
-			} catch (Throwable e) {
-
-				e.printStackTrace();
-				Log.debug(inputJSON);
-				writeError(t, e.getMessage(), testing);
-				return;
-			}
-
-			// StringBuilder result = new StringBuilder("[");
-
-			writeOutput(t, result.toString(), testing);
-			
-		}
-	}
-
-	private void writeOutput(HttpExchange t, String message, boolean testing) {
-		String encoding = "UTF-8";
-		try {
-			if (!testing) {
-				t.getResponseHeaders().set("Content-type",
-						"applcation/json; charset=" + encoding);
-			}
-
-			// http://stackoverflow.com/questions/6828076/how-to-correctly-compute-the-length-of-a-string-in-java
-			t.sendResponseHeaders(200, message.getBytes(encoding).length);
-
-			Writer out = new OutputStreamWriter(t.getResponseBody(), encoding);
-			Log.debug("message = " + message);
-			out.write(message);
-			out.close();
-		} catch (IOException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		}
-	}
-
-	public void writeError(HttpExchange t, String message, boolean testing) {
-		JSONObject error = new JSONObject();
-		try {
-			error.put("error", message + "");
-		} catch (JSONException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		}
-		Log.debug("error = " + error);
-
-		writeOutput(t, error.toString(), testing);
-
-	}
-
-}
+package org.geogebra.desktop.main;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.geogebra.common.kernel.Kernel;
+import org.geogebra.common.kernel.StringTemplate;
+import org.geogebra.common.kernel.arithmetic.ExpressionNodeConstants.StringType;
+import org.geogebra.common.kernel.geos.GeoElement;
+import org.geogebra.common.kernel.geos.GeoNumeric;
+import org.geogebra.common.main.App;
+import org.geogebra.common.move.ggtapi.models.json.JSONArray;
+import org.geogebra.common.move.ggtapi.models.json.JSONException;
+import org.geogebra.common.move.ggtapi.models.json.JSONObject;
+import org.geogebra.common.plugin.GgbAPI;
+import org.geogebra.common.util.debug.Log;
+import org.geogebra.desktop.headless.AppDNoGui;
+import org.geogebra.desktop.util.HttpRequestD;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * HTTP server evaluating JSON requests in a pool of headless apps. Requests
+ * beyond the queue capacity are rejected with 429, requests that time out get
+ * 503. Requests to /v0.1/batch are evaluated in one view batch update
+ * without repaints and their results are streamed as they are computed.
+ */
+public class GeoGebraServer {
+
+	/** default number of apps */
+	public static final int DEFAULT_APPS = Runtime.getRuntime()
+			.availableProcessors();
+	/** default number of requests waiting for an app */
+	public static final int DEFAULT_QUEUE = 64;
+	/** default timeout of a request in milliseconds */
+	public static final int DEFAULT_TIMEOUT = 30000;
+	/** default port */
+	public static final int DEFAULT_PORT = 8000;
+
+	private static final int HTTP_TOO_MANY_REQUESTS = 429;
+	private static final int HTTP_UNAVAILABLE = 503;
+	private static final String CONTENT_TYPE_JSON =
+			"application/json; charset=UTF-8";
+
+	String secret;
+	private final ServerAppPool pool;
+	private final long timeout;
+	private final ServerMetrics metrics = new ServerMetrics();
+	private final HttpServer server;
+	private final ExecutorService handlers;
+
+	/**
+	 * @param secret
+	 *            secret expected in requests, null to accept all requests
+	 */
+	public GeoGebraServer(String secret) {
+		this(secret, DEFAULT_APPS, DEFAULT_QUEUE, DEFAULT_TIMEOUT, null,
+				DEFAULT_PORT);
+	}
+
+	/**
+	 * @param secret
+	 *            secret expected in requests, null to accept all requests
+	 * @param apps
+	 *            number of headless apps evaluating requests concurrently
+	 * @param queueCapacity
+	 *            number of requests that may wait for an app
+	 * @param timeout
+	 *            timeout of a request in milliseconds
+	 * @param base
+	 *            worksheet every request starts from, may be null
+	 * @param port
+	 *            port to listen on, 0 for any free port
+	 */
+	public GeoGebraServer(String secret, int apps, int queueCapacity,
+			long timeout, File base, int port) {
+		this(secret, createPool(apps, queueCapacity, base), timeout, port);
+	}
+
+	/**
+	 * @param secret
+	 *            secret expected in requests, null to accept all requests
+	 * @param pool
+	 *            apps evaluating the requests, shut down by {@link #stop()}
+	 * @param timeout
+	 *            timeout of a request in milliseconds
+	 * @param port
+	 *            port to listen on, 0 for any free port
+	 * @throws IllegalStateException
+	 *             if the server can't listen on the port
+	 */
+	public GeoGebraServer(String secret, ServerAppPool pool, long timeout,
+			int port) {
+		this.secret = secret;
+		this.timeout = timeout;
+		this.pool = pool;
+		try {
+			server = HttpServer.create(new InetSocketAddress(port), 0);
+		} catch (IOException e) {
+			pool.shutdown();
+			throw new IllegalStateException(
+					"Can't listen on port " + port + ": " + e.getMessage());
+		}
+		server.createContext("/v0.1/json", new MyHandlerJSON(false));
+		server.createContext("/v0.1/batch", new MyHandlerJSON(true));
+		server.createContext("/metrics", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange t) {
+				writeOutput(t, metrics.write(GeoGebraServer.this.pool),
+						ServerMetrics.CONTENT_TYPE, 200);
+			}
+		});
+		server.createContext("/health", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange t) {
+				writeHealth(t);
+			}
+		});
+		// handler threads only wait for the pool
+		handlers = Executors.newCachedThreadPool();
+		server.setExecutor(handlers);
+		server.start();
+	}
+
+	private static ServerAppPool createPool(int apps, int queueCapacity,
+			File base) {
+		if (base != null && !base.isFile()) {
+			// apps would fail to start
+			throw new IllegalArgumentException("File not found: " + base);
+		}
+		return new ServerAppPool(Math.max(1, apps), queueCapacity, base);
+	}
+
+	/**
+	 * @return port the server listens on
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Shuts down the apps and stops accepting connections. Requests that are
+	 * already queued get their answer unless they time out, new requests are
+	 * answered with 503 until the server is closed.
+	 */
+	public void stop() {
+		pool.shutdown();
+		// waits for running exchanges, at most for one timeout
+		server.stop((int) Math.max(1, (timeout + 999) / 1000));
+		handlers.shutdown();
+	}
+
+	/**
+	 * Receives the results of a request in command order.
+	 */
+	interface Results {
+		/**
+		 * @param value
+		 *            String or Double
+		 * @throws IOException
+		 *             if the result can't be sent
+		 * @throws JSONException
+		 *             for values that are not valid in JSON
+		 */
+		void put(Object value) throws IOException, JSONException;
+	}
+
+	/**
+	 * Collects the results for a response with known length.
+	 */
+	static class ArrayResults implements Results {
+		private final JSONArray array = new JSONArray();
+
+		@Override
+		public void put(Object value) throws JSONException {
+			if (value instanceof Double) {
+				array.put(((Double) value).doubleValue());
+			} else {
+				array.put(value);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return array.toString();
+		}
+	}
+
+	/**
+	 * Writes the results to a chunked response as soon as they are computed.
+	 * The status can't change once the response started, so an error is
+	 * reported as last element of the array.
+	 */
+	static class StreamedResults implements Results {
+		private final HttpExchange exchange;
+		private Writer out;
+		private boolean empty = true;
+		private boolean aborted = false;
+
+		/**
+		 * @param exchange
+		 *            request
+		 */
+		StreamedResults(HttpExchange exchange) {
+			this.exchange = exchange;
+		}
+
+		/**
+		 * Sends the headers and opens the array.
+		 * 
+		 * @return false if the request timed out before
+		 * @throws IOException
+		 *             if the client is gone
+		 */
+		synchronized boolean start() throws IOException {
+			if (aborted) {
+				return false;
+			}
+			exchange.getResponseHeaders().set("Content-type",
+					CONTENT_TYPE_JSON);
+			// length 0: chunked
+			exchange.sendResponseHeaders(200, 0);
+			out = new BufferedWriter(new OutputStreamWriter(
+					exchange.getResponseBody(), "UTF-8"));
+			out.write('[');
+			return true;
+		}
+
+		/**
+		 * Prevents the evaluation from starting.
+		 * 
+		 * @return whether the response was not started yet, then the caller
+		 *         has to send it
+		 */
+		synchronized boolean abort() {
+			aborted = true;
+			return out == null;
+		}
+
+		@Override
+		public void put(Object value) throws IOException, JSONException {
+			String json = value instanceof Number
+					? JSONObject.numberToString((Number) value)
+					: JSONObject.quote(String.valueOf(value));
+			if (!empty) {
+				out.write(',');
+			}
+			empty = false;
+			out.write(json);
+		}
+
+		/**
+		 * Closes the array and the response.
+		 * 
+		 * @param error
+		 *            error message, null if all commands succeeded
+		 * @throws IOException
+		 *             if the client is gone
+		 */
+		void finish(String error) throws IOException {
+			if (error != null) {
+				if (!empty) {
+					out.write(',');
+				}
+				out.write("{\"error\":" + JSONObject.quote(error) + "}");
+			}
+			out.write(']');
+			out.close();
+		}
+	}
+
+	class MyHandlerJSON implements HttpHandler {
+		/** whether to stream the results and batch view updates */
+		private final boolean batch;
+
+		/**
+		 * @param batch
+		 *            whether to stream the results and batch view updates
+		 */
+		MyHandlerJSON(boolean batch) {
+			this.batch = batch;
+		}
+
+		@Override
+		public void handle(HttpExchange t) throws IOException {
+			long start = System.nanoTime();
+			String result = process(t);
+			metrics.request(batch ? "batch" : "json", result,
+					System.nanoTime() - start);
+		}
+
+		/**
+		 * @return result for the metrics
+		 */
+		private String process(HttpExchange t) {
+
+			boolean testing = false;
+
+			String inputJSON = null;
+			final JSONObject topLevel;
+			try {
+				inputJSON = HttpRequestD.readOutput(t.getRequestBody());
+
+				
+				
+				if (inputJSON == null) {
+					// ? syntax eg
+					// http://localhost:8000/test?123=456
+					inputJSON = t.getRequestURI().getQuery();
+					testing = true;
+				}
+
+				Log.error(inputJSON);
+				topLevel = new JSONObject(inputJSON);
+				if (secret != null) {
+					Log.debug("secret = " + topLevel.get("secret"));
+
+					if (!secret.equals(topLevel.get("secret"))) {
+						writeError(t, "Wrong secret", testing);
+						return ServerMetrics.ERROR;
+					}
+
+				}
+			} catch (Throwable e) {
+
+				e.printStackTrace();
+				Log.debug(inputJSON);
+				writeError(t, e.getMessage(), testing);
+				return ServerMetrics.ERROR;
+			}
+			if (batch) {
+				return handleBatch(t, topLevel);
+			}
+
+			Future<String> result;
+			try {
+				result = pool.submit(new ServerAppPool.Task<String>() {
+					@Override
+					public String run(AppDNoGui app)
+							throws IOException, JSONException {
+						ArrayResults results = new ArrayResults();
+						evaluate(app, topLevel, results, false);
+						return results.toString();
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				writeError(t, "Too many requests", testing,
+						pool.isShutdown() ? HTTP_UNAVAILABLE
+								: HTTP_TOO_MANY_REQUESTS);
+				return ServerMetrics.REJECTED;
+			}
+			try {
+				writeOutput(t, result.get(timeout, TimeUnit.MILLISECONDS),
+						testing);
+				return ServerMetrics.OK;
+			} catch (TimeoutException e) {
+				// replaces the app once the evaluation returns
+				pool.cancel(result);
+				writeError(t, "Timeout", testing, HTTP_UNAVAILABLE);
+				return ServerMetrics.TIMEOUT;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				writeError(t, "Interrupted", testing, HTTP_UNAVAILABLE);
+				return ServerMetrics.ERROR;
+			} catch (ExecutionException e) {
+				Log.error("Request failed: " + e.getCause());
+				Log.debug(e.getCause());
+				Log.debug(inputJSON);
+				writeError(t, e.getCause().getMessage(), testing);
+				return ServerMetrics.ERROR;
+			}
+		}
+	}
+
+	/**
+	 * Evaluates the request and streams the results.
+	 * 
+	 * @return result for the metrics
+	 */
+	String handleBatch(HttpExchange t, final JSONObject topLevel) {
+		final StreamedResults results = new StreamedResults(t);
+		Future<Void> done;
+		try {
+			done = pool.submit(new ServerAppPool.Task<Void>() {
+				@Override
+				public Void run(AppDNoGui app) throws Exception {
+					if (!results.start()) {
+						return null;
+					}
+					try {
+						evaluate(app, topLevel, results, true);
+						results.finish(null);
+					} catch (Throwable e) {
+						try {
+							results.finish(String.valueOf(e.getMessage()));
+						} catch (IOException closed) {
+							// client is gone
+						}
+						throw e;
+					}
+					return null;
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			writeError(t, "Too many requests", false,
+					pool.isShutdown() ? HTTP_UNAVAILABLE
+							: HTTP_TOO_MANY_REQUESTS);
+			return ServerMetrics.REJECTED;
+		}
+		try {
+			done.get(timeout, TimeUnit.MILLISECONDS);
+			return ServerMetrics.OK;
+		} catch (TimeoutException e) {
+			// a started evaluation stops at the next command
+			pool.cancel(done);
+			if (results.abort()) {
+				writeError(t, "Timeout", false, HTTP_UNAVAILABLE);
+			}
+			return ServerMetrics.TIMEOUT;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			pool.cancel(done);
+			if (results.abort()) {
+				writeError(t, "Interrupted", false, HTTP_UNAVAILABLE);
+			}
+			return ServerMetrics.ERROR;
+		} catch (ExecutionException e) {
+			Log.error("Batch failed: " + e.getCause());
+			Log.debug(e.getCause());
+			// errors after the response started are its last element
+			if (results.abort()) {
+				writeError(t, e.getCause().getMessage(), false);
+			}
+			return ServerMetrics.ERROR;
+		}
+	}
+
+	/**
+	 * Answers 200 while requests can be queued, 503 otherwise.
+	 */
+	void writeHealth(HttpExchange t) {
+		boolean healthy = !pool.isShutdown()
+				&& pool.getRemainingCapacity() > 0;
+		JSONObject health = new JSONObject();
+		try {
+			health.put("status", healthy ? "ok" : "unavailable");
+			health.put("apps", pool.size());
+			health.put("busy", pool.getActiveCount());
+			health.put("queue", pool.getQueueLength());
+		} catch (JSONException e) {
+			// only finite numbers
+		}
+		writeOutput(t, health.toString(), false,
+				healthy ? 200 : HTTP_UNAVAILABLE);
+	}
+
+	/**
+	 * Runs the commands of a request, starting from the base construction.
+	 * Only the changes of the previous request are undone, so caches and the
+	 * loaded worksheet are kept.
+	 * 
+	 * @param app
+	 *            app owned by the current thread
+	 * @param topLevel
+	 *            request
+	 * @param results
+	 *            receives the results
+	 * @param batch
+	 *            whether to batch view updates and repaints until all
+	 *            commands are evaluated
+	 * @throws JSONException
+	 *             if the commands are malformed
+	 * @throws IOException
+	 *             if the results can't be sent
+	 */
+	void evaluate(App app, JSONObject topLevel, Results results,
+			boolean batch) throws JSONException, IOException {
+		GgbAPI api = app.getGgbApi();
+		Kernel kernel = app.getKernel();
+		if (!kernel.getConstruction().restoreCheckpoint()) {
+			// replaces the app
+			throw new IllegalStateException("Restoring base failed");
+		}
+		api.setRounding("10");
+		long hits = kernel.getCasCacheHits();
+		long misses = kernel.getCasCacheMisses();
+
+		JSONArray json = topLevel.getJSONArray("commands");
+		// numbers asked for by getValue, until the construction changes
+		HashMap<String, GeoNumeric> numbers = new HashMap<>();
+		if (batch) {
+			// views stay attached, detaching them would add all elements
+			// again afterwards
+			kernel.setNotifyRepaintActive(false);
+			kernel.notifyBatchUpdate();
+		}
+		try {
+			for (int i = 0; i < json.length(); i++) {
+				if (Thread.currentThread().isInterrupted()) {
+					// cancelled after timeout
+					throw new CancellationException("Timeout");
+				}
+				Object testVal = json.opt(i);
+				if (!(testVal instanceof JSONObject)) {
+					Log.debug("Invalid JSON:" + testVal);
+					continue;
+				}
+				JSONObject test = (JSONObject) testVal;
+
+				String cmd = test.get("cmd").toString();
+				String args = test.get("args").toString();
+				Log.debug("cmd = " + cmd);
+				Log.debug("args = " + args);
+
+				long start = System.nanoTime();
+				if ("evalCommand".equals(cmd)) {
+					numbers.clear();
+					api.evalCommand(args);
+				} else if ("evalLaTeX".equals(cmd)) {
+					numbers.clear();
+					api.evalLaTeX(args, 0);
+				} else if ("getValue".equals(cmd)) {
+					results.put(getValue(kernel, api, args, numbers));
+				} else if ("getValueString".equals(cmd)) {
+					results.put(api.getValueString(args));
+				} else if ("getLaTeXString".equals(cmd)) {
+					results.put(api.getLaTeXString(args));
+				} else if ("setRounding".equals(cmd)) {
+					api.setRounding(args);
+				} else if ("evalCommandCAS".equals(cmd)) {
+					results.put(api.evalCommandCAS(args));
+				} else if ("evalGeoGebraCAS".equals(cmd)) {
+					results.put(kernel.evaluateGeoGebraCAS(args, null,
+							StringTemplate.fullFigures(StringType.GEOGEBRA)));
+				} else if ("expressionEvaluatesToZero".equals(cmd)) {
+
+					String answer = kernel.evaluateGeoGebraCAS(
+							"Simplify[" + args + "]", null,
+							StringTemplate.defaultTemplate);
+
+					results.put("0".equals(answer) ? "true" : "false");
+				} else {
+					continue;
+				}
+				metrics.command(cmd, System.nanoTime() - start);
+			}
+		} finally {
+			if (batch) {
+				kernel.notifyEndBatchUpdate();
+				kernel.setNotifyRepaintActive(true);
+			}
+			metrics.evaluated(kernel.getConstruction().steps(),
+					kernel.getCasCacheHits() - hits,
+					kernel.getCasCacheMisses() - misses);
+		}
+	}
+
+	private static double getValue(Kernel kernel, GgbAPI api, String args,
+			HashMap<String, GeoNumeric> numbers) {
+		// grading requests mostly ask for values of numbers, no need to parse
+		GeoNumeric number = numbers.get(args);
+		if (number == null) {
+			GeoElement geo = kernel.lookupLabel(args);
+			if (geo != null && geo.isGeoNumeric()) {
+				number = (GeoNumeric) geo;
+				numbers.put(args, number);
+			}
+		}
+		if (number != null) {
+			return number.getDouble();
+		}
+		return api.getValue(args);
+	}
+
+	private void writeOutput(HttpExchange t, String message, boolean testing) {
+		writeOutput(t, message, testing, 200);
+	}
+
+	private void writeOutput(HttpExchange t, String message, boolean testing,
+			int status) {
+		// no content type for requests from the browser's address bar
+		writeOutput(t, message, testing ? null : CONTENT_TYPE_JSON, status);
+	}
+
+	/**
+	 * @param t
+	 *            request
+	 * @param message
+	 *            response body
+	 * @param contentType
+	 *            content type header, null to send none
+	 * @param status
+	 *            HTTP status
+	 */
+	private void writeOutput(HttpExchange t, String message,
+			String contentType, int status) {
+		String encoding = "UTF-8";
+		try {
+			if (contentType != null) {
+				t.getResponseHeaders().set("Content-type", contentType);
+			}
+
+			// http://stackoverflow.com/questions/6828076/how-to-correctly-compute-the-length-of-a-string-in-java
+			t.sendResponseHeaders(status, message.getBytes(encoding).length);
+
+			Writer out = new OutputStreamWriter(t.getResponseBody(), encoding);
+			Log.debug("message = " + message);
+			out.write(message);
+			out.close();
+		} catch (IOException e) {
+			// TODO Auto-generated catch block
+			e.printStackTrace();
+		}
+	}
+
+	public void writeError(HttpExchange t, String message, boolean testing) {
+		writeError(t, message, testing, 200);
+	}
+
+	private void writeError(HttpExchange t, String message, boolean testing,
+			int status) {
+		JSONObject error = new JSONObject();
+		try {
+			error.put("error", message + "");
+		} catch (JSONException e) {
+			// TODO Auto-generated catch block
+			e.printStackTrace();
+		}
+		Log.debug("error = " + error);
+
+		writeOutput(t, error.toString(), testing, status);
+
+	}
+
+}
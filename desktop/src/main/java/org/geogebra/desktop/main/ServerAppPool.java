@@ -0,0 +1,254 @@
+package org.geogebra.desktop.main;
+
+import java.io.File;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.geogebra.common.kernel.StringTemplate;
+import org.geogebra.common.util.debug.Log;
+import org.geogebra.desktop.headless.AppDNoGui;
+import org.geogebra.desktop.io.MyXMLioD;
+
+/**
+ * Headless apps for {@link GeoGebraServer} and {@link GeoGebraBatchExport},
+ * each with its own kernel and CAS, owned by one evaluation thread. The apps
+ * are created and warmed up when the pool starts, optionally with a worksheet
+ * loaded as base construction that tasks can restore via
+ * {@link org.geogebra.common.kernel.Construction#restoreCheckpoint()}. Tasks
+ * wait in a bounded queue and are rejected when it is full. An app whose task
+ * threw an unchecked exception or was cancelled (e.g. after a timeout) is
+ * replaced by a fresh one, as its construction may be left in an
+ * inconsistent state.
+ */
+public class ServerAppPool {
+
+	private final ThreadPoolExecutor executor;
+	private final File base;
+	private final ThreadLocal<AppDNoGui> apps = new ThreadLocal<>();
+	private final AtomicInteger recycled = new AtomicInteger();
+	/** app created by the constructor, taken by the first thread */
+	private final AtomicReference<AppDNoGui> firstApp;
+
+	/**
+	 * Work done with an app of the pool.
+	 *
+	 * @param <T>
+	 *            result type
+	 */
+	public interface Task<T> {
+		/**
+		 * @param app
+		 *            app owned by the calling thread for the duration of the
+		 *            task
+		 * @return result
+		 * @throws Exception
+		 *             checked exceptions are reported as failures of the
+		 *             request, the app is kept
+		 */
+		T run(AppDNoGui app) throws Exception;
+	}
+
+	/**
+	 * Creates the apps and starts the evaluation threads.
+	 *
+	 * @param size
+	 *            number of apps and evaluation threads
+	 * @param queueCapacity
+	 *            number of tasks that may wait for an app
+	 * @param base
+	 *            ggb file loaded into every app, may be null
+	 * @throws IllegalStateException
+	 *             if an app can't be created, e.g. the base file can't be
+	 *             loaded
+	 */
+	public ServerAppPool(int size, int queueCapacity, File base) {
+		this.base = base;
+		// fail before any thread starts rather than on every request
+		this.firstApp = new AtomicReference<>(createApp());
+		executor = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(Math.max(1, queueCapacity)),
+				new ThreadFactory() {
+					private int count = 0;
+
+					@Override
+					public synchronized Thread newThread(final Runnable r) {
+						Thread thread = new Thread(new Runnable() {
+							@Override
+							public void run() {
+								try {
+									AppDNoGui app = firstApp.getAndSet(null);
+									apps.set(app == null ? createApp() : app);
+								} catch (RuntimeException e) {
+									// the first task tries again
+									Log.error("Creating server app failed: "
+											+ e.getMessage());
+								}
+								r.run();
+							}
+						}, "GeoGebraServer-" + count++);
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		executor.prestartAllCoreThreads();
+	}
+
+	/**
+	 * @return new app that already evaluated a command and a CAS command, so
+	 *         that classes and the CAS are loaded; its construction contains
+	 *         the base file and is checkpointed
+	 */
+	AppDNoGui createApp() {
+		AppDNoGui app = new AppDNoGui(new LocalizationD(3), false);
+		if (!app.getGgbApi().evalCommand("warmUp=(1,2)")) {
+			throw new IllegalStateException(
+					"Server app can't evaluate commands");
+		}
+		try {
+			app.getKernel().evaluateGeoGebraCAS("Expand[(x+1)^2]", null,
+					StringTemplate.defaultTemplate);
+		} catch (Throwable t) {
+			Log.warn("Warming up server CAS failed: " + t.getMessage());
+		}
+		app.getKernel().clearConstruction(true);
+		if (base != null) {
+			try {
+				((MyXMLioD) app.getXMLio()).readZipFromFile(base, false);
+			} catch (Exception e) {
+				throw new IllegalStateException(
+						"Loading " + base + " failed: " + e.getMessage());
+			}
+		}
+		app.getKernel().getConstruction().setCheckpoint();
+		return app;
+	}
+
+	/**
+	 * Queues a task for the next free app.
+	 *
+	 * @param task
+	 *            task
+	 * @return result of the task; cancelling it replaces the app once the task
+	 *         returns
+	 * @throws RejectedExecutionException
+	 *             if the queue is full or the pool was shut down
+	 */
+	public <T> Future<T> submit(final Task<T> task) {
+		return executor.submit(new Callable<T>() {
+			@Override
+			public T call() throws Exception {
+				// fails the task if no app can be created
+				AppDNoGui app = getApp();
+				boolean failed = true;
+				try {
+					T result = task.run(app);
+					failed = false;
+					return result;
+				} catch (Exception e) {
+					// checked exceptions are errors of the request, unless
+					// the task was cancelled while waiting
+					failed = e instanceof RuntimeException
+							|| e instanceof InterruptedException;
+					throw e;
+				} finally {
+					// cancelled tasks are interrupted
+					if (Thread.interrupted() || failed) {
+						recycle();
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Cancels a task returned by {@link #submit(Task)}. A running task is
+	 * interrupted and its app replaced, a queued task frees its place in the
+	 * queue.
+	 *
+	 * @param task
+	 *            task
+	 */
+	public void cancel(Future<?> task) {
+		task.cancel(true);
+		if (task instanceof Runnable) {
+			executor.remove((Runnable) task);
+		}
+	}
+
+	private AppDNoGui getApp() {
+		AppDNoGui app = apps.get();
+		if (app == null) {
+			app = createApp();
+			apps.set(app);
+		}
+		return app;
+	}
+
+	private void recycle() {
+		Log.debug("Replacing server app");
+		recycled.incrementAndGet();
+		// never keep the broken app, the next task creates one if needed
+		apps.remove();
+		try {
+			apps.set(createApp());
+		} catch (RuntimeException e) {
+			Log.error("Replacing server app failed: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * @return number of apps
+	 */
+	public int size() {
+		return executor.getCorePoolSize();
+	}
+
+	/**
+	 * @return number of tasks waiting for an app
+	 */
+	public int getQueueLength() {
+		return executor.getQueue().size();
+	}
+
+	/**
+	 * @return number of tasks that can be queued before tasks are rejected
+	 */
+	public int getRemainingCapacity() {
+		return executor.getQueue().remainingCapacity();
+	}
+
+	/**
+	 * @return number of apps evaluating a task
+	 */
+	public int getActiveCount() {
+		return executor.getActiveCount();
+	}
+
+	/**
+	 * @return number of apps that were replaced after a failure or timeout
+	 */
+	public int getRecycledCount() {
+		return recycled.get();
+	}
+
+	/**
+	 * @return whether the pool was shut down
+	 */
+	public boolean isShutdown() {
+		return executor.isShutdown();
+	}
+
+	/**
+	 * Finishes queued tasks and stops the evaluation threads.
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+}
@@ -0,0 +1,253 @@
+package org.geogebra.desktop.main;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counters of {@link GeoGebraServer}, written in the Prometheus text format.
+ * Latencies are recorded per command and per request, so CAS time can be told
+ * apart from kernel time by the command name. JVM heap and garbage collection
+ * are read from the management beans when the metrics are written.
+ */
+public class ServerMetrics {
+
+	/** request answered with results */
+	public static final String OK = "ok";
+	/** request failed (invalid JSON, wrong secret, evaluation error) */
+	public static final String ERROR = "error";
+	/** request rejected because the queue was full */
+	public static final String REJECTED = "rejected";
+	/** request cancelled after the timeout */
+	public static final String TIMEOUT = "timeout";
+	/** content type of the Prometheus text format */
+	public static final String CONTENT_TYPE =
+			"text/plain; version=0.0.4; charset=utf-8";
+
+	private static final double NANOS_PER_SECOND = 1E9;
+	/** upper bounds of latency buckets in seconds */
+	private static final double[] LATENCY_BUCKETS = { 0.001, 0.0025, 0.005,
+			0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30 };
+	/** upper bounds of construction size buckets */
+	private static final double[] SIZE_BUCKETS = { 10, 100, 1000, 10000,
+			100000 };
+
+	private final ConcurrentSkipListMap<String, Histogram> commands =
+			new ConcurrentSkipListMap<>();
+	private final ConcurrentSkipListMap<String, Histogram> requests =
+			new ConcurrentSkipListMap<>();
+	private final ConcurrentSkipListMap<String, AtomicLong> results =
+			new ConcurrentSkipListMap<>();
+	private final Histogram constructionSize = new Histogram(SIZE_BUCKETS,
+			1);
+	private final AtomicLong casCacheHits = new AtomicLong();
+	private final AtomicLong casCacheMisses = new AtomicLong();
+
+	/**
+	 * Histogram with fixed buckets.
+	 */
+	static class Histogram {
+		private final double[] bounds;
+		private final double scale;
+		/** per bucket, the last one is +Inf */
+		private final AtomicLongArray counts;
+		private final AtomicLong sum = new AtomicLong();
+
+		/**
+		 * @param bounds
+		 *            upper bounds of the buckets
+		 * @param scale
+		 *            unit of the bounds in observed units
+		 */
+		Histogram(double[] bounds, double scale) {
+			this.bounds = bounds;
+			this.scale = scale;
+			this.counts = new AtomicLongArray(bounds.length + 1);
+		}
+
+		/**
+		 * @param value
+		 *            observed value
+		 */
+		void observe(long value) {
+			int bucket = 0;
+			while (bucket < bounds.length
+					&& value > bounds[bucket] * scale) {
+				bucket++;
+			}
+			counts.incrementAndGet(bucket);
+			sum.addAndGet(value);
+		}
+
+		/**
+		 * @param sb
+		 *            output
+		 * @param name
+		 *            metric name
+		 * @param labels
+		 *            labels without braces, may be empty
+		 */
+		void write(StringBuilder sb, String name, String labels) {
+			String prefix = labels.isEmpty() ? "" : labels + ",";
+			long cumulative = 0;
+			for (int i = 0; i <= bounds.length; i++) {
+				cumulative += counts.get(i);
+				sb.append(name).append("_bucket{").append(prefix)
+						.append("le=\"")
+						.append(i < bounds.length ? Double.toString(bounds[i])
+								: "+Inf")
+						.append("\"} ").append(cumulative).append('\n');
+			}
+			String braces = labels.isEmpty() ? "" : "{" + labels + "}";
+			sb.append(name).append("_sum").append(braces).append(' ')
+					.append(sum.get() / scale).append('\n');
+			sb.append(name).append("_count").append(braces).append(' ')
+					.append(cumulative).append('\n');
+		}
+	}
+
+	private static Histogram getLatency(
+			ConcurrentSkipListMap<String, Histogram> map, String key) {
+		Histogram histogram = map.get(key);
+		if (histogram == null) {
+			map.putIfAbsent(key,
+					new Histogram(LATENCY_BUCKETS, NANOS_PER_SECOND));
+			histogram = map.get(key);
+		}
+		return histogram;
+	}
+
+	/**
+	 * @param cmd
+	 *            command name, e.g. evalCommand
+	 * @param nanos
+	 *            time to evaluate the command
+	 */
+	public void command(String cmd, long nanos) {
+		getLatency(commands, cmd).observe(nanos);
+	}
+
+	/**
+	 * @param endpoint
+	 *            endpoint name, e.g. json
+	 * @param result
+	 *            one of {@link #OK}, {@link #ERROR}, {@link #REJECTED},
+	 *            {@link #TIMEOUT}
+	 * @param nanos
+	 *            time from receiving the request to sending the response
+	 */
+	public void request(String endpoint, String result, long nanos) {
+		getLatency(requests, endpoint).observe(nanos);
+		String key = "endpoint=\"" + endpoint + "\",result=\"" + result
+				+ "\"";
+		AtomicLong count = results.get(key);
+		if (count == null) {
+			results.putIfAbsent(key, new AtomicLong());
+			count = results.get(key);
+		}
+		count.incrementAndGet();
+	}
+
+	/**
+	 * @param size
+	 *            number of construction elements after a request
+	 * @param hits
+	 *            CAS cache hits during the request
+	 * @param misses
+	 *            CAS cache misses during the request
+	 */
+	public void evaluated(int size, long hits, long misses) {
+		constructionSize.observe(size);
+		casCacheHits.addAndGet(hits);
+		casCacheMisses.addAndGet(misses);
+	}
+
+	/**
+	 * @param pool
+	 *            apps of the server
+	 * @return metrics in Prometheus text format
+	 */
+	public String write(ServerAppPool pool) {
+		StringBuilder sb = new StringBuilder();
+		header(sb, "geogebra_command_duration_seconds", "histogram",
+				"Time to evaluate a command.");
+		for (Map.Entry<String, Histogram> e : commands.entrySet()) {
+			e.getValue().write(sb, "geogebra_command_duration_seconds",
+					"cmd=\"" + e.getKey() + "\"");
+		}
+		header(sb, "geogebra_request_duration_seconds", "histogram",
+				"Time to answer a request, including waiting for an app.");
+		for (Map.Entry<String, Histogram> e : requests.entrySet()) {
+			e.getValue().write(sb, "geogebra_request_duration_seconds",
+					"endpoint=\"" + e.getKey() + "\"");
+		}
+		header(sb, "geogebra_requests_total", "counter",
+				"Requests by result.");
+		for (Map.Entry<String, AtomicLong> e : results.entrySet()) {
+			sb.append("geogebra_requests_total{").append(e.getKey())
+					.append("} ").append(e.getValue().get()).append('\n');
+		}
+		header(sb, "geogebra_construction_elements", "histogram",
+				"Construction elements after a request.");
+		constructionSize.write(sb, "geogebra_construction_elements", "");
+
+		long hits = casCacheHits.get();
+		long misses = casCacheMisses.get();
+		value(sb, "geogebra_cas_cache_hits_total", "counter",
+				"CAS inputs found in the cache.", hits);
+		value(sb, "geogebra_cas_cache_misses_total", "counter",
+				"CAS inputs evaluated by the CAS.", misses);
+		value(sb, "geogebra_cas_cache_hit_ratio", "gauge",
+				"Share of CAS inputs found in the cache.",
+				hits + misses == 0 ? 0 : hits / (double) (hits + misses));
+
+		value(sb, "geogebra_apps", "gauge", "Headless apps in the pool.",
+				pool.size());
+		value(sb, "geogebra_apps_busy", "gauge",
+				"Apps evaluating a request.", pool.getActiveCount());
+		value(sb, "geogebra_apps_recycled_total", "counter",
+				"Apps replaced after an error or timeout.",
+				pool.getRecycledCount());
+		value(sb, "geogebra_queue_length", "gauge",
+				"Requests waiting for an app.", pool.getQueueLength());
+
+		MemoryUsage heap = ManagementFactory.getMemoryMXBean()
+				.getHeapMemoryUsage();
+		value(sb, "jvm_memory_heap_used_bytes", "gauge", "Used heap.",
+				heap.getUsed());
+		value(sb, "jvm_memory_heap_committed_bytes", "gauge",
+				"Committed heap.", heap.getCommitted());
+		value(sb, "jvm_memory_heap_max_bytes", "gauge", "Maximum heap.",
+				heap.getMax());
+		header(sb, "jvm_gc_collection_seconds", "summary",
+				"Time spent in garbage collection.");
+		for (GarbageCollectorMXBean gc : ManagementFactory
+				.getGarbageCollectorMXBeans()) {
+			String labels = "{gc=\"" + gc.getName() + "\"}";
+			sb.append("jvm_gc_collection_seconds_count").append(labels)
+					.append(' ').append(gc.getCollectionCount()).append('\n');
+			sb.append("jvm_gc_collection_seconds_sum").append(labels)
+					.append(' ').append(gc.getCollectionTime() / 1000.0)
+					.append('\n');
+		}
+		return sb.toString();
+	}
+
+	private static void header(StringBuilder sb, String name, String type,
+			String help) {
+		sb.append("# HELP ").append(name).append(' ').append(help)
+				.append('\n');
+		sb.append("# TYPE ").append(name).append(' ').append(type)
+				.append('\n');
+	}
+
+	private static void value(StringBuilder sb, String name, String type,
+			String help, double value) {
+		header(sb, name, type, help);
+		sb.append(name).append(' ').append(value).append('\n');
+	}
+}
@@ -0,0 +1,14 @@
+package org.geogebra.desktop.util;
+
+import org.geogebra.common.util.debug.SilentProfiler;
+
+/**
+ * Desktop profiler, only provides precise time for element profiling.
+ */
+public class GeoGebraProfilerD extends SilentProfiler {
+
+	@Override
+	public double getMillisecondTime() {
+		return System.nanoTime() / 1000000d;
+	}
+}
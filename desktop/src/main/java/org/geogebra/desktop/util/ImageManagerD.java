@@ -38,6 +38,7 @@ import javax.swing.ImageIcon;
 
 import org.geogebra.common.jre.gui.MyImageJre;
 import org.geogebra.common.main.App;
+import org.geogebra.common.util.Charsets;
 import org.geogebra.common.util.FileExtensions;
 import org.geogebra.common.util.ImageManager;
 import org.geogebra.common.util.StringUtil;
@@ -58,6 +59,8 @@ public class ImageManagerD extends ImageManager {
 	private Hashtable<String, ImageIcon> iconTable = new Hashtable<>();
 	private Hashtable<String, MyImageD> internalImageTable = new Hashtable<>();
 	private static Hashtable<String, MyImageD> externalImageTable = new Hashtable<>();
+	/** encoded images from files of this app, decoded on first use */
+	private Hashtable<String, byte[]> externalImageData = new Hashtable<>();
 
 	private Toolkit toolKit;
 	private MediaTracker tracker;
@@ -81,6 +84,7 @@ public class ImageManagerD extends ImageManager {
 		iconTable.clear();
 		internalImageTable.clear();
 		externalImageTable.clear();
+		externalImageData.clear();
 	}
 
 	/**
@@ -162,21 +166,48 @@ public class ImageManagerD extends ImageManager {
 	public void addExternalImage(String fileName0, MyImageJre img) {
 		Log.error("adding " + fileName0);
 		if (fileName0 != null && img != null) {
-			String fileName = fileName0;
-			// GIF saved as PNG in .ggb files so need to change extension
-			FileExtensions ext = StringUtil.getFileExtension(fileName);
-			if (!ext.isAllowedImage()) {
-				fileName = StringUtil.changeFileExtension(fileName,
-						FileExtensions.PNG);
-			}
-
-			fileName = fileName.replace(".GIF", ".png");
+			String fileName = getStoredFileName(fileName0);
 			Log.debug("storing " + fileName + " " + img.isSVG());
+			externalImageData.remove(fileName);
 			externalImageTable.put(fileName, (MyImageD) img);
 		}
 	}
 
-	public static MyImageD getExternalImage(String fileName0) {
+	/**
+	 * Stores an encoded image; it's only decoded when it's first requested by
+	 * {@link #getExternalImage(String)}, so images that are never drawn (e.g.
+	 * the thumbnail) don't cost decoding time and memory for pixels.
+	 * 
+	 * @param fileName0
+	 *            file name
+	 * @param data
+	 *            encoded image
+	 */
+	public void addExternalImageData(String fileName0, byte[] data) {
+		if (fileName0 != null && data != null) {
+			String fileName = getStoredFileName(fileName0);
+			externalImageTable.remove(fileName);
+			externalImageData.put(fileName, data);
+		}
+	}
+
+	private static String getStoredFileName(String fileName0) {
+		String fileName = fileName0;
+		// GIF saved as PNG in .ggb files so need to change extension
+		FileExtensions ext = StringUtil.getFileExtension(fileName);
+		if (!ext.isAllowedImage()) {
+			fileName = StringUtil.changeFileExtension(fileName,
+					FileExtensions.PNG);
+		}
+		return fileName.replace(".GIF", ".png");
+	}
+
+	/**
+	 * @param fileName0
+	 *            file name
+	 * @return image added to any app, or encoded image added to this one
+	 */
+	public synchronized MyImageD getExternalImage(String fileName0) {
 		String fileName = fileName0;
 		// GIF saved as PNG in .ggb files so need to change extension
 		FileExtensions ext = StringUtil.getFileExtension(fileName);
@@ -188,9 +219,36 @@ public class ImageManagerD extends ImageManager {
 		// Log.debug("retrieving filename = " + fileName);
 		MyImageD ret = externalImageTable.get(fileName);
 		// Log.debug("(ret == null)" + (ret == null));
+		if (ret == null) {
+			byte[] data = externalImageData.remove(fileName);
+			if (data != null) {
+				ret = decodeImage(fileName, data);
+				if (ret != null) {
+					externalImageTable.put(fileName, ret);
+				}
+			}
+		}
 		return ret;
 	}
 
+	private static MyImageD decodeImage(String fileName, byte[] data) {
+		try {
+			if (StringUtil.getFileExtension(fileName) == FileExtensions.SVG) {
+				return new MyImageD(new String(data, Charsets.UTF_8),
+						fileName);
+			}
+			BufferedImage img = ImageIO.read(new ByteArrayInputStream(data));
+			if (img != null) {
+				return new MyImageD(img);
+			}
+			Log.debug("image could not be decoded: " + fileName);
+		} catch (IOException e) {
+			Log.debug("image could not be loaded: " + fileName);
+			e.printStackTrace();
+		}
+		return null;
+	}
+
 	/*
 	 * private class FileNamePair { File file; String name;
 	 * 
@@ -442,7 +500,7 @@ public class ImageManagerD extends ImageManager {
 			 * showError("LoadFileFailed"); return null; }
 			 */
 			// make sure this filename is not taken yet
-			MyImageD oldImg = ImageManagerD.getExternalImage(fileName);
+			MyImageD oldImg = getExternalImage(fileName);
 			if (oldImg != null) {
 				// image with this name exists already
 				if ((oldImg.getWidth() == img.getWidth())
@@ -464,7 +522,7 @@ public class ImageManagerD extends ImageManager {
 					String extension = pos < fileName.length()
 							? fileName.substring(pos) : "";
 					fileName = firstPart + n + extension;
-				} while (ImageManagerD.getExternalImage(fileName) != null);
+				} while (getExternalImage(fileName) != null);
 			}
 
 			addExternalImage(fileName, img);
@@ -0,0 +1,135 @@
+package org.geogebra.io;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import javax.imageio.ImageIO;
+
+import org.geogebra.commands.AlgebraTest;
+import org.geogebra.common.jre.io.MyXMLioJre;
+import org.geogebra.desktop.gui.MyImageD;
+import org.geogebra.desktop.headless.AppDNoGui;
+import org.geogebra.desktop.io.MyXMLioD;
+import org.geogebra.desktop.main.LocalizationD;
+import org.geogebra.desktop.util.ImageManagerD;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ZipFileLoadingTest {
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private static final String IMAGE = "0123abcd/picture.png";
+	private static final String THUMBNAIL = "geogebra_thumbnail.png";
+
+	private File file;
+
+	/** headless app that keeps the images of loaded files */
+	private static class ImageApp extends AppDNoGui {
+		final ImageManagerD images = new ImageManagerD();
+
+		ImageApp() {
+			super(new LocalizationD(3), false);
+			setLanguage(Locale.US);
+		}
+
+		@Override
+		public void addExternalImageData(String name, byte[] data) {
+			images.addExternalImageData(name, data);
+		}
+
+		@Override
+		public MyImageD getExternalImage(String fileName) {
+			return images.getExternalImage(fileName);
+		}
+	}
+
+	/**
+	 * Write a ggb file with the construction XML first and images after it.
+	 *
+	 * @throws IOException
+	 *             if the file can't be written
+	 */
+	@Before
+	public void writeFile() throws IOException {
+		new ImageManagerD().clearAllImages();
+		AppDNoGui app = AlgebraTest.createApp();
+		app.getGgbApi().evalCommand("A=(1,2)");
+		app.getGgbApi().evalCommand("f(x)=x^2+x(A)");
+		app.getGgbApi().evalCommand("l={1,2,3}");
+		app.getGgbApi().evalCommand("t=\"text\"");
+		String xml = app.getXML();
+		file = tmp.newFile("images.ggb");
+		ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(file));
+		zip.putNextEntry(new ZipEntry(MyXMLioD.XML_FILE));
+		zip.write(xml.getBytes("UTF-8"));
+		zip.putNextEntry(new ZipEntry(IMAGE));
+		zip.write(png(30, 20));
+		zip.putNextEntry(new ZipEntry(THUMBNAIL));
+		zip.write(png(60, 40));
+		zip.close();
+	}
+
+	private static byte[] png(int width, int height) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(new BufferedImage(width, height,
+				BufferedImage.TYPE_INT_ARGB), "png", out);
+		return out.toByteArray();
+	}
+
+	@Test
+	public void testSameConstructionAsStreamLoading() throws Exception {
+		ImageApp streamed = new ImageApp();
+		((MyXMLioD) streamed.getXMLio()).readZipFromFile(file, false);
+
+		ImageApp eager = new ImageApp();
+		InputStream in = new FileInputStream(file);
+		try {
+			((MyXMLioJre) eager.getXMLio()).readZipFromInputStream(in, false);
+		} finally {
+			in.close();
+		}
+		Assert.assertEquals(eager.getXML(), streamed.getXML());
+		Assert.assertEquals(4, streamed.getGgbApi().getObjectNumber());
+		Assert.assertEquals(2, streamed.getGgbApi().getValue("f(1)"), 0);
+	}
+
+	@Test
+	public void testImagesAreDecodedOnFirstUse() throws Exception {
+		ImageApp app = new ImageApp();
+		((MyXMLioD) app.getXMLio()).readZipFromFile(file, false);
+		// only kept encoded by the app that loaded the file
+		ImageManagerD other = new ImageManagerD();
+		Assert.assertNull(other.getExternalImage(IMAGE));
+		Assert.assertNull(other.getExternalImage(THUMBNAIL));
+
+		MyImageD image = app.getExternalImage(IMAGE);
+		Assert.assertNotNull(image);
+		Assert.assertEquals(30, image.getWidth());
+		Assert.assertEquals(20, image.getHeight());
+		Assert.assertSame(image, app.getExternalImage(IMAGE));
+		// decoded images are shared, the thumbnail is never decoded
+		Assert.assertSame(image, other.getExternalImage(IMAGE));
+		Assert.assertNull(other.getExternalImage(THUMBNAIL));
+	}
+
+	@Test
+	public void testBrokenImageFailsOnUse() throws Exception {
+		ImageApp app = new ImageApp();
+		app.addExternalImageData("broken.png", new byte[] { 1, 2, 3 });
+		((MyXMLioD) app.getXMLio()).readZipFromFile(file, false);
+		Assert.assertNull(app.getExternalImage("broken.png"));
+		Assert.assertNotNull(app.getExternalImage(IMAGE));
+	}
+}
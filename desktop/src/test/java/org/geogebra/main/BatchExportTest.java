@@ -0,0 +1,121 @@
+package org.geogebra.main;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.geogebra.commands.AlgebraTest;
+import org.geogebra.common.jre.io.MyXMLioJre;
+import org.geogebra.desktop.headless.AppDNoGui;
+import org.geogebra.desktop.main.GeoGebraBatchExport;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class BatchExportTest {
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private File input;
+	private File output;
+	private File report;
+
+	/**
+	 * Create ggb files with the same name in two directories.
+	 *
+	 * @throws IOException
+	 *             if the files can't be written
+	 */
+	@Before
+	public void setupFiles() throws IOException {
+		input = tmp.newFolder("input");
+		output = tmp.newFolder("output");
+		report = new File(tmp.getRoot(), "report.txt");
+		AppDNoGui app = AlgebraTest.createApp();
+		app.getGgbApi().evalCommand("A=(1,1)");
+		for (String dir : new String[] { "a", "b" }) {
+			File file = new File(input, dir + "/x.ggb");
+			Assert.assertTrue(file.getParentFile().mkdirs());
+			((MyXMLioJre) app.getXMLio()).writeGeoGebraFile(file);
+		}
+	}
+
+	private List<String> run(String... manifestLines) throws IOException {
+		File manifest = new File(input, "manifest.txt");
+		PrintWriter writer = new PrintWriter(manifest, "UTF-8");
+		for (String line : manifestLines) {
+			writer.println(line);
+		}
+		writer.close();
+		new GeoGebraBatchExport(output, "svg", 0, 96, 2, report)
+				.run(manifest);
+		return Files.readAllLines(report.toPath(), Charset.forName("UTF-8"));
+	}
+
+	private static String getStatus(List<String> lines, String input) {
+		for (String line : lines) {
+			String[] fields = line.split("\t");
+			if (fields[2].endsWith(new File(input).getPath())) {
+				return fields[0] + " " + fields[3];
+			}
+		}
+		return null;
+	}
+
+	@Test
+	public void testManifestKeepsRelativePaths() throws IOException {
+		List<String> lines = run("a/x.ggb",
+				new File(input, "b/x.ggb").getAbsolutePath());
+		Assert.assertEquals(2, lines.size());
+		Assert.assertTrue(new File(output, "a/x.svg").isFile());
+		Assert.assertTrue(new File(output, "b/x.svg").isFile());
+		Assert.assertTrue(
+				getStatus(lines, "a/x.ggb").startsWith("ok"));
+	}
+
+	@Test
+	public void testManifestRejectsPathsOutsideOfOutput() throws IOException {
+		List<String> lines = run("../y.ggb",
+				new File(tmp.getRoot(), "z.ggb").getAbsolutePath());
+		Assert.assertEquals(2, lines.size());
+		for (String line : lines) {
+			Assert.assertTrue(line, line.startsWith("failed"));
+			Assert.assertTrue(line, line.contains("is outside of"));
+		}
+		Assert.assertEquals(0, output.list().length);
+	}
+
+	@Test
+	public void testManifestRejectsDuplicateOutputs() throws IOException {
+		List<String> lines = run("a/x.ggb", "b/../a/x.ggb");
+		Assert.assertEquals(2, lines.size());
+		Assert.assertTrue(
+				getStatus(lines, "b/../a/x.ggb").contains("another file"));
+		Assert.assertTrue(new File(output, "a/x.svg").isFile());
+	}
+
+	@Test
+	public void testManyFilesWithFailures() throws IOException {
+		// more files than permits, every third one is missing
+		String[] files = new String[20];
+		for (int i = 0; i < files.length; i++) {
+			files[i] = i % 3 == 0 ? "missing" + i + ".ggb" : "copy" + i + ".ggb";
+			if (i % 3 != 0) {
+				Files.copy(new File(input, "a/x.ggb").toPath(),
+						new File(input, files[i]).toPath());
+			}
+		}
+		List<String> lines = run(files);
+		Assert.assertEquals(files.length, lines.size());
+		for (int i = 0; i < files.length; i++) {
+			String status = getStatus(lines, files[i]);
+			Assert.assertNotNull(files[i], status);
+			Assert.assertEquals(status, i % 3 == 0, status.startsWith("failed"));
+		}
+	}
+}
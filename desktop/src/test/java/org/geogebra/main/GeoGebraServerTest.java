@@ -0,0 +1,230 @@
+package org.geogebra.main;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+
+import org.geogebra.desktop.headless.AppDNoGui;
+import org.geogebra.desktop.main.GeoGebraServer;
+import org.geogebra.desktop.main.ServerAppPool;
+import org.geogebra.desktop.main.ServerMetrics;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class GeoGebraServerTest {
+	private static final String COMMANDS = "{\"commands\":["
+			+ "{\"cmd\":\"evalCommand\",\"args\":\"a=2\"},"
+			+ "{\"cmd\":\"getValue\",\"args\":\"a\"}";
+
+	private static GeoGebraServer server;
+	/** server with one app, one queued request and a short timeout */
+	private static GeoGebraServer smallServer;
+	private static ServerAppPool smallPool;
+
+	/**
+	 * Start the servers on free ports.
+	 */
+	@BeforeClass
+	public static void startServer() {
+		server = new GeoGebraServer(null, 1, 4, 10000, null, 0);
+		smallPool = new ServerAppPool(1, 1, null);
+		smallServer = new GeoGebraServer(null, smallPool, 1000, 0);
+	}
+
+	/**
+	 * Stop the servers.
+	 */
+	@AfterClass
+	public static void stopServer() {
+		server.stop();
+		smallServer.stop();
+	}
+
+	private static HttpURLConnection open(String path) throws IOException {
+		return open(server, path);
+	}
+
+	private static HttpURLConnection open(GeoGebraServer target, String path)
+			throws IOException {
+		return (HttpURLConnection) new URL(
+				"http://localhost:" + target.getPort() + path).openConnection();
+	}
+
+	private static String read(HttpURLConnection connection)
+			throws IOException {
+		Assert.assertEquals(200, connection.getResponseCode());
+		InputStream in = connection.getInputStream();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[4096];
+		int read;
+		while ((read = in.read(buffer)) >= 0) {
+			out.write(buffer, 0, read);
+		}
+		in.close();
+		return out.toString("UTF-8");
+	}
+
+	private static String post(String path, String body) throws IOException {
+		return read(send(server, path, body));
+	}
+
+	private static HttpURLConnection send(GeoGebraServer target, String path,
+			String body) throws IOException {
+		HttpURLConnection connection = open(target, path);
+		connection.setDoOutput(true);
+		OutputStream out = connection.getOutputStream();
+		out.write(body.getBytes("UTF-8"));
+		out.close();
+		return connection;
+	}
+
+	private static int getStatus(GeoGebraServer target, String path)
+			throws IOException {
+		return send(target, path, COMMANDS + "]}").getResponseCode();
+	}
+
+	/**
+	 * Occupies an app of the pool.
+	 *
+	 * @return task that returns once released
+	 */
+	private static Future<Void> block(ServerAppPool pool,
+			final CountDownLatch release) throws InterruptedException {
+		final CountDownLatch started = new CountDownLatch(1);
+		Future<Void> task = pool.submit(new ServerAppPool.Task<Void>() {
+			@Override
+			public Void run(AppDNoGui app) throws InterruptedException {
+				started.countDown();
+				release.await();
+				return null;
+			}
+		});
+		started.await();
+		return task;
+	}
+
+	@Test
+	public void testJSON() throws IOException {
+		Assert.assertEquals("[2]", post("/v0.1/json", COMMANDS + "]}"));
+	}
+
+	@Test
+	public void testBatch() throws IOException {
+		Assert.assertEquals("[2]", post("/v0.1/batch", COMMANDS + "]}"));
+	}
+
+	@Test
+	public void testBatchErrorIsLastElement() throws IOException {
+		String result = post("/v0.1/batch",
+				COMMANDS + ",{\"cmd\":\"getValue\"}]}");
+		Assert.assertTrue(result, result.startsWith("[2,{\"error\":"));
+		Assert.assertTrue(result, result.endsWith("}]"));
+	}
+
+	@Test
+	public void testBatchThroughput() throws IOException {
+		StringBuilder request = new StringBuilder(COMMANDS);
+		for (int i = 0; i < 10000; i++) {
+			request.append(",{\"cmd\":\"getValue\",\"args\":\"a\"}");
+		}
+		request.append("]}");
+		// warm up
+		post("/v0.1/batch", request.toString());
+		long start = System.nanoTime();
+		String result = post("/v0.1/batch", request.toString());
+		long millis = (System.nanoTime() - start) / 1000000;
+		Assert.assertEquals(10001, result.split(",").length);
+		Assert.assertTrue(result.endsWith(",2]"));
+		// generous limit, fails if every command costs as much as a request
+		Assert.assertTrue("10001 values took " + millis + "ms", millis < 5000);
+	}
+
+	@Test
+	public void testViewAndSeedChangesAreUndone() throws IOException {
+		String request = "{\"commands\":["
+				+ "{\"cmd\":\"evalCommand\",\"args\":\"c=x(Corner(1))\"},"
+				+ "{\"cmd\":\"evalCommand\","
+				+ "\"args\":\"r=RandomBetween(1,1000000)\"},"
+				+ "{\"cmd\":\"getValue\",\"args\":\"c\"},"
+				+ "{\"cmd\":\"getValue\",\"args\":\"r\"}]}";
+		String first = post("/v0.1/json", request);
+		post("/v0.1/json", "{\"commands\":["
+				+ "{\"cmd\":\"evalCommand\",\"args\":\"ZoomIn(-50,-50,50,50)\"},"
+				+ "{\"cmd\":\"evalCommand\",\"args\":\"ShowAxes(false)\"},"
+				+ "{\"cmd\":\"evalCommand\",\"args\":\"SetSeed(7)\"}]}");
+		Assert.assertEquals(first, post("/v0.1/json", request));
+		Assert.assertEquals(first, post("/v0.1/json", request));
+	}
+
+	@Test
+	public void testMetrics() throws IOException {
+		post("/v0.1/json", COMMANDS + "]}");
+		HttpURLConnection connection = open("/metrics");
+		String metrics = read(connection);
+		Assert.assertEquals(ServerMetrics.CONTENT_TYPE,
+				connection.getHeaderField("Content-type"));
+		Assert.assertTrue(metrics, metrics.contains(
+				"geogebra_requests_total{endpoint=\"json\",result=\"ok\"}"));
+		Assert.assertTrue(metrics, metrics.contains(
+				"geogebra_command_duration_seconds_count{cmd=\"getValue\"}"));
+	}
+
+	@Test
+	public void testFullQueueIsRejected() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		Future<Void> running = block(smallPool, release);
+		// fills the queue
+		Future<Void> queued = smallPool.submit(new ServerAppPool.Task<Void>() {
+			@Override
+			public Void run(AppDNoGui app) {
+				return null;
+			}
+		});
+		try {
+			Assert.assertEquals(429, getStatus(smallServer, "/v0.1/json"));
+			Assert.assertEquals(429, getStatus(smallServer, "/v0.1/batch"));
+		} finally {
+			release.countDown();
+		}
+		running.get();
+		queued.get();
+		Assert.assertEquals(200, getStatus(smallServer, "/v0.1/json"));
+	}
+
+	@Test
+	public void testTimeout() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		Future<Void> running = block(smallPool, release);
+		try {
+			// waits for the blocked app longer than the timeout
+			Assert.assertEquals(503, getStatus(smallServer, "/v0.1/json"));
+			Assert.assertEquals(503, getStatus(smallServer, "/v0.1/batch"));
+		} finally {
+			release.countDown();
+		}
+		running.get();
+		Assert.assertEquals(200, getStatus(smallServer, "/v0.1/json"));
+	}
+
+	@Test
+	public void testShutdownIsUnavailable() throws IOException {
+		ServerAppPool pool = new ServerAppPool(1, 1, null);
+		GeoGebraServer stopped = new GeoGebraServer(null, pool, 1000, 0);
+		try {
+			Assert.assertEquals(200, getStatus(stopped, "/v0.1/json"));
+			pool.shutdown();
+			Assert.assertEquals(503, getStatus(stopped, "/v0.1/json"));
+			Assert.assertEquals(503, getStatus(stopped, "/v0.1/batch"));
+			Assert.assertEquals(503, getStatus(stopped, "/health"));
+		} finally {
+			stopped.stop();
+		}
+	}
+}
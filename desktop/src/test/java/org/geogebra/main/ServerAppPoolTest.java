@@ -0,0 +1,129 @@
+package org.geogebra.main;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.geogebra.desktop.headless.AppDNoGui;
+import org.geogebra.desktop.main.ServerAppPool;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ServerAppPoolTest {
+	private static ServerAppPool pool;
+
+	/**
+	 * Create the pool.
+	 */
+	@BeforeClass
+	public static void setupPool() {
+		pool = new ServerAppPool(1, 4, null);
+	}
+
+	/**
+	 * Stop the pool.
+	 */
+	@AfterClass
+	public static void shutdownPool() {
+		pool.shutdown();
+	}
+
+	private static AppDNoGui getApp() throws Exception {
+		return pool.submit(new ServerAppPool.Task<AppDNoGui>() {
+			@Override
+			public AppDNoGui run(AppDNoGui app) {
+				return app;
+			}
+		}).get();
+	}
+
+	private static void fail(final Exception e) throws InterruptedException {
+		try {
+			pool.submit(new ServerAppPool.Task<Void>() {
+				@Override
+				public Void run(AppDNoGui app) throws Exception {
+					throw e;
+				}
+			}).get();
+			Assert.fail("Task should fail");
+		} catch (ExecutionException expected) {
+			Assert.assertSame(e, expected.getCause());
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testMissingBaseFailsAtStart() {
+		new ServerAppPool(1, 1, new File("missing.ggb"));
+	}
+
+	@Test
+	public void testCheckedExceptionKeepsApp() throws Exception {
+		AppDNoGui app = getApp();
+		int recycled = pool.getRecycledCount();
+		fail(new IOException("request failed"));
+		Assert.assertSame(app, getApp());
+		Assert.assertEquals(recycled, pool.getRecycledCount());
+	}
+
+	@Test
+	public void testUncheckedExceptionReplacesApp() throws Exception {
+		AppDNoGui app = getApp();
+		int recycled = pool.getRecycledCount();
+		fail(new IllegalStateException("app broken"));
+		AppDNoGui replaced = getApp();
+		Assert.assertNotNull(replaced);
+		Assert.assertNotSame(app, replaced);
+		Assert.assertEquals(recycled + 1, pool.getRecycledCount());
+		Assert.assertTrue(replaced.getGgbApi().evalCommand("A=(1,2)"));
+	}
+
+	@Test
+	public void testCancelledTaskReplacesApp() throws Exception {
+		AppDNoGui app = getApp();
+		int recycled = pool.getRecycledCount();
+		final CountDownLatch started = new CountDownLatch(1);
+		// never released, like an evaluation that exceeds the timeout
+		Future<Void> blocked = pool.submit(new ServerAppPool.Task<Void>() {
+			@Override
+			public Void run(AppDNoGui blockedApp) throws InterruptedException {
+				started.countDown();
+				new CountDownLatch(1).await();
+				return null;
+			}
+		});
+		started.await();
+		pool.cancel(blocked);
+		AppDNoGui replaced = getApp();
+		Assert.assertNotSame(app, replaced);
+		Assert.assertEquals(recycled + 1, pool.getRecycledCount());
+		Assert.assertTrue(replaced.getGgbApi().evalCommand("A=(1,2)"));
+	}
+
+	@Test
+	public void testCancelledQueuedTaskFreesQueue() throws Exception {
+		final CountDownLatch release = new CountDownLatch(1);
+		Future<Void> running = pool.submit(new ServerAppPool.Task<Void>() {
+			@Override
+			public Void run(AppDNoGui app) throws InterruptedException {
+				release.await();
+				return null;
+			}
+		});
+		int capacity = pool.getRemainingCapacity();
+		Future<AppDNoGui> queued = pool
+				.submit(new ServerAppPool.Task<AppDNoGui>() {
+					@Override
+					public AppDNoGui run(AppDNoGui app) {
+						return app;
+					}
+				});
+		pool.cancel(queued);
+		Assert.assertEquals(capacity, pool.getRemainingCapacity());
+		release.countDown();
+		running.get();
+	}
+}
@@ -0,0 +1,103 @@
+package org.geogebra.main;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.geogebra.desktop.main.ServerAppPool;
+import org.geogebra.desktop.main.ServerMetrics;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ServerMetricsTest {
+	/** comment or sample line of the Prometheus text format */
+	private static final Pattern LINE = Pattern.compile(
+			"# (HELP|TYPE) \\w+ .+|\\w+(\\{\\w+=\"[^\"]*\"(,\\w+=\"[^\"]*\")*\\})?"
+					+ " -?[0-9.E+-]+");
+
+	private static ServerAppPool pool;
+
+	/**
+	 * Create the pool.
+	 */
+	@BeforeClass
+	public static void setupPool() {
+		pool = new ServerAppPool(1, 1, null);
+	}
+
+	/**
+	 * Stop the pool.
+	 */
+	@AfterClass
+	public static void shutdownPool() {
+		pool.shutdown();
+	}
+
+	private static double getValue(String metrics, String sample) {
+		Matcher m = Pattern
+				.compile("^" + Pattern.quote(sample) + " (\\S+)$",
+						Pattern.MULTILINE)
+				.matcher(metrics);
+		Assert.assertTrue(sample, m.find());
+		return Double.parseDouble(m.group(1));
+	}
+
+	@Test
+	public void testTextFormat() {
+		ServerMetrics metrics = new ServerMetrics();
+		metrics.command("evalCommand", 2000000);
+		metrics.request("json", ServerMetrics.OK, 3000000);
+		metrics.evaluated(5, 1, 2);
+		String text = metrics.write(pool);
+		Assert.assertTrue(text.endsWith("\n"));
+		for (String line : text.split("\n")) {
+			Assert.assertTrue(line, LINE.matcher(line).matches());
+		}
+		Assert.assertTrue(text.contains(
+				"# TYPE geogebra_command_duration_seconds histogram\n"));
+		Assert.assertTrue(
+				text.contains("# TYPE geogebra_requests_total counter\n"));
+	}
+
+	@Test
+	public void testCountersIncrement() {
+		ServerMetrics metrics = new ServerMetrics();
+		metrics.request("json", ServerMetrics.OK, 3000000);
+		metrics.request("json", ServerMetrics.OK, 20000000);
+		metrics.request("json", ServerMetrics.TIMEOUT, 20000000);
+		metrics.evaluated(5, 1, 2);
+		metrics.evaluated(50, 3, 0);
+		String text = metrics.write(pool);
+		Assert.assertEquals(2, getValue(text,
+				"geogebra_requests_total{endpoint=\"json\",result=\"ok\"}"),
+				0);
+		Assert.assertEquals(1, getValue(text,
+				"geogebra_requests_total{endpoint=\"json\",result=\"timeout\"}"),
+				0);
+		Assert.assertEquals(3, getValue(text,
+				"geogebra_request_duration_seconds_count{endpoint=\"json\"}"),
+				0);
+		Assert.assertEquals(1, getValue(text,
+				"geogebra_request_duration_seconds_bucket{endpoint=\"json\",le=\"0.005\"}"),
+				0);
+		Assert.assertEquals(3, getValue(text,
+				"geogebra_request_duration_seconds_bucket{endpoint=\"json\",le=\"+Inf\"}"),
+				0);
+		Assert.assertEquals(0.043, getValue(text,
+				"geogebra_request_duration_seconds_sum{endpoint=\"json\"}"),
+				1E-9);
+		Assert.assertEquals(4,
+				getValue(text, "geogebra_cas_cache_hits_total"), 0);
+		Assert.assertEquals(2,
+				getValue(text, "geogebra_cas_cache_misses_total"), 0);
+		Assert.assertEquals(2,
+				getValue(text, "geogebra_construction_elements_count"), 0);
+		Assert.assertEquals(1, getValue(text, "geogebra_apps"), 0);
+
+		metrics.request("json", ServerMetrics.OK, 3000000);
+		Assert.assertEquals(3, getValue(metrics.write(pool),
+				"geogebra_requests_total{endpoint=\"json\",result=\"ok\"}"),
+				0);
+	}
+}
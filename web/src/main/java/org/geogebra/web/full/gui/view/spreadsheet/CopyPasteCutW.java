@@ -164,6 +164,16 @@ public class CopyPasteCutW extends CopyPasteCut {
 		return paste(column1, row1, column2, row2, contents);
 	}
 
+	@Override
+	protected String getClipboardText() {
+		return getClipboardContents(new Runnable() {
+			@Override
+			public void run() {
+				getTable().editCellAt(sourceColumn1, sourceRow1); // reset focus
+			}
+		});
+	}
+
 	/**
 	 * Pastes data from given Transferable into the given spreadsheet cells.
 	 * 
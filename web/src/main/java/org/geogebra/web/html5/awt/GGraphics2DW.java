@@ -1010,6 +1010,11 @@ public class GGraphics2DW implements GGraphics2DWI {
 		context.restoreTransform();
 	}
 
+	@Override
+	public void dispose() {
+		// canvas contexts are released with the canvas
+	}
+
 	/**
 	 * Start debugging
 	 */
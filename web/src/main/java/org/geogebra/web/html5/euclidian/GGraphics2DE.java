@@ -153,6 +153,11 @@ public class GGraphics2DE implements GGraphics2DWI {
 		// not needed
 	}
 
+	@Override
+	public void dispose() {
+		// not needed
+	}
+
 	@Override
 	public void drawRect(int x, int y, int width, int height) {
 		// not needed
@@ -2,7 +2,7 @@ package org.geogebra.web.html5.kernel;
 
 import org.geogebra.common.kernel.AppState;
 import org.geogebra.common.kernel.Construction;
-import org.geogebra.common.kernel.StringAppState;
+import org.geogebra.common.kernel.DeltaAppState;
 import org.geogebra.common.kernel.UndoCommand;
 import org.geogebra.common.kernel.UndoManager;
 import org.geogebra.common.main.App;
@@ -23,6 +23,7 @@ public class UndoManagerW extends UndoManager {
 	 * can be null (eg IE9 running locally)
 	 */
 	Storage storage;
+	private DeltaAppState lastState;
 
 	/**
 	 * @param cons
@@ -72,7 +73,8 @@ public class UndoManagerW extends UndoManager {
 			if (storage != null) {
 				appStateToAdd = new StorageAppState(storage, undoXMLString);
 			} else {
-				appStateToAdd = new StringAppState(undoXMLString);
+				lastState = new DeltaAppState(undoXMLString, lastState);
+				appStateToAdd = lastState;
 			}
 			UndoCommand command = new UndoCommand(appStateToAdd, ((AppW) app).getSlideID());
 			maybeStoreUndoCommand(command);
@@ -109,7 +111,9 @@ public class UndoManagerW extends UndoManager {
 
 			// load undo info
 			app.getScriptManager().disableListeners();
-			processXML(tempXML, false);
+			if (!loadDelta(info)) {
+				processXML(tempXML, false);
+			}
 			app.getScriptManager().enableListeners();
 			// If there are Exercises we also have to update the Exercises
 			if (app.getKernel().hasExercise()) {
@@ -44,8 +44,8 @@ public class DrawEquationW extends DrawEquation {
 
 		String eqstring = latexString0;
 
-		TeXIcon icon = createIcon(eqstring, convertColor(fgColor), font,
-				font.getLaTeXStyle(serif), null, null, app1);
+		TeXIcon icon = createIcon(eqstring, font, font.getLaTeXStyle(serif),
+				null, null, app1);
 
 		Graphics2DW g3 = new Graphics2DW(((GGraphics2DW) g2).getContext());
 		g3.setDrawingFinishedCallback(new DrawingFinishedCallback() {
@@ -167,8 +167,7 @@ public class DrawEquationW extends DrawEquation {
 		app.getDrawEquation().checkFirstCall(app);
 		GFont font = AwtFactory.getPrototype().newFont("geogebra", GFont.PLAIN,
 				fontSize - 3);
-		TeXIcon icon = app.getDrawEquation().createIcon(text0,
-				app.getDrawEquation().convertColor(fgColor), font,
+		TeXIcon icon = app.getDrawEquation().createIcon(text0, font,
 				font.getLaTeXStyle(serif), null, null, app);
 		Graphics2DInterface g3 = new Graphics2DW(ctx);
 
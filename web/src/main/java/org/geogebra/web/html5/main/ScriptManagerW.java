@@ -447,6 +447,14 @@ public class ScriptManagerW extends ScriptManager {
 			return ggbAPI.@org.geogebra.web.html5.main.GgbAPIW::getFrameRate()();
 		};
 
+		api.setElementProfiling = function(sampleInterval) {
+			ggbAPI.@org.geogebra.web.html5.main.GgbAPIW::setElementProfiling(I)(sampleInterval);
+		};
+
+		api.getElementProfile = function(n) {
+			return ggbAPI.@org.geogebra.web.html5.main.GgbAPIW::getElementProfile(I)(n || 10);
+		};
+
 		api.renameObject = function(oldName, newName, force) {
 			return ggbAPI.@org.geogebra.web.html5.main.GgbAPIW::renameObject(Ljava/lang/String;Ljava/lang/String;Z)(oldName + "",newName + "", !!force);
 		};
@@ -91,6 +91,11 @@ public class GeoGebraProfilerW extends GeoGebraProfiler {
 		}
 	}-*/;
 
+	@Override
+	public double getMillisecondTime() {
+		return getMillisecondTimeNative();
+	}
+
 	private static void showError() {
 		Log.debug("console methods for profiling not supported");
 	}